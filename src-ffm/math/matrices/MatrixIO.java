@@ -0,0 +1,407 @@
+package math.matrices;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A static library for reading and writing matrices and vectors in a compact binary format.  A file is a 64 byte
+ * header followed by the raw values:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic, the bytes "JMAT"
+ *      4     4  version, 1
+ *      8     4  value type, 1 for 64-bit doubles
+ *     12     4  layout, 0 for row after row and 1 for column after column
+ *     16     4  number of rows
+ *     20     4  number of columns
+ *     24     4  CRC32C checksum of the values
+ *     28    36  reserved, zero
+ *     64     *  the values as little-endian doubles
+ * </pre>
+ * Every integer of the header is little-endian.  Matrices are always written row after row; both layouts are read.
+ * <p/>
+ * Reading and writing stream the values through a small direct buffer, so no intermediate copy of a matrix is made.
+ * A row-major file can also be {@link #map(Path) mapped} as a read-only matrix without reading it at all.
+ * <p/>
+ * Note: requires the Foreign Function &amp; Memory API, final in Java 22 and a preview API of Java 21 ({@code
+ * --enable-preview}), and so is built from the separate {@code src-ffm} source root.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class MatrixIO {
+
+   /**
+    * The first four bytes of every file, {@code "JMAT"}.
+    */
+   private static final int MAGIC = 0x54414D4A;
+
+   /**
+    * The version of the format.
+    */
+   private static final int VERSION = 1;
+
+   /**
+    * The value type of 64-bit doubles.
+    */
+   private static final int FLOAT64 = 1;
+
+   /**
+    * The layout of values stored row after row.
+    */
+   private static final int ROW_MAJOR = 0;
+
+   /**
+    * The layout of values stored column after column.
+    */
+   private static final int COLUMN_MAJOR = 1;
+
+   /**
+    * The number of bytes of the header.
+    */
+   static final int HEADER = 64;
+
+   /**
+    * The number of bytes of the buffer values are streamed through.
+    */
+   private static final int BUFFER = 1 << 16;
+
+   /**
+    * Hidden constructor of the static library.
+    */
+   private MatrixIO() {
+   }
+
+   /**
+    * Writes the specified matrix to the specified file, replacing any existing file.
+    *
+    * @param a the matrix to write.
+    * @param file the file to write to.
+    * @throws IOException if the file cannot be written.
+    */
+   public static void write(IMatrix a, Path file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                  StandardOpenOption.TRUNCATE_EXISTING)) {
+         write(a, channel);
+      }
+   }
+
+   /**
+    * Writes the specified matrix to the specified channel at its current position.  The values are streamed through a
+    * small buffer and the header, which holds their checksum, is written last in its place before them.
+    *
+    * @param a the matrix to write.
+    * @param channel the channel to write to.
+    * @throws IOException if the channel cannot be written.
+    */
+   public static void write(IMatrix a, FileChannel channel) throws IOException {
+      long start = channel.position();
+      writeFully(channel, header(a.rows(), a.columns(), 0));
+      CRC32C crc = new CRC32C();
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+      DoubleBuffer values = buffer.asDoubleBuffer();
+      int columns = a.columns();
+      for (int i = 0; i < a.rows(); i++) {
+         double[] row;
+         int offset;
+         if (a instanceof DenseMatrix && ((DenseMatrix) a).isRowMajor()) {
+            DenseMatrix d = (DenseMatrix) a;
+            row = d.data();
+            offset = d.offset() + i * d.stride();
+         } else {
+            row = a.getRow(i);
+            offset = 0;
+         }
+         for (int j = 0; j < columns; ) {
+            int n = Math.min(values.remaining(), columns - j);
+            values.put(row, offset + j, n);
+            j += n;
+            if (!values.hasRemaining()) {
+               flush(channel, buffer, values.position(), crc);
+               values.clear();
+            }
+         }
+      }
+      flush(channel, buffer, values.position(), crc);
+      long end = channel.position();
+      ByteBuffer header = header(a.rows(), a.columns(), (int) crc.getValue());
+      while (header.hasRemaining()) {
+         channel.write(header, start + header.position());
+      }
+      channel.position(end);
+   }
+
+   /**
+    * Writes the specified matrix into the specified buffer at its current position and advances the position past it.
+    *
+    * @param a the matrix to write.
+    * @param dst the buffer to write into, with at least {@link #size(IMatrix)} bytes remaining.
+    */
+   public static void write(IMatrix a, ByteBuffer dst) {
+      ByteBuffer out = dst.slice().order(ByteOrder.LITTLE_ENDIAN);
+      out.position(HEADER);
+      DoubleBuffer values = out.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+      for (int i = 0; i < a.rows(); i++) {
+         if (a instanceof DenseMatrix && ((DenseMatrix) a).isRowMajor()) {
+            DenseMatrix d = (DenseMatrix) a;
+            values.put(d.data(), d.offset() + i * d.stride(), a.columns());
+         } else {
+            values.put(a.getRow(i));
+         }
+      }
+      int length = values.position() * Double.BYTES;
+      CRC32C crc = new CRC32C();
+      crc.update(out.slice(HEADER, length));
+      out.put(0, header(a.rows(), a.columns(), (int) crc.getValue()), 0, HEADER);
+      dst.position(dst.position() + HEADER + length);
+   }
+
+   /**
+    * Returns the number of bytes the specified matrix takes when written.
+    *
+    * @param a the matrix.
+    * @return the size of the written matrix in bytes.
+    */
+   public static long size(IMatrix a) {
+      return HEADER + (long) a.rows() * a.columns() * Double.BYTES;
+   }
+
+   /**
+    * Reads the matrix stored in the specified file.
+    *
+    * @param file the file to read from.
+    * @return the matrix read.
+    * @throws IOException if the file cannot be read, is not a matrix file or is corrupt.
+    */
+   public static Matrix read(Path file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+         return read(channel);
+      }
+   }
+
+   /**
+    * Reads a matrix from the specified channel at its current position.  The values are streamed through a small
+    * buffer directly into the new matrix and checked against the checksum of the header.
+    *
+    * @param channel the channel to read from.
+    * @return the matrix read.
+    * @throws IOException if the channel cannot be read, does not hold a matrix or the matrix is corrupt.
+    */
+   public static Matrix read(FileChannel channel) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(channel, header);
+      int[] fields = parse(header.flip());
+      double[] data = allocate(fields);
+
+      CRC32C crc = new CRC32C();
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+      for (int k = 0; k < data.length; ) {
+         buffer.clear().limit((int) Math.min(BUFFER, (long) (data.length - k) * Double.BYTES));
+         readFully(channel, buffer);
+         buffer.flip();
+         crc.update(buffer.duplicate());
+         int n = buffer.remaining() / Double.BYTES;
+         buffer.asDoubleBuffer().get(data, k, n);
+         k += n;
+      }
+      return toMatrix(fields, data, (int) crc.getValue());
+   }
+
+   /**
+    * Reads a matrix from the specified buffer at its current position and advances the position past it.
+    *
+    * @param src the buffer to read from.
+    * @return the matrix read.
+    * @throws IOException if the buffer does not hold a matrix or the matrix is corrupt.
+    */
+   public static Matrix read(ByteBuffer src) throws IOException {
+      ByteBuffer in = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+      if (in.remaining() < HEADER) {
+         throw new IOException("Buffer too small for a matrix header: " + in.remaining() + " bytes");
+      }
+      int[] fields = parse(in.slice(0, HEADER).order(ByteOrder.LITTLE_ENDIAN));
+      double[] data = allocate(fields);
+      int length = data.length * Double.BYTES;
+      if (in.remaining() - HEADER < length) {
+         throw new IOException("Buffer too small for the values: " + (in.remaining() - HEADER) + " bytes");
+      }
+      ByteBuffer payload = in.slice(HEADER, length);
+      CRC32C crc = new CRC32C();
+      crc.update(payload.duplicate());
+      payload.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(data);
+      src.position(src.position() + HEADER + length);
+      return toMatrix(fields, data, (int) crc.getValue());
+   }
+
+   /**
+    * Reads the vector stored in the specified file.  The vector keeps the orientation it was written with.
+    *
+    * @param file the file to read from.
+    * @return the vector read.
+    * @throws IOException if the file cannot be read, does not hold a vector or is corrupt.
+    */
+   public static Vector readVector(Path file) throws IOException {
+      Matrix m = read(file);
+      if (m.rows() != 1 && m.columns() != 1) {
+         throw new IOException("Not a vector: (" + m.rows() + "x" + m.columns() + ")");
+      }
+      Vector v = new Vector(m.data());
+      return (m.columns() == 1 && m.rows() != 1 ? v.transpose() : v);
+   }
+
+   /**
+    * Maps the specified file as a read-only matrix without reading or checking its values.
+    *
+    * @param file the file to map.
+    * @return the read-only view of the file.
+    * @throws IOException if the file cannot be mapped or is not a matrix file.
+    * @see #map(Path, boolean)
+    */
+   public static IMatrix map(Path file) throws IOException {
+      return map(file, false);
+   }
+
+   /**
+    * Maps the specified file as a read-only matrix.  The values are not copied: they are paged in from the file as
+    * they are used, so opening even a very large file takes about as long as mapping it.  Checking the checksum reads
+    * the whole file once.  Closing the returned matrix unmaps the file.
+    * <p/>
+    * Files stored column after column, and any file on a big-endian platform, cannot be viewed in place and are read
+    * into a new matrix instead.
+    *
+    * @param file the file to map.
+    * @param verify if the checksum of the values should be checked.
+    * @return the read-only view of the file.
+    * @throws IOException if the file cannot be mapped, is not a matrix file or, if checked, is corrupt.
+    */
+   public static IMatrix map(Path file, boolean verify) throws IOException {
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+         ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+         readFully(channel, header);
+         int[] fields = parse(header.flip());
+         if (fields[0] != ROW_MAJOR || ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+            return read(channel.position(0));
+         }
+         int rows = fields[1];
+         int columns = fields[2];
+         long length = (long) rows * columns * Double.BYTES;
+         if (channel.size() < HEADER + length) {
+            throw new IOException("File too small for the values: " + channel.size() + " bytes");
+         }
+         if (verify) {
+            // Buffers of shared mappings cannot be checksummed, so the check goes through a confined mapping.
+            try (Arena check = Arena.ofConfined()) {
+               MemorySegment values = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, length, check);
+               CRC32C crc = new CRC32C();
+               for (long k = 0; k < length; k += BUFFER) {
+                  crc.update(values.asSlice(k, Math.min(BUFFER, length - k)).asByteBuffer());
+               }
+               if ((int) crc.getValue() != fields[3]) {
+                  throw new IOException("Checksum mismatch: the values are corrupt.");
+               }
+            }
+         }
+         Arena arena = Arena.ofShared();
+         MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, length, arena);
+         return new OffHeapMatrix(rows, columns, segment, arena, OffHeapMatrix.Allocation.SHARED);
+      }
+   }
+
+   /**
+    * Returns the header of a row-major matrix of doubles, ready to be written.
+    */
+   private static ByteBuffer header(int rows, int columns, int checksum) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(0, MAGIC);
+      header.putInt(4, VERSION);
+      header.putInt(8, FLOAT64);
+      header.putInt(12, ROW_MAJOR);
+      header.putInt(16, rows);
+      header.putInt(20, columns);
+      header.putInt(24, checksum);
+      return header;
+   }
+
+   /**
+    * Checks a header and returns its layout, rows, columns and checksum.
+    */
+   private static int[] parse(ByteBuffer header) throws IOException {
+      if (header.remaining() < HEADER || header.getInt(0) != MAGIC) {
+         throw new IOException("Not a matrix file: bad magic number.");
+      } else if (header.getInt(4) != VERSION) {
+         throw new IOException("Unsupported version: " + header.getInt(4));
+      } else if (header.getInt(8) != FLOAT64) {
+         throw new IOException("Unsupported value type: " + header.getInt(8));
+      }
+      int layout = header.getInt(12);
+      int rows = header.getInt(16);
+      int columns = header.getInt(20);
+      if (layout != ROW_MAJOR && layout != COLUMN_MAJOR) {
+         throw new IOException("Unsupported layout: " + layout);
+      } else if (rows < 0 || columns < 0) {
+         throw new IOException("Negative dimensions: (" + rows + "x" + columns + ")");
+      }
+      return new int[] {layout, rows, columns, header.getInt(24)};
+   }
+
+   /**
+    * Returns the array for the values of a parsed header.
+    */
+   private static double[] allocate(int[] fields) throws IOException {
+      long length = (long) fields[1] * fields[2];
+      if (length > Integer.MAX_VALUE - 8) {
+         throw new IOException("Matrix of " + length + " values is too large to read, map it instead.");
+      }
+      return new double[(int) length];
+   }
+
+   /**
+    * Returns the matrix of the values read for a parsed header after checking their checksum.
+    */
+   private static Matrix toMatrix(int[] fields, double[] data, int checksum) throws IOException {
+      if (checksum != fields[3]) {
+         throw new IOException("Checksum mismatch: the values are corrupt.");
+      }
+      if (fields[0] == COLUMN_MAJOR) {
+         return new Matrix(fields[2], fields[1], data).transpose();
+      }
+      return new Matrix(fields[1], fields[2], data);
+   }
+
+   /**
+    * Writes the bytes of a buffer to a channel and records them in a checksum.
+    */
+   private static void flush(FileChannel channel, ByteBuffer buffer, int count, CRC32C crc) throws IOException {
+      buffer.clear().limit(count * Double.BYTES);
+      crc.update(buffer.duplicate());
+      writeFully(channel, buffer);
+   }
+
+   /**
+    * Writes every remaining byte of a buffer to a channel.
+    */
+   private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+         channel.write(buffer);
+      }
+   }
+
+   /**
+    * Reads a channel until the buffer is full.
+    */
+   private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+         if (channel.read(buffer) < 0) {
+            throw new IOException("Unexpected end of file.");
+         }
+      }
+   }
+}
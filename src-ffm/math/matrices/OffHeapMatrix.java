@@ -0,0 +1,686 @@
+package math.matrices;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+/**
+ * The object representation of a dense mathematical matrix stored outside of the Java heap in a {@link MemorySegment}.
+ * The values are kept row after row and are indexed with 64-bit offsets, so a matrix may hold far more than {@code
+ * 2^31} values, and since the garbage collector never scans or moves them, pause times do not grow with the size of
+ * the matrix.  This is <em>not</em> a safe matrix. It does not perform any dimension checks before performing any
+ * actions.
+ * <p/>
+ * The memory of a matrix belongs to an {@link Arena} of the kind given by its {@link Allocation}.  A matrix with its
+ * own {@link Allocation#CONFINED confined} or {@link Allocation#SHARED shared} arena frees its memory only when it is
+ * {@link #close() closed}, so every such matrix, including every {@link #copy() copy}, must be closed by its owner; a
+ * confined arena may only be used by the thread that created the matrix while a shared arena may be used by any thread
+ * and lets the element-wise kernels run in {@link Parallel}.  The memory of an {@link Allocation#AUTOMATIC automatic}
+ * matrix is shared and is freed by the garbage collector once the matrix is unreachable, so it need not be closed.  A
+ * matrix may also wrap a segment owned by the caller, in which case the caller controls its lifetime.  Using a matrix
+ * after its memory has been freed throws an {@link IllegalStateException}.
+ * <p/>
+ * Matrix-multiplication copies square tiles of both matrices onto the heap and multiplies them with {@link Gemm}, and
+ * the element-wise operations copy blocks of rows onto the heap and run the {@link Simd} kernels on them.  The tiles
+ * are reused by each thread, so only a few are ever on the heap at once.
+ * <p/>
+ * Note: requires the Foreign Function &amp; Memory API, final in Java 22 and a preview API of Java 21 ({@code
+ * --enable-preview}), and so is built from the separate {@code src-ffm} source root.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class OffHeapMatrix implements IMatrix, LinearOperator, AutoCloseable {
+
+   /**
+    * The kinds of arena the memory of a matrix may be allocated from.
+    */
+   public enum Allocation {
+      /**
+       * An arena confined to the thread that created the matrix, freed when the matrix is closed.
+       */
+      CONFINED,
+      /**
+       * An arena shared by every thread, freed when the matrix is closed.
+       */
+      SHARED,
+      /**
+       * An arena shared by every thread, freed by the garbage collector once the memory is unreachable.
+       */
+      AUTOMATIC
+   }
+
+   /**
+    * The alignment in bytes of allocated memory, one cache line.
+    */
+   public static final long ALIGNMENT = 64;
+
+   /**
+    * The layout of one value.
+    */
+   static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE;
+
+   /**
+    * The number of rows and columns of a tile copied onto the heap by matrix-multiplication and transposition.
+    */
+   static final int TILE = 512;
+
+   /**
+    * The tiles of each thread, grown as needed.
+    */
+   private static final ThreadLocal<double[][]> TILES = ThreadLocal.withInitial(() -> new double[3][0]);
+
+   /**
+    * The number of rows that are in this matrix.
+    */
+   private int rows;
+
+   /**
+    * The number of columns that are in this matrix.
+    */
+   private int columns;
+
+   /**
+    * The memory of the matrix.
+    */
+   private MemorySegment segment;
+
+   /**
+    * The arena owned by the matrix that must be closed to free its memory, or {@code null} if the memory belongs to the
+    * caller or to the garbage collector.
+    */
+   private Arena arena;
+
+   /**
+    * The kind of arena new memory of the matrix is allocated from.
+    */
+   private Allocation allocation;
+
+   /**
+    * If the memory may be accessed by every thread.
+    */
+   private boolean shared;
+
+   /**
+    * Creates a new matrix of the specified size in its own shared arena and with all values equaling zero.  The matrix
+    * must be closed to free its memory.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    */
+   public OffHeapMatrix(int rows, int columns) {
+      this(rows, columns, Allocation.SHARED);
+   }
+
+   /**
+    * Creates a new matrix of the specified size in its own arena and with all values equaling zero.  The matrix must be
+    * closed to free its memory.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param shared if the arena is shared by every thread rather than confined to the current thread.
+    */
+   public OffHeapMatrix(int rows, int columns, boolean shared) {
+      this(rows, columns, (shared ? Allocation.SHARED : Allocation.CONFINED));
+   }
+
+   /**
+    * Creates a new matrix of the specified size in memory of the specified kind and with all values equaling zero.
+    * Unless the memory is {@link Allocation#AUTOMATIC automatic} the matrix must be closed to free it.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param allocation the kind of arena to allocate the memory from.
+    */
+   public OffHeapMatrix(int rows, int columns, Allocation allocation) {
+      this.allocation = allocation;
+      this.shared = (allocation != Allocation.CONFINED);
+      allocate(rows, columns);
+   }
+
+   /**
+    * Creates a new matrix over the specified segment, which must hold at least {@code rows * columns} values row after
+    * row.  Nothing is copied and the caller keeps control of the lifetime of the segment.  The segment is taken to be
+    * confined to the current thread, so the matrix is only ever used by it.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param segment the memory of the matrix.
+    */
+   public OffHeapMatrix(int rows, int columns, MemorySegment segment) {
+      this(rows, columns, segment, false);
+   }
+
+   /**
+    * Creates a new matrix over the specified segment, which must hold at least {@code rows * columns} values row after
+    * row.  Nothing is copied and the caller keeps control of the lifetime of the segment.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param segment the memory of the matrix.
+    * @param shared if the segment may be accessed by every thread rather than only by the current thread.
+    */
+   public OffHeapMatrix(int rows, int columns, MemorySegment segment, boolean shared) {
+      this(rows, columns, segment, null, (shared ? Allocation.SHARED : Allocation.CONFINED));
+   }
+
+   /**
+    * Creates a new matrix over the specified segment that takes ownership of the arena of the segment.  Nothing is
+    * copied and closing the matrix closes the arena.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param segment the memory of the matrix.
+    * @param arena the arena of the segment, or {@code null} if it belongs to the caller.
+    * @param allocation the kind of the arena of the segment.
+    */
+   OffHeapMatrix(int rows, int columns, MemorySegment segment, Arena arena, Allocation allocation) {
+      if (segment.byteSize() < (long) rows * columns * Double.BYTES) {
+         throw new MatrixDimensionException("Segment of " + segment.byteSize() + " bytes cannot hold a (" + rows + "x"
+                                                    + columns + ") matrix");
+      }
+      this.rows = rows;
+      this.columns = columns;
+      this.segment = segment;
+      this.arena = arena;
+      this.allocation = allocation;
+      this.shared = (allocation != Allocation.CONFINED);
+   }
+
+   /**
+    * Creates a new matrix in its own shared arena that is a copy of the specified matrix.  The matrix must be closed to
+    * free its memory.
+    *
+    * @param a the matrix to copy.
+    */
+   public OffHeapMatrix(IMatrix a) {
+      this(a, Allocation.SHARED);
+   }
+
+   /**
+    * Creates a new matrix in memory of the specified kind that is a copy of the specified matrix.  Unless the memory is
+    * {@link Allocation#AUTOMATIC automatic} the matrix must be closed to free it.
+    *
+    * @param a the matrix to copy.
+    * @param allocation the kind of arena to allocate the memory from.
+    */
+   public OffHeapMatrix(IMatrix a, Allocation allocation) {
+      this(a.rows(), a.columns(), allocation);
+      copyFrom(a);
+   }
+
+   /**
+    * Replaces the memory of the matrix with new zeroed memory of the specified size in a new arena of the kind of the
+    * matrix, freeing the memory of the old arena if the matrix owns it.
+    */
+   private void allocate(int rows, int columns) {
+      Arena next;
+      switch (allocation) {
+         case CONFINED:
+            next = Arena.ofConfined();
+            break;
+         case SHARED:
+            next = Arena.ofShared();
+            break;
+         default:
+            next = Arena.ofAuto();
+            break;
+      }
+      MemorySegment memory = next.allocate(Math.max(1L, (long) rows * columns) * Double.BYTES, ALIGNMENT);
+      if (arena != null) {
+         arena.close();
+      }
+      this.arena = (allocation == Allocation.AUTOMATIC ? null : next);
+      this.segment = memory;
+      this.rows = rows;
+      this.columns = columns;
+   }
+
+   /**
+    * Replaces the memory of the matrix with the memory of the specified matrix, which gives up its ownership.
+    */
+   private void adopt(OffHeapMatrix m) {
+      if (arena != null) {
+         arena.close();
+      }
+      this.rows = m.rows;
+      this.columns = m.columns;
+      this.segment = m.segment;
+      this.arena = m.arena;
+      this.allocation = m.allocation;
+      this.shared = m.shared;
+      m.arena = null;
+   }
+
+   /**
+    * Copies the values of a matrix of the same size into the memory of the matrix.
+    */
+   private void copyFrom(IMatrix a) {
+      if (a instanceof OffHeapMatrix) {
+         MemorySegment.copy(((OffHeapMatrix) a).segment, 0, segment, 0, (long) rows * columns * Double.BYTES);
+      } else {
+         double[] row = new double[columns];
+         for (int i = 0; i < rows; i++) {
+            MemorySegment.copy(a.getRow(i, row), 0, segment, DOUBLE, index(i, 0) * Double.BYTES, columns);
+         }
+      }
+   }
+
+   /**
+    * Returns a tile of the current thread that holds at least the specified number of values.
+    */
+   private static double[] tile(int which, int length) {
+      double[][] tiles = TILES.get();
+      if (tiles[which].length < length) {
+         tiles[which] = new double[length];
+      }
+      return tiles[which];
+   }
+
+   /**
+    * Returns the index of the value at the specified row and column.
+    */
+   private long index(int r, int c) {
+      return (long) r * columns + c;
+   }
+
+   /**
+    * Returns the memory of the matrix.  Modifying the memory will modify the matrix.
+    *
+    * @return the segment holding the values row after row.
+    */
+   public MemorySegment segment() {
+      return segment;
+   }
+
+   /**
+    * Returns if the memory of the matrix may be accessed by every thread.
+    *
+    * @return if the memory is shared.
+    */
+   public boolean isShared() {
+      return shared;
+   }
+
+   /**
+    * Returns the kind of arena new memory of the matrix is allocated from, by {@link #copy()} for example.  A matrix
+    * over memory of the caller allocates shared or confined memory, as the memory it wraps may be accessed.
+    *
+    * @return the kind of arena of the memory.
+    */
+   public Allocation allocation() {
+      return allocation;
+   }
+
+   /**
+    * Frees the memory of the matrix if the matrix owns it.  Memory wrapped from the caller is left alone, and automatic
+    * memory is left to the garbage collector.
+    */
+   @Override
+   public void close() {
+      if (arena != null) {
+         arena.close();
+         arena = null;
+      }
+   }
+
+   @Override
+   public int rows() {
+      return rows;
+   }
+
+   @Override
+   public int columns() {
+      return columns;
+   }
+
+   @Override
+   public double get(int r, int c) {
+      return segment.getAtIndex(DOUBLE, index(r, c));
+   }
+
+   @Override
+   public double[] getRow(int r) {
+      double[] v = new double[columns];
+      MemorySegment.copy(segment, DOUBLE, index(r, 0) * Double.BYTES, v, 0, columns);
+      return v;
+   }
+
+   @Override
+   public double[] getColumn(int c) {
+      double[] v = new double[rows];
+      for (int i = 0; i < rows; i++) {
+         v[i] = segment.getAtIndex(DOUBLE, index(i, c));
+      }
+      return v;
+   }
+
+   @Override
+   public double[] getRow(int r, double[] dst) {
+      DimensionChecking.catchLength(dst, columns);
+      MemorySegment.copy(segment, DOUBLE, index(r, 0) * Double.BYTES, dst, 0, columns);
+      return dst;
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified array.  The values are copied, into new memory if the size
+    * changes.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the new values for the matrix.
+    * @return the matrix with the values of the array.
+    */
+   @Override
+   public OffHeapMatrix set(double[][] a) {
+      int r = a.length;
+      int c = (r == 0 ? 0 : a[0].length);
+      if (r != rows || c != columns) {
+         allocate(r, c);
+      }
+      for (int i = 0; i < r; i++) {
+         MemorySegment.copy(a[i], 0, segment, DOUBLE, index(i, 0) * Double.BYTES, c);
+      }
+      return this;
+   }
+
+   @Override
+   public OffHeapMatrix set(int r, int c, double n) {
+      segment.setAtIndex(DOUBLE, index(r, c), n);
+      return this;
+   }
+
+   @Override
+   public OffHeapMatrix setRow(int r, double[] v) {
+      MemorySegment.copy(v, 0, segment, DOUBLE, index(r, 0) * Double.BYTES, columns);
+      return this;
+   }
+
+   @Override
+   public OffHeapMatrix setColumn(int c, double[] v) {
+      for (int i = 0; i < rows; i++) {
+         segment.setAtIndex(DOUBLE, index(i, c), v[i]);
+      }
+      return this;
+   }
+
+   @Override
+   public OffHeapMatrix set(int r, int c, double[][] a) {
+      for (int i = 0; i < a.length; i++) {
+         MemorySegment.copy(a[i], 0, segment, DOUBLE, index(r + i, c) * Double.BYTES, a[i].length);
+      }
+      return this;
+   }
+
+   /**
+    * Transposes the matrix into new memory, one pair of tiles at a time.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @return the transpose of the matrix.
+    */
+   @Override
+   public OffHeapMatrix transpose() {
+      OffHeapMatrix t = new OffHeapMatrix(columns, rows, allocation);
+      double[] tile = tile(0, TILE * TILE);
+      double[] flipped = tile(1, TILE * TILE);
+      for (int ib = 0; ib < rows; ib += TILE) {
+         int h = Math.min(TILE, rows - ib);
+         for (int jb = 0; jb < columns; jb += TILE) {
+            int w = Math.min(TILE, columns - jb);
+            copyTile(this, ib, jb, h, w, tile);
+            for (int i = 0; i < h; i++) {
+               for (int j = 0; j < w; j++) {
+                  flipped[j * h + i] = tile[i * w + j];
+               }
+            }
+            t.writeTile(jb, ib, w, h, flipped);
+         }
+      }
+      adopt(t);
+      return this;
+   }
+
+   @Override
+   public OffHeapMatrix inverse() {
+      return (OffHeapMatrix) IMatrix.super.inverse();
+   }
+
+   @Override
+   public OffHeapMatrix scale(double n) {
+      forRows((from, to) -> {
+         int block = blockRows();
+         double[] values = tile(0, block * columns);
+         for (int r = from; r < to; r += block) {
+            int h = Math.min(block, to - r);
+            long bytes = index(r, 0) * Double.BYTES;
+            MemorySegment.copy(segment, DOUBLE, bytes, values, 0, h * columns);
+            Simd.scale(values, 0, h * columns, n);
+            MemorySegment.copy(values, 0, segment, DOUBLE, bytes, h * columns);
+         }
+      });
+      return this;
+   }
+
+   @Override
+   public OffHeapMatrix add(IMatrix a) {
+      return combine(a, Simd::add);
+   }
+
+   @Override
+   public OffHeapMatrix subtract(IMatrix a) {
+      return combine(a, Simd::subtract);
+   }
+
+   @Override
+   public OffHeapMatrix dotMultiply(IMatrix a) {
+      return combine(a, Simd::multiply);
+   }
+
+   @Override
+   public OffHeapMatrix dotDivide(IMatrix a) {
+      return combine(a, Simd::divide);
+   }
+
+   /**
+    * An element-wise kernel of {@link Simd} that combines values of one array into another.
+    */
+   interface Kernel {
+
+      /**
+       * Replaces the values of the first array with the operation of them and the values of the second array.
+       *
+       * @param a the array to modify.
+       * @param aOffset the first index of the first array.
+       * @param b the other array.
+       * @param bOffset the first index of the other array.
+       * @param length the number of values.
+       */
+      void apply(double[] a, int aOffset, double[] b, int bOffset, int length);
+   }
+
+   /**
+    * Replaces every value of the matrix with the specified operation of it and the corresponding value of the
+    * specified matrix.  Blocks of rows of both matrices are copied into the tiles of the thread and combined there.
+    *
+    * @param a the other matrix.
+    * @param kernel the operation.
+    * @return the original matrix modified by the operation.
+    */
+   private OffHeapMatrix combine(IMatrix a, Kernel kernel) {
+      forRows((from, to) -> {
+         int block = blockRows();
+         double[] values = tile(0, block * columns);
+         double[] other = tile(1, block * columns);
+         for (int r = from; r < to; r += block) {
+            int h = Math.min(block, to - r);
+            long bytes = index(r, 0) * Double.BYTES;
+            MemorySegment.copy(segment, DOUBLE, bytes, values, 0, h * columns);
+            copyTile(a, r, 0, h, columns, other);
+            kernel.apply(values, 0, other, 0, h * columns);
+            MemorySegment.copy(values, 0, segment, DOUBLE, bytes, h * columns);
+         }
+      });
+      return this;
+   }
+
+   /**
+    * Returns the number of rows copied onto the heap at once by the element-wise operations, as many as fit in a tile
+    * but at least one.
+    */
+   private int blockRows() {
+      return Math.max(1, TILE * TILE / Math.max(1, columns));
+   }
+
+   /**
+    * Runs a range of rows, in {@link Parallel} only if the memory is shared.
+    *
+    * @param range the rows to run.
+    */
+   private void forRows(Parallel.Range range) {
+      if (shared) {
+         Parallel.forRows(rows, (long) rows * columns, range);
+      } else {
+         range.apply(0, rows);
+      }
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the original matrix.  This method modifies the original matrix by
+    * setting it equal to the resulting matrix.  The product is computed tile by tile with {@link Gemm}; every tile of
+    * the product is accumulated on the heap and then written to new memory.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   @Override
+   public OffHeapMatrix multiply(IMatrix a) {
+      int n = a.columns();
+      int k = columns;
+      OffHeapMatrix product = new OffHeapMatrix(rows, n, allocation);
+      double[] left = tile(0, TILE * TILE);
+      double[] right = tile(1, TILE * TILE);
+      double[] tile = tile(2, TILE * TILE);
+      for (int ib = 0; ib < rows; ib += TILE) {
+         int h = Math.min(TILE, rows - ib);
+         for (int jb = 0; jb < n; jb += TILE) {
+            int w = Math.min(TILE, n - jb);
+            for (int pb = 0; pb < k; pb += TILE) {
+               int d = Math.min(TILE, k - pb);
+               copyTile(this, ib, pb, h, d, left);
+               copyTile(a, pb, jb, d, w, right);
+               Gemm.multiply(h, w, d, 1.0, left, 0, d, 1, right, 0, w, 1, (pb == 0 ? 0.0 : 1.0), tile, 0, w);
+            }
+            if (k == 0) {
+               Arrays.fill(tile, 0, h * w, 0.0);
+            }
+            product.writeTile(ib, jb, h, w, tile);
+         }
+      }
+      adopt(product);
+      return this;
+   }
+
+   /**
+    * Applies the matrix to a vector, {@code y = A * x}, without modifying the matrix.  The rows run in {@link Parallel}
+    * only if the memory is shared.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param x the vector to apply the matrix to.
+    * @param y the vector to write the result into.
+    * @return the result vector.
+    */
+   @Override
+   public IVector apply(IVector x, IVector y) {
+      double[] xd = new double[columns];
+      for (int j = 0; j < columns; j++) {
+         xd[j] = x.get(j);
+      }
+      double[] yd = new double[rows];
+      forRows((from, to) -> {
+         for (int i = from; i < to; i++) {
+            long k = index(i, 0);
+            double s0 = 0.0;
+            double s1 = 0.0;
+            int j = 0;
+            for (; j + 1 < columns; j += 2) {
+               s0 += segment.getAtIndex(DOUBLE, k + j) * xd[j];
+               s1 += segment.getAtIndex(DOUBLE, k + j + 1) * xd[j + 1];
+            }
+            if (j < columns) {
+               s0 += segment.getAtIndex(DOUBLE, k + j) * xd[j];
+            }
+            yd[i] = s0 + s1;
+         }
+      });
+      for (int i = 0; i < rows; i++) {
+         y.set(i, yd[i]);
+      }
+      return y;
+   }
+
+   /**
+    * Copies a tile of a matrix into a row-major array with the width of the tile as its stride.
+    *
+    * @param a the matrix to copy from.
+    * @param r the first row of the tile.
+    * @param c the first column of the tile.
+    * @param h the number of rows of the tile.
+    * @param w the number of columns of the tile.
+    * @param dst the array to copy into.
+    */
+   static void copyTile(IMatrix a, int r, int c, int h, int w, double[] dst) {
+      if (a instanceof OffHeapMatrix) {
+         OffHeapMatrix m = (OffHeapMatrix) a;
+         for (int i = 0; i < h; i++) {
+            MemorySegment.copy(m.segment, DOUBLE, m.index(r + i, c) * Double.BYTES, dst, i * w, w);
+         }
+      } else if (a instanceof DenseMatrix && ((DenseMatrix) a).isRowMajor()) {
+         DenseMatrix m = (DenseMatrix) a;
+         for (int i = 0; i < h; i++) {
+            System.arraycopy(m.data(), m.offset() + (r + i) * m.stride() + c, dst, i * w, w);
+         }
+      } else {
+         for (int i = 0; i < h; i++) {
+            for (int j = 0; j < w; j++) {
+               dst[i * w + j] = a.get(r + i, c + j);
+            }
+         }
+      }
+   }
+
+   /**
+    * Writes a row-major array with the width of the tile as its stride into a tile of the matrix.
+    *
+    * @param r the first row of the tile.
+    * @param c the first column of the tile.
+    * @param h the number of rows of the tile.
+    * @param w the number of columns of the tile.
+    * @param src the array to copy from.
+    */
+   private void writeTile(int r, int c, int h, int w, double[] src) {
+      for (int i = 0; i < h; i++) {
+         MemorySegment.copy(src, i * w, segment, DOUBLE, index(r + i, c) * Double.BYTES, w);
+      }
+   }
+
+   /**
+    * Returns a copy of the matrix in new memory of its own, of the same {@link #allocation() kind} of arena.  The copy
+    * owns its memory: unless it is {@link Allocation#AUTOMATIC automatic} the copy must be closed to free it, even if
+    * this matrix wraps memory of the caller.
+    *
+    * @return the copy of the matrix.
+    */
+   @Override
+   public OffHeapMatrix copy() {
+      OffHeapMatrix m = new OffHeapMatrix(rows, columns, allocation);
+      m.copyFrom(this);
+      return m;
+   }
+}
@@ -0,0 +1,639 @@
+package math.matrices;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The object representation of a dense mathematical matrix stored in a memory-mapped file, for matrices larger than
+ * the memory of the machine.  This is <em>not</em> a safe matrix. It does not perform any dimension checks before
+ * performing any actions.
+ * <p/>
+ * The file is a 64 byte header followed by the matrix cut into square tiles.  The tiles are stored row of tiles after
+ * row of tiles, every tile holds its values row after row as little-endian doubles, and the tiles on the last row and
+ * column are padded with zeros to the full tile size.  A whole tile is therefore one sequential run of the file.
+ * <p/>
+ * Matrix-multiplication and transposition are out-of-core: they read and write the file a tile at a time and never
+ * hold more than a bounded working set of tiles on the heap, leaving the operating system to page the rest of the
+ * file.  Operations that change the size of the matrix write the result to a new file that then replaces the file of
+ * the matrix.
+ * <p/>
+ * Note: requires the Foreign Function &amp; Memory API, final in Java 22 and a preview API of Java 21 ({@code
+ * --enable-preview}), and so is built from the separate {@code src-ffm} source root.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class TiledMatrix implements IMatrix, AutoCloseable {
+
+   /**
+    * The default number of rows and columns of a tile.
+    */
+   public static final int DEFAULT_TILE = 512;
+
+   /**
+    * The default number of bytes of tiles held on the heap by an out-of-core operation.
+    */
+   public static final long DEFAULT_WORKING_SET = 256L << 20;
+
+   /**
+    * The first four bytes of every file, {@code "MTIL"}.
+    */
+   private static final int MAGIC = 0x4C49544D;
+
+   /**
+    * The version of the file layout.
+    */
+   private static final int VERSION = 1;
+
+   /**
+    * The number of bytes of the header.
+    */
+   private static final long HEADER = 64;
+
+   /**
+    * The layout of one value in the file.
+    */
+   private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+   /**
+    * The layout of one header field in the file.
+    */
+   private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+   /**
+    * The file of the matrix.
+    */
+   private final Path file;
+
+   /**
+    * The number of rows that are in this matrix.
+    */
+   private int rows;
+
+   /**
+    * The number of columns that are in this matrix.
+    */
+   private int columns;
+
+   /**
+    * The number of rows and columns of a tile.
+    */
+   private int tile;
+
+   /**
+    * The number of tiles in a row of tiles.
+    */
+   private int tileColumns;
+
+   /**
+    * The open file.
+    */
+   private FileChannel channel;
+
+   /**
+    * The arena of the mapping.
+    */
+   private Arena arena;
+
+   /**
+    * The mapping of the whole file.
+    */
+   private MemorySegment segment;
+
+   /**
+    * Creates a new matrix of the specified size with the default tile size in the specified file, replacing any
+    * existing file.  All the values equal zero.
+    *
+    * @param file the file of the matrix.
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @throws IOException if the file cannot be created.
+    */
+   public TiledMatrix(Path file, int rows, int columns) throws IOException {
+      this(file, rows, columns, DEFAULT_TILE);
+   }
+
+   /**
+    * Creates a new matrix of the specified size and tile size in the specified file, replacing any existing file.  All
+    * the values equal zero.
+    *
+    * @param file the file of the matrix.
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param tile the number of rows and columns of a tile.
+    * @throws IOException if the file cannot be created.
+    */
+   public TiledMatrix(Path file, int rows, int columns, int tile) throws IOException {
+      if (tile < 1) {
+         throw new IllegalArgumentException("Tile size must be positive: " + tile);
+      }
+      this.file = file;
+      create(rows, columns, tile);
+   }
+
+   /**
+    * Opens the matrix stored in the specified file.
+    *
+    * @param file the file of the matrix.
+    * @throws IOException if the file cannot be read or is not a tiled matrix file.
+    */
+   public TiledMatrix(Path file) throws IOException {
+      this.file = file;
+      open();
+   }
+
+   /**
+    * Creates the file for a matrix of the specified size, replacing any existing file, and maps it.
+    */
+   private void create(int rows, int columns, int tile) throws IOException {
+      unmap();
+      this.rows = rows;
+      this.columns = columns;
+      this.tile = tile;
+      this.tileColumns = tiles(columns);
+      channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                 StandardOpenOption.READ, StandardOpenOption.WRITE);
+      map();
+      segment.set(INT, 0, MAGIC);
+      segment.set(INT, 4, VERSION);
+      segment.set(INT, 8, rows);
+      segment.set(INT, 12, columns);
+      segment.set(INT, 16, tile);
+   }
+
+   /**
+    * Opens the file of the matrix, reads its header and maps it.
+    */
+   private void open() throws IOException {
+      unmap();
+      channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try (Arena header = Arena.ofConfined()) {
+         MemorySegment h = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER, header);
+         if (h.get(INT, 0) != MAGIC || h.get(INT, 4) != VERSION) {
+            throw new IOException("Not a tiled matrix file: " + file);
+         }
+         rows = h.get(INT, 8);
+         columns = h.get(INT, 12);
+         tile = h.get(INT, 16);
+      }
+      tileColumns = tiles(columns);
+      map();
+   }
+
+   /**
+    * Maps the whole file, extending it to the size of the matrix.
+    */
+   private void map() throws IOException {
+      long size = HEADER + (long) tiles(rows) * tileColumns * tile * tile * Double.BYTES;
+      arena = Arena.ofShared();
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+   }
+
+   /**
+    * Unmaps and closes the file if it is open.
+    */
+   private void unmap() throws IOException {
+      if (arena != null) {
+         arena.close();
+         arena = null;
+         segment = null;
+      }
+      if (channel != null) {
+         channel.close();
+         channel = null;
+      }
+   }
+
+   /**
+    * Returns the number of tiles needed to cover the specified number of rows or columns.
+    */
+   private int tiles(int n) {
+      return (n + tile - 1) / tile;
+   }
+
+   /**
+    * Returns the index in the file, in values, of the first value of the specified tile.
+    */
+   private long tileIndex(int ti, int tj) {
+      return HEADER / Double.BYTES + ((long) ti * tileColumns + tj) * tile * tile;
+   }
+
+   /**
+    * Returns the index in the file, in values, of the value at the specified row and column.
+    */
+   private long index(int r, int c) {
+      return tileIndex(r / tile, c / tile) + (long) (r % tile) * tile + (c % tile);
+   }
+
+   /**
+    * Returns the file of the matrix.
+    *
+    * @return the path of the file.
+    */
+   public Path file() {
+      return file;
+   }
+
+   /**
+    * Returns the number of rows and columns of a tile.
+    *
+    * @return the tile size.
+    */
+   public int tile() {
+      return tile;
+   }
+
+   /**
+    * Writes every modified value of the matrix to the storage device.
+    */
+   public void force() {
+      segment.force();
+   }
+
+   /**
+    * Unmaps and closes the file of the matrix.  The file is kept.
+    *
+    * @throws IOException if the file cannot be closed.
+    */
+   @Override
+   public void close() throws IOException {
+      unmap();
+   }
+
+   @Override
+   public int rows() {
+      return rows;
+   }
+
+   @Override
+   public int columns() {
+      return columns;
+   }
+
+   @Override
+   public double get(int r, int c) {
+      return segment.getAtIndex(DOUBLE, index(r, c));
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified array.  If the size changes the file is recreated with the
+    * same tile size.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the new values for the matrix.
+    * @return the matrix with the values of the array.
+    */
+   @Override
+   public TiledMatrix set(double[][] a) {
+      int r = a.length;
+      int c = (r == 0 ? 0 : a[0].length);
+      if (r != rows || c != columns) {
+         try {
+            create(r, c, tile);
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+      }
+      for (int i = 0; i < r; i++) {
+         for (int jb = 0; jb < c; jb += tile) {
+            MemorySegment.copy(a[i], jb, segment, DOUBLE, index(i, jb) * Double.BYTES, Math.min(tile, c - jb));
+         }
+      }
+      return this;
+   }
+
+   @Override
+   public TiledMatrix set(int r, int c, double n) {
+      segment.setAtIndex(DOUBLE, index(r, c), n);
+      return this;
+   }
+
+   @Override
+   public TiledMatrix setRow(int r, double[] v) {
+      return (TiledMatrix) IMatrix.super.setRow(r, v);
+   }
+
+   @Override
+   public TiledMatrix setColumn(int c, double[] v) {
+      return (TiledMatrix) IMatrix.super.setColumn(c, v);
+   }
+
+   @Override
+   public TiledMatrix set(int r, int c, double[][] a) {
+      return (TiledMatrix) IMatrix.super.set(r, c, a);
+   }
+
+   /**
+    * Reads a whole tile, padding included, into a row-major array with the tile size as its stride.
+    *
+    * @param ti the row of the tile.
+    * @param tj the column of the tile.
+    * @param dst the array to read into.
+    */
+   private void readTile(int ti, int tj, double[] dst) {
+      MemorySegment.copy(segment, DOUBLE, tileIndex(ti, tj) * Double.BYTES, dst, 0, tile * tile);
+   }
+
+   /**
+    * Writes a whole tile, padding included, from a row-major array with the tile size as its stride.
+    *
+    * @param ti the row of the tile.
+    * @param tj the column of the tile.
+    * @param src the array to write from.
+    */
+   private void writeTile(int ti, int tj, double[] src) {
+      MemorySegment.copy(src, 0, segment, DOUBLE, tileIndex(ti, tj) * Double.BYTES, tile * tile);
+   }
+
+   /**
+    * Reads a tile of any matrix into a row-major array with the specified stride.  Tiles of a tiled matrix with the
+    * same tile size are read whole.
+    *
+    * @param a the matrix to read from.
+    * @param ti the row of the tile.
+    * @param tj the column of the tile.
+    * @param dst the array to read into, with the tile size as its stride.
+    */
+   private void readTile(IMatrix a, int ti, int tj, double[] dst) {
+      if (a instanceof TiledMatrix && ((TiledMatrix) a).tile == tile) {
+         ((TiledMatrix) a).readTile(ti, tj, dst);
+         return;
+      }
+      int r = ti * tile;
+      int c = tj * tile;
+      int h = Math.min(tile, a.rows() - r);
+      int w = Math.min(tile, a.columns() - c);
+      for (int i = 0; i < h; i++) {
+         for (int j = 0; j < w; j++) {
+            dst[i * tile + j] = a.get(r + i, c + j);
+         }
+      }
+   }
+
+   /**
+    * Writes the transpose of the matrix into a new file.  Every tile is read once, transposed on the heap and written
+    * once, so only two tiles are on the heap at a time.
+    *
+    * @param result the file of the transpose, which is replaced.
+    * @return the transpose in the specified file, with the same tile size.
+    * @throws IOException if the file cannot be created.
+    */
+   public TiledMatrix transpose(Path result) throws IOException {
+      TiledMatrix t = new TiledMatrix(result, columns, rows, tile);
+      double[] src = new double[tile * tile];
+      double[] dst = new double[tile * tile];
+      for (int ti = 0; ti < tiles(rows); ti++) {
+         for (int tj = 0; tj < tileColumns; tj++) {
+            readTile(ti, tj, src);
+            for (int i = 0; i < tile; i++) {
+               for (int j = 0; j < tile; j++) {
+                  dst[j * tile + i] = src[i * tile + j];
+               }
+            }
+            t.writeTile(tj, ti, dst);
+         }
+      }
+      return t;
+   }
+
+   /**
+    * Writes the product of the matrix and the specified matrix into a new file, using the default working set.
+    *
+    * @param a the matrix to multiply by.
+    * @param result the file of the product, which is replaced.
+    * @return the product in the specified file, with the same tile size.
+    * @throws IOException if the file cannot be created.
+    * @see #multiply(IMatrix, Path, long)
+    */
+   public TiledMatrix multiply(IMatrix a, Path result) throws IOException {
+      return multiply(a, result, DEFAULT_WORKING_SET);
+   }
+
+   /**
+    * Writes the product of the matrix and the specified matrix into a new file.  The product is computed a square block
+    * of {@code b x b} tiles at a time: the block is accumulated on the heap while, for every step along the inner
+    * dimension, {@code b} tiles of each matrix are read and multiplied with {@link Gemm}.  {@code b} is the largest
+    * block for which the {@code b * b + 2 * b} tiles fit in the working set, and every tile of the matrices is read
+    * {@code 1 / b} times as often as by a tile-at-a-time product.  Only as many tiles as the block can actually cover
+    * are allocated, so a small or skinny product does not take the whole working set.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to multiply by.
+    * @param result the file of the product, which is replaced.
+    * @param workingSet the number of bytes of tiles to hold on the heap.
+    * @return the product in the specified file, with the same tile size.
+    * @throws IOException if the file cannot be created.
+    */
+   public TiledMatrix multiply(IMatrix a, Path result, long workingSet) throws IOException {
+      int n = a.columns();
+      TiledMatrix c = new TiledMatrix(result, rows, n, tile);
+      int tileRows = tiles(rows);
+      int inner = tileColumns;
+      int outer = c.tileColumns;
+      long tileBytes = (long) tile * tile * Double.BYTES;
+      int b = Math.max(1, (int) Math.sqrt(workingSet / tileBytes + 1.0) - 1);
+      b = Math.max(1, Math.min(b, Math.max(tileRows, outer)));
+      int size = tile * tile;
+
+      double[][] left = new double[Math.min(b, tileRows)][size];
+      double[][] right = new double[Math.min(b, outer)][size];
+      double[][] block = new double[left.length * right.length][size];
+      int stride = right.length;
+      for (int ib = 0; ib < tileRows; ib += b) {
+         int bi = Math.min(b, tileRows - ib);
+         for (int jb = 0; jb < outer; jb += b) {
+            int bj = Math.min(b, outer - jb);
+            for (int p = 0; p < inner; p++) {
+               int d = Math.min(tile, columns - p * tile);
+               for (int i = 0; i < bi; i++) {
+                  readTile(ib + i, p, left[i]);
+               }
+               for (int j = 0; j < bj; j++) {
+                  readTile(a, p, jb + j, right[j]);
+               }
+               for (int i = 0; i < bi; i++) {
+                  int h = Math.min(tile, rows - (ib + i) * tile);
+                  for (int j = 0; j < bj; j++) {
+                     int w = Math.min(tile, n - (jb + j) * tile);
+                     if (p == 0 && (h < tile || w < tile)) {
+                        // Keep the padding of the product zero.
+                        Arrays.fill(block[i * stride + j], 0.0);
+                     }
+                     Gemm.multiply(h, w, d, 1.0, left[i], 0, tile, 1, right[j], 0, tile, 1, (p == 0 ? 0.0 : 1.0),
+                                   block[i * stride + j], 0, tile);
+                  }
+               }
+            }
+            for (int i = 0; i < bi; i++) {
+               for (int j = 0; j < bj; j++) {
+                  if (inner > 0) {
+                     c.writeTile(ib + i, jb + j, block[i * stride + j]);
+                  }
+               }
+            }
+         }
+      }
+      return c;
+   }
+
+   /**
+    * Replaces the file of the matrix with the file of the specified matrix, which is closed.
+    *
+    * @param m the matrix whose file replaces the file of this matrix.
+    * @return this matrix.
+    */
+   private TiledMatrix replace(TiledMatrix m) {
+      try {
+         m.close();
+         unmap();
+         Files.move(m.file, file, StandardCopyOption.REPLACE_EXISTING);
+         open();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      return this;
+   }
+
+   /**
+    * Returns a new file next to the file of the matrix for an intermediate result.
+    */
+   private Path temporary() throws IOException {
+      Path dir = file.toAbsolutePath().getParent();
+      return Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+   }
+
+   /**
+    * Transposes the matrix out-of-core as by {@link #transpose(Path)}, through a temporary file next to the file of
+    * the matrix that then replaces it.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @return the transpose of the matrix.
+    */
+   @Override
+   public TiledMatrix transpose() {
+      try {
+         return replace(transpose(temporary()));
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   @Override
+   public TiledMatrix inverse() {
+      return (TiledMatrix) IMatrix.super.inverse();
+   }
+
+   @Override
+   public TiledMatrix scale(double n) {
+      double[] t = new double[tile * tile];
+      for (int ti = 0; ti < tiles(rows); ti++) {
+         int h = Math.min(tile, rows - ti * tile);
+         for (int tj = 0; tj < tileColumns; tj++) {
+            int w = Math.min(tile, columns - tj * tile);
+            readTile(ti, tj, t);
+            for (int i = 0; i < h; i++) {
+               Simd.scale(t, i * tile, w, n);
+            }
+            writeTile(ti, tj, t);
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the original matrix out-of-core as by {@link #multiply(IMatrix,
+    * Path)}, through a temporary file next to the file of the matrix that then replaces it.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   @Override
+   public TiledMatrix multiply(IMatrix a) {
+      try {
+         return replace(multiply(a, temporary()));
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   @Override
+   public TiledMatrix add(IMatrix a) {
+      return combine(a, Simd::add);
+   }
+
+   @Override
+   public TiledMatrix subtract(IMatrix a) {
+      return combine(a, Simd::subtract);
+   }
+
+   @Override
+   public TiledMatrix dotMultiply(IMatrix a) {
+      return combine(a, Simd::multiply);
+   }
+
+   @Override
+   public TiledMatrix dotDivide(IMatrix a) {
+      return combine(a, Simd::divide);
+   }
+
+   /**
+    * Replaces every value of the matrix with the specified operation of it and the corresponding value of the
+    * specified matrix, a tile at a time.  Only the rows and columns of a tile inside the matrix are combined, so the
+    * padding stays zero.
+    *
+    * @param a the other matrix.
+    * @param kernel the operation.
+    * @return the original matrix modified by the operation.
+    */
+   private TiledMatrix combine(IMatrix a, OffHeapMatrix.Kernel kernel) {
+      double[] t = new double[tile * tile];
+      double[] o = new double[tile * tile];
+      for (int ti = 0; ti < tiles(rows); ti++) {
+         int h = Math.min(tile, rows - ti * tile);
+         for (int tj = 0; tj < tileColumns; tj++) {
+            int w = Math.min(tile, columns - tj * tile);
+            readTile(ti, tj, t);
+            readTile(a, ti, tj, o);
+            for (int i = 0; i < h; i++) {
+               kernel.apply(t, i * tile, o, i * tile, w);
+            }
+            writeTile(ti, tj, t);
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Returns a copy of the matrix in a new temporary file next to the file of the matrix.  The caller owns the new
+    * file.
+    *
+    * @return the copy of the matrix.
+    */
+   @Override
+   public TiledMatrix copy() {
+      try {
+         TiledMatrix m = new TiledMatrix(temporary(), rows, columns, tile);
+         MemorySegment.copy(segment, HEADER, m.segment, HEADER, segment.byteSize() - HEADER);
+         return m;
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
@@ -0,0 +1,320 @@
+package math.matrices;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The element-wise kernels of {@link Simd} over {@link DoubleVector} and {@link FloatVector} of the preferred species,
+ * for example four and eight lanes with AVX2.  The values left over after the last whole vector are handled by scalar
+ * loops.  The reductions over doubles accumulate two vectors at a time, so that consecutive vector additions do not
+ * wait on each other, and reduce them across their lanes only at the end.
+ * <p/>
+ * Note: requires the incubating {@code jdk.incubator.vector} module, and so is built from the separate {@code
+ * src-vector} source root and loaded by {@link Simd} only by name.  Loading this class without the module fails with
+ * a {@link LinkageError}.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+final class VectorKernels implements Simd.Kernels {
+
+   /**
+    * The preferred species of the processor.
+    */
+   private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+   /**
+    * The preferred species of the processor for {@code float} values.
+    */
+   private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+   /**
+    * The number of {@code float} values summed in single precision before the sum is added in double precision.
+    */
+   private static final int FLOAT_BLOCK = 512;
+
+   @Override
+   public void scale(double[] a, int offset, int length, double n) {
+      int bound = SPECIES.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += SPECIES.length()) {
+         DoubleVector.fromArray(SPECIES, a, offset + i).mul(n).intoArray(a, offset + i);
+      }
+      for (; i < length; i++) {
+         a[offset + i] *= n;
+      }
+   }
+
+   @Override
+   public void add(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      int bound = SPECIES.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += SPECIES.length()) {
+         DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         va.add(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] += b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void subtract(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      int bound = SPECIES.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += SPECIES.length()) {
+         DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         va.sub(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] -= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void multiply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      int bound = SPECIES.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += SPECIES.length()) {
+         DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         va.mul(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] *= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void divide(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      int bound = SPECIES.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += SPECIES.length()) {
+         DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         va.div(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] /= b[bOffset + i];
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      int step = SPECIES.length();
+      DoubleVector s0 = DoubleVector.zero(SPECIES);
+      DoubleVector s1 = DoubleVector.zero(SPECIES);
+      int i = 0;
+      for (; i + 2 * step <= length; i += 2 * step) {
+         s0 = s0.add(DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                             .mul(DoubleVector.fromArray(SPECIES, b, bOffset + i)));
+         s1 = s1.add(DoubleVector.fromArray(SPECIES, a, aOffset + i + step)
+                             .mul(DoubleVector.fromArray(SPECIES, b, bOffset + i + step)));
+      }
+      for (; i + step <= length; i += step) {
+         s0 = s0.add(DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                             .mul(DoubleVector.fromArray(SPECIES, b, bOffset + i)));
+      }
+      double sum = s0.add(s1).reduceLanes(VectorOperators.ADD);
+      for (; i < length; i++) {
+         sum += a[aOffset + i] * b[bOffset + i];
+      }
+      return sum;
+   }
+
+   @Override
+   public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+      int bound = SPECIES.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += SPECIES.length()) {
+         DoubleVector vx = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+         DoubleVector vy = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+         vx.mul(alpha).add(vy).intoArray(y, yOffset + i);
+      }
+      for (; i < length; i++) {
+         y[yOffset + i] += alpha * x[xOffset + i];
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double sumAbs(double[] a, int offset, int length) {
+      int step = SPECIES.length();
+      DoubleVector s0 = DoubleVector.zero(SPECIES);
+      DoubleVector s1 = DoubleVector.zero(SPECIES);
+      int i = 0;
+      for (; i + 2 * step <= length; i += 2 * step) {
+         s0 = s0.add(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+         s1 = s1.add(DoubleVector.fromArray(SPECIES, a, offset + i + step).abs());
+      }
+      for (; i + step <= length; i += step) {
+         s0 = s0.add(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+      }
+      double sum = s0.add(s1).reduceLanes(VectorOperators.ADD);
+      for (; i < length; i++) {
+         sum += Math.abs(a[offset + i]);
+      }
+      return sum;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double maxAbs(double[] a, int offset, int length) {
+      int step = SPECIES.length();
+      DoubleVector m0 = DoubleVector.zero(SPECIES);
+      DoubleVector m1 = DoubleVector.zero(SPECIES);
+      int i = 0;
+      for (; i + 2 * step <= length; i += 2 * step) {
+         m0 = m0.max(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+         m1 = m1.max(DoubleVector.fromArray(SPECIES, a, offset + i + step).abs());
+      }
+      for (; i + step <= length; i += step) {
+         m0 = m0.max(DoubleVector.fromArray(SPECIES, a, offset + i).abs());
+      }
+      double max = m0.max(m1).reduceLanes(VectorOperators.MAX);
+      for (; i < length; i++) {
+         max = Math.max(max, Math.abs(a[offset + i]));
+      }
+      return max;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      int step = SPECIES.length();
+      DoubleVector s0 = DoubleVector.zero(SPECIES);
+      DoubleVector s1 = DoubleVector.zero(SPECIES);
+      int i = 0;
+      for (; i + 2 * step <= length; i += 2 * step) {
+         DoubleVector d0 = DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                                       .sub(DoubleVector.fromArray(SPECIES, b, bOffset + i));
+         DoubleVector d1 = DoubleVector.fromArray(SPECIES, a, aOffset + i + step)
+                                       .sub(DoubleVector.fromArray(SPECIES, b, bOffset + i + step));
+         s0 = s0.add(d0.mul(d0));
+         s1 = s1.add(d1.mul(d1));
+      }
+      for (; i + step <= length; i += step) {
+         DoubleVector d = DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                                      .sub(DoubleVector.fromArray(SPECIES, b, bOffset + i));
+         s0 = s0.add(d.mul(d));
+      }
+      double sum = s0.add(s1).reduceLanes(VectorOperators.ADD);
+      for (; i < length; i++) {
+         double d = a[aOffset + i] - b[bOffset + i];
+         sum += d * d;
+      }
+      return sum;
+   }
+
+   @Override
+   public void scale(float[] a, int offset, int length, float n) {
+      int bound = FLOATS.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += FLOATS.length()) {
+         FloatVector.fromArray(FLOATS, a, offset + i).mul(n).intoArray(a, offset + i);
+      }
+      for (; i < length; i++) {
+         a[offset + i] *= n;
+      }
+   }
+
+   @Override
+   public void add(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      int bound = FLOATS.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += FLOATS.length()) {
+         FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+         FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+         va.add(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] += b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void subtract(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      int bound = FLOATS.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += FLOATS.length()) {
+         FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+         FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+         va.sub(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] -= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void multiply(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      int bound = FLOATS.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += FLOATS.length()) {
+         FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+         FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+         va.mul(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] *= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void divide(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      int bound = FLOATS.loopBound(length);
+      int i = 0;
+      for (; i < bound; i += FLOATS.length()) {
+         FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+         FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+         va.div(vb).intoArray(a, aOffset + i);
+      }
+      for (; i < length; i++) {
+         a[aOffset + i] /= b[bOffset + i];
+      }
+   }
+
+   /**
+    * {@inheritDoc}  Two vector sums run over blocks of {@value #FLOAT_BLOCK} values in single precision, which keeps
+    * the rounding error of each block small, and the sums of the blocks are accumulated in double precision.
+    */
+   @Override
+   public double dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      int step = FLOATS.length();
+      double sum = 0.0;
+      int i = 0;
+      while (i + step <= length) {
+         int end = Math.min(length, i + FLOAT_BLOCK);
+         FloatVector s0 = FloatVector.zero(FLOATS);
+         FloatVector s1 = FloatVector.zero(FLOATS);
+         for (; i + 2 * step <= end; i += 2 * step) {
+            s0 = FloatVector.fromArray(FLOATS, a, aOffset + i)
+                            .fma(FloatVector.fromArray(FLOATS, b, bOffset + i), s0);
+            s1 = FloatVector.fromArray(FLOATS, a, aOffset + i + step)
+                            .fma(FloatVector.fromArray(FLOATS, b, bOffset + i + step), s1);
+         }
+         for (; i + step <= end; i += step) {
+            s0 = FloatVector.fromArray(FLOATS, a, aOffset + i)
+                            .fma(FloatVector.fromArray(FLOATS, b, bOffset + i), s0);
+         }
+         sum += s0.add(s1).reduceLanes(VectorOperators.ADD);
+      }
+      for (; i < length; i++) {
+         sum += (double) a[aOffset + i] * b[bOffset + i];
+      }
+      return sum;
+   }
+}
@@ -0,0 +1,643 @@
+package math.matrices;
+
+/**
+ * A static library of the basic linear algebra subprograms over {@link IMatrix} and {@link IVector}, one stable entry
+ * point for the vector operations of level 1, the matrix-vector operations of level 2 and the matrix-matrix operations
+ * of level 3.  The operations follow the reference BLAS: operands may be used transposed through a {@link Transpose}
+ * flag without being copied, results are scaled and accumulated with {@code alpha} and {@code beta} in the same pass
+ * that computes them, and the result is written over the last operand, which is returned.  When {@code beta} is zero
+ * the original values of the result are ignored, even if they are not finite.
+ * <p/>
+ * Every operation dispatches on the storage of its operands.  A {@link DenseMatrix} is read and written in place
+ * through its backing array, transposed by swapping its strides, with the kernels of {@link Simd} and {@link Gemm};
+ * a {@link SparseMatrix} is read through its compressed rows.  Any other matrix is copied into dense storage first
+ * and a result of any other type is computed in dense storage and copied back.
+ * <p/>
+ * Unlike the methods of {@link IMatrix} every operation checks the dimensions of its operands once up front and
+ * throws {@link MatrixDimensionException} if they do not agree.  A result which shares storage with another operand
+ * throws {@link IllegalArgumentException}.  As in the reference BLAS the triangular solves do not test for
+ * singularity; a zero on the diagonal gives infinite or {@code NaN} values.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Blas {
+
+   /**
+    * Whether an operand is used as it is or transposed.
+    */
+   public enum Transpose {
+      NO_TRANSPOSE, TRANSPOSE
+   }
+
+   /**
+    * Which triangle of a matrix is referenced.
+    */
+   public enum Triangle {
+      UPPER, LOWER
+   }
+
+   /**
+    * Whether the diagonal of a triangular matrix is read or assumed to be all ones.
+    */
+   public enum Diagonal {
+      NON_UNIT, UNIT
+   }
+
+   /**
+    * Which side of the unknown matrix a triangular matrix is multiplied on.
+    */
+   public enum Side {
+      LEFT, RIGHT
+   }
+
+   /**
+    * Don't let anyone instantiate this class.
+    */
+   private Blas() {
+   }
+
+   // *************************** //
+   // ***** LEVEL 1 METHODS ***** //
+   // *************************** //
+
+   /**
+    * Computes {@code y = alpha * x + y}.
+    *
+    * @param alpha the scaling factor of {@code x}.
+    * @param x the vector to add.
+    * @param y the vector to add to.
+    * @return the specified vector {@code y}.
+    * @throws VectorDimensionException if the lengths do not agree.
+    */
+   public static IVector axpy(double alpha, IVector x, IVector y) {
+      DimensionChecking.catchEqualDimensions(y, x);
+      if (alpha == 0.0) {
+         return y;
+      }
+      if (x instanceof SparseVector) {
+         return ((SparseVector) x).addTo(alpha, y);
+      }
+      DenseMatrix xd = dense(x);
+      DenseMatrix yd = dense(y);
+      catchOverlap(yd, xd);
+      axpy(x.length(), alpha, xd.data(), xd.offset(), xd.vectorStep(), yd.data(), yd.offset(), yd.vectorStep());
+      writeBack(y, yd);
+      return y;
+   }
+
+   /**
+    * Computes {@code x = alpha * x}.
+    *
+    * @param alpha the scaling factor.
+    * @param x the vector to scale.
+    * @return the specified vector {@code x}.
+    */
+   public static IVector scal(double alpha, IVector x) {
+      return x.scale(alpha);
+   }
+
+   /**
+    * Returns the dot product of two vectors, {@code x' * y}.
+    *
+    * @param x the first vector.
+    * @param y the second vector.
+    * @return the dot product.
+    * @throws VectorDimensionException if the lengths do not agree.
+    */
+   public static double dot(IVector x, IVector y) {
+      DimensionChecking.catchEqualDimensions(x, y);
+      return x.inner(y);
+   }
+
+   /**
+    * Returns the Euclidean norm of a vector, without overflow or underflow of the intermediate squares.
+    *
+    * @param x the vector.
+    * @return the 2-norm of the vector.
+    * @see IVector#norm2()
+    */
+   public static double nrm2(IVector x) {
+      return x.norm2();
+   }
+
+   /**
+    * Returns the index of the first value with the largest absolute value, or {@code -1} for an empty vector.
+    * {@code NaN} values are never the largest, unless every value is {@code NaN}, which gives zero.
+    *
+    * @param x the vector.
+    * @return the index of the largest absolute value.
+    */
+   public static int iamax(IVector x) {
+      int n = x.length();
+      int index = -1;
+      double max = -1.0;
+      if (x instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) x;
+         double[] data = d.data();
+         int step = d.vectorStep();
+         for (int i = 0, k = d.offset(); i < n; i++, k += step) {
+            double v = Math.abs(data[k]);
+            if (v > max) {
+               max = v;
+               index = i;
+            }
+         }
+      } else {
+         for (int i = 0; i < n; i++) {
+            double v = Math.abs(x.get(i));
+            if (v > max) {
+               max = v;
+               index = i;
+            }
+         }
+      }
+      return (index < 0 && n > 0 ? 0 : index);
+   }
+
+   // *************************** //
+   // ***** LEVEL 2 METHODS ***** //
+   // *************************** //
+
+   /**
+    * Computes {@code y = alpha * op(A) * x + beta * y} where {@code op(A)} is {@code A} or its transpose.  The rows of
+    * {@code op(A)} are multiplied by {@code x} when they are adjacent in memory, otherwise its columns are scaled by
+    * {@code x} and added to {@code y}, and the rows of large products run in {@link Parallel}.
+    *
+    * @param trans whether {@code A} is transposed.
+    * @param alpha the scaling factor of the product.
+    * @param a the matrix.
+    * @param x the vector to multiply, of length {@code op(A).columns()}.
+    * @param beta the scaling factor of the original {@code y}.
+    * @param y the vector to accumulate into, of length {@code op(A).rows()}.
+    * @return the specified vector {@code y}.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    */
+   public static IVector gemv(Transpose trans, double alpha, IMatrix a, IVector x, double beta, IVector y) {
+      boolean t = (trans == Transpose.TRANSPOSE);
+      int m = (t ? a.columns() : a.rows());
+      int n = (t ? a.rows() : a.columns());
+      if (x.length() != n || y.length() != m) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for a matrix-vector product: (" + m + "x" + n + ") and vectors of "
+                         + "lengths " + x.length() + " and " + y.length());
+      }
+      DenseMatrix xd = dense(x);
+      DenseMatrix yd = dense(y);
+      catchOverlap(yd, xd);
+      DenseMatrix ad = null;
+      if (!(a instanceof SparseMatrix)) {
+         ad = dense(a);
+         catchOverlap(yd, ad);
+      }
+      double[] xv = xd.data();
+      int xo = xd.offset();
+      int xs = xd.vectorStep();
+      double[] yv = yd.data();
+      int yo = yd.offset();
+      int ys = yd.vectorStep();
+      scale(m, beta, yv, yo, ys);
+      if (alpha != 0.0 && m > 0 && n > 0) {
+         if (ad == null) {
+            gemvSparse(t, alpha, (SparseMatrix) a, xv, xo, xs, yv, yo, ys);
+         } else {
+            double[] av = ad.data();
+            int ao = ad.offset();
+            int rs = (t ? ad.columnStride() : ad.stride());
+            int cs = (t ? ad.stride() : ad.columnStride());
+            if (cs != 1 && rs == 1) {
+               // The columns of op(A) are adjacent, so they are scaled by x and added to y.
+               for (int j = 0; j < n; j++) {
+                  double ax = alpha * xv[xo + j * xs];
+                  if (ax != 0.0) {
+                     axpy(m, ax, av, ao + j * cs, 1, yv, yo, ys);
+                  }
+               }
+            } else {
+               Parallel.forRows(m, (long) m * n, (from, to) -> {
+                  for (int i = from; i < to; i++) {
+                     yv[yo + i * ys] += alpha * dot(n, av, ao + i * rs, cs, xv, xo, xs);
+                  }
+               });
+            }
+         }
+      }
+      writeBack(y, yd);
+      return y;
+   }
+
+   /**
+    * Accumulates {@code alpha * op(A) * x} into {@code y} through the compressed rows of a sparse matrix.  The
+    * transposed product scatters each row of {@code A} scaled by its value of {@code x}.
+    */
+   private static void gemvSparse(boolean t, double alpha, SparseMatrix a, double[] xv, int xo, int xs, double[] yv,
+                                  int yo, int ys) {
+      int[] pointers = a.rowPointers();
+      int[] indices = a.columnIndices();
+      double[] values = a.values();
+      if (t) {
+         for (int i = 0; i < a.rows(); i++) {
+            double ax = alpha * xv[xo + i * xs];
+            if (ax != 0.0) {
+               for (int p = pointers[i]; p < pointers[i + 1]; p++) {
+                  yv[yo + indices[p] * ys] += ax * values[p];
+               }
+            }
+         }
+      } else {
+         Parallel.forRows(a.rows(), a.nonZeros(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+               double sum = 0.0;
+               for (int p = pointers[i]; p < pointers[i + 1]; p++) {
+                  sum += values[p] * xv[xo + indices[p] * xs];
+               }
+               yv[yo + i * ys] += alpha * sum;
+            }
+         });
+      }
+   }
+
+   /**
+    * Solves {@code op(A) * z = x} for {@code z} and writes it over {@code x}, where {@code A} is triangular and {@code
+    * op(A)} is {@code A} or its transpose.  Only the specified triangle of {@code A} is read.  The solution is found
+    * by dot products with the rows of {@code op(A)} when they are adjacent in memory, otherwise by subtracting its
+    * scaled columns.
+    *
+    * @param uplo the triangle of {@code A} which is read.
+    * @param trans whether {@code A} is transposed.
+    * @param diag whether the diagonal of {@code A} is read or assumed to be all ones.
+    * @param a the square triangular matrix.
+    * @param x the right-hand side, overwritten with the solution.
+    * @return the specified vector {@code x}.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    */
+   public static IVector trsv(Triangle uplo, Transpose trans, Diagonal diag, IMatrix a, IVector x) {
+      DimensionChecking.catchSquare(a);
+      int n = a.rows();
+      if (x.length() != n) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for a triangular solve: (" + n + "x" + n + ") and a vector of length "
+                         + x.length());
+      }
+      boolean t = (trans == Transpose.TRANSPOSE);
+      boolean lower = (uplo == Triangle.LOWER) != t;
+      boolean unit = (diag == Diagonal.UNIT);
+      DenseMatrix ad = dense(a);
+      DenseMatrix xd = dense(x);
+      catchOverlap(xd, ad);
+      double[] av = ad.data();
+      int ao = ad.offset();
+      int rs = (t ? ad.columnStride() : ad.stride());
+      int cs = (t ? ad.stride() : ad.columnStride());
+      double[] xv = xd.data();
+      int xo = xd.offset();
+      int xs = xd.vectorStep();
+      if (cs != 1 && rs == 1) {
+         // The columns of op(A) are adjacent, so each solved value is subtracted from the rest at once.
+         for (int p = 0; p < n; p++) {
+            int k = (lower ? p : n - 1 - p);
+            int xk = xo + k * xs;
+            if (!unit) {
+               xv[xk] /= av[ao + k * rs + k * cs];
+            }
+            if (xv[xk] != 0.0) {
+               if (lower) {
+                  axpy(n - k - 1, -xv[xk], av, ao + (k + 1) * rs + k * cs, rs, xv, xk + xs, xs);
+               } else {
+                  axpy(k, -xv[xk], av, ao + k * cs, rs, xv, xo, xs);
+               }
+            }
+         }
+      } else {
+         for (int p = 0; p < n; p++) {
+            int i = (lower ? p : n - 1 - p);
+            int xi = xo + i * xs;
+            double sum;
+            if (lower) {
+               sum = xv[xi] - dot(i, av, ao + i * rs, cs, xv, xo, xs);
+            } else {
+               sum = xv[xi] - dot(n - i - 1, av, ao + i * rs + (i + 1) * cs, cs, xv, xi + xs, xs);
+            }
+            xv[xi] = (unit ? sum : sum / av[ao + i * rs + i * cs]);
+         }
+      }
+      writeBack(x, xd);
+      return x;
+   }
+
+   /**
+    * Computes {@code A = alpha * x * y' + A}.
+    *
+    * @param alpha the scaling factor of the outer-product.
+    * @param x the vector along the rows of {@code A}.
+    * @param y the vector along the columns of {@code A}.
+    * @param a the matrix to update.
+    * @return the specified matrix {@code A}.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    * @see IMatrix#rankOneUpdate(double, IVector, IVector)
+    */
+   public static IMatrix ger(double alpha, IVector x, IVector y, IMatrix a) {
+      DimensionChecking.catchRankOneUpdate(a, x, y);
+      return a.rankOneUpdate(alpha, x, y);
+   }
+
+   // *************************** //
+   // ***** LEVEL 3 METHODS ***** //
+   // *************************** //
+
+   /**
+    * Computes {@code C = alpha * op(A) * op(B) + beta * C} where {@code op(X)} is {@code X} or its transpose, with the
+    * cache-blocked {@link Gemm} kernel.  Transposed operands are read in place and a column-major result is computed as
+    * the row-major transpose of the transposed product.
+    *
+    * @param transA whether {@code A} is transposed.
+    * @param transB whether {@code B} is transposed.
+    * @param alpha the scaling factor of the product.
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param beta the scaling factor of the original {@code C}.
+    * @param c the matrix to accumulate into.
+    * @return the specified matrix {@code C}.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    */
+   public static IMatrix gemm(Transpose transA, Transpose transB, double alpha, IMatrix a, IMatrix b, double beta,
+                              IMatrix c) {
+      boolean ta = (transA == Transpose.TRANSPOSE);
+      boolean tb = (transB == Transpose.TRANSPOSE);
+      int m = (ta ? a.columns() : a.rows());
+      int k = (ta ? a.rows() : a.columns());
+      int n = (tb ? b.rows() : b.columns());
+      if ((tb ? b.columns() : b.rows()) != k || c.rows() != m || c.columns() != n) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for multiplication: (" + m + "x" + k + ") and (" + (tb ? b.columns()
+                         : b.rows()) + "x" + n + ") into (" + c.rows() + "x" + c.columns() + ")");
+      }
+      DenseMatrix ad = dense(a);
+      DenseMatrix bd = dense(b);
+      DenseMatrix cd = lined(c);
+      catchOverlap(cd, ad);
+      catchOverlap(cd, bd);
+      int ars = (ta ? ad.columnStride() : ad.stride());
+      int acs = (ta ? ad.stride() : ad.columnStride());
+      int brs = (tb ? bd.columnStride() : bd.stride());
+      int bcs = (tb ? bd.stride() : bd.columnStride());
+      if (cd.isRowMajor()) {
+         Gemm.multiply(m, n, k, alpha, ad.data(), ad.offset(), ars, acs, bd.data(), bd.offset(), brs, bcs, beta,
+                       cd.data(), cd.offset(), cd.stride());
+      } else {
+         // A column-major result is the row-major transpose of op(B)' * op(A)'.
+         Gemm.multiply(n, m, k, alpha, bd.data(), bd.offset(), bcs, brs, ad.data(), ad.offset(), acs, ars, beta,
+                       cd.data(), cd.offset(), cd.columnStride());
+      }
+      writeBack(c, cd);
+      return c;
+   }
+
+   /**
+    * Solves {@code op(A) * X = alpha * B} or {@code X * op(A) = alpha * B} for {@code X} and writes it over {@code B},
+    * where {@code A} is triangular and {@code op(A)} is {@code A} or its transpose.  Only the specified triangle of
+    * {@code A} is read.  The rows of {@code X} are solved in blocks: each diagonal block is solved by substitution and
+    * the rows still unsolved are updated by the cache-blocked {@link Gemm} kernel.  A solve on the right is the solve
+    * on the left of the transposed system, {@code op(A)' * X' = alpha * B'}.
+    *
+    * @param side whether {@code op(A)} is on the left or the right of {@code X}.
+    * @param uplo the triangle of {@code A} which is read.
+    * @param trans whether {@code A} is transposed.
+    * @param diag whether the diagonal of {@code A} is read or assumed to be all ones.
+    * @param alpha the scaling factor of {@code B}.
+    * @param a the square triangular matrix.
+    * @param b the right-hand sides, overwritten with the solution.
+    * @return the specified matrix {@code B}.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    */
+   public static IMatrix trsm(Side side, Triangle uplo, Transpose trans, Diagonal diag, double alpha, IMatrix a,
+                              IMatrix b) {
+      DimensionChecking.catchSquare(a);
+      boolean left = (side == Side.LEFT);
+      if ((left ? b.rows() : b.columns()) != a.rows()) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for a triangular solve: (" + a.rows() + "x" + a.columns()
+                         + ") on the " + (left ? "left" : "right") + " of (" + b.rows() + "x" + b.columns() + ")");
+      }
+      boolean t = (trans == Transpose.TRANSPOSE) != !left;
+      boolean lower = (uplo == Triangle.LOWER) != t;
+      boolean unit = (diag == Diagonal.UNIT);
+      DenseMatrix ad = dense(a);
+      int rs = (t ? ad.columnStride() : ad.stride());
+      int cs = (t ? ad.stride() : ad.columnStride());
+      int n = a.rows();
+      int m = (left ? b.columns() : b.rows());
+      // The solve works on the rows of the n x m matrix op(B), which must be adjacent in memory.
+      DenseMatrix bd = (b instanceof DenseMatrix ? (DenseMatrix) b : new DenseMatrix(b));
+      catchOverlap(bd, ad);
+      if (left && !bd.isRowMajor()) {
+         bd = new DenseMatrix(b);
+      } else if (!left && !bd.isColumnMajor()) {
+         bd = b.transposeInto(new DenseMatrix(n, m)).transpose();
+      }
+      double[] bv = bd.data();
+      int bo = bd.offset();
+      int bs = (left ? bd.stride() : bd.columnStride());
+      if (alpha != 1.0) {
+         for (int i = 0; i < n; i++) {
+            scale(m, alpha, bv, bo + i * bs, 1);
+         }
+      }
+      if (alpha != 0.0 && m > 0) {
+         double[] av = ad.data();
+         int ao = ad.offset();
+         for (int p = 0; p < n; p += Gemm.MC) {
+            int i0 = (lower ? p : Math.max(0, n - p - Gemm.MC));
+            int i1 = (lower ? Math.min(n, p + Gemm.MC) : n - p);
+            Parallel.forRows(m, (long) (i1 - i0) * (i1 - i0) * m / 2, (from, to) -> {
+               solveBlock(i0, i1, from, to, lower, unit, av, ao, rs, cs, bv, bo, bs);
+            });
+            if (lower && i1 < n) {
+               Gemm.multiply(n - i1, m, i1 - i0, -1.0, av, ao + i1 * rs + i0 * cs, rs, cs, bv, bo + i0 * bs, bs, 1,
+                             1.0, bv, bo + i1 * bs, bs);
+            } else if (!lower && i0 > 0) {
+               Gemm.multiply(i0, m, i1 - i0, -1.0, av, ao + i0 * cs, rs, cs, bv, bo + i0 * bs, bs, 1, 1.0, bv, bo,
+                             bs);
+            }
+         }
+      }
+      writeBack(b, bd);
+      return b;
+   }
+
+   /**
+    * Solves the diagonal block of rows {@code i0} to {@code i1} of a triangular system over the columns {@code from}
+    * to {@code to} of the right-hand sides by substitution, subtracting the scaled rows already solved.
+    */
+   private static void solveBlock(int i0, int i1, int from, int to, boolean lower, boolean unit, double[] av, int ao,
+                                  int rs, int cs, double[] bv, int bo, int bs) {
+      int width = to - from;
+      for (int p = i0; p < i1; p++) {
+         int i = (lower ? p : i1 - 1 + i0 - p);
+         int bi = bo + i * bs + from;
+         int k0 = (lower ? i0 : i + 1);
+         int k1 = (lower ? i : i1);
+         for (int k = k0; k < k1; k++) {
+            double l = av[ao + i * rs + k * cs];
+            if (l != 0.0) {
+               Simd.axpy(-l, bv, bo + k * bs + from, bv, bi, width);
+            }
+         }
+         if (!unit) {
+            double d = av[ao + i * rs + i * cs];
+            for (int j = bi; j < bi + width; j++) {
+               bv[j] /= d;
+            }
+         }
+      }
+   }
+
+   /**
+    * Computes {@code C = alpha * op(A) * op(A)' + beta * C} where {@code op(A)} is {@code A} or its transpose and
+    * {@code C} is symmetric.  Only the specified triangle of {@code C} is read and written; the other triangle is left
+    * unchanged.  The blocks of the triangle off the diagonal are computed by the cache-blocked {@link Gemm} kernel and
+    * the blocks on the diagonal by dot products.
+    *
+    * @param uplo the triangle of {@code C} which is read and written.
+    * @param trans whether {@code A} is transposed.
+    * @param alpha the scaling factor of the product.
+    * @param a the matrix whose rows, or columns if transposed, are the update vectors.
+    * @param beta the scaling factor of the original {@code C}.
+    * @param c the square symmetric matrix to accumulate into.
+    * @return the specified matrix {@code C}.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    * @see IMatrix#symmetricRankUpdate(double, IMatrix)
+    */
+   public static IMatrix syrk(Triangle uplo, Transpose trans, double alpha, IMatrix a, double beta, IMatrix c) {
+      DimensionChecking.catchSquare(c);
+      boolean t = (trans == Transpose.TRANSPOSE);
+      int n = c.rows();
+      int k = (t ? a.rows() : a.columns());
+      if ((t ? a.columns() : a.rows()) != n) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for a rank update: (" + n + "x" + n + ") and (" + (t ? a.columns()
+                         : a.rows()) + "x" + k + ")");
+      }
+      DenseMatrix ad = dense(a);
+      DenseMatrix cd = lined(c);
+      catchOverlap(cd, ad);
+      double[] av = ad.data();
+      int ao = ad.offset();
+      int rs = (t ? ad.columnStride() : ad.stride());
+      int cs = (t ? ad.stride() : ad.columnStride());
+      // The upper triangle of a column-major matrix is the lower triangle of its row-major transpose.
+      boolean lower = (uplo == Triangle.LOWER) == cd.isRowMajor();
+      double[] cv = cd.data();
+      int co = cd.offset();
+      int cstride = (cd.isRowMajor() ? cd.stride() : cd.columnStride());
+      for (int i = 0; i < n; i++) {
+         int j0 = (lower ? 0 : i);
+         scale((lower ? i + 1 : n - i), beta, cv, co + i * cstride + j0, 1);
+      }
+      if (alpha != 0.0 && k > 0) {
+         for (int p = 0; p < n; p += Gemm.MC) {
+            int i0 = p;
+            int i1 = Math.min(p + Gemm.MC, n);
+            int j0 = (lower ? 0 : i1);
+            int width = (lower ? i0 : n - i1);
+            Gemm.multiply(i1 - i0, width, k, alpha, av, ao + i0 * rs, rs, cs, av, ao + j0 * rs, cs, rs, 1.0, cv,
+                          co + i0 * cstride + j0, cstride);
+            Parallel.forRows(i1 - i0, (long) (i1 - i0) * (i1 - i0) * k / 2, (from, to) -> {
+               for (int i = i0 + from; i < i0 + to; i++) {
+                  for (int j = (lower ? i0 : i); j <= (lower ? i : i1 - 1); j++) {
+                     cv[co + i * cstride + j] += alpha * dot(k, av, ao + i * rs, cs, av, ao + j * rs, cs);
+                  }
+               }
+            });
+         }
+      }
+      writeBack(c, cd);
+      return c;
+   }
+
+   // *************************** //
+   // ***** UTILITY METHODS ***** //
+   // *************************** //
+
+   /**
+    * Returns the specified matrix if it is dense, otherwise a dense copy of it.
+    */
+   private static DenseMatrix dense(IMatrix a) {
+      return (a instanceof DenseMatrix ? (DenseMatrix) a : new DenseMatrix(a));
+   }
+
+   /**
+    * Returns the specified matrix if it is dense with the values of either every row or every column adjacent in
+    * memory, otherwise a dense row-major copy of it.
+    */
+   private static DenseMatrix lined(IMatrix a) {
+      if (a instanceof DenseMatrix && (((DenseMatrix) a).isRowMajor() || ((DenseMatrix) a).isColumnMajor())) {
+         return (DenseMatrix) a;
+      }
+      return new DenseMatrix(a);
+   }
+
+   /**
+    * Copies the values of a dense copy back into the matrix it was copied from, unless it is the matrix itself.
+    */
+   private static void writeBack(IMatrix a, DenseMatrix d) {
+      if (a == d) {
+         return;
+      }
+      for (int i = 0; i < a.rows(); i++) {
+         for (int j = 0; j < a.columns(); j++) {
+            a.set(i, j, d.get(i, j));
+         }
+      }
+   }
+
+   /**
+    * Catches a result which shares storage with an operand and throws the proper exception.
+    */
+   private static void catchOverlap(DenseMatrix result, DenseMatrix operand) {
+      if (result.overlaps(operand)) {
+         throw new IllegalArgumentException("Cannot write the result into an operand");
+      }
+   }
+
+   /**
+    * Computes {@code x = beta * x} over a strided range.  A zero factor sets the values to zero.
+    */
+   private static void scale(int n, double beta, double[] x, int xOffset, int xStep) {
+      if (beta == 1.0) {
+         return;
+      }
+      for (int i = 0, k = xOffset; i < n; i++, k += xStep) {
+         x[k] = (beta == 0.0 ? 0.0 : beta * x[k]);
+      }
+   }
+
+   /**
+    * Computes {@code y = alpha * x + y} over strided ranges, with the kernels of {@link Simd} when both are
+    * contiguous.
+    */
+   private static void axpy(int n, double alpha, double[] x, int xOffset, int xStep, double[] y, int yOffset,
+                            int yStep) {
+      if (xStep == 1 && yStep == 1) {
+         Simd.axpy(alpha, x, xOffset, y, yOffset, n);
+         return;
+      }
+      for (int i = 0, k = xOffset, l = yOffset; i < n; i++, k += xStep, l += yStep) {
+         y[l] += alpha * x[k];
+      }
+   }
+
+   /**
+    * Returns the dot product of strided ranges, with the kernels of {@link Simd} when both are contiguous.
+    */
+   private static double dot(int n, double[] x, int xOffset, int xStep, double[] y, int yOffset, int yStep) {
+      if (xStep == 1 && yStep == 1) {
+         return Simd.dot(x, xOffset, y, yOffset, n);
+      }
+      double sum = 0.0;
+      for (int i = 0, k = xOffset, l = yOffset; i < n; i++, k += xStep, l += yStep) {
+         sum += x[k] * y[l];
+      }
+      return sum;
+   }
+}
@@ -0,0 +1,362 @@
+package math.matrices;
+
+/**
+ * The Cholesky decomposition of a symmetric positive definite matrix.  The matrix is factored as {@code A = L * L^T}
+ * where {@code L} is lower triangular with a positive diagonal.  This takes half the work and memory of an {@link
+ * LUDecomposition} and needs no pivoting.
+ * <p/>
+ * Only the lower triangle of the matrix is read and only the lower triangle of {@code L} is stored, packed row after
+ * row into one array of {@code n * (n + 1) / 2} values.  The factorization proceeds in panels of columns so that the
+ * rows of a panel stay in cache while every row below it is updated against them.  The rows below a panel are
+ * independent of one another and run in {@link Parallel}.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class CholeskyDecomposition {
+
+   /**
+    * The number of columns in a panel.
+    */
+   private static final int PANEL = 64;
+
+   /**
+    * The number of rows and columns of the decomposed matrix.
+    */
+   private final int n;
+
+   /**
+    * The lower triangle of {@code L} packed row after row.  Row {@code i} starts at {@code i * (i + 1) / 2}.
+    */
+   private final double[] l;
+
+   /**
+    * Computes the Cholesky decomposition of the specified matrix.  Only the lower triangle of the matrix is read and
+    * the matrix is not modified.
+    *
+    * @param a the symmetric positive definite matrix to decompose.
+    * @throws NonPositiveDefiniteException if the matrix is not positive definite.
+    */
+   public CholeskyDecomposition(IMatrix a) {
+      DimensionChecking.catchSquare(a);
+      n = a.rows();
+      l = new double[n * (n + 1) / 2];
+      for (int i = 0; i < n; i++) {
+         int ri = start(i);
+         for (int j = 0; j <= i; j++) {
+            l[ri + j] = a.get(i, j);
+         }
+      }
+
+      for (int jb = 0; jb < n; jb += PANEL) {
+         int je = Math.min(jb + PANEL, n);
+         factor(jb, je, jb, je);
+         int panelStart = jb;
+         int panelEnd = je;
+         int below = n - je;
+         Parallel.forRows(below, (long) below * (je - jb) * je, (from, to) -> {
+            factor(panelStart, panelEnd, panelEnd + from, panelEnd + to);
+         });
+      }
+   }
+
+   /**
+    * Returns the index of the first value of the specified row in the packed array.
+    *
+    * @param i the row.
+    * @return the start of the row.
+    */
+   private static int start(int i) {
+      return i * (i + 1) / 2;
+   }
+
+   /**
+    * Computes the columns of a panel for the specified rows.  The rows of the panel above the specified rows must
+    * already be computed.
+    *
+    * @param jb the first column of the panel.
+    * @param je the column after the last column of the panel.
+    * @param from the first row to compute.
+    * @param to the row after the last row to compute.
+    */
+   private void factor(int jb, int je, int from, int to) {
+      for (int i = from; i < to; i++) {
+         int ri = start(i);
+         int end = Math.min(je, i + 1);
+         for (int j = jb; j < end; j++) {
+            int rj = start(j);
+            double s = l[ri + j] - dot(ri, rj, j);
+            if (i == j) {
+               if (!(s > 0.0)) {
+                  throw new NonPositiveDefiniteException(
+                          "Matrix is not positive definite: non-positive pivot (" + s + ") in column " + j);
+               }
+               l[ri + j] = Math.sqrt(s);
+            } else {
+               l[ri + j] = s / l[rj + j];
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the dot product of the first values of two packed rows.  Four independent sums keep the floating point
+    * pipeline full.
+    *
+    * @param a the start of the first row.
+    * @param b the start of the second row.
+    * @param length the number of values to multiply.
+    * @return the dot product.
+    */
+   private double dot(int a, int b, int length) {
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int k = 0;
+      for (; k + 3 < length; k += 4) {
+         s0 += l[a + k] * l[b + k];
+         s1 += l[a + k + 1] * l[b + k + 1];
+         s2 += l[a + k + 2] * l[b + k + 2];
+         s3 += l[a + k + 3] * l[b + k + 3];
+      }
+      for (; k < length; k++) {
+         s0 += l[a + k] * l[b + k];
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+
+   /**
+    * Returns the lower triangular factor {@code L}.
+    *
+    * @return the lower factor.
+    */
+   public Matrix getL() {
+      Matrix m = new Matrix(n, n);
+      for (int i = 0; i < n; i++) {
+         int ri = start(i);
+         for (int j = 0; j <= i; j++) {
+            m.set(i, j, l[ri + j]);
+         }
+      }
+      return m;
+   }
+
+   /**
+    * Returns the determinant of the decomposed matrix.  For large matrices the determinant easily overflows, use
+    * {@link #logDeterminant()} instead.
+    *
+    * @return the determinant.
+    */
+   public double determinant() {
+      double d = 1.0;
+      for (int i = 0; i < n; i++) {
+         double lii = l[start(i) + i];
+         d *= lii * lii;
+      }
+      return d;
+   }
+
+   /**
+    * Returns the natural logarithm of the determinant of the decomposed matrix.
+    *
+    * @return the log-determinant.
+    */
+   public double logDeterminant() {
+      double sum = 0.0;
+      for (int i = 0; i < n; i++) {
+         sum += Math.log(l[start(i) + i]);
+      }
+      return 2.0 * sum;
+   }
+
+   /**
+    * Solves {@code A * x = b} for {@code x}.  The solution has the same orientation as the specified vector.
+    *
+    * @param b the right-hand side.
+    * @return the solution of the system.
+    */
+   public Vector solve(IVector b) {
+      if (b == null) {
+         throw new NullPointerException("Cannot access a null vector.");
+      } else if (b.length() != n) {
+         throw new VectorDimensionException(
+                 "Vector length (" + b.length() + ") must equal the dimension of the matrix (" + n + ")");
+      }
+
+      double[] x = new double[n];
+      for (int i = 0; i < n; i++) {
+         x[i] = b.get(i);
+      }
+      // Forward substitution with L reads the rows of L.
+      for (int i = 0; i < n; i++) {
+         int ri = start(i);
+         double sum = x[i];
+         for (int k = 0; k < i; k++) {
+            sum -= l[ri + k] * x[k];
+         }
+         x[i] = sum / l[ri + i];
+      }
+      // Back substitution with L^T also reads the rows of L, subtracting each solved value from the values above it.
+      for (int i = n - 1; i >= 0; i--) {
+         int ri = start(i);
+         double xi = x[i] / l[ri + i];
+         x[i] = xi;
+         for (int k = 0; k < i; k++) {
+            x[k] -= l[ri + k] * xi;
+         }
+      }
+
+      Vector v = new Vector(x);
+      return (b.columns() == 1 && b.rows() != 1 ? v.transpose() : v);
+   }
+
+   /**
+    * Solves {@code A * X = B} for {@code X}.  Every column of {@code B} is a separate right-hand side.
+    *
+    * @param b the right-hand sides.
+    * @return the solutions of the system.
+    */
+   public Matrix solve(IMatrix b) {
+      if (b == null) {
+         throw new NullPointerException("Cannot access a null matrix.");
+      } else if (b.rows() != n) {
+         throw new MatrixDimensionException(
+                 "Matrix rows (" + b.rows() + ") must equal the dimension of the decomposed matrix (" + n + ")");
+      }
+
+      int m = b.columns();
+      Matrix result = new Matrix(b);
+      double[] x = result.data();
+      for (int i = 0; i < n; i++) {
+         int ri = start(i);
+         int xi = i * m;
+         for (int k = 0; k < i; k++) {
+            double lik = l[ri + k];
+            for (int j = 0, xk = k * m; j < m; j++) {
+               x[xi + j] -= lik * x[xk + j];
+            }
+         }
+         double d = l[ri + i];
+         for (int j = 0; j < m; j++) {
+            x[xi + j] /= d;
+         }
+      }
+      for (int i = n - 1; i >= 0; i--) {
+         int ri = start(i);
+         int xi = i * m;
+         double d = l[ri + i];
+         for (int j = 0; j < m; j++) {
+            x[xi + j] /= d;
+         }
+         for (int k = 0; k < i; k++) {
+            double lik = l[ri + k];
+            for (int j = 0, xk = k * m; j < m; j++) {
+               x[xk + j] -= lik * x[xi + j];
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Returns the inverse of the decomposed matrix.
+    *
+    * @return the inverse.
+    */
+   public Matrix inverse() {
+      Matrix identity = new Matrix(n, n);
+      for (int i = 0; i < n; i++) {
+         identity.set(i, i, 1.0);
+      }
+      return solve(identity);
+   }
+
+   /**
+    * Updates the decomposition to be the decomposition of {@code A + x * x^T} in O(n^2) time.
+    *
+    * @param x the update vector.
+    * @return this decomposition modified with the update.
+    */
+   public CholeskyDecomposition rankOneUpdate(IVector x) {
+      double[] w = values(x);
+      for (int k = 0; k < n; k++) {
+         int rk = start(k) + k;
+         double lkk = l[rk];
+         double r = Math.hypot(lkk, w[k]);
+         double c = r / lkk;
+         double s = w[k] / lkk;
+         l[rk] = r;
+         for (int i = k + 1; i < n; i++) {
+            int ik = start(i) + k;
+            double lik = (l[ik] + s * w[i]) / c;
+            l[ik] = lik;
+            w[i] = c * w[i] - s * lik;
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Updates the decomposition to be the decomposition of {@code A - x * x^T} in O(n^2) time.  The decomposition is
+    * left unchanged if the downdated matrix would not be positive definite.
+    *
+    * @param x the downdate vector.
+    * @return this decomposition modified with the downdate.
+    * @throws NonPositiveDefiniteException if the downdated matrix is not positive definite.
+    */
+   public CholeskyDecomposition rankOneDowndate(IVector x) {
+      double[] w = values(x);
+      // The downdate keeps A positive definite if and only if |L^-1 * x| < 1.
+      double norm = 0.0;
+      double[] p = w.clone();
+      for (int i = 0; i < n; i++) {
+         int ri = start(i);
+         double sum = p[i];
+         for (int k = 0; k < i; k++) {
+            sum -= l[ri + k] * p[k];
+         }
+         p[i] = sum / l[ri + i];
+         norm += p[i] * p[i];
+      }
+      if (!(norm < 1.0)) {
+         throw new NonPositiveDefiniteException("Downdated matrix is not positive definite.");
+      }
+
+      for (int k = 0; k < n; k++) {
+         int rk = start(k) + k;
+         double lkk = l[rk];
+         double r = Math.sqrt((lkk - w[k]) * (lkk + w[k]));
+         double c = r / lkk;
+         double s = w[k] / lkk;
+         l[rk] = r;
+         for (int i = k + 1; i < n; i++) {
+            int ik = start(i) + k;
+            double lik = (l[ik] - s * w[i]) / c;
+            l[ik] = lik;
+            w[i] = c * w[i] - s * lik;
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Returns a copy of the values of an update vector after checking its length.
+    *
+    * @param x the update vector.
+    * @return the values of the vector.
+    */
+   private double[] values(IVector x) {
+      if (x == null) {
+         throw new NullPointerException("Cannot access a null vector.");
+      } else if (x.length() != n) {
+         throw new VectorDimensionException(
+                 "Vector length (" + x.length() + ") must equal the dimension of the matrix (" + n + ")");
+      }
+      double[] w = new double[n];
+      for (int i = 0; i < n; i++) {
+         w[i] = x.get(i);
+      }
+      return w;
+   }
+}
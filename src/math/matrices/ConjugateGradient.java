@@ -0,0 +1,81 @@
+package math.matrices;
+
+/**
+ * The conjugate gradient method for a symmetric positive definite operator, optionally preconditioned.  The
+ * preconditioner is an operator applying the inverse of an approximation {@code M} of {@code A}, for example a {@link
+ * JacobiPreconditioner} or an {@link IncompleteLU}, and must itself be symmetric positive definite.
+ * <p/>
+ * Every iteration applies the operator and the preconditioner once each and a solve keeps four work vectors.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class ConjugateGradient extends IterativeSolver {
+
+   /**
+    * The operator applying the inverse of the preconditioner, or {@code null} if not preconditioned.
+    */
+   private final LinearOperator preconditioner;
+
+   /**
+    * Creates a new solver without a preconditioner.
+    */
+   public ConjugateGradient() {
+      this(null);
+   }
+
+   /**
+    * Creates a new solver with the specified preconditioner.
+    *
+    * @param preconditioner the operator applying the inverse of the preconditioner, or {@code null} for none.
+    */
+   public ConjugateGradient(LinearOperator preconditioner) {
+      this.preconditioner = preconditioner;
+   }
+
+   /**
+    * {@inheritDoc}
+    *
+    * @throws NonPositiveDefiniteException if the operator is found not to be positive definite.
+    */
+   @Override
+   protected void iterate(LinearOperator a, double[] b, double[] x) {
+      int n = b.length;
+      double[] r = new double[n];
+      residual(a, b, x, r);
+      if (start(norm(r))) {
+         return;
+      }
+      double[] z = (preconditioner == null ? r : new double[n]);
+      double[] p = new double[n];
+      double[] q = new double[n];
+      if (preconditioner != null) {
+         apply(preconditioner, r, z);
+      }
+      System.arraycopy(z, 0, p, 0, n);
+      double rz = dot(r, z);
+
+      while (hasIterations()) {
+         apply(a, p, q);
+         double pq = dot(p, q);
+         if (!(pq > 0.0)) {
+            throw new NonPositiveDefiniteException("Operator is not positive definite: p^T * A * p = " + pq);
+         }
+         double alpha = rz / pq;
+         axpy(alpha, p, x);
+         axpy(-alpha, q, r);
+         if (record(norm(r))) {
+            return;
+         }
+         if (preconditioner != null) {
+            apply(preconditioner, r, z);
+         }
+         double rzNext = dot(r, z);
+         double beta = rzNext / rz;
+         rz = rzNext;
+         for (int k = 0; k < n; k++) {
+            p[k] = z[k] + beta * p[k];
+         }
+      }
+   }
+}
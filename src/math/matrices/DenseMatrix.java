@@ -0,0 +1,1169 @@
+package math.matrices;
+
+import java.util.BitSet;
+
+/**
+ * The object representation of a dense mathematical matrix stored in one array.  The value at row {@code r} and column
+ * {@code c} is found at {@code offset + r * stride + c * columnStride}.  Matrices are created row-major, with a column
+ * stride of one and a stride (leading dimension) of at least the number of columns; {@link #transpose()} swaps the two
+ * strides so a transposed matrix is read column by column without moving any values.  This is <em>not</em> a safe
+ * matrix. It does not perform any dimension checks before performing any actions.
+ * <p/>
+ * Element-wise operations and matrix-multiplication of large matrices run in {@link Parallel}, and the element-wise
+ * operations use the vectorized kernels of {@link Simd} where available.  The kernels follow the strides of their
+ * operands: gap-free operands with the same layout are processed as single ranges, row-major or column-major operands
+ * one line at a time, and mixed layouts in small square tiles.  {@link #compact()} moves the values back into
+ * row-major order when that is needed, in place where possible.
+ * <p/>
+ * Views of a region, a row, a column or a reshaping of the matrix share the backing array, so writes through a view
+ * land in the matrix and the other way around.  Operations that change the dimensions of a view, such as {@link
+ * #multiply(IMatrix)}, give it new storage and detach it from the matrix; {@link #transpose()} does not.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class DenseMatrix implements IMatrix, LinearOperator {
+
+   /**
+    * The size of the square tiles of copies between layouts and of the in-place transpose.
+    */
+   private static final int TILE = 32;
+
+   /**
+    * The backing array of the matrix.  It may be shared with other matrices.
+    */
+   private double[] data;
+
+   /**
+    * The index in the backing array of the value at row zero and column zero.
+    */
+   private int offset;
+
+   /**
+    * The distance in the backing array between the starts of two consecutive rows.
+    */
+   private int stride;
+
+   /**
+    * The distance in the backing array between two consecutive values of a row.  It is one unless the matrix has been
+    * transposed or is a strided view.
+    */
+   private int columnStride;
+
+   /**
+    * The number of rows that are in this matrix.
+    */
+   private int rows;
+
+   /**
+    * The number of columns that are in this matrix.
+    */
+   private int columns;
+
+   /**
+    * Creates a new matrix with no values and of size zero.
+    */
+   public DenseMatrix() {
+      this(0, 0);
+   }
+
+   /**
+    * Creates a new matrix of the specified size and with all values equaling zero.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    */
+   public DenseMatrix(int rows, int columns) {
+      this(rows, columns, new double[rows * columns]);
+   }
+
+   /**
+    * Creates a new matrix over the specified row-major array.  If the resulting matrix is modified the array will
+    * change as well.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param data the row-major backing array of the matrix.
+    */
+   public DenseMatrix(int rows, int columns, double[] data) {
+      this(rows, columns, data, 0, columns);
+   }
+
+   /**
+    * Creates a new matrix over the specified region of a row-major array.  If the resulting matrix is modified the
+    * array will change as well.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param data the row-major backing array of the matrix.
+    * @param offset the index of the value at row zero and column zero.
+    * @param stride the distance between the starts of two consecutive rows.
+    */
+   public DenseMatrix(int rows, int columns, double[] data, int offset, int stride) {
+      initStorage(rows, columns, data, offset, stride, 1);
+   }
+
+   /**
+    * Creates a new matrix over the specified values of an array, with the value at row {@code r} and column {@code c}
+    * at {@code offset + r * stride + c * columnStride}.  If the resulting matrix is modified the array will change as
+    * well.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param data the backing array of the matrix.
+    * @param offset the index of the value at row zero and column zero.
+    * @param stride the distance between the starts of two consecutive rows.
+    * @param columnStride the distance between two consecutive values of a row.
+    */
+   public DenseMatrix(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      initStorage(rows, columns, data, offset, stride, columnStride);
+   }
+
+   /**
+    * Creates a new matrix with the values of the specified array.  The values are copied into contiguous storage so
+    * modifying the resulting matrix will not change the array.
+    *
+    * @param a the values of the matrix.
+    */
+   public DenseMatrix(double[][] a) {
+      int c = (a.length == 0 ? 0 : a[0].length);
+      initStorage(a.length, c, flatten(a, c), 0, c, 1);
+   }
+
+   /**
+    * Creates a new matrix that is a copy of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    */
+   public DenseMatrix(IMatrix a) {
+      int r = a.rows();
+      int c = a.columns();
+      double[] d = new double[r * c];
+      if (a instanceof DenseMatrix && ((DenseMatrix) a).isRowMajor()) {
+         DenseMatrix m = (DenseMatrix) a;
+         for (int i = 0; i < r; i++) {
+            System.arraycopy(m.data, m.offset + i * m.stride, d, i * c, c);
+         }
+      } else if (a instanceof DenseMatrix) {
+         ((DenseMatrix) a).copyInto(d, 0, c, 1);
+      } else {
+         for (int i = 0; i < r; i++) {
+            for (int j = 0; j < c; j++) {
+               d[i * c + j] = a.get(i, j);
+            }
+         }
+      }
+      initStorage(r, c, d, 0, c, 1);
+   }
+
+   /**
+    * Returns the rows of an array copied one after the other into a new array.
+    */
+   private static double[] flatten(double[][] a, int columns) {
+      double[] d = new double[a.length * columns];
+      for (int i = 0; i < a.length; i++) {
+         System.arraycopy(a[i], 0, d, i * columns, columns);
+      }
+      return d;
+   }
+
+   /**
+    * Replaces the storage of the matrix with the specified region of a row-major array.  Nothing is copied.
+    *
+    * @param rows the number of rows in the matrix.
+    * @param columns the number of columns in the matrix.
+    * @param data the row-major backing array of the matrix.
+    * @param offset the index of the value at row zero and column zero.
+    * @param stride the distance between the starts of two consecutive rows.
+    */
+   protected void setStorage(int rows, int columns, double[] data, int offset, int stride) {
+      setStorage(rows, columns, data, offset, stride, 1);
+   }
+
+   /**
+    * Replaces the storage of the matrix with the specified values of an array.  Nothing is copied.
+    *
+    * @param rows the number of rows in the matrix.
+    * @param columns the number of columns in the matrix.
+    * @param data the backing array of the matrix.
+    * @param offset the index of the value at row zero and column zero.
+    * @param stride the distance between the starts of two consecutive rows.
+    * @param columnStride the distance between two consecutive values of a row.
+    */
+   protected void setStorage(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      initStorage(rows, columns, data, offset, stride, columnStride);
+   }
+
+   /**
+    * Sets the storage of the matrix without going through the overridable {@link #setStorage(int, int, double[], int,
+    * int, int)}, so constructors do not let the matrix escape before a subclass is initialized.
+    */
+   private void initStorage(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      this.rows = rows;
+      this.columns = columns;
+      this.data = data;
+      this.offset = offset;
+      this.stride = stride;
+      this.columnStride = columnStride;
+   }
+
+   /**
+    * Returns the backing array of the matrix.  Modifying the array will modify the matrix.
+    *
+    * @return the backing array.
+    */
+   public double[] data() {
+      return data;
+   }
+
+   /**
+    * Returns the index in the backing array of the value at row zero and column zero.
+    *
+    * @return the offset of the first value.
+    */
+   public int offset() {
+      return offset;
+   }
+
+   /**
+    * Returns the distance in the backing array between the starts of two consecutive rows.
+    *
+    * @return the leading dimension of the matrix.
+    */
+   public int stride() {
+      return stride;
+   }
+
+   /**
+    * Returns the distance in the backing array between two consecutive values of a row.
+    *
+    * @return the column stride of the matrix.
+    */
+   public int columnStride() {
+      return columnStride;
+   }
+
+   /**
+    * Returns if the values of the matrix occupy one gap-free run of the backing array in row-major order.
+    *
+    * @return if the matrix is contiguous.
+    */
+   public boolean isContiguous() {
+      return isRowMajor() && (stride == columns || rows <= 1);
+   }
+
+   /**
+    * Returns if the values of each row are adjacent in the backing array.
+    *
+    * @return if the column stride is one.
+    */
+   boolean isRowMajor() {
+      return columnStride == 1 || columns <= 1;
+   }
+
+   /**
+    * Returns if the values of each column are adjacent in the backing array.
+    *
+    * @return if the row stride is one.
+    */
+   boolean isColumnMajor() {
+      return stride == 1 || rows <= 1;
+   }
+
+   /**
+    * Returns if the values of the matrix occupy one gap-free run of the backing array in column-major order, as they
+    * do after a contiguous matrix is transposed.
+    *
+    * @return if the transpose of the matrix is contiguous.
+    */
+   boolean isColumnContiguous() {
+      return isColumnMajor() && (columnStride == rows || columns <= 1);
+   }
+
+   /**
+    * Returns the index in the backing array of the value at the specified row and column.
+    */
+   private int index(int r, int c) {
+      return offset + r * stride + c * columnStride;
+   }
+
+   /**
+    * Creates a matrix of the same kind over the specified region of a row-major array.  Used to create views.
+    *
+    * @param rows the number of rows of the matrix.
+    * @param columns the number of columns of the matrix.
+    * @param data the row-major backing array.
+    * @param offset the index of the value at row zero and column zero.
+    * @param stride the distance between the starts of two consecutive rows.
+    * @param columnStride the distance between two consecutive values of a row.
+    * @return the new matrix over the array.
+    */
+   protected DenseMatrix wrap(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      return new DenseMatrix(rows, columns, data, offset, stride, columnStride);
+   }
+
+   /**
+    * Returns a view of a rectangular region of the matrix.  Nothing is copied.
+    *
+    * @param r the first row of the region.
+    * @param c the first column of the region.
+    * @param rows the number of rows of the region.
+    * @param columns the number of columns of the region.
+    * @return the view of the region.
+    * @throws MatrixDimensionException if the region is not within the matrix.
+    */
+   public DenseMatrix view(int r, int c, int rows, int columns) {
+      DimensionChecking.catchRegion(this, r, c, rows, columns);
+      return wrap(rows, columns, data, index(r, c), stride, columnStride);
+   }
+
+   /**
+    * Returns a view of every {@code rowStep}-th row of a rectangular region of the matrix, starting at row {@code r}.
+    * Nothing is copied.
+    *
+    * @param r the first row of the region.
+    * @param c the first column of the region.
+    * @param rows the number of rows of the view.
+    * @param columns the number of columns of the view.
+    * @param rowStep the distance between two rows of the view in rows of the matrix.
+    * @return the view of the rows.
+    * @throws MatrixDimensionException if the rows are not within the matrix.
+    */
+   public DenseMatrix view(int r, int c, int rows, int columns, int rowStep) {
+      return view(r, c, rows, columns, rowStep, 1);
+   }
+
+   /**
+    * Returns a view of every {@code rowStep}-th row and {@code columnStep}-th column of a region of the matrix,
+    * starting at row {@code r} and column {@code c}.  Nothing is copied.
+    *
+    * @param r the first row of the region.
+    * @param c the first column of the region.
+    * @param rows the number of rows of the view.
+    * @param columns the number of columns of the view.
+    * @param rowStep the distance between two rows of the view in rows of the matrix.
+    * @param columnStep the distance between two columns of the view in columns of the matrix.
+    * @return the strided view.
+    * @throws MatrixDimensionException if the rows or columns are not within the matrix.
+    */
+   public DenseMatrix view(int r, int c, int rows, int columns, int rowStep, int columnStep) {
+      if (rowStep < 1 || columnStep < 1) {
+         throw new IllegalArgumentException("Steps must be positive: " + rowStep + " and " + columnStep);
+      }
+      DimensionChecking.catchRegion(this, r, c, (rows == 0 ? 0 : (rows - 1) * rowStep + 1),
+                                    (columns == 0 ? 0 : (columns - 1) * columnStep + 1));
+      return wrap(rows, columns, data, index(r, c), stride * rowStep, columnStride * columnStep);
+   }
+
+   /**
+    * Returns a view of a row of the matrix as a row vector.  Nothing is copied.
+    *
+    * @param r the row.
+    * @return the view of the row.
+    * @throws MatrixDimensionException if the row is not within the matrix.
+    */
+   public Vector rowView(int r) {
+      DimensionChecking.catchRegion(this, r, 0, 1, columns);
+      return new Vector(1, columns, data, index(r, 0), stride, columnStride);
+   }
+
+   /**
+    * Returns a view of a column of the matrix as a column vector.  Nothing is copied.
+    *
+    * @param c the column.
+    * @return the view of the column.
+    * @throws MatrixDimensionException if the column is not within the matrix.
+    */
+   public Vector columnView(int c) {
+      DimensionChecking.catchRegion(this, 0, c, rows, 1);
+      return new Vector(rows, 1, data, index(0, c), stride, columnStride);
+   }
+
+   /**
+    * Returns a view of the values of the matrix in row-major order with different dimensions.  Nothing is copied, so
+    * the matrix must be contiguous.
+    *
+    * @param rows the number of rows of the view.
+    * @param columns the number of columns of the view.
+    * @return the reshaped view.
+    * @throws MatrixDimensionException if the view does not have the same number of values as the matrix.
+    * @throws IllegalStateException if the matrix is not contiguous.
+    */
+   public DenseMatrix reshape(int rows, int columns) {
+      if (rows < 0 || columns < 0 || (long) rows * columns != (long) this.rows * this.columns) {
+         throw new MatrixDimensionException(
+               "Cannot reshape (" + this.rows + "x" + this.columns + ") to (" + rows + "x" + columns + ")");
+      }
+      if (!isContiguous()) {
+         throw new IllegalStateException("Cannot reshape a matrix that is not contiguous without copying");
+      }
+      return wrap(rows, columns, data, offset, columns, 1);
+   }
+
+   /**
+    * Returns if the matrix may share values with the specified matrix, that is if they have the same backing array and
+    * the spans of it they cover intersect.  Views of disjoint blocks of rows do not overlap, interleaved views might.
+    *
+    * @param m the other matrix.
+    * @return if the matrices may overlap.
+    */
+   boolean overlaps(DenseMatrix m) {
+      if (data != m.data || rows == 0 || columns == 0 || m.rows == 0 || m.columns == 0) {
+         return false;
+      }
+      long end = offset + (long) (rows - 1) * stride + (long) (columns - 1) * columnStride + 1;
+      long mEnd = m.offset + (long) (m.rows - 1) * m.stride + (long) (m.columns - 1) * m.columnStride + 1;
+      return offset < mEnd && m.offset < end;
+   }
+
+   /**
+    * Returns the distance in the backing array between two consecutive values when the matrix is used as a vector.
+    * Row vectors step along a row and column vectors step along a column.
+    *
+    * @return the step between the values of the vector.
+    */
+   int vectorStep() {
+      return (columns > rows ? columnStride : stride);
+   }
+
+   @Override
+   public int rows() {
+      return rows;
+   }
+
+   @Override
+   public int columns() {
+      return columns;
+   }
+
+   @Override
+   public double get(int r, int c) {
+      return data[index(r, c)];
+   }
+
+   @Override
+   public double[] getRow(int r) {
+      return getRow(r, new double[columns]);
+   }
+
+   @Override
+   public double[] getColumn(int c) {
+      return getColumn(c, new double[rows]);
+   }
+
+   @Override
+   public double[] getRow(int r, double[] dst) {
+      DimensionChecking.catchLength(dst, columns);
+      if (isRowMajor()) {
+         System.arraycopy(data, index(r, 0), dst, 0, columns);
+      } else {
+         for (int j = 0, k = index(r, 0); j < columns; j++, k += columnStride) {
+            dst[j] = data[k];
+         }
+      }
+      return dst;
+   }
+
+   @Override
+   public double[] getColumn(int c, double[] dst) {
+      DimensionChecking.catchLength(dst, rows);
+      if (isColumnMajor()) {
+         System.arraycopy(data, index(0, c), dst, 0, rows);
+      } else {
+         for (int i = 0, k = index(0, c); i < rows; i++, k += stride) {
+            dst[i] = data[k];
+         }
+      }
+      return dst;
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified array.  The values are copied so modifying the matrix will not
+    * change the array.  If the dimensions do not change the values are copied into the existing storage, so setting a
+    * view sets the values of the matrix it views.
+    * <p/>
+    * Note: if the dimensions change the values are copied into new contiguous storage, detaching a view from its
+    * matrix.
+    *
+    * @param a the new values for the matrix.
+    * @return the matrix with the values of the array.
+    */
+   @Override
+   public DenseMatrix set(double[][] a) {
+      int r = a.length;
+      int c = (r == 0 ? 0 : a[0].length);
+      if (r == rows && c == columns) {
+         write(0, 0, a);
+         return this;
+      }
+      setStorage(r, c, flatten(a, c), 0, c);
+      return this;
+   }
+
+   @Override
+   public DenseMatrix set(int r, int c, double n) {
+      data[index(r, c)] = n;
+      return this;
+   }
+
+   @Override
+   public DenseMatrix setRow(int r, double[] v) {
+      if (isRowMajor()) {
+         System.arraycopy(v, 0, data, index(r, 0), columns);
+      } else {
+         for (int j = 0, k = index(r, 0); j < columns; j++, k += columnStride) {
+            data[k] = v[j];
+         }
+      }
+      return this;
+   }
+
+   @Override
+   public DenseMatrix setColumn(int c, double[] v) {
+      if (isColumnMajor()) {
+         System.arraycopy(v, 0, data, index(0, c), rows);
+      } else {
+         for (int i = 0, k = index(0, c); i < rows; i++, k += stride) {
+            data[k] = v[i];
+         }
+      }
+      return this;
+   }
+
+   @Override
+   public DenseMatrix set(int r, int c, double[][] a) {
+      write(r, c, a);
+      return this;
+   }
+
+   /**
+    * Copies the rows of an array into the storage of the matrix from the specified row and column.
+    */
+   private void write(int r, int c, double[][] a) {
+      for (int i = 0; i < a.length; i++) {
+         if (isRowMajor()) {
+            System.arraycopy(a[i], 0, data, index(r + i, c), a[i].length);
+         } else {
+            for (int j = 0, k = index(r + i, c); j < a[i].length; j++, k += columnStride) {
+               data[k] = a[i][j];
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the transpose of the matrix.  This operation does not create a new matrix but modifies the original
+    * matrix.  No values are moved: the dimensions and the two strides are swapped, so the transpose costs the same
+    * whatever the size of the matrix and keeps sharing the backing array.  Use {@link #compact()} to move the values
+    * into row-major order afterwards.
+    *
+    * @return the transpose of the matrix.
+    */
+   @Override
+   public DenseMatrix transpose() {
+      setStorage(columns, rows, data, offset, columnStride, stride);
+      return this;
+   }
+
+   /**
+    * Moves the values of the matrix into contiguous row-major order, so that the column stride is one and the stride
+    * equals the number of columns.  A matrix that is already contiguous is left as it is.  A contiguous matrix that has
+    * been transposed is transposed back physically within its own span of the backing array: square matrices by a
+    * cache-oblivious recursion over quadrants and others by following the cycles of the permutation.  Any other
+    * layout is copied into new storage, detaching the matrix from the array.
+    * <p/>
+    * Note: rearranging in place changes the values seen by any other matrix sharing the backing array.
+    *
+    * @return the matrix in row-major order.
+    */
+   public DenseMatrix compact() {
+      if (isContiguous()) {
+         setStorage(rows, columns, data, offset, columns, 1);
+      } else if (isColumnContiguous()) {
+         if (rows == columns) {
+            transposeDiagonal(data, offset, rows, 0, rows);
+         } else {
+            transposeCycles(data, offset, columns, rows);
+         }
+         setStorage(rows, columns, data, offset, columns, 1);
+      } else {
+         double[] d = new double[rows * columns];
+         copyInto(d, 0, columns, 1);
+         setStorage(rows, columns, d, 0, columns, 1);
+      }
+      return this;
+   }
+
+   /**
+    * Transposes the diagonal block of size {@code size} from {@code (r, r)} of a row-major {@code n x n} array in
+    * place.  The block is split into quadrants: the two diagonal quadrants are transposed recursively and the other two
+    * are swapped with each other.  Blocks are halved until they fit a tile so every level of the cache is used without
+    * knowing its size.
+    */
+   private static void transposeDiagonal(double[] a, int offset, int n, int r, int size) {
+      if (size <= TILE) {
+         for (int i = r; i < r + size; i++) {
+            for (int j = i + 1; j < r + size; j++) {
+               swap(a, offset + i * n + j, offset + j * n + i);
+            }
+         }
+      } else {
+         int h = size / 2;
+         transposeDiagonal(a, offset, n, r, h);
+         transposeDiagonal(a, offset, n, r + h, size - h);
+         swapMirror(a, offset, n, r, r + h, h, size - h);
+      }
+   }
+
+   /**
+    * Swaps the block of {@code h x w} values from {@code (r, c)} of a row-major {@code n x n} array with the transpose
+    * of its mirror block from {@code (c, r)}, halving the longer side until the blocks fit a tile.
+    */
+   private static void swapMirror(double[] a, int offset, int n, int r, int c, int h, int w) {
+      if (h <= TILE && w <= TILE) {
+         for (int i = r; i < r + h; i++) {
+            for (int j = c; j < c + w; j++) {
+               swap(a, offset + i * n + j, offset + j * n + i);
+            }
+         }
+      } else if (h >= w) {
+         swapMirror(a, offset, n, r, c, h / 2, w);
+         swapMirror(a, offset, n, r + h / 2, c, h - h / 2, w);
+      } else {
+         swapMirror(a, offset, n, r, c, h, w / 2);
+         swapMirror(a, offset, n, r, c + w / 2, h, w - w / 2);
+      }
+   }
+
+   /**
+    * Swaps two values of an array.
+    */
+   private static void swap(double[] a, int x, int y) {
+      double t = a[x];
+      a[x] = a[y];
+      a[y] = t;
+   }
+
+   /**
+    * Transposes a row-major {@code rows x columns} array in place into a row-major {@code columns x rows} array.  The
+    * value at index {@code k} moves to {@code k * rows mod (n - 1)}; each cycle of that permutation is followed once,
+    * with the visited indices marked in a bit set of {@code n} bits.
+    */
+   private static void transposeCycles(double[] a, int offset, int rows, int columns) {
+      int n = rows * columns;
+      if (n <= 2) {
+         return;
+      }
+      BitSet visited = new BitSet(n);
+      long modulus = n - 1;
+      for (int start = visited.nextClearBit(1); start < n - 1; start = visited.nextClearBit(start + 1)) {
+         int k = start;
+         double value = a[offset + k];
+         do {
+            int next = (int) (k * (long) rows % modulus);
+            double t = a[offset + next];
+            a[offset + next] = value;
+            value = t;
+            visited.set(k);
+            k = next;
+         } while (k != start);
+      }
+   }
+
+   /**
+    * Writes the transpose of the matrix into the specified matrix without modifying this matrix.  A dense result is
+    * written directly into its backing array in square tiles so that both the reads and the writes stay within a few
+    * cache lines, and the rows of large matrices run in {@link Parallel}.
+    *
+    * @param out the matrix to write the transpose into.
+    * @param <T> the type of the matrix.
+    * @return the specified matrix.
+    * @throws MatrixDimensionException if the specified matrix does not have the transposed dimensions.
+    */
+   @Override
+   public <T extends IMatrix> T transposeInto(T out) {
+      if (!(out instanceof DenseMatrix)) {
+         return IMatrix.super.transposeInto(out);
+      }
+      DimensionChecking.catchDimensions(out, columns, rows);
+      DenseMatrix t = (DenseMatrix) out;
+      if (t.overlaps(this)) {
+         throw new IllegalArgumentException("Cannot transpose a matrix into its own storage");
+      }
+      copyInto(t.data, t.offset, t.columnStride, t.stride);
+      return out;
+   }
+
+   /**
+    * Copies the values of the matrix into an array, with the value at row {@code r} and column {@code c} going to
+    * {@code offset + r * stride + c * columnStride}.  The values are copied in square tiles so that the reads and the
+    * writes both stay within a few cache lines whatever the layouts, and the rows of large matrices run in {@link
+    * Parallel}.
+    */
+   private void copyInto(double[] dst, int dstOffset, int dstStride, int dstColumnStride) {
+      long work = (long) rows * columns;
+      if (Parallel.isParallel(work)) {
+         Parallel.forRows(rows, work, TILE,
+                          (from, to) -> copyTiles(from, to, dst, dstOffset, dstStride, dstColumnStride));
+      } else {
+         copyTiles(0, rows, dst, dstOffset, dstStride, dstColumnStride);
+      }
+   }
+
+   /**
+    * Copies the specified rows of the matrix into an array one tile at a time.
+    */
+   private void copyTiles(int from, int to, double[] dst, int dstOffset, int dstStride, int dstColumnStride) {
+      for (int i0 = from; i0 < to; i0 += TILE) {
+         int i1 = Math.min(i0 + TILE, to);
+         for (int j0 = 0; j0 < columns; j0 += TILE) {
+            int j1 = Math.min(j0 + TILE, columns);
+            for (int i = i0; i < i1; i++) {
+               int k = index(i, j0);
+               int l = dstOffset + i * dstStride + j0 * dstColumnStride;
+               for (int j = j0; j < j1; j++, k += columnStride, l += dstColumnStride) {
+                  dst[l] = data[k];
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Inverts the matrix.  The inverse is copied into the existing storage, so inverting a view inverts the values of
+    * the matrix it views.
+    *
+    * @return the original matrix modified to be its inverse.
+    */
+   @Override
+   public DenseMatrix inverse() {
+      Matrix inverse = new LUDecomposition(this).inverse();
+      replace(inverse.rows(), inverse.columns(), inverse.data());
+      return this;
+   }
+
+   /**
+    * Replaces the values of the matrix with the specified row-major values.  If the dimensions do not change the
+    * values are copied into the existing storage, so a view keeps sharing the values of its matrix; otherwise the array
+    * becomes the new storage of the matrix.
+    *
+    * @param rows the number of rows of the values.
+    * @param columns the number of columns of the values.
+    * @param values the contiguous row-major values.
+    */
+   private void replace(int rows, int columns, double[] values) {
+      if (rows != this.rows || columns != this.columns) {
+         setStorage(rows, columns, values, 0, columns);
+      } else if (isContiguous()) {
+         System.arraycopy(values, 0, data, offset, rows * columns);
+      } else {
+         new DenseMatrix(rows, columns, values, 0, columns).copyInto(data, offset, stride, columnStride);
+      }
+   }
+
+   @Override
+   public DenseMatrix scale(double n) {
+      long work = (long) rows * columns;
+      if (isContiguous()) {
+         Parallel.forRows(rows, work, (from, to) -> {
+            Simd.scale(data, offset + from * columns, (to - from) * columns, n);
+         });
+      } else if (isColumnContiguous()) {
+         Parallel.forRows(columns, work, (from, to) -> {
+            Simd.scale(data, offset + from * rows, (to - from) * rows, n);
+         });
+      } else if (isRowMajor()) {
+         Parallel.forRows(rows, work, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               Simd.scale(data, index(i, 0), columns, n);
+            }
+         });
+      } else if (isColumnMajor()) {
+         Parallel.forRows(columns, work, (from, to) -> {
+            for (int j = from; j < to; j++) {
+               Simd.scale(data, index(0, j), rows, n);
+            }
+         });
+      } else {
+         Parallel.forRows(rows, work, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               for (int j = 0, k = index(i, 0); j < columns; j++, k += columnStride) {
+                  data[k] *= n;
+               }
+            }
+         });
+      }
+      return this;
+   }
+
+   @Override
+   public DenseMatrix add(IMatrix a) {
+      if (!(a instanceof DenseMatrix)) {
+         return (DenseMatrix) IMatrix.super.add(a);
+      }
+      return elementwise((DenseMatrix) a, Operation.ADD);
+   }
+
+   @Override
+   public DenseMatrix subtract(IMatrix a) {
+      if (!(a instanceof DenseMatrix)) {
+         return (DenseMatrix) IMatrix.super.subtract(a);
+      }
+      return elementwise((DenseMatrix) a, Operation.SUBTRACT);
+   }
+
+   /**
+    * An element-wise operation, both as a kernel of {@link Simd} over ranges of two arrays and on single values.
+    */
+   enum Operation {
+      ADD {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.add(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         double apply(double a, double b) {
+            return a + b;
+         }
+      },
+      SUBTRACT {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.subtract(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         double apply(double a, double b) {
+            return a - b;
+         }
+      },
+      MULTIPLY {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.multiply(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         double apply(double a, double b) {
+            return a * b;
+         }
+      },
+      DIVIDE {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.divide(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         double apply(double a, double b) {
+            return a / b;
+         }
+      };
+
+      /**
+       * Applies the operation over ranges of two arrays, modifying the first.
+       */
+      abstract void apply(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * Applies the operation to two values.
+       */
+      abstract double apply(double a, double b);
+   }
+
+   /**
+    * Applies an element-wise operation to the matrix and the specified matrix of the same size.  Two gap-free matrices
+    * with the same layout are processed as single ranges, two row-major or two column-major matrices one line at a
+    * time, and mixed layouts value by value in square tiles.
+    *
+    * @param m the other matrix.
+    * @param operation the operation.
+    * @return the original matrix modified by the operation.
+    */
+   private DenseMatrix elementwise(DenseMatrix m, Operation operation) {
+      double[] b = m.data;
+      long work = (long) rows * columns;
+      if (isContiguous() && m.isContiguous()) {
+         Parallel.forRows(rows, work, (from, to) -> {
+            operation.apply(data, offset + from * columns, b, m.offset + from * columns, (to - from) * columns);
+         });
+      } else if (isColumnContiguous() && m.isColumnContiguous()) {
+         Parallel.forRows(columns, work, (from, to) -> {
+            operation.apply(data, offset + from * rows, b, m.offset + from * rows, (to - from) * rows);
+         });
+      } else if (isRowMajor() && m.isRowMajor()) {
+         Parallel.forRows(rows, work, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               operation.apply(data, index(i, 0), b, m.index(i, 0), columns);
+            }
+         });
+      } else if (isColumnMajor() && m.isColumnMajor()) {
+         Parallel.forRows(columns, work, (from, to) -> {
+            for (int j = from; j < to; j++) {
+               operation.apply(data, index(0, j), b, m.index(0, j), rows);
+            }
+         });
+      } else {
+         Parallel.forRows(rows, work, TILE, (from, to) -> {
+            for (int i0 = from; i0 < to; i0 += TILE) {
+               int i1 = Math.min(i0 + TILE, to);
+               for (int j0 = 0; j0 < columns; j0 += TILE) {
+                  int j1 = Math.min(j0 + TILE, columns);
+                  for (int i = i0; i < i1; i++) {
+                     for (int j = j0, k = index(i, j0), l = m.index(i, j0); j < j1;
+                          j++, k += columnStride, l += m.columnStride) {
+                        data[k] = operation.apply(data[k], b[l]);
+                     }
+                  }
+               }
+            }
+         });
+      }
+      return this;
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the original matrix.  This method modifies the original matrix by
+    * setting it equal to the resulting matrix.  The product is computed by the cache-blocked {@link Gemm} kernel
+    * directly over the backing arrays.  If the specified matrix is square the product is copied into the existing
+    * storage, so multiplying a view changes the values of the matrix it views.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change,
+    * detaching a view from its matrix when they do.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   @Override
+   public DenseMatrix multiply(IMatrix a) {
+      DenseMatrix m = (a instanceof DenseMatrix ? (DenseMatrix) a : new DenseMatrix(a));
+      int n = m.columns;
+      double[] c = new double[rows * n];
+      Gemm.multiply(rows, n, columns, 1.0, data, offset, stride, columnStride, m.data, m.offset, m.stride,
+                    m.columnStride, 0.0, c, 0, n);
+      replace(rows, n, c);
+      return this;
+   }
+
+   /**
+    * Applies the matrix to a vector, {@code y = A * x}, without modifying the matrix.  Dense vectors are read and
+    * written directly through their backing arrays and the rows of large matrices run in {@link Parallel}.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param x the vector to apply the matrix to.
+    * @param y the vector to write the result into.
+    * @return the result vector.
+    */
+   @Override
+   public IVector apply(IVector x, IVector y) {
+      double[] xd;
+      int xo;
+      int xs;
+      if (x instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) x;
+         xd = d.data;
+         xo = d.offset;
+         xs = d.vectorStep();
+      } else {
+         xd = new double[columns];
+         for (int j = 0; j < columns; j++) {
+            xd[j] = x.get(j);
+         }
+         xo = 0;
+         xs = 1;
+      }
+      double[] yd;
+      int yo;
+      int ys;
+      if (y instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) y;
+         yd = d.data;
+         yo = d.offset;
+         ys = d.vectorStep();
+      } else {
+         yd = new double[rows];
+         yo = 0;
+         ys = 1;
+      }
+      if (isColumnMajor() && !isRowMajor()) {
+         // The columns are adjacent, so each range of rows accumulates the columns scaled by x.
+         Parallel.forRows(rows, (long) rows * columns, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               yd[yo + i * ys] = 0.0;
+            }
+            for (int j = 0; j < columns; j++) {
+               double xj = xd[xo + j * xs];
+               for (int i = from, k = index(from, j); i < to; i++, k++) {
+                  yd[yo + i * ys] += data[k] * xj;
+               }
+            }
+         });
+      } else {
+         int cs = columnStride;
+         Parallel.forRows(rows, (long) rows * columns, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               int k = index(i, 0);
+               double s0 = 0.0;
+               double s1 = 0.0;
+               int j = 0;
+               for (; j + 1 < columns; j += 2) {
+                  s0 += data[k + j * cs] * xd[xo + j * xs];
+                  s1 += data[k + (j + 1) * cs] * xd[xo + (j + 1) * xs];
+               }
+               if (j < columns) {
+                  s0 += data[k + j * cs] * xd[xo + j * xs];
+               }
+               yd[yo + i * ys] = s0 + s1;
+            }
+         });
+      }
+      if (!(y instanceof DenseMatrix)) {
+         for (int i = 0; i < rows; i++) {
+            y.set(i, yd[i]);
+         }
+      }
+      return y;
+   }
+
+   /**
+    * Adds the scaled outer-product of two vectors to the original matrix, {@code A = A + alpha * x * y'}, regardless of
+    * the orientations of the vectors.  Dense vectors are read directly through their backing arrays: a row-major
+    * matrix adds a multiple of {@code y} to each row and a column-major matrix a multiple of {@code x} to each column,
+    * with the kernels of {@link Simd}, and the lines of large matrices run in {@link Parallel}.  Lines whose factor is
+    * zero are skipped.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param alpha the scaling factor of the outer-product.
+    * @param x the vector along the rows, of length {@code rows()}.
+    * @param y the vector along the columns, of length {@code columns()}.
+    * @return the original matrix modified with the addition of the outer-product.
+    * @throws IllegalArgumentException if either vector shares storage with the matrix.
+    */
+   @Override
+   public DenseMatrix rankOneUpdate(double alpha, IVector x, IVector y) {
+      if (!(x instanceof DenseMatrix) || !(y instanceof DenseMatrix)) {
+         return (DenseMatrix) IMatrix.super.rankOneUpdate(alpha, x, y);
+      }
+      DenseMatrix u = (DenseMatrix) x;
+      DenseMatrix v = (DenseMatrix) y;
+      if (overlaps(u) || overlaps(v)) {
+         throw new IllegalArgumentException("Cannot update a matrix with its own values");
+      }
+      if (alpha == 0.0) {
+         return this;
+      }
+      double[] ud = u.data;
+      double[] vd = v.data;
+      int us = u.vectorStep();
+      int vs = v.vectorStep();
+      long work = (long) rows * columns;
+      if (isRowMajor() && vs == 1) {
+         Parallel.forRows(rows, work, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               double ax = alpha * ud[u.offset + i * us];
+               if (ax != 0.0) {
+                  Simd.axpy(ax, vd, v.offset, data, index(i, 0), columns);
+               }
+            }
+         });
+      } else if (isColumnMajor() && us == 1) {
+         Parallel.forRows(columns, work, (from, to) -> {
+            for (int j = from; j < to; j++) {
+               double ay = alpha * vd[v.offset + j * vs];
+               if (ay != 0.0) {
+                  Simd.axpy(ay, ud, u.offset, data, index(0, j), rows);
+               }
+            }
+         });
+      } else {
+         Parallel.forRows(rows, work, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               double ax = alpha * ud[u.offset + i * us];
+               if (ax != 0.0) {
+                  for (int j = 0, k = index(i, 0), l = v.offset; j < columns; j++, k += columnStride, l += vs) {
+                     data[k] += ax * vd[l];
+                  }
+               }
+            }
+         });
+      }
+      return this;
+   }
+
+   /**
+    * Adds the scaled product of the specified matrix and its transpose to the original symmetric matrix, {@code A = A +
+    * alpha * X * X'}.  The lower triangle is accumulated one band of rows at a time by the cache-blocked {@link Gemm}
+    * kernel, which only computes the square blocks on the diagonal in full, and then mirrored above the diagonal one
+    * tile at a time.  A symmetric matrix is its own transpose, so a column-major matrix is updated through its
+    * row-major transpose.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param alpha the scaling factor of the product.
+    * @param x the matrix of {@code rows()} rows whose rows are the update vectors.
+    * @return the original matrix modified with the addition of the product.
+    * @throws IllegalArgumentException if the specified matrix shares storage with the matrix.
+    */
+   @Override
+   public DenseMatrix symmetricRankUpdate(double alpha, IMatrix x) {
+      DenseMatrix m = (x instanceof DenseMatrix ? (DenseMatrix) x : new DenseMatrix(x));
+      if (overlaps(m)) {
+         throw new IllegalArgumentException("Cannot update a matrix with its own values");
+      }
+      int rs;
+      if (isRowMajor()) {
+         rs = stride;
+      } else if (isColumnMajor()) {
+         rs = columnStride;
+      } else {
+         return (DenseMatrix) IMatrix.super.symmetricRankUpdate(alpha, m);
+      }
+      int n = rows;
+      int k = m.columns;
+      for (int i0 = 0; i0 < n; i0 += Gemm.MC) {
+         int i1 = Math.min(i0 + Gemm.MC, n);
+         Gemm.multiply(i1 - i0, i1, k, alpha, m.data, m.index(i0, 0), m.stride, m.columnStride, m.data, m.offset,
+                       m.columnStride, m.stride, 1.0, data, offset + i0 * rs, rs);
+      }
+      Parallel.forRows(n, (long) n * n / 2, TILE, (from, to) -> {
+         for (int i0 = from; i0 < to; i0 += TILE) {
+            int i1 = Math.min(i0 + TILE, to);
+            for (int j0 = i0; j0 < n; j0 += TILE) {
+               int j1 = Math.min(j0 + TILE, n);
+               for (int i = i0; i < i1; i++) {
+                  for (int j = Math.max(j0, i + 1); j < j1; j++) {
+                     data[offset + i * rs + j] = data[offset + j * rs + i];
+                  }
+               }
+            }
+         }
+      });
+      return this;
+   }
+
+   @Override
+   public DenseMatrix dotMultiply(IMatrix a) {
+      if (!(a instanceof DenseMatrix)) {
+         return (DenseMatrix) IMatrix.super.dotMultiply(a);
+      }
+      return elementwise((DenseMatrix) a, Operation.MULTIPLY);
+   }
+
+   @Override
+   public DenseMatrix dotDivide(IMatrix a) {
+      if (!(a instanceof DenseMatrix)) {
+         return (DenseMatrix) IMatrix.super.dotDivide(a);
+      }
+      return elementwise((DenseMatrix) a, Operation.DIVIDE);
+   }
+
+   @Override
+   public DenseMatrix copy() {
+      return new DenseMatrix(this);
+   }
+}
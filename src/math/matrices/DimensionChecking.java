@@ -73,6 +73,123 @@ public final class DimensionChecking {
       }
    }
 
+   /**
+    * Catches any dimension errors given a matrix and the dimensions it should have and throws the proper dimension
+    * exception.
+    *
+    * @param self the self matrix.
+    * @param rows the expected number of rows.
+    * @param columns the expected number of columns.
+    */
+   public static void catchDimensions(IMatrix self, int rows, int columns) {
+      if (self == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      } else if (self.rows() != rows || self.columns() != columns) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree: (" + self.rows() + "x" + self.columns() + ") and (" + rows + "x"
+                         + columns + ")");
+      }
+   }
+
+   /**
+    * Catches any out of bounds errors given a matrix and a rectangular region of it and throws the proper dimension
+    * exception.
+    *
+    * @param self the self matrix.
+    * @param r the first row of the region.
+    * @param c the first column of the region.
+    * @param rows the number of rows of the region.
+    * @param columns the number of columns of the region.
+    */
+   public static void catchRegion(IMatrix self, int r, int c, int rows, int columns) {
+      if (r < 0 || c < 0 || rows < 0 || columns < 0 || r + rows > self.rows() || c + columns > self.columns()) {
+         throw new MatrixDimensionException(
+                 "Region (" + rows + "x" + columns + ") at row (" + r + ") and column (" + c
+                         + ") is out of bounds: (" + self.rows() + "x" + self.columns() + ")");
+      }
+   }
+
+   /**
+    * Catches any multiplication dimension errors given two matrices and throws the proper dimension exception.
+    *
+    * @param self the left matrix.
+    * @param a the right matrix.
+    */
+   public static void catchMultiplication(IMatrix self, IMatrix a) {
+      if (self == null || a == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      } else if (self.columns() != a.rows()) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for multiplication: (" + self.rows() + "x" + self.columns()
+                         + ") and (" + a.rows() + "x" + a.columns() + ")");
+      }
+   }
+
+   /**
+    * Catches any rank-one update dimension errors given a matrix and the vectors of its outer-product update and throws
+    * the proper dimension exception.
+    *
+    * @param self the updated matrix.
+    * @param x the vector along the rows.
+    * @param y the vector along the columns.
+    */
+   public static void catchRankOneUpdate(IMatrix self, IVector x, IVector y) {
+      if (self == null || x == null || y == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      } else if (self.rows() != x.length() || self.columns() != y.length()) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for a rank-one update: (" + self.rows() + "x" + self.columns()
+                         + ") and vectors of lengths " + x.length() + " and " + y.length());
+      }
+   }
+
+   /**
+    * Catches any symmetric rank update dimension errors given a matrix and the matrix of its update and throws the
+    * proper dimension exception.
+    *
+    * @param self the updated square matrix.
+    * @param x the matrix whose rows are the update vectors.
+    */
+   public static void catchRankUpdate(IMatrix self, IMatrix x) {
+      catchSquare(self);
+      if (x == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      } else if (self.rows() != x.rows()) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for a rank update: (" + self.rows() + "x" + self.columns() + ") and ("
+                         + x.rows() + "x" + x.columns() + ")");
+      }
+   }
+
+   /**
+    * Catches any length errors given an array and the number of values it needs to hold and throws the proper
+    * dimension exception.
+    *
+    * @param array the array.
+    * @param length the number of values.
+    */
+   public static void catchLength(double[] array, int length) {
+      if (array == null) {
+         throw new NullPointerException("Cannot access a null array");
+      } else if (array.length < length) {
+         throw new MatrixDimensionException("Array of length " + array.length + " cannot hold " + length + " values");
+      }
+   }
+
+   /**
+    * Catches any square dimension errors given a matrix and throws the proper dimension exception.
+    *
+    * @param self the self matrix.
+    */
+   public static void catchSquare(IMatrix self) {
+      if (self == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      } else if (self.rows() != self.columns()) {
+         throw new MatrixDimensionException(
+                 "Matrix is not square: (" + self.rows() + "x" + self.columns() + ")");
+      }
+   }
+
    /**
     * Catches any equal dimension errors given a vector and the specified vector and throws the proper dimension
     * exception.
@@ -87,4 +204,53 @@ public final class DimensionChecking {
          throw new VectorDimensionException("Vector dimensions do not agree: " + self.length() + " and " + v.length());
       }
    }
+
+   /**
+    * Catches any dimension errors given a float matrix and the dimensions it should have and throws the proper
+    * dimension exception.
+    *
+    * @param self the self matrix.
+    * @param rows the expected number of rows.
+    * @param columns the expected number of columns.
+    */
+   public static void catchDimensions(IFloatMatrix self, int rows, int columns) {
+      if (self == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      } else if (self.rows() != rows || self.columns() != columns) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree: (" + self.rows() + "x" + self.columns() + ") and (" + rows + "x"
+                         + columns + ")");
+      }
+   }
+
+   /**
+    * Catches any multiplication dimension errors given two float matrices and throws the proper dimension exception.
+    *
+    * @param self the left matrix.
+    * @param a the right matrix.
+    */
+   public static void catchMultiplication(IFloatMatrix self, IFloatMatrix a) {
+      if (self == null || a == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      } else if (self.columns() != a.rows()) {
+         throw new MatrixDimensionException(
+                 "Matrix dimensions do not agree for multiplication: (" + self.rows() + "x" + self.columns()
+                         + ") and (" + a.rows() + "x" + a.columns() + ")");
+      }
+   }
+
+   /**
+    * Catches any length errors given a float array and the number of values it needs to hold and throws the proper
+    * dimension exception.
+    *
+    * @param array the array.
+    * @param length the number of values.
+    */
+   public static void catchLength(float[] array, int length) {
+      if (array == null) {
+         throw new NullPointerException("Cannot access a null array");
+      } else if (array.length < length) {
+         throw new MatrixDimensionException("Array of length " + array.length + " cannot hold " + length + " values");
+      }
+   }
 }
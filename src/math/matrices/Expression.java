@@ -0,0 +1,587 @@
+package math.matrices;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A lazy element-wise expression over matrices.  Scaling, addition, subtraction, dot-multiplication and dot-division
+ * are recorded into a tree instead of being computed, and the whole tree is computed in one pass when the expression
+ * is evaluated.  For example
+ * <pre>
+ *    IMatrix d = Expression.of(a).scale(2.0).add(b).dotMultiply(c).evaluate();
+ * </pre>
+ * reads each of {@code a}, {@code b} and {@code c} once and writes {@code d} once, where the eager chain makes a full
+ * pass over memory per operation.  None of the operands are modified.
+ * <p/>
+ * When every operand is a row-major {@link DenseMatrix} the values are computed in blocks small enough to stay in the
+ * first level cache, using the kernels of {@link Simd} over the backing arrays, and the blocks of large expressions run
+ * in {@link Parallel}.  Otherwise the operations are applied one after another on copies through the {@link IMatrix}
+ * methods.  The results are the same either way.
+ * <p/>
+ * Unlike the matrices themselves the expression does check that its operands have the same dimensions.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public abstract class Expression {
+
+   /**
+    * The number of values computed together in one block.
+    */
+   private static final int BLOCK = 1024;
+
+   /**
+    * The number of rows of the expression.
+    */
+   private final int rows;
+
+   /**
+    * The number of columns of the expression.
+    */
+   private final int columns;
+
+   /**
+    * Creates a new expression of the specified size.
+    *
+    * @param rows the number of rows of the expression.
+    * @param columns the number of columns of the expression.
+    */
+   Expression(int rows, int columns) {
+      this.rows = rows;
+      this.columns = columns;
+   }
+
+   /**
+    * Returns an expression with the values of the specified matrix.  The matrix is read when the expression is
+    * evaluated, not when it is created.
+    *
+    * @param a the matrix.
+    * @return the expression of the matrix.
+    */
+   public static Expression of(IMatrix a) {
+      if (a == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      }
+      return new Operand(a);
+   }
+
+   /**
+    * Returns the number of rows of the expression.
+    *
+    * @return the number of rows.
+    */
+   public int rows() {
+      return rows;
+   }
+
+   /**
+    * Returns the number of columns of the expression.
+    *
+    * @return the number of columns.
+    */
+   public int columns() {
+      return columns;
+   }
+
+   /**
+    * Returns the expression multiplied by the specified value.
+    *
+    * @param n the scaling factor.
+    * @return the scaled expression.
+    */
+   public Expression scale(double n) {
+      return new Scaled(this, n);
+   }
+
+   /**
+    * Returns the expression plus the specified matrix.
+    *
+    * @param a the matrix to add.
+    * @return the sum expression.
+    */
+   public Expression add(IMatrix a) {
+      return add(of(a));
+   }
+
+   /**
+    * Returns the expression plus the specified expression.
+    *
+    * @param e the expression to add.
+    * @return the sum expression.
+    */
+   public Expression add(Expression e) {
+      return new Combined(this, Operation.ADD, e);
+   }
+
+   /**
+    * Returns the expression minus the specified matrix.
+    *
+    * @param a the matrix to subtract.
+    * @return the difference expression.
+    */
+   public Expression subtract(IMatrix a) {
+      return subtract(of(a));
+   }
+
+   /**
+    * Returns the expression minus the specified expression.
+    *
+    * @param e the expression to subtract.
+    * @return the difference expression.
+    */
+   public Expression subtract(Expression e) {
+      return new Combined(this, Operation.SUBTRACT, e);
+   }
+
+   /**
+    * Returns the expression dot-multiplied by the specified matrix.
+    *
+    * @param a the matrix to dot-multiply.
+    * @return the dot-product expression.
+    */
+   public Expression dotMultiply(IMatrix a) {
+      return dotMultiply(of(a));
+   }
+
+   /**
+    * Returns the expression dot-multiplied by the specified expression.
+    *
+    * @param e the expression to dot-multiply.
+    * @return the dot-product expression.
+    */
+   public Expression dotMultiply(Expression e) {
+      return new Combined(this, Operation.MULTIPLY, e);
+   }
+
+   /**
+    * Returns the expression dot-divided by the specified matrix.
+    *
+    * @param a the matrix to dot-divide.
+    * @return the dot-quotient expression.
+    */
+   public Expression dotDivide(IMatrix a) {
+      return dotDivide(of(a));
+   }
+
+   /**
+    * Returns the expression dot-divided by the specified expression.
+    *
+    * @param e the expression to dot-divide.
+    * @return the dot-quotient expression.
+    */
+   public Expression dotDivide(Expression e) {
+      return new Combined(this, Operation.DIVIDE, e);
+   }
+
+   /**
+    * Computes the expression into a new matrix.  The result is a {@link Vector} if the first operand of the expression
+    * is an {@link IVector}, otherwise a {@link Matrix}.
+    *
+    * @return the values of the expression.
+    */
+   public IMatrix evaluate() {
+      DenseMatrix out;
+      if (first() instanceof IVector) {
+         Vector v = new Vector(Math.max(rows, columns));
+         out = (rows > 1 ? v.transpose() : v);
+      } else {
+         out = new Matrix(rows, columns);
+      }
+      return evaluateInto(out);
+   }
+
+   /**
+    * Computes the expression into the specified matrix, overwriting its values.  The matrix may be one of the operands
+    * of the expression, such as {@code a} in {@code a = 2a + b}, or a view with the same layout of the same values,
+    * but must not partly overlap any operand.
+    *
+    * @param out the matrix to write the values into.
+    * @param <T> the type of the matrix.
+    * @return the specified matrix.
+    * @throws IllegalArgumentException if the matrix shares values with an operand without being laid out the same.
+    */
+   public <T extends IMatrix> T evaluateInto(T out) {
+      if (out == null) {
+         throw new NullPointerException("Cannot access a null matrix");
+      }
+      if (out.rows() != rows || out.columns() != columns) {
+         throw new MatrixDimensionException(
+               "Matrix dimensions do not agree: " + rows + "x" + columns + " and " + out.rows() + "x" + out.columns());
+      }
+      List<IMatrix> operands = new ArrayList<>();
+      collect(operands);
+      if (out instanceof DenseMatrix) {
+         for (IMatrix a : operands) {
+            if (a instanceof DenseMatrix && partlyOverlaps((DenseMatrix) out, (DenseMatrix) a)) {
+               throw new IllegalArgumentException("Cannot write the result over part of an operand");
+            }
+         }
+      }
+      boolean dense = true;
+      for (IMatrix a : operands) {
+         dense &= a instanceof DenseMatrix && ((DenseMatrix) a).isRowMajor();
+      }
+      if (!dense) {
+         IMatrix result = steps();
+         for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+               out.set(i, j, result.get(i, j));
+            }
+         }
+      } else if (out instanceof DenseMatrix && ((DenseMatrix) out).isRowMajor()) {
+         fuse((DenseMatrix) out, operands);
+      } else {
+         Matrix result = new Matrix(rows, columns);
+         fuse(result, operands);
+         for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+               out.set(i, j, result.get(i, j));
+            }
+         }
+      }
+      return out;
+   }
+
+   /**
+    * Computes the expression into a dense matrix in blocks.  The blocks span rows when every matrix involved is
+    * contiguous, otherwise they are parts of a single row.  If the result may overlap an operand each block is
+    * computed into a buffer first so the operand is not overwritten before it is read.
+    *
+    * @param out the matrix to write the values into.
+    * @param operands the operands of the expression.
+    */
+   private void fuse(DenseMatrix out, List<IMatrix> operands) {
+      boolean contiguous = out.isContiguous();
+      for (IMatrix a : operands) {
+         contiguous &= ((DenseMatrix) a).isContiguous();
+      }
+      boolean aliased = aliases(out, operands);
+      double[] data = out.data();
+      int offset = out.offset();
+      int stride = out.stride();
+      int buffers = depth() + (aliased ? 1 : 0);
+      long work = (long) rows * columns * operands.size();
+      if (contiguous) {
+         int length = rows * columns;
+         int blocks = (length + BLOCK - 1) / BLOCK;
+         Parallel.forRows(blocks, work, (from, to) -> {
+            double[][] scratch = new double[buffers][BLOCK];
+            for (int b = from; b < to; b++) {
+               int c = b * BLOCK;
+               int n = Math.min(BLOCK, length - c);
+               block(0, c, n, data, offset + c, scratch, aliased);
+            }
+         });
+      } else {
+         Parallel.forRows(rows, work, (from, to) -> {
+            double[][] scratch = new double[buffers][BLOCK];
+            for (int i = from; i < to; i++) {
+               for (int c = 0; c < columns; c += BLOCK) {
+                  int n = Math.min(BLOCK, columns - c);
+                  block(i, c, n, data, offset + i * stride + c, scratch, aliased);
+               }
+            }
+         });
+      }
+   }
+
+   /**
+    * Returns if two matrices of the same size share values without covering the same values in the same places.  When
+    * their strides differ any intersection of their spans counts, otherwise the shift between them is checked against
+    * every difference of rows.
+    */
+   private static boolean partlyOverlaps(DenseMatrix out, DenseMatrix a) {
+      if (!out.overlaps(a)) {
+         return false;
+      }
+      int stride = out.stride();
+      int columnStride = out.columnStride();
+      if (a.stride() != stride || a.columnStride() != columnStride || columnStride == 0) {
+         return true;
+      }
+      long shift = (long) a.offset() - out.offset();
+      if (shift == 0) {
+         return false;
+      }
+      int rows = out.rows();
+      int columns = out.columns();
+      for (int i = 1 - rows; i < rows; i++) {
+         long rest = shift - (long) i * stride;
+         if (rest % columnStride == 0 && Math.abs(rest / columnStride) < columns) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Returns if the specified matrix may overlap any of the operands.
+    */
+   private static boolean aliases(DenseMatrix out, List<IMatrix> operands) {
+      for (IMatrix a : operands) {
+         if (out.overlaps((DenseMatrix) a)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Computes one block of the expression into the result, through the last scratch buffer if the result is aliased.
+    */
+   private void block(int r, int c, int length, double[] dst, int dstOffset, double[][] scratch, boolean aliased) {
+      if (aliased) {
+         double[] buffer = scratch[scratch.length - 1];
+         fill(r, c, length, buffer, 0, scratch, 0);
+         System.arraycopy(buffer, 0, dst, dstOffset, length);
+      } else {
+         fill(r, c, length, dst, dstOffset, scratch, 0);
+      }
+   }
+
+   /**
+    * Returns the matrix of the leftmost operand of the expression.
+    *
+    * @return the first operand.
+    */
+   abstract IMatrix first();
+
+   /**
+    * Adds every operand of the expression to the specified list.
+    *
+    * @param operands the list of operands.
+    */
+   abstract void collect(List<IMatrix> operands);
+
+   /**
+    * Returns the number of scratch buffers needed to compute a block of the expression.
+    *
+    * @return the number of scratch buffers.
+    */
+   abstract int depth();
+
+   /**
+    * Computes a block of the expression over dense operands.  The block starts at row {@code r} and column {@code c}
+    * and runs for {@code length} values along the backing arrays; when every matrix is contiguous the row is zero and
+    * the column is the index of the value in row-major order.
+    *
+    * @param r the row of the block.
+    * @param c the column of the block.
+    * @param length the number of values in the block.
+    * @param dst the array to write the values into.
+    * @param dstOffset the index in {@code dst} of the first value.
+    * @param scratch the scratch buffers.
+    * @param level the first scratch buffer free to use.
+    */
+   abstract void fill(int r, int c, int length, double[] dst, int dstOffset, double[][] scratch, int level);
+
+   /**
+    * Computes the expression one operation at a time through the {@link IMatrix} methods.
+    *
+    * @return a new matrix with the values of the expression.
+    */
+   abstract IMatrix steps();
+
+   /**
+    * An element-wise operation between two expressions.
+    */
+   private enum Operation {
+      ADD {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.add(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         IMatrix apply(IMatrix a, IMatrix b) {
+            return a.add(b);
+         }
+      },
+      SUBTRACT {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.subtract(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         IMatrix apply(IMatrix a, IMatrix b) {
+            return a.subtract(b);
+         }
+      },
+      MULTIPLY {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.multiply(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         IMatrix apply(IMatrix a, IMatrix b) {
+            return a.dotMultiply(b);
+         }
+      },
+      DIVIDE {
+         @Override
+         void apply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+            Simd.divide(a, aOffset, b, bOffset, length);
+         }
+
+         @Override
+         IMatrix apply(IMatrix a, IMatrix b) {
+            return a.dotDivide(b);
+         }
+      };
+
+      /**
+       * Applies the operation over ranges of two arrays, modifying the first.
+       */
+      abstract void apply(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * Applies the operation to two matrices, modifying the first.
+       */
+      abstract IMatrix apply(IMatrix a, IMatrix b);
+   }
+
+   /**
+    * An expression of the values of a matrix.
+    */
+   private static final class Operand extends Expression {
+
+      private final IMatrix a;
+
+      Operand(IMatrix a) {
+         super(a.rows(), a.columns());
+         this.a = a;
+      }
+
+      /**
+       * Returns the index in the backing array of the dense matrix of the value at the specified row and column.
+       */
+      int index(int r, int c) {
+         DenseMatrix d = (DenseMatrix) a;
+         return d.offset() + r * d.stride() + c;
+      }
+
+      @Override
+      IMatrix first() {
+         return a;
+      }
+
+      @Override
+      void collect(List<IMatrix> operands) {
+         operands.add(a);
+      }
+
+      @Override
+      int depth() {
+         return 0;
+      }
+
+      @Override
+      void fill(int r, int c, int length, double[] dst, int dstOffset, double[][] scratch, int level) {
+         System.arraycopy(((DenseMatrix) a).data(), index(r, c), dst, dstOffset, length);
+      }
+
+      @Override
+      IMatrix steps() {
+         return a.copy();
+      }
+   }
+
+   /**
+    * An expression multiplied by a value.
+    */
+   private static final class Scaled extends Expression {
+
+      private final Expression e;
+      private final double n;
+
+      Scaled(Expression e, double n) {
+         super(e.rows(), e.columns());
+         this.e = e;
+         this.n = n;
+      }
+
+      @Override
+      IMatrix first() {
+         return e.first();
+      }
+
+      @Override
+      void collect(List<IMatrix> operands) {
+         e.collect(operands);
+      }
+
+      @Override
+      int depth() {
+         return e.depth();
+      }
+
+      @Override
+      void fill(int r, int c, int length, double[] dst, int dstOffset, double[][] scratch, int level) {
+         e.fill(r, c, length, dst, dstOffset, scratch, level);
+         Simd.scale(dst, dstOffset, length, n);
+      }
+
+      @Override
+      IMatrix steps() {
+         return e.steps().scale(n);
+      }
+   }
+
+   /**
+    * Two expressions combined by an element-wise operation.  A right operand that is a matrix is read directly from
+    * its backing array, any other right operand is computed into a scratch buffer first.
+    */
+   private static final class Combined extends Expression {
+
+      private final Expression left;
+      private final Operation operation;
+      private final Expression right;
+
+      Combined(Expression left, Operation operation, Expression right) {
+         super(left.rows(), left.columns());
+         if (right.rows() != left.rows() || right.columns() != left.columns()) {
+            throw new MatrixDimensionException("Matrix dimensions do not agree: " + left.rows() + "x" + left.columns()
+                  + " and " + right.rows() + "x" + right.columns());
+         }
+         this.left = left;
+         this.operation = operation;
+         this.right = right;
+      }
+
+      @Override
+      IMatrix first() {
+         return left.first();
+      }
+
+      @Override
+      void collect(List<IMatrix> operands) {
+         left.collect(operands);
+         right.collect(operands);
+      }
+
+      @Override
+      int depth() {
+         return Math.max(left.depth(), (right instanceof Operand ? 0 : 1 + right.depth()));
+      }
+
+      @Override
+      void fill(int r, int c, int length, double[] dst, int dstOffset, double[][] scratch, int level) {
+         left.fill(r, c, length, dst, dstOffset, scratch, level);
+         if (right instanceof Operand) {
+            Operand o = (Operand) right;
+            operation.apply(dst, dstOffset, ((DenseMatrix) o.a).data(), o.index(r, c), length);
+         } else {
+            right.fill(r, c, length, scratch[level], 0, scratch, level + 1);
+            operation.apply(dst, dstOffset, scratch[level], 0, length);
+         }
+      }
+
+      @Override
+      IMatrix steps() {
+         IMatrix b = (right instanceof Operand ? ((Operand) right).a : right.steps());
+         return operation.apply(left.steps(), b);
+      }
+   }
+}
@@ -0,0 +1,424 @@
+package math.matrices;
+
+/**
+ * The object representation of a mathematical matrix of single precision values.  This class provides an
+ * implementation for basic use.  This is not a safe matrix. It does not perform any dimension checks before performing
+ * any actions.
+ * <p/>
+ * The values are stored contiguously in row-major order in a single {@code float} array, half the size of the array of
+ * a {@link Matrix}, so operations limited by memory bandwidth such as {@link #add(IFloatMatrix)}, {@link
+ * #scale(float)} and {@link #apply(IFloatVector, IFloatVector)} run about twice as fast.  Element-wise operations use
+ * the {@code float} kernels of {@link Simd}.  Matrix-vector products, inner products and matrix-multiplications are
+ * accumulated in double precision and rounded once.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class FloatMatrix implements IFloatMatrix {
+
+   /**
+    * The number of rows in this matrix.
+    */
+   private int rows;
+
+   /**
+    * The number of columns in this matrix.
+    */
+   private int columns;
+
+   /**
+    * The values of the matrix in row-major order.
+    */
+   private float[] data;
+
+   /**
+    * A range of an array modified by a range of another array.
+    */
+   private interface Kernel {
+
+      void apply(float[] a, int aOffset, float[] b, int bOffset, int length);
+   }
+
+   /**
+    * Creates a new matrix with no values and of size zero.
+    */
+   public FloatMatrix() {
+      this(0, 0);
+   }
+
+   /**
+    * Creates a new matrix of the specified size and with all values equaling zero.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    */
+   public FloatMatrix(int rows, int columns) {
+      this(rows, columns, new float[rows * columns]);
+   }
+
+   /**
+    * Creates a new matrix backed by the specified row-major array.  If the resulting matrix is modified the array will
+    * change as well.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param data the row-major values of the matrix.
+    */
+   public FloatMatrix(int rows, int columns, float[] data) {
+      if (rows < 0 || columns < 0) {
+         throw new IllegalArgumentException("Matrix dimensions cannot be negative: (" + rows + "x" + columns + ")");
+      }
+      DimensionChecking.catchLength(data, rows * columns);
+      this.rows = rows;
+      this.columns = columns;
+      this.data = data;
+   }
+
+   /**
+    * Creates a new matrix with the values of the specified array.  The values are copied so modifying the resulting
+    * matrix will not change the array.
+    *
+    * @param a the values of the matrix.
+    */
+   public FloatMatrix(float[][] a) {
+      this.rows = a.length;
+      this.columns = (rows == 0 ? 0 : a[0].length);
+      this.data = flatten(a, columns);
+   }
+
+   /**
+    * Creates a new matrix that is a copy of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    */
+   public FloatMatrix(IFloatMatrix a) {
+      this(a.rows(), a.columns());
+      if (a instanceof FloatMatrix) {
+         System.arraycopy(((FloatMatrix) a).data, 0, data, 0, data.length);
+      } else {
+         for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+               data[i * columns + j] = a.get(i, j);
+            }
+         }
+      }
+   }
+
+   /**
+    * Creates a new single precision matrix with the values of the specified double precision matrix rounded to the
+    * nearest {@code float}.
+    *
+    * @param a the matrix to convert.
+    */
+   public FloatMatrix(IMatrix a) {
+      this(a.rows(), a.columns());
+      double[] row = new double[columns];
+      for (int i = 0; i < rows; i++) {
+         a.getRow(i, row);
+         for (int j = 0; j < columns; j++) {
+            data[i * columns + j] = (float) row[j];
+         }
+      }
+   }
+
+   /**
+    * Returns the rows of an array copied one after the other into a new array.
+    */
+   private static float[] flatten(float[][] a, int columns) {
+      float[] d = new float[a.length * columns];
+      for (int i = 0; i < a.length; i++) {
+         System.arraycopy(a[i], 0, d, i * columns, columns);
+      }
+      return d;
+   }
+
+   /**
+    * Sets the storage of the matrix.
+    *
+    * @param rows the number of rows.
+    * @param columns the number of columns.
+    * @param data the row-major values.
+    */
+   protected void setStorage(int rows, int columns, float[] data) {
+      this.rows = rows;
+      this.columns = columns;
+      this.data = data;
+   }
+
+   /**
+    * Returns the backing array of the matrix, with the value at row {@code r} and column {@code c} at index {@code r *
+    * columns() + c}.  Modifying the array will modify the matrix.
+    *
+    * @return the backing array.
+    */
+   public float[] data() {
+      return data;
+   }
+
+   @Override
+   public int rows() {
+      return rows;
+   }
+
+   @Override
+   public int columns() {
+      return columns;
+   }
+
+   @Override
+   public float get(int r, int c) {
+      return data[r * columns + c];
+   }
+
+   @Override
+   public float[] getRow(int r, float[] dst) {
+      DimensionChecking.catchLength(dst, columns);
+      System.arraycopy(data, r * columns, dst, 0, columns);
+      return dst;
+   }
+
+   @Override
+   public float[] getColumn(int c, float[] dst) {
+      DimensionChecking.catchLength(dst, rows);
+      for (int i = 0; i < rows; i++) {
+         dst[i] = data[i * columns + c];
+      }
+      return dst;
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified array.  The values are copied into new storage so modifying
+    * the matrix will not change the array.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the new values for the matrix.
+    * @return the matrix with the values of the array.
+    */
+   @Override
+   public FloatMatrix set(float[][] a) {
+      int r = a.length;
+      int c = (r == 0 ? 0 : a[0].length);
+      setStorage(r, c, flatten(a, c));
+      return this;
+   }
+
+   @Override
+   public FloatMatrix set(int r, int c, float n) {
+      data[r * columns + c] = n;
+      return this;
+   }
+
+   @Override
+   public FloatMatrix setRow(int r, float[] v) {
+      System.arraycopy(v, 0, data, r * columns, columns);
+      return this;
+   }
+
+   @Override
+   public FloatMatrix setColumn(int c, float[] v) {
+      for (int i = 0; i < rows; i++) {
+         data[i * columns + c] = v[i];
+      }
+      return this;
+   }
+
+   @Override
+   public FloatMatrix set(int r, int c, float[][] a) {
+      for (int i = 0; i < a.length; i++) {
+         System.arraycopy(a[i], 0, data, (r + i) * columns + c, a[i].length);
+      }
+      return this;
+   }
+
+   /**
+    * Returns the transpose of the matrix.  This operation does not create a new matrix but modifies the original
+    * matrix.  The values are copied tile by tile into new storage so that both arrays are read and written in cache
+    * lines.
+    *
+    * @return the transpose of the matrix.
+    */
+   @Override
+   public FloatMatrix transpose() {
+      int tile = 32;
+      float[] t = new float[data.length];
+      Parallel.forRows(rows, (long) rows * columns, tile, (from, to) -> {
+         for (int jj = 0; jj < columns; jj += tile) {
+            int jEnd = Math.min(jj + tile, columns);
+            for (int i = from; i < to; i++) {
+               for (int j = jj; j < jEnd; j++) {
+                  t[j * rows + i] = data[i * columns + j];
+               }
+            }
+         }
+      });
+      setStorage(columns, rows, t);
+      return this;
+   }
+
+   @Override
+   public FloatMatrix inverse() {
+      return (FloatMatrix) IFloatMatrix.super.inverse();
+   }
+
+   @Override
+   public FloatMatrix scale(float n) {
+      Parallel.forRows(rows, (long) rows * columns, (from, to) -> {
+         Simd.scale(data, from * columns, (to - from) * columns, n);
+      });
+      return this;
+   }
+
+   @Override
+   public FloatMatrix add(IFloatMatrix a) {
+      if (!(a instanceof FloatMatrix)) {
+         return (FloatMatrix) IFloatMatrix.super.add(a);
+      }
+      return combine((FloatMatrix) a, Simd::add);
+   }
+
+   @Override
+   public FloatMatrix subtract(IFloatMatrix a) {
+      if (!(a instanceof FloatMatrix)) {
+         return (FloatMatrix) IFloatMatrix.super.subtract(a);
+      }
+      return combine((FloatMatrix) a, Simd::subtract);
+   }
+
+   @Override
+   public FloatMatrix dotMultiply(IFloatMatrix a) {
+      if (!(a instanceof FloatMatrix)) {
+         return (FloatMatrix) IFloatMatrix.super.dotMultiply(a);
+      }
+      return combine((FloatMatrix) a, Simd::multiply);
+   }
+
+   @Override
+   public FloatMatrix dotDivide(IFloatMatrix a) {
+      if (!(a instanceof FloatMatrix)) {
+         return (FloatMatrix) IFloatMatrix.super.dotDivide(a);
+      }
+      return combine((FloatMatrix) a, Simd::divide);
+   }
+
+   /**
+    * Applies an element-wise kernel to the matrix and the specified matrix of the same size, in ranges of rows run in
+    * {@link Parallel}.
+    *
+    * @param m the other matrix.
+    * @param kernel the kernel.
+    * @return the original matrix modified by the kernel.
+    */
+   private FloatMatrix combine(FloatMatrix m, Kernel kernel) {
+      float[] b = m.data;
+      Parallel.forRows(rows, (long) rows * columns, (from, to) -> {
+         kernel.apply(data, from * columns, b, from * columns, (to - from) * columns);
+      });
+      return this;
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the original matrix.  This method modifies the original matrix by
+    * setting it equal to the resulting matrix.  Products with a single column are computed as matrix-vector products
+    * accumulated in double precision.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   @Override
+   public FloatMatrix multiply(IFloatMatrix a) {
+      FloatMatrix m = (a instanceof FloatMatrix ? (FloatMatrix) a : new FloatMatrix(a));
+      float[] c = new float[rows * m.columns];
+      multiply(this, m, c);
+      setStorage(rows, m.columns, c);
+      return this;
+   }
+
+   /**
+    * Writes the matrix-multiplication of two matrices into the specified row-major array, which must not be the
+    * backing array of either matrix.  A product with a single column is computed as dot products of the rows with the
+    * column, accumulated in double precision.  Otherwise the multiplication is bound by arithmetic rather than memory,
+    * so it runs in the blocked {@link Gemm} kernel, which widens the operands a panel at a time as it packs them,
+    * also accumulates in double precision and rounds each value of the product once.
+    *
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param c the array to write the product into.
+    */
+   static void multiply(FloatMatrix a, FloatMatrix b, float[] c) {
+      int m = a.rows;
+      int n = b.columns;
+      int k = a.columns;
+      float[] x = a.data;
+      float[] y = b.data;
+      if (n == 1) {
+         Parallel.forRows(m, (long) m * k, (from, to) -> {
+            for (int i = from; i < to; i++) {
+               c[i] = (float) Simd.dot(x, i * k, y, 0, k);
+            }
+         });
+         return;
+      }
+      Gemm.multiply(m, n, k, x, y, c);
+   }
+
+   /**
+    * Returns the specified number of values of the array in double precision.
+    */
+   private static double[] widen(float[] a, int length) {
+      double[] d = new double[length];
+      for (int i = 0; i < length; i++) {
+         d[i] = a[i];
+      }
+      return d;
+   }
+
+   /**
+    * Applies the matrix to a vector, {@code y = A * x}, without modifying the matrix.  Each value is the dot product of
+    * a row and the vector accumulated in double precision, and the rows of large matrices run in {@link Parallel}.
+    * The two vectors must not share values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param x the vector to apply the matrix to.
+    * @param y the vector to write the result into.
+    * @return the result vector.
+    */
+   public IFloatVector apply(IFloatVector x, IFloatVector y) {
+      float[] xd;
+      if (x instanceof FloatMatrix) {
+         xd = ((FloatMatrix) x).data;
+      } else {
+         xd = new float[columns];
+         for (int j = 0; j < columns; j++) {
+            xd[j] = x.get(j);
+         }
+      }
+      float[] yd = (y instanceof FloatMatrix ? ((FloatMatrix) y).data : new float[rows]);
+      Parallel.forRows(rows, (long) rows * columns, (from, to) -> {
+         for (int i = from; i < to; i++) {
+            yd[i] = (float) Simd.dot(data, i * columns, xd, 0, columns);
+         }
+      });
+      if (!(y instanceof FloatMatrix)) {
+         for (int i = 0; i < rows; i++) {
+            y.set(i, yd[i]);
+         }
+      }
+      return y;
+   }
+
+   @Override
+   public Matrix toMatrix() {
+      return new Matrix(rows, columns, widen(data, rows * columns));
+   }
+
+   @Override
+   public FloatMatrix copy() {
+      return new FloatMatrix(this);
+   }
+}
@@ -0,0 +1,236 @@
+package math.matrices;
+
+/**
+ * The object representation of a mathematical vector of single precision values.  This class provides an
+ * implementation for basic use.  This is not a safe vector. It does not perform any dimension checks before performing
+ * any actions.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class FloatVector extends FloatMatrix implements IFloatVector {
+
+   /**
+    * Creates a new vector with no values and of size zero.
+    */
+   public FloatVector() {
+      this(0);
+   }
+
+   /**
+    * Creates a new vector of the specified length and with all values equaling zero.
+    *
+    * @param length the length of this vector.
+    */
+   public FloatVector(int length) {
+      this(new float[length]);
+   }
+
+   /**
+    * Creates a new row vector with the specified array as a base.  If the resulting vector is modified the original
+    * array will change as well.
+    *
+    * @param v the base vector of the matrix.
+    */
+   public FloatVector(float[] v) {
+      super(1, v.length, v);
+   }
+
+   /**
+    * Creates a new vector that is a copy of the specified vector.
+    *
+    * @param v the vector to copy.
+    */
+   protected FloatVector(IFloatVector v) {
+      super(v);
+   }
+
+   /**
+    * Creates a new single precision vector with the values and orientation of the specified double precision vector
+    * rounded to the nearest {@code float}.
+    *
+    * @param v the vector to convert.
+    */
+   public FloatVector(IVector v) {
+      super(v);
+   }
+
+   @Override
+   public float get(int i) {
+      return data()[i];
+   }
+
+   /**
+    * Sets the vector to be the specified array. This methods does not copy but sets the array which will change if the
+    * vector is modified.
+    *
+    * @param v the new array for the vector.
+    * @return the row vector representation of the array.
+    */
+   @Override
+   public FloatVector set(float[] v) {
+      setStorage(1, v.length, v);
+      return this;
+   }
+
+   @Override
+   public FloatVector set(float[][] a) {
+      return (FloatVector) super.set(a);
+   }
+
+   @Override
+   public FloatVector set(int i, float n) {
+      data()[i] = n;
+      return this;
+   }
+
+   @Override
+   public FloatVector set(int r, int c, float n) {
+      return (FloatVector) super.set(r, c, n);
+   }
+
+   @Override
+   public FloatVector setRow(int r, float[] v) {
+      return (FloatVector) super.setRow(r, v);
+   }
+
+   @Override
+   public FloatVector setColumn(int c, float[] v) {
+      return (FloatVector) super.setColumn(c, v);
+   }
+
+   @Override
+   public FloatVector set(int i, float[] v) {
+      System.arraycopy(v, 0, data(), i, v.length);
+      return this;
+   }
+
+   @Override
+   public FloatVector set(int r, int c, float[][] a) {
+      return (FloatVector) super.set(r, c, a);
+   }
+
+   /**
+    * Returns the transpose of the vector.  A row vector and a column vector have the same storage, so only the
+    * dimensions are swapped.
+    *
+    * @return the transpose of the vector.
+    */
+   @Override
+   public FloatVector transpose() {
+      setStorage(columns(), rows(), data());
+      return this;
+   }
+
+   @Override
+   public FloatVector scale(float n) {
+      return (FloatVector) super.scale(n);
+   }
+
+   @Override
+   public FloatVector inverse() {
+      return (FloatVector) super.inverse();
+   }
+
+   @Override
+   public FloatVector add(IFloatVector v) {
+      if (!(v instanceof FloatMatrix)) {
+         return (FloatVector) IFloatVector.super.add(v);
+      }
+      Simd.add(data(), 0, ((FloatMatrix) v).data(), 0, length());
+      return this;
+   }
+
+   @Override
+   public FloatVector add(IFloatMatrix a) {
+      return (FloatVector) super.add(a);
+   }
+
+   @Override
+   public FloatVector subtract(IFloatVector v) {
+      if (!(v instanceof FloatMatrix)) {
+         return (FloatVector) IFloatVector.super.subtract(v);
+      }
+      Simd.subtract(data(), 0, ((FloatMatrix) v).data(), 0, length());
+      return this;
+   }
+
+   @Override
+   public FloatVector subtract(IFloatMatrix a) {
+      return (FloatVector) super.subtract(a);
+   }
+
+   @Override
+   public FloatMatrix outer(IFloatVector v) {
+      if (!(v instanceof FloatMatrix)) {
+         return (FloatMatrix) IFloatVector.super.outer(v);
+      }
+      int m = length();
+      int n = v.length();
+      float[] a = data();
+      float[] b = ((FloatMatrix) v).data();
+      float[] c = new float[m * n];
+      for (int i = 0; i < m; i++) {
+         float x = a[i];
+         for (int j = 0; j < n; j++) {
+            c[i * n + j] = x * b[j];
+         }
+      }
+      return new FloatMatrix(m, n, c);
+   }
+
+   /**
+    * Returns the inner-product of the vector and the specified vector regardless of their orientations.  Two dense
+    * vectors are multiplied with the kernels of {@link Simd}, accumulating in double precision.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the inner vector.
+    * @return the inner-product of the vector multiplied by the specified vector.
+    */
+   @Override
+   public double inner(IFloatVector v) {
+      if (!(v instanceof FloatMatrix)) {
+         return IFloatVector.super.inner(v);
+      }
+      return Simd.dot(data(), 0, ((FloatMatrix) v).data(), 0, length());
+   }
+
+   @Override
+   public FloatVector multiply(IFloatMatrix a) {
+      return (FloatVector) super.multiply(a);
+   }
+
+   @Override
+   public FloatVector dotMultiply(IFloatMatrix a) {
+      return (FloatVector) super.dotMultiply(a);
+   }
+
+   @Override
+   public FloatVector dotMultiply(IFloatVector v) {
+      if (!(v instanceof FloatMatrix)) {
+         return (FloatVector) IFloatVector.super.dotMultiply(v);
+      }
+      Simd.multiply(data(), 0, ((FloatMatrix) v).data(), 0, length());
+      return this;
+   }
+
+   @Override
+   public FloatVector dotDivide(IFloatMatrix a) {
+      return (FloatVector) super.dotDivide(a);
+   }
+
+   @Override
+   public FloatVector dotDivide(IFloatVector v) {
+      if (!(v instanceof FloatMatrix)) {
+         return (FloatVector) IFloatVector.super.dotDivide(v);
+      }
+      Simd.divide(data(), 0, ((FloatMatrix) v).data(), 0, length());
+      return this;
+   }
+
+   @Override
+   public FloatVector copy() {
+      return new FloatVector(this);
+   }
+}
@@ -0,0 +1,177 @@
+package math.matrices;
+
+import java.util.Arrays;
+
+/**
+ * The restarted generalized minimal residual method, GMRES(m), for any non-singular operator.  Every cycle builds an
+ * orthonormal Krylov basis of at most {@code m} vectors by the Arnoldi process with modified Gram-Schmidt and finds
+ * the combination of them with the smallest residual through Givens rotations; the solution is then updated and the
+ * method restarts from the new residual.
+ * <p/>
+ * An optional preconditioner, an operator applying the inverse of an approximation {@code M} of {@code A}, is applied
+ * on the right so that the recorded residuals are those of the original system.  A solve keeps {@code m + 2} work
+ * vectors; larger restarts converge in fewer iterations but take more memory and more work per iteration.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class GMRES extends IterativeSolver {
+
+   /**
+    * The default number of iterations between restarts.
+    */
+   public static final int DEFAULT_RESTART = 30;
+
+   /**
+    * The number of iterations between restarts.
+    */
+   private final int restart;
+
+   /**
+    * The operator applying the inverse of the preconditioner, or {@code null} if not preconditioned.
+    */
+   private final LinearOperator preconditioner;
+
+   /**
+    * Creates a new solver that restarts every {@link #DEFAULT_RESTART} iterations without a preconditioner.
+    */
+   public GMRES() {
+      this(DEFAULT_RESTART, null);
+   }
+
+   /**
+    * Creates a new solver that restarts every specified number of iterations without a preconditioner.
+    *
+    * @param restart the number of iterations between restarts.
+    */
+   public GMRES(int restart) {
+      this(restart, null);
+   }
+
+   /**
+    * Creates a new solver that restarts every specified number of iterations with the specified preconditioner.
+    *
+    * @param restart the number of iterations between restarts.
+    * @param preconditioner the operator applying the inverse of the preconditioner, or {@code null} for none.
+    * @throws IllegalArgumentException if the restart is not positive.
+    */
+   public GMRES(int restart, LinearOperator preconditioner) {
+      if (restart < 1) {
+         throw new IllegalArgumentException("Restart must be positive: " + restart);
+      }
+      this.restart = restart;
+      this.preconditioner = preconditioner;
+   }
+
+   /**
+    * Returns the number of iterations between restarts.
+    *
+    * @return the restart.
+    */
+   public int getRestart() {
+      return restart;
+   }
+
+   @Override
+   protected void iterate(LinearOperator a, double[] b, double[] x) {
+      int n = b.length;
+      int m = Math.min(restart, Math.max(n, 1));
+      double[][] v = new double[m][];
+      double[] w = new double[n];
+      double[] t = (preconditioner == null ? null : new double[n]);
+      // The Hessenberg matrix, column after column, reduced to upper triangular by the rotations.
+      double[] h = new double[(m + 1) * m];
+      double[] cs = new double[m];
+      double[] sn = new double[m];
+      double[] g = new double[m + 1];
+
+      v[0] = new double[n];
+      residual(a, b, x, v[0]);
+      double beta = norm(v[0]);
+      if (start(beta)) {
+         return;
+      }
+
+      while (hasIterations()) {
+         for (int k = 0; k < n; k++) {
+            v[0][k] /= beta;
+         }
+         Arrays.fill(g, 0.0);
+         g[0] = beta;
+
+         int j = 0;
+         boolean done = false;
+         while (j < m && hasIterations() && !done) {
+            // w = A * M^-1 * v[j]
+            if (preconditioner == null) {
+               apply(a, v[j], w);
+            } else {
+               apply(preconditioner, v[j], t);
+               apply(a, t, w);
+            }
+            int hj = j * (m + 1);
+            for (int i = 0; i <= j; i++) {
+               double hij = dot(w, v[i]);
+               h[hj + i] = hij;
+               axpy(-hij, v[i], w);
+            }
+            double next = norm(w);
+            h[hj + j + 1] = next;
+
+            for (int i = 0; i < j; i++) {
+               double hi = h[hj + i];
+               double hk = h[hj + i + 1];
+               h[hj + i] = cs[i] * hi + sn[i] * hk;
+               h[hj + i + 1] = -sn[i] * hi + cs[i] * hk;
+            }
+            double d = Math.hypot(h[hj + j], next);
+            cs[j] = (d == 0.0 ? 1.0 : h[hj + j] / d);
+            sn[j] = (d == 0.0 ? 0.0 : next / d);
+            h[hj + j] = d;
+            h[hj + j + 1] = 0.0;
+            g[j + 1] = -sn[j] * g[j];
+            g[j] = cs[j] * g[j];
+
+            // A zero next basis vector means the solution lies in the current basis.
+            done = record(Math.abs(g[j + 1])) || next == 0.0;
+            if (!done && j + 1 < m) {
+               if (v[j + 1] == null) {
+                  v[j + 1] = new double[n];
+               }
+               for (int k = 0; k < n; k++) {
+                  v[j + 1][k] = w[k] / next;
+               }
+            }
+            j++;
+         }
+
+         // Solve the triangular system for the combination and update the solution by M^-1 * V * y.
+         for (int i = j - 1; i >= 0; i--) {
+            double sum = g[i];
+            for (int k = i + 1; k < j; k++) {
+               sum -= h[k * (m + 1) + i] * g[k];
+            }
+            g[i] = sum / h[i * (m + 1) + i];
+         }
+         Arrays.fill(w, 0.0);
+         for (int i = 0; i < j; i++) {
+            axpy(g[i], v[i], w);
+         }
+         if (preconditioner == null) {
+            axpy(1.0, w, x);
+         } else {
+            apply(preconditioner, w, t);
+            axpy(1.0, t, x);
+         }
+         if (isConverged()) {
+            return;
+         }
+
+         residual(a, b, x, v[0]);
+         beta = norm(v[0]);
+         if (beta == 0.0) {
+            return;
+         }
+      }
+   }
+}
@@ -0,0 +1,465 @@
+package math.matrices;
+
+import java.util.Arrays;
+
+/**
+ * A static library for general matrix-matrix multiplication over row-major arrays.  It computes {@code C = alpha * A
+ * * B + beta * C} using the blocked scheme popularized by Goto and van de Geijn: the operands are cut into blocks that
+ * fit the caches, each block is packed into contiguous panels and a register-tiled micro-kernel sweeps the panels.
+ * <p/>
+ * The operands {@code A} and {@code B} are described by an offset and separate row and column strides so transposed
+ * or otherwise strided operands are read in place during packing.  The result {@code C} is row-major with a leading
+ * dimension.
+ * <p/>
+ * Large products are split into bands of rows of {@code C} which are computed in {@link Parallel}.  Every value of
+ * {@code C} is accumulated in the same order whichever band computes it so the result does not depend on the split.
+ * <p/>
+ * Products of {@code float} matrices are accumulated in double precision: the panels are widened as they are packed
+ * and each block of {@code C} is accumulated in double precision on its own and rounded once into the result.
+ * <p/>
+ * The packing buffers are kept per thread and reused, so a product small enough to run serially allocates nothing.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Gemm {
+
+   /**
+    * The number of rows of a register tile.
+    */
+   static final int MR = 4;
+
+   /**
+    * The number of columns of a register tile.
+    */
+   static final int NR = 4;
+
+   /**
+    * The number of rows of {@code A} packed at once.  A packed block of {@code MC x KC} values stays in the L2 cache.
+    */
+   static final int MC = 96;
+
+   /**
+    * The depth of the packed panels.  A packed micro-panel of {@code KC x NR} values of {@code B} stays in the L1
+    * cache.
+    */
+   static final int KC = 256;
+
+   /**
+    * The number of columns of {@code B} packed at once.  A packed block of {@code KC x NC} values stays in the L3
+    * cache.
+    */
+   static final int NC = 2048;
+
+   /**
+    * The number of multiply-adds below which the packing overhead outweighs the blocking and a simple loop is used.
+    */
+   private static final long SMALL = 32 * 32 * 32;
+
+   /**
+    * The packing buffers of each thread, the panel of {@code A}, the panel of {@code B} and the block of {@code C}
+    * accumulated by a {@code float} product.
+    */
+   private static final ThreadLocal<double[][]> BUFFERS = ThreadLocal.withInitial(() -> new double[3][0]);
+
+   /**
+    * Don't let anyone instantiate this class.
+    */
+   private Gemm() {
+   }
+
+   /**
+    * Computes {@code C = alpha * A * B + beta * C} where {@code A} is {@code m x k}, {@code B} is {@code k x n} and
+    * {@code C} is {@code m x n}.  When {@code beta} is zero the original values of {@code C} are ignored, even if they
+    * are not finite.
+    *
+    * @param m the number of rows of {@code A} and {@code C}.
+    * @param n the number of columns of {@code B} and {@code C}.
+    * @param k the number of columns of {@code A} and rows of {@code B}.
+    * @param alpha the scaling factor of the product.
+    * @param a the backing array of {@code A}.
+    * @param aOffset the index of the first value of {@code A}.
+    * @param aRowStride the distance between two consecutive rows of {@code A}.
+    * @param aColumnStride the distance between two consecutive columns of {@code A}.
+    * @param b the backing array of {@code B}.
+    * @param bOffset the index of the first value of {@code B}.
+    * @param bRowStride the distance between two consecutive rows of {@code B}.
+    * @param bColumnStride the distance between two consecutive columns of {@code B}.
+    * @param beta the scaling factor of the original {@code C}.
+    * @param c the backing array of {@code C}.
+    * @param cOffset the index of the first value of {@code C}.
+    * @param cStride the distance between two consecutive rows of {@code C}.
+    */
+   public static void multiply(int m, int n, int k, double alpha, double[] a, int aOffset, int aRowStride,
+                               int aColumnStride, double[] b, int bOffset, int bRowStride, int bColumnStride,
+                               double beta, double[] c, int cOffset, int cStride) {
+      if (m == 0 || n == 0) {
+         return;
+      }
+      scale(m, n, beta, c, cOffset, cStride);
+      if (k == 0 || alpha == 0.0) {
+         return;
+      }
+      long work = (long) m * n * k;
+      if (work <= SMALL) {
+         multiplySmall(m, n, k, alpha, a, aOffset, aRowStride, aColumnStride, b, bOffset, bRowStride, bColumnStride, c,
+                       cOffset, cStride);
+         return;
+      }
+      if (!Parallel.isParallel(work)) {
+         multiplyBlocked(m, n, k, alpha, a, aOffset, aRowStride, aColumnStride, b, bOffset, bRowStride, bColumnStride,
+                         c, cOffset, cStride);
+         return;
+      }
+      Parallel.forRows(m, work, MR, (from, to) -> {
+         multiplyBlocked(to - from, n, k, alpha, a, aOffset + from * aRowStride, aRowStride, aColumnStride, b, bOffset,
+                         bRowStride, bColumnStride, c, cOffset + from * cStride, cStride);
+      });
+   }
+
+   /**
+    * Accumulates {@code alpha * A * B} into {@code C} one cache block at a time.
+    */
+   private static void multiplyBlocked(int m, int n, int k, double alpha, double[] a, int aOffset, int aRowStride,
+                                       int aColumnStride, double[] b, int bOffset, int bRowStride, int bColumnStride,
+                                       double[] c, int cOffset, int cStride) {
+      double[] packedA = buffer(0, Math.min(MC, roundUp(m, MR)) * Math.min(KC, k));
+      double[] packedB = buffer(1, Math.min(KC, k) * Math.min(NC, roundUp(n, NR)));
+      for (int jc = 0; jc < n; jc += NC) {
+         int nc = Math.min(NC, n - jc);
+         for (int pc = 0; pc < k; pc += KC) {
+            int kc = Math.min(KC, k - pc);
+            packB(kc, nc, b, bOffset + pc * bRowStride + jc * bColumnStride, bRowStride, bColumnStride, packedB);
+            for (int ic = 0; ic < m; ic += MC) {
+               int mc = Math.min(MC, m - ic);
+               packA(mc, kc, a, aOffset + ic * aRowStride + pc * aColumnStride, aRowStride, aColumnStride, packedA);
+               macroKernel(mc, nc, kc, alpha, packedA, packedB, c, cOffset + ic * cStride + jc, cStride);
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the packing buffer of the current thread with at least the specified length, growing it if needed.
+    */
+   private static double[] buffer(int which, int length) {
+      double[][] buffers = BUFFERS.get();
+      if (buffers[which].length < length) {
+         buffers[which] = new double[length];
+      }
+      return buffers[which];
+   }
+
+   /**
+    * Computes {@code C = A * B} for row-major contiguous arrays, overwriting {@code C}.
+    *
+    * @param m the number of rows of {@code A} and {@code C}.
+    * @param n the number of columns of {@code B} and {@code C}.
+    * @param k the number of columns of {@code A} and rows of {@code B}.
+    * @param a the values of {@code A}.
+    * @param b the values of {@code B}.
+    * @param c the values of {@code C}.
+    */
+   public static void multiply(int m, int n, int k, double[] a, double[] b, double[] c) {
+      multiply(m, n, k, 1.0, a, 0, k, 1, b, 0, n, 1, 0.0, c, 0, n);
+   }
+
+   /**
+    * Computes {@code C = A * B} for row-major contiguous {@code float} arrays, overwriting {@code C}.  Every value is
+    * accumulated in double precision, in the same order as by {@link #multiply(int, int, int, double[], double[],
+    * double[])} on the widened values, and rounded once.
+    *
+    * @param m the number of rows of {@code A} and {@code C}.
+    * @param n the number of columns of {@code B} and {@code C}.
+    * @param k the number of columns of {@code A} and rows of {@code B}.
+    * @param a the values of {@code A}.
+    * @param b the values of {@code B}.
+    * @param c the values of {@code C}.
+    */
+   public static void multiply(int m, int n, int k, float[] a, float[] b, float[] c) {
+      if (m == 0 || n == 0) {
+         return;
+      }
+      if (k == 0) {
+         Arrays.fill(c, 0, m * n, 0.0f);
+         return;
+      }
+      long work = (long) m * n * k;
+      if (work <= SMALL) {
+         multiplySmall(m, n, k, a, 0, b, c, 0);
+         return;
+      }
+      if (!Parallel.isParallel(work)) {
+         multiplyBlocked(m, n, k, a, 0, b, c, 0);
+         return;
+      }
+      Parallel.forRows(m, work, MR, (from, to) -> multiplyBlocked(to - from, n, k, a, from * k, b, c, from * n));
+   }
+
+   /**
+    * Writes {@code A * B} into {@code C} one block of {@code C} at a time.  Each block is accumulated over the whole
+    * depth before it is rounded, so the panels of {@code B} are packed again for every block of rows, which costs
+    * {@code 1 / MC} of the multiply-adds.
+    */
+   private static void multiplyBlocked(int m, int n, int k, float[] a, int aOffset, float[] b, float[] c,
+                                       int cOffset) {
+      double[] packedA = buffer(0, Math.min(MC, roundUp(m, MR)) * Math.min(KC, k));
+      double[] packedB = buffer(1, Math.min(KC, k) * Math.min(NC, roundUp(n, NR)));
+      double[] block = buffer(2, Math.min(MC, m) * Math.min(NC, n));
+      for (int jc = 0; jc < n; jc += NC) {
+         int nc = Math.min(NC, n - jc);
+         for (int ic = 0; ic < m; ic += MC) {
+            int mc = Math.min(MC, m - ic);
+            Arrays.fill(block, 0, mc * nc, 0.0);
+            for (int pc = 0; pc < k; pc += KC) {
+               int kc = Math.min(KC, k - pc);
+               packB(kc, nc, b, pc * n + jc, n, 1, packedB);
+               packA(mc, kc, a, aOffset + ic * k + pc, k, 1, packedA);
+               macroKernel(mc, nc, kc, 1.0, packedA, packedB, block, 0, nc);
+            }
+            for (int i = 0; i < mc; i++) {
+               int ci = cOffset + (ic + i) * n + jc;
+               for (int j = 0; j < nc; j++) {
+                  c[ci + j] = (float) block[i * nc + j];
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Writes {@code A * B} into {@code C} with a row-oriented loop that needs no packing, accumulating each row in
+    * double precision.
+    */
+   private static void multiplySmall(int m, int n, int k, float[] a, int aOffset, float[] b, float[] c,
+                                     int cOffset) {
+      double[] row = buffer(2, n);
+      for (int i = 0; i < m; i++) {
+         Arrays.fill(row, 0, n, 0.0);
+         for (int p = 0; p < k; p++) {
+            double aip = a[aOffset + i * k + p];
+            int bp = p * n;
+            for (int j = 0; j < n; j++) {
+               row[j] += aip * b[bp + j];
+            }
+         }
+         int ci = cOffset + i * n;
+         for (int j = 0; j < n; j++) {
+            c[ci + j] = (float) row[j];
+         }
+      }
+   }
+
+   /**
+    * Scales the specified {@code m x n} region of {@code C} by {@code beta}.  A zero {@code beta} clears the region.
+    */
+   private static void scale(int m, int n, double beta, double[] c, int cOffset, int cStride) {
+      if (beta == 1.0) {
+         return;
+      }
+      for (int i = 0; i < m; i++) {
+         int ci = cOffset + i * cStride;
+         if (beta == 0.0) {
+            Arrays.fill(c, ci, ci + n, 0.0);
+         } else {
+            for (int j = 0; j < n; j++) {
+               c[ci + j] *= beta;
+            }
+         }
+      }
+   }
+
+   /**
+    * Accumulates {@code alpha * A * B} into {@code C} with a row-oriented loop that needs no packing.
+    */
+   private static void multiplySmall(int m, int n, int k, double alpha, double[] a, int aOffset, int aRowStride,
+                                     int aColumnStride, double[] b, int bOffset, int bRowStride, int bColumnStride,
+                                     double[] c, int cOffset, int cStride) {
+      for (int i = 0; i < m; i++) {
+         int ci = cOffset + i * cStride;
+         for (int p = 0; p < k; p++) {
+            double aip = alpha * a[aOffset + i * aRowStride + p * aColumnStride];
+            int bp = bOffset + p * bRowStride;
+            for (int j = 0; j < n; j++) {
+               c[ci + j] += aip * b[bp + j * bColumnStride];
+            }
+         }
+      }
+   }
+
+   /**
+    * Packs an {@code mc x kc} block of {@code A} into micro-panels of {@link #MR} rows.  Each micro-panel stores its
+    * values column after column and is padded with zeros to a full {@link #MR} rows.
+    */
+   private static void packA(int mc, int kc, double[] a, int offset, int rowStride, int columnStride,
+                             double[] packed) {
+      int dst = 0;
+      for (int i = 0; i < mc; i += MR) {
+         int mr = Math.min(MR, mc - i);
+         int src = offset + i * rowStride;
+         for (int p = 0; p < kc; p++, src += columnStride) {
+            int r = 0;
+            for (; r < mr; r++) {
+               packed[dst++] = a[src + r * rowStride];
+            }
+            for (; r < MR; r++) {
+               packed[dst++] = 0.0;
+            }
+         }
+      }
+   }
+
+   /**
+    * Packs and widens an {@code mc x kc} block of a {@code float} matrix {@code A} as by {@link #packA(int, int,
+    * double[], int, int, int, double[])}.
+    */
+   private static void packA(int mc, int kc, float[] a, int offset, int rowStride, int columnStride,
+                             double[] packed) {
+      int dst = 0;
+      for (int i = 0; i < mc; i += MR) {
+         int mr = Math.min(MR, mc - i);
+         int src = offset + i * rowStride;
+         for (int p = 0; p < kc; p++, src += columnStride) {
+            int r = 0;
+            for (; r < mr; r++) {
+               packed[dst++] = a[src + r * rowStride];
+            }
+            for (; r < MR; r++) {
+               packed[dst++] = 0.0;
+            }
+         }
+      }
+   }
+
+   /**
+    * Packs a {@code kc x nc} block of {@code B} into micro-panels of {@link #NR} columns.  Each micro-panel stores its
+    * values row after row and is padded with zeros to a full {@link #NR} columns.
+    */
+   private static void packB(int kc, int nc, double[] b, int offset, int rowStride, int columnStride,
+                             double[] packed) {
+      int dst = 0;
+      for (int j = 0; j < nc; j += NR) {
+         int nr = Math.min(NR, nc - j);
+         int src = offset + j * columnStride;
+         for (int p = 0; p < kc; p++, src += rowStride) {
+            int s = 0;
+            for (; s < nr; s++) {
+               packed[dst++] = b[src + s * columnStride];
+            }
+            for (; s < NR; s++) {
+               packed[dst++] = 0.0;
+            }
+         }
+      }
+   }
+
+   /**
+    * Packs and widens a {@code kc x nc} block of a {@code float} matrix {@code B} as by {@link #packB(int, int,
+    * double[], int, int, int, double[])}.
+    */
+   private static void packB(int kc, int nc, float[] b, int offset, int rowStride, int columnStride,
+                             double[] packed) {
+      int dst = 0;
+      for (int j = 0; j < nc; j += NR) {
+         int nr = Math.min(NR, nc - j);
+         int src = offset + j * columnStride;
+         for (int p = 0; p < kc; p++, src += rowStride) {
+            int s = 0;
+            for (; s < nr; s++) {
+               packed[dst++] = b[src + s * columnStride];
+            }
+            for (; s < NR; s++) {
+               packed[dst++] = 0.0;
+            }
+         }
+      }
+   }
+
+   /**
+    * Multiplies a packed block of {@code A} against a packed block of {@code B} one register tile at a time.
+    */
+   private static void macroKernel(int mc, int nc, int kc, double alpha, double[] packedA, double[] packedB,
+                                   double[] c, int cOffset, int cStride) {
+      for (int j = 0; j < nc; j += NR) {
+         int nr = Math.min(NR, nc - j);
+         int pb = j * kc;
+         for (int i = 0; i < mc; i += MR) {
+            int mr = Math.min(MR, mc - i);
+            microKernel(kc, alpha, packedA, i * kc, packedB, pb, c, cOffset + i * cStride + j, cStride, mr, nr);
+         }
+      }
+   }
+
+   /**
+    * Computes one {@code MR x NR} register tile of the product over the full depth of the packed panels and adds it
+    * to {@code C}.  Only the top-left {@code mr x nr} part of the tile is written back.
+    */
+   private static void microKernel(int kc, double alpha, double[] a, int pa, double[] b, int pb, double[] c,
+                                   int ci, int cStride, int mr, int nr) {
+      double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+      double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+      double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+      double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+      for (int p = 0; p < kc; p++, pa += MR, pb += NR) {
+         double a0 = a[pa];
+         double a1 = a[pa + 1];
+         double a2 = a[pa + 2];
+         double a3 = a[pa + 3];
+         double b0 = b[pb];
+         double b1 = b[pb + 1];
+         double b2 = b[pb + 2];
+         double b3 = b[pb + 3];
+         c00 += a0 * b0;
+         c01 += a0 * b1;
+         c02 += a0 * b2;
+         c03 += a0 * b3;
+         c10 += a1 * b0;
+         c11 += a1 * b1;
+         c12 += a1 * b2;
+         c13 += a1 * b3;
+         c20 += a2 * b0;
+         c21 += a2 * b1;
+         c22 += a2 * b2;
+         c23 += a2 * b3;
+         c30 += a3 * b0;
+         c31 += a3 * b1;
+         c32 += a3 * b2;
+         c33 += a3 * b3;
+      }
+      if (mr == MR && nr == NR) {
+         c[ci] += alpha * c00;
+         c[ci + 1] += alpha * c01;
+         c[ci + 2] += alpha * c02;
+         c[ci + 3] += alpha * c03;
+         ci += cStride;
+         c[ci] += alpha * c10;
+         c[ci + 1] += alpha * c11;
+         c[ci + 2] += alpha * c12;
+         c[ci + 3] += alpha * c13;
+         ci += cStride;
+         c[ci] += alpha * c20;
+         c[ci + 1] += alpha * c21;
+         c[ci + 2] += alpha * c22;
+         c[ci + 3] += alpha * c23;
+         ci += cStride;
+         c[ci] += alpha * c30;
+         c[ci + 1] += alpha * c31;
+         c[ci + 2] += alpha * c32;
+         c[ci + 3] += alpha * c33;
+      } else {
+         double[] t = {c00, c01, c02, c03, c10, c11, c12, c13, c20, c21, c22, c23, c30, c31, c32, c33};
+         for (int r = 0; r < mr; r++) {
+            for (int s = 0; s < nr; s++) {
+               c[ci + r * cStride + s] += alpha * t[r * NR + s];
+            }
+         }
+      }
+   }
+
+   /**
+    * Rounds the specified value up to a multiple of the specified block size.
+    */
+   private static int roundUp(int value, int block) {
+      return (value + block - 1) / block * block;
+   }
+}
@@ -0,0 +1,383 @@
+package math.matrices;
+
+/**
+ * A object representation of a mathematical matrix of single precision values.  This interface provides the same basic
+ * use and manipulation methods as {@link IMatrix} over {@code float} values, which take half the memory and twice as
+ * many values per vector instruction.  Sums of many products, such as dot products, are accumulated in double
+ * precision.
+ * <p/>
+ * Matrices convert explicitly between the two precisions with {@link #toMatrix()} and {@link FloatMatrix#FloatMatrix(
+ * IMatrix)}.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public interface IFloatMatrix {
+
+   /**
+    * Returns the number of rows the matrix has.
+    *
+    * @return the number of rows.
+    */
+   public int rows();
+
+   /**
+    * Returns the number of columns the matrix has.
+    *
+    * @return the number of columns.
+    */
+   public int columns();
+
+   /**
+    * Returns the value at the corresponding row and column.
+    *
+    * @param r the row of the value.
+    * @param c the column of the value.
+    * @return the value at the row and column.
+    */
+   public float get(int r, int c);
+
+   /**
+    * Returns all the elements in the corresponding row.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param r the row of all the elements.
+    * @return all the elements in the row.
+    */
+   default float[] getRow(int r) {
+      return getRow(r, new float[columns()]);
+   }
+
+   /**
+    * Returns all the elements in the corresponding column.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param c the column of all the elements.
+    * @return all the elements in the column.
+    */
+   default float[] getColumn(int c) {
+      return getColumn(c, new float[rows()]);
+   }
+
+   /**
+    * Copies all the elements in the corresponding row into the specified array, which must hold at least as many
+    * values as there are columns.
+    * <p/>
+    * Unsafe method, does not check the row.
+    *
+    * @param r the row of all the elements.
+    * @param dst the array to copy the elements into.
+    * @return the specified array.
+    * @throws MatrixDimensionException if the array is too short.
+    */
+   default float[] getRow(int r, float[] dst) {
+      DimensionChecking.catchLength(dst, columns());
+      for (int i = 0; i < columns(); i++) {
+         dst[i] = get(r, i);
+      }
+      return dst;
+   }
+
+   /**
+    * Copies all the elements in the corresponding column into the specified array, which must hold at least as many
+    * values as there are rows.
+    * <p/>
+    * Unsafe method, does not check the column.
+    *
+    * @param c the column of all the elements.
+    * @param dst the array to copy the elements into.
+    * @return the specified array.
+    * @throws MatrixDimensionException if the array is too short.
+    */
+   default float[] getColumn(int c, float[] dst) {
+      DimensionChecking.catchLength(dst, rows());
+      for (int i = 0; i < rows(); i++) {
+         dst[i] = get(i, c);
+      }
+      return dst;
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified array.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the new values for the matrix.
+    * @return the matrix with the values of the array.
+    */
+   public IFloatMatrix set(float[][] a);
+
+   /**
+    * Sets the value at the corresponding row and column with the specified new value.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param r the row of the new value.
+    * @param c the column of the new value.
+    * @param n the new value.
+    * @return the original matrix modified with the new value.
+    */
+   public IFloatMatrix set(int r, int c, float n);
+
+   /**
+    * Sets all the values of the corresponding row with the specified new values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param r the row of the new values.
+    * @param v the new values.
+    * @return the original matrix modified with the new values.
+    */
+   default IFloatMatrix setRow(int r, float[] v) {
+      for (int i = 0; i < columns(); i++) {
+         set(r, i, v[i]);
+      }
+      return this;
+   }
+
+   /**
+    * Sets all the values of the corresponding column with the specified new values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param c the column of the new values.
+    * @param v the new values.
+    * @return the original matrix modified with the new values.
+    */
+   default IFloatMatrix setColumn(int c, float[] v) {
+      for (int i = 0; i < rows(); i++) {
+         set(i, c, v[i]);
+      }
+      return this;
+   }
+
+   /**
+    * Sets all the values starting at the corresponding row and column with the specified values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param r the starting row of new values.
+    * @param c the starting column of new values.
+    * @param a the new values.
+    * @return the original matrix modified with the new values.
+    */
+   default IFloatMatrix set(int r, int c, float[][] a) {
+      for (int i = 0; i < a.length; i++) {
+         for (int j = 0; j < a[0].length; j++) {
+            set(r + i, c + j, a[i][j]);
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Returns the transpose of the matrix.  This operation does not create a new matrix but modifies the original
+    * matrix.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @return the transpose of the matrix.
+    */
+   default IFloatMatrix transpose() {
+      float[][] transpose = new float[columns()][rows()];
+      for (int i = 0; i < columns(); i++) {
+         for (int j = 0; j < rows(); j++) {
+            transpose[i][j] = get(j, i);
+         }
+      }
+      return set(transpose);
+   }
+
+   /**
+    * Returns the inverse of the matrix.  This operation does not create a new matrix but modifies the original matrix.
+    * The inverse is computed in double precision from an {@link LUDecomposition} and rounded back to single precision.
+    *
+    * @return the inverse of the matrix.
+    * @throws MatrixDimensionException if the matrix is not square.
+    * @throws SingularMatrixException if the matrix is singular.
+    */
+   default IFloatMatrix inverse() {
+      Matrix inverse = new LUDecomposition(toMatrix()).inverse();
+      float[][] a = new float[inverse.rows()][inverse.columns()];
+      for (int i = 0; i < a.length; i++) {
+         for (int j = 0; j < a[i].length; j++) {
+            a[i][j] = (float) inverse.get(i, j);
+         }
+      }
+      return set(a);
+   }
+
+   /**
+    * Scales the matrix by multiplying the specified value against all the values of this matrix.  This method modifies
+    * the original values of the matrix.
+    *
+    * @param n the scaling factor.
+    * @return the original matrix multiplied by the scaling factor.
+    */
+   default IFloatMatrix scale(float n) {
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j < columns(); j++) {
+            set(i, j, n * get(i, j));
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Adds the specified matrix to the original matrix.  This operation is value based and will add corresponding
+    * row-column values.  This method modifies the original values of the matrix.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to add.
+    * @return the original matrix modified with the addition of the specified matrix.
+    */
+   default IFloatMatrix add(IFloatMatrix a) {
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j < columns(); j++) {
+            set(i, j, get(i, j) + a.get(i, j));
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Subtracts the specified matrix to the original matrix.  This operation is value based and will subtract
+    * corresponding row-column values.  This method modifies the original values of the matrix.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to subtract.
+    * @return the original matrix modified with the subtraction of the specified matrix.
+    */
+   default IFloatMatrix subtract(IFloatMatrix a) {
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j < columns(); j++) {
+            set(i, j, get(i, j) - a.get(i, j));
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the original matrix.  This method modifies the original matrix by
+    * setting it equal to the resulting matrix.  Both matrices are copied into a {@link FloatMatrix} and multiplied
+    * there.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   default IFloatMatrix multiply(IFloatMatrix a) {
+      FloatMatrix product = new FloatMatrix(this).multiply(a);
+      float[][] c = new float[product.rows()][];
+      for (int i = 0; i < c.length; i++) {
+         c[i] = product.getRow(i);
+      }
+      return set(c);
+   }
+
+   /**
+    * Writes the matrix-multiplication of two matrices into the specified matrix, {@code out = a * b}, without modifying
+    * either operand.  The dimensions are checked once up front.  When the result is a {@link FloatMatrix} the product
+    * is written directly into its backing array.
+    * <p/>
+    * The result must not be either operand.
+    *
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param out the matrix to write the product into.
+    * @param <T> the type of the result.
+    * @return the specified result matrix.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    */
+   static <T extends IFloatMatrix> T multiplyInto(IFloatMatrix a, IFloatMatrix b, T out) {
+      DimensionChecking.catchMultiplication(a, b);
+      DimensionChecking.catchDimensions(out, a.rows(), b.columns());
+      if (out == a || out == b) {
+         throw new IllegalArgumentException("Cannot multiply into an operand");
+      }
+      FloatMatrix l = (a instanceof FloatMatrix ? (FloatMatrix) a : new FloatMatrix(a));
+      FloatMatrix r = (b instanceof FloatMatrix ? (FloatMatrix) b : new FloatMatrix(b));
+      if (out instanceof FloatMatrix) {
+         FloatMatrix c = (FloatMatrix) out;
+         if (c.data() == l.data() || c.data() == r.data()) {
+            throw new IllegalArgumentException("Cannot multiply into an operand");
+         }
+         FloatMatrix.multiply(l, r, c.data());
+      } else {
+         float[] c = new float[a.rows() * b.columns()];
+         FloatMatrix.multiply(l, r, c);
+         for (int i = 0; i < a.rows(); i++) {
+            for (int j = 0; j < b.columns(); j++) {
+               out.set(i, j, c[i * b.columns() + j]);
+            }
+         }
+      }
+      return out;
+   }
+
+   /**
+    * Dot-wise multiplies the specified matrix to the original matrix.  This operation is value based and will multiply
+    * corresponding row-column values. This method modifies the original values of the matrix.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to dot-multiply.
+    * @return the original matrix modified with the dot-multiplication of the specified matrix.
+    */
+   default IFloatMatrix dotMultiply(IFloatMatrix a) {
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j < columns(); j++) {
+            set(i, j, get(i, j) * a.get(i, j));
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Dot-wise divides the specified matrix to the original matrix.  This operation is value based and will divide
+    * corresponding row-column values. This method modifies the original values of the matrix.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to dot-divide.
+    * @return the original matrix modified with the dot-division of the specified matrix.
+    */
+   default IFloatMatrix dotDivide(IFloatMatrix a) {
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j < columns(); j++) {
+            set(i, j, get(i, j) / a.get(i, j));
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Returns a new double precision matrix with the values of the matrix.
+    *
+    * @return the matrix in double precision.
+    */
+   default Matrix toMatrix() {
+      double[] a = new double[rows() * columns()];
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j < columns(); j++) {
+            a[i * columns() + j] = get(i, j);
+         }
+      }
+      return new Matrix(rows(), columns(), a);
+   }
+
+   /**
+    * Returns a copy of the matrix.
+    *
+    * @return a copy of the matrix.
+    */
+   public IFloatMatrix copy();
+
+}
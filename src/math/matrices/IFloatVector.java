@@ -0,0 +1,215 @@
+package math.matrices;
+
+/**
+ * The object representation of a mathematical vector of single precision values.  This interface provides the same
+ * basic use and manipulation methods as {@link IVector} over {@code float} values.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public interface IFloatVector extends IFloatMatrix {
+
+   /**
+    * Returns the length of the vector.
+    *
+    * @return the length of the vector.
+    */
+   default int length() {
+      return columns() == 1 ? rows() : columns();
+   }
+
+   /**
+    * Returns the value of the vector at the specified index. This index is along the length of the vector.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param i the index of the value.
+    * @return the value at the specified index.
+    */
+   default float get(int i) {
+      if (columns() > rows()) {
+         return get(0, i);
+      } else {
+         return get(i, 0);
+      }
+   }
+
+   /**
+    * Sets the vector to be the specified array.
+    *
+    * @param v the new array for the vector.
+    * @return the vector representation of the array.
+    */
+   default IFloatVector set(float[] v) {
+      set(new float[][] {v});
+      return this;
+   }
+
+   @Override
+   IFloatVector set(float[][] a);
+
+   /**
+    * Sets the value at the corresponding index to be the specified value.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param i the index of the value.
+    * @param n the specified value.
+    * @return the original matrix modified with the new value.
+    */
+   default IFloatVector set(int i, float n) {
+      if (columns() > rows()) {
+         set(0, i, n);
+      } else {
+         set(i, 0, n);
+      }
+      return this;
+   }
+
+   @Override
+   IFloatVector set(int r, int c, float n);
+
+   /**
+    * Sets all the values starting at the corresponding index with the specified values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param i the starting index of the new values.
+    * @param v the new values.
+    * @return the original matrix modified with the new values.
+    */
+   default IFloatVector set(int i, float[] v) {
+      for (int n = 0; n < v.length; n++) {
+         set(i + n, v[n]);
+      }
+      return this;
+   }
+
+   @Override
+   default IFloatVector transpose() {
+      return (IFloatVector) IFloatMatrix.super.transpose();
+   }
+
+   @Override
+   default IFloatVector scale(float n) {
+      return (IFloatVector) IFloatMatrix.super.scale(n);
+   }
+
+   /**
+    * Adds the specified vector to the original vector. This operation is value based and will add corresponding index
+    * values. This method modifies the original values of the vector.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the vector to add.
+    * @return the original vector modified with the addition of the specified a vector.
+    */
+   default IFloatVector add(IFloatVector v) {
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) + v.get(i));
+      }
+      return this;
+   }
+
+   /**
+    * Subtracts the specified vector to the original vector. This operation is value based and will subtract
+    * corresponding index values. This method modifies the original values of the vector.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the vector to subtract.
+    * @return the original vector modified with the subtraction of the specified vector.
+    */
+   default IFloatVector subtract(IFloatVector v) {
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) - v.get(i));
+      }
+      return this;
+   }
+
+   /**
+    * Returns the outer-product of the vector and the specified vector regardless of their orientations, the matrix
+    * with the value {@code get(i) * v.get(j)} at row {@code i} and column {@code j}.
+    *
+    * @param v the outer vector.
+    * @return the outer-product of the vector multiplied by the specified vector.
+    */
+   default IFloatMatrix outer(IFloatVector v) {
+      int m = length();
+      int n = v.length();
+      float[] a = new float[m * n];
+      for (int i = 0; i < m; i++) {
+         float x = get(i);
+         for (int j = 0; j < n; j++) {
+            a[i * n + j] = x * v.get(j);
+         }
+      }
+      return new FloatMatrix(m, n, a);
+   }
+
+   /**
+    * Returns the inner-product of the vector and the specified vector regardless of their orientations.  The products
+    * are accumulated in double precision.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the inner vector.
+    * @return the inner-product of the vector multiplied by the specified vector.
+    */
+   default double inner(IFloatVector v) {
+      double sum = 0.0;
+      for (int i = 0; i < length(); i++) {
+         sum += (double) get(i) * v.get(i);
+      }
+      return sum;
+   }
+
+   /**
+    * Dot-wise multiplies the specified vector to the original vector. This operation is value based and will multiply
+    * corresponding index values. This method modifies the original values of the vector.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the vector to dot-multiply.
+    * @return the original vector modified with the dot-multiplication of the specified vector.
+    */
+   default IFloatVector dotMultiply(IFloatVector v) {
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) * v.get(i));
+      }
+      return this;
+   }
+
+   /**
+    * Dot-wise divides the specified vector to the original vector. This operation is value based and will divide
+    * corresponding index values. This method modifies the original values of the vector.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the vector to dot-divide.
+    * @return the original vector modified with the dot-division of the specified vector.
+    */
+   default IFloatVector dotDivide(IFloatVector v) {
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) / v.get(i));
+      }
+      return this;
+   }
+
+   /**
+    * Returns a new double precision vector with the values and orientation of the vector.
+    *
+    * @return the vector in double precision.
+    */
+   default Vector toVector() {
+      Vector v = new Vector(length());
+      for (int i = 0; i < length(); i++) {
+         v.set(i, get(i));
+      }
+      return (rows() > columns() ? v.transpose() : v);
+   }
+
+   @Override
+   public IFloatVector copy();
+
+}
@@ -64,8 +64,46 @@ public interface IMatrix {
    }
 
    /**
-    * Sets the matrix to be the specified array.  This method does not copy but sets the array which will change if the
-    * matrix is modified.
+    * Copies all the elements in the corresponding row into the specified array, which must hold at least as many
+    * values as there are columns.
+    * <p/>
+    * Unsafe method, does not check the row.
+    *
+    * @param r the row of all the elements.
+    * @param dst the array to copy the elements into.
+    * @return the specified array.
+    * @throws MatrixDimensionException if the array is too short.
+    */
+   default double[] getRow(int r, double[] dst) {
+      DimensionChecking.catchLength(dst, columns());
+      for (int i = 0; i < columns(); i++) {
+         dst[i] = get(r, i);
+      }
+      return dst;
+   }
+
+   /**
+    * Copies all the elements in the corresponding column into the specified array, which must hold at least as many
+    * values as there are rows.
+    * <p/>
+    * Unsafe method, does not check the column.
+    *
+    * @param c the column of all the elements.
+    * @param dst the array to copy the elements into.
+    * @return the specified array.
+    * @throws MatrixDimensionException if the array is too short.
+    */
+   default double[] getColumn(int c, double[] dst) {
+      DimensionChecking.catchLength(dst, rows());
+      for (int i = 0; i < rows(); i++) {
+         dst[i] = get(i, c);
+      }
+      return dst;
+   }
+
+   /**
+    * Sets the matrix to be the specified array.  Depending on the implementation this method either sets the array,
+    * which will then change if the matrix is modified, or copies its values into the storage of the matrix.
     * <p/>
     * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
     *
@@ -155,13 +193,45 @@ public interface IMatrix {
       return set(transpose);
    }
 
+   /**
+    * Writes the transpose of the matrix into the specified matrix without modifying this matrix or allocating.  The
+    * specified matrix must have as many rows as this matrix has columns and the other way around, and must not share
+    * storage with this matrix.
+    *
+    * @param out the matrix to write the transpose into.
+    * @param <T> the type of the matrix.
+    * @return the specified matrix.
+    * @throws MatrixDimensionException if the specified matrix does not have the transposed dimensions.
+    */
+   default <T extends IMatrix> T transposeInto(T out) {
+      DimensionChecking.catchDimensions(out, columns(), rows());
+      if (out == this) {
+         throw new IllegalArgumentException("Cannot transpose a matrix into itself");
+      }
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j < columns(); j++) {
+            out.set(j, i, get(i, j));
+         }
+      }
+      return out;
+   }
+
    /**
     * Returns the inverse of the matrix.  This operation does not create a new matrix but modifies the original matrix.
+    * The inverse is computed from an {@link LUDecomposition}; to solve systems of equations use the decomposition
+    * directly instead.
     *
     * @return the inverse of the matrix.
+    * @throws MatrixDimensionException if the matrix is not square.
+    * @throws SingularMatrixException if the matrix is singular.
     */
    default IMatrix inverse() {
-      throw new RuntimeException("Method not implemented.");
+      Matrix inverse = new LUDecomposition(this).inverse();
+      double[][] a = new double[inverse.rows()][];
+      for (int i = 0; i < a.length; i++) {
+         a[i] = inverse.getRow(i);
+      }
+      return set(a);
    }
 
    /**
@@ -218,7 +288,8 @@ public interface IMatrix {
 
    /**
     * Matrix-multiplies the specified matrix against the original matrix.  This method modifies the original matrix by
-    * setting it equal to the resulting matrix.
+    * setting it equal to the resulting matrix.  Both matrices are copied into row-major arrays and multiplied by the
+    * cache-blocked {@link Gemm} kernel.
     * <p/>
     * Unsafe method, does not perform dimension checks.
     * <p/>
@@ -228,17 +299,125 @@ public interface IMatrix {
     * @return the original matrix modified with the matrix-multiplication by the specified matrix.
     */
    default IMatrix multiply(IMatrix a) {
-      double[][] c = new double[rows()][a.columns()];
+      int m = rows();
+      int n = a.columns();
+      int k = a.rows();
+      double[] left = new DenseMatrix(this).data();
+      double[] right = new DenseMatrix(a).data();
+      double[] product = new double[m * n];
+      Gemm.multiply(m, n, k, left, right, product);
+      double[][] c = new double[m][n];
+      for (int i = 0; i < m; i++) {
+         System.arraycopy(product, i * n, c[i], 0, n);
+      }
+      return set(c);
+   }
+
+   /**
+    * Writes the matrix-multiplication of two matrices into the specified matrix, {@code out = a * b}, without modifying
+    * either operand.  The dimensions are checked once up front.  When all three matrices are {@link DenseMatrix} the
+    * product is computed by {@link Gemm} directly into the backing array of {@code out}, allocating nothing for
+    * products small enough to run serially; otherwise the operands are copied into dense storage first.
+    * <p/>
+    * The result must not share storage with either operand.
+    *
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param out the matrix to write the product into.
+    * @param <T> the type of the result.
+    * @return the specified result matrix.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    */
+   static <T extends IMatrix> T multiplyInto(IMatrix a, IMatrix b, T out) {
+      DimensionChecking.catchMultiplication(a, b);
+      DimensionChecking.catchDimensions(out, a.rows(), b.columns());
+      if (out == a || out == b) {
+         throw new IllegalArgumentException("Cannot multiply into an operand");
+      }
+      DenseMatrix l = (a instanceof DenseMatrix ? (DenseMatrix) a : new DenseMatrix(a));
+      DenseMatrix r = (b instanceof DenseMatrix ? (DenseMatrix) b : new DenseMatrix(b));
+      int m = a.rows();
+      int n = b.columns();
+      int k = a.columns();
+      if (out instanceof DenseMatrix && (((DenseMatrix) out).overlaps(l) || ((DenseMatrix) out).overlaps(r))) {
+         throw new IllegalArgumentException("Cannot multiply into an operand");
+      }
+      if (out instanceof DenseMatrix && ((DenseMatrix) out).isRowMajor()) {
+         DenseMatrix c = (DenseMatrix) out;
+         Gemm.multiply(m, n, k, 1.0, l.data(), l.offset(), l.stride(), l.columnStride(), r.data(), r.offset(),
+                       r.stride(), r.columnStride(), 0.0, c.data(), c.offset(), c.stride());
+      } else if (out instanceof DenseMatrix && ((DenseMatrix) out).isColumnMajor()) {
+         // A column-major result is the row-major transpose of b' * a'.
+         DenseMatrix c = (DenseMatrix) out;
+         Gemm.multiply(n, m, k, 1.0, r.data(), r.offset(), r.columnStride(), r.stride(), l.data(), l.offset(),
+                       l.columnStride(), l.stride(), 0.0, c.data(), c.offset(), c.columnStride());
+      } else {
+         double[] c = new double[m * n];
+         Gemm.multiply(m, n, k, 1.0, l.data(), l.offset(), l.stride(), l.columnStride(), r.data(), r.offset(),
+                       r.stride(), r.columnStride(), 0.0, c, 0, n);
+         for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+               out.set(i, j, c[i * n + j]);
+            }
+         }
+      }
+      return out;
+   }
+
+   /**
+    * Adds the scaled outer-product of two vectors to the original matrix, {@code A = A + alpha * x * y'}, regardless of
+    * the orientations of the vectors.  This method modifies the original values of the matrix in a single pass without
+    * forming the outer-product.  Rows whose value of {@code alpha * x} is zero are skipped.  The vectors must not share
+    * storage with the matrix.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param alpha the scaling factor of the outer-product.
+    * @param x the vector along the rows, of length {@code rows()}.
+    * @param y the vector along the columns, of length {@code columns()}.
+    * @return the original matrix modified with the addition of the outer-product.
+    */
+   default IMatrix rankOneUpdate(double alpha, IVector x, IVector y) {
+      if (alpha == 0.0) {
+         return this;
+      }
       for (int i = 0; i < rows(); i++) {
-         for (int j = 0; j < a.columns(); j++) {
-            double sum = 0;
-            for (int k = 0; k < a.rows(); k++) {
-               sum += get(i, k) * a.get(k, j);
+         double ax = alpha * x.get(i);
+         if (ax != 0.0) {
+            for (int j = 0; j < columns(); j++) {
+               set(i, j, get(i, j) + ax * y.get(j));
             }
-            c[i][j] = sum;
          }
       }
-      return set(c);
+      return this;
+   }
+
+   /**
+    * Adds the scaled product of the specified matrix and its transpose to the original symmetric matrix, {@code A = A +
+    * alpha * X * X'}.  Only the lower triangle, the values on and below the diagonal, is read and computed; the values
+    * above the diagonal are overwritten with their mirror so the result is symmetric.  This method modifies the
+    * original values of the matrix without forming the product.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param alpha the scaling factor of the product.
+    * @param x the matrix of {@code rows()} rows whose rows are the update vectors.
+    * @return the original matrix modified with the addition of the product.
+    */
+   default IMatrix symmetricRankUpdate(double alpha, IMatrix x) {
+      int k = x.columns();
+      for (int i = 0; i < rows(); i++) {
+         for (int j = 0; j <= i; j++) {
+            double sum = 0.0;
+            for (int l = 0; l < k; l++) {
+               sum += x.get(i, l) * x.get(j, l);
+            }
+            double v = get(i, j) + alpha * sum;
+            set(i, j, v);
+            set(j, i, v);
+         }
+      }
+      return this;
    }
 
    /**
@@ -277,6 +456,17 @@ public interface IMatrix {
       return this;
    }
 
+   /**
+    * Returns a lazy expression of the matrix.  Element-wise operations on the expression are recorded and computed
+    * together in one pass when it is evaluated.
+    *
+    * @return the expression of the matrix.
+    * @see Expression
+    */
+   default Expression lazy() {
+      return Expression.of(this);
+   }
+
    /**
     * Returns a copy of the matrix.
     *
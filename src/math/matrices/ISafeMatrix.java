@@ -183,6 +183,34 @@ public interface ISafeMatrix extends IMatrix {
       return (ISafeMatrix) IMatrix.super.multiply(a);
    }
 
+   /**
+    * Adds the scaled outer-product of two vectors to the original matrix, {@code A = A + alpha * x * y'}.
+    *
+    * @param alpha the scaling factor of the outer-product.
+    * @param x the vector along the rows.
+    * @param y the vector along the columns.
+    * @return the original matrix modified with the addition of the outer-product.
+    */
+   @Override
+   default ISafeMatrix rankOneUpdate(double alpha, IVector x, IVector y) {
+      DimensionChecking.catchRankOneUpdate(this, x, y);
+      return (ISafeMatrix) IMatrix.super.rankOneUpdate(alpha, x, y);
+   }
+
+   /**
+    * Adds the scaled product of the specified matrix and its transpose to the original symmetric matrix, {@code A = A +
+    * alpha * X * X'}.
+    *
+    * @param alpha the scaling factor of the product.
+    * @param x the matrix whose rows are the update vectors.
+    * @return the original matrix modified with the addition of the product.
+    */
+   @Override
+   default ISafeMatrix symmetricRankUpdate(double alpha, IMatrix x) {
+      DimensionChecking.catchRankUpdate(this, x);
+      return (ISafeMatrix) IMatrix.super.symmetricRankUpdate(alpha, x);
+   }
+
    /**
     * Dot-wise multiplies the specified matrix to the original matrix.  This operation is value based and will multiply
     * corresponding row-column values. This method modifies the original values of the matrix.
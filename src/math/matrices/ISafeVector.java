@@ -189,6 +189,18 @@ public interface ISafeVector extends IVector, ISafeMatrix {
       return IVector.super.inner(v);
    }
 
+   /**
+    * Returns the Euclidean distance between the vector and the specified vector.
+    *
+    * @param v the other vector.
+    * @return the distance between the vectors.
+    */
+   @Override
+   default double distance(IVector v) {
+      DimensionChecking.catchEqualDimensions(this, v);
+      return IVector.super.distance(v);
+   }
+
    @Override
    public ISafeVector copy();
 
@@ -131,12 +131,10 @@ public interface IVector extends IMatrix {
     * @return the original vector modified with the addition of the specified a vector.
     */
    default IVector add(IVector v) {
-      IVector b = v;
-      // If they don't have the same orientation...
-      if (columns() > rows() != v.columns() > v.rows()) {
-         b = b.copy().transpose();
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) + v.get(i));
       }
-      return (IVector) IMatrix.super.add(b);
+      return this;
    }
 
    @Override
@@ -154,12 +152,10 @@ public interface IVector extends IMatrix {
     * @return the original vector modified with the subtraction of the specified vector.
     */
    default IVector subtract(IVector v) {
-      IVector b = v;
-      // If they don't have the same orientation...
-      if (columns() > rows() != v.columns() > v.rows()) {
-         b = b.copy().transpose();
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) - v.get(i));
       }
-      return (IVector) IMatrix.super.subtract(b);
+      return this;
    }
 
    @Override
@@ -168,27 +164,27 @@ public interface IVector extends IMatrix {
    }
 
    /**
-    * Returns the outer-product of the vector and the specified vector.
+    * Returns the outer-product of the vector and the specified vector regardless of their orientations, the matrix
+    * with the value {@code get(i) * v.get(j)} at row {@code i} and column {@code j}.
     *
     * @param v the outer vector.
     * @return the outer-product of the vector multiplied by the specified vector.
     */
    default IMatrix outer(IVector v) {
-      IVector a = v.copy();
-      // make 'a' a column vector
-      if (columns() < rows()) {
-         a.transpose();
-      }
-      IVector b = v;
-      // make 'b' a row vector (don't modify v though)
-      if (b.rows() < b.columns()) {
-         b = v.copy().transpose();
+      int m = length();
+      int n = v.length();
+      double[] a = new double[m * n];
+      for (int i = 0; i < m; i++) {
+         double x = get(i);
+         for (int j = 0; j < n; j++) {
+            a[i * n + j] = x * v.get(j);
+         }
       }
-      return a.multiply(b);
+      return new Matrix(m, n, a);
    }
 
    /**
-    * Returns the inner-product of the vector and the specified vector.
+    * Returns the inner-product of the vector and the specified vector regardless of their orientations.
     * <p/>
     * Unsafe method, does not perform dimension checks.
     *
@@ -196,17 +192,174 @@ public interface IVector extends IMatrix {
     * @return the inner-product of the vector multiplied by the specified vector.
     */
    default double inner(IVector v) {
-      IVector a = copy();
-      // make 'a' a row vector
-      if (rows() < columns()) {
-         a.transpose();
+      int n = length();
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < n; i += 4) {
+         s0 += get(i) * v.get(i);
+         s1 += get(i + 1) * v.get(i + 1);
+         s2 += get(i + 2) * v.get(i + 2);
+         s3 += get(i + 3) * v.get(i + 3);
+      }
+      for (; i < n; i++) {
+         s0 += get(i) * v.get(i);
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+
+   /**
+    * Returns the 1-norm of the vector, the sum of the absolute values.
+    *
+    * @return the 1-norm of the vector.
+    */
+   default double norm1() {
+      int n = length();
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < n; i += 4) {
+         s0 += Math.abs(get(i));
+         s1 += Math.abs(get(i + 1));
+         s2 += Math.abs(get(i + 2));
+         s3 += Math.abs(get(i + 3));
+      }
+      for (; i < n; i++) {
+         s0 += Math.abs(get(i));
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+
+   /**
+    * Returns the Euclidean norm of the vector, the square root of the sum of the squared values.  The sum is taken
+    * directly; only if it overflows or underflows are the values scaled by the largest absolute value and summed again,
+    * so the norm is accurate even when the squares are out of range.
+    *
+    * @return the 2-norm of the vector.
+    */
+   default double norm2() {
+      int n = length();
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < n; i += 4) {
+         double x0 = get(i);
+         double x1 = get(i + 1);
+         double x2 = get(i + 2);
+         double x3 = get(i + 3);
+         s0 += x0 * x0;
+         s1 += x1 * x1;
+         s2 += x2 * x2;
+         s3 += x3 * x3;
+      }
+      for (; i < n; i++) {
+         double x = get(i);
+         s0 += x * x;
+      }
+      double sum = (s0 + s1) + (s2 + s3);
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      double scale = normInf();
+      if (!(scale > 0.0 && scale < Double.POSITIVE_INFINITY)) {
+         return scale;
+      }
+      sum = 0.0;
+      for (i = 0; i < n; i++) {
+         double x = get(i) / scale;
+         sum += x * x;
+      }
+      return scale * Math.sqrt(sum);
+   }
+
+   /**
+    * Returns the infinity-norm of the vector, the largest absolute value, or {@code NaN} if any value is {@code NaN}.
+    *
+    * @return the infinity-norm of the vector.
+    */
+   default double normInf() {
+      int n = length();
+      double m0 = 0.0;
+      double m1 = 0.0;
+      double m2 = 0.0;
+      double m3 = 0.0;
+      int i = 0;
+      for (; i + 3 < n; i += 4) {
+         m0 = Math.max(m0, Math.abs(get(i)));
+         m1 = Math.max(m1, Math.abs(get(i + 1)));
+         m2 = Math.max(m2, Math.abs(get(i + 2)));
+         m3 = Math.max(m3, Math.abs(get(i + 3)));
+      }
+      for (; i < n; i++) {
+         m0 = Math.max(m0, Math.abs(get(i)));
+      }
+      return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+   }
+
+   /**
+    * Scales the vector to a Euclidean norm of one.  This method modifies the original values of the vector.  The
+    * values of a vector of all zeros become {@code NaN}.
+    *
+    * @return the original vector scaled to unit length.
+    */
+   default IVector normalize() {
+      return scale(1.0 / norm2());
+   }
+
+   /**
+    * Returns the Euclidean distance between the vector and the specified vector regardless of their orientations, the
+    * 2-norm of their difference, without modifying either vector.  As in {@link #norm2()}, the differences are only
+    * scaled if the sum of their squares overflows or underflows.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the other vector.
+    * @return the distance between the vectors.
+    */
+   default double distance(IVector v) {
+      int n = length();
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < n; i += 4) {
+         double d0 = get(i) - v.get(i);
+         double d1 = get(i + 1) - v.get(i + 1);
+         double d2 = get(i + 2) - v.get(i + 2);
+         double d3 = get(i + 3) - v.get(i + 3);
+         s0 += d0 * d0;
+         s1 += d1 * d1;
+         s2 += d2 * d2;
+         s3 += d3 * d3;
       }
-      IVector b = v;
-      // make 'b' a column vector (don't modify v though)
-      if (b.columns() < b.rows()) {
-         b = v.copy().transpose();
+      for (; i < n; i++) {
+         double d = get(i) - v.get(i);
+         s0 += d * d;
       }
-      return a.multiply(b).get(0, 0);
+      double sum = (s0 + s1) + (s2 + s3);
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      double scale = 0.0;
+      for (i = 0; i < n; i++) {
+         scale = Math.max(scale, Math.abs(get(i) - v.get(i)));
+      }
+      if (!(scale > 0.0 && scale < Double.POSITIVE_INFINITY)) {
+         return scale;
+      }
+      sum = 0.0;
+      for (i = 0; i < n; i++) {
+         double d = (get(i) - v.get(i)) / scale;
+         sum += d * d;
+      }
+      return scale * Math.sqrt(sum);
    }
 
    @Override
@@ -224,12 +377,10 @@ public interface IVector extends IMatrix {
     * @return the original vector modified with the dot-multiplication of the specified vector.
     */
    default IVector dotMultiply(IVector v) {
-      IVector b = v;
-      // If they don't have the same orientation...
-      if (columns() > rows() != v.columns() > v.rows()) {
-         b = b.copy().transpose();
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) * v.get(i));
       }
-      return (IVector) IMatrix.super.dotMultiply(b);
+      return this;
    }
 
    @Override
@@ -247,12 +398,10 @@ public interface IVector extends IMatrix {
     * @return the original vector modified with the dot-division of the specified vector.
     */
    default IVector dotDivide(IVector v) {
-      IVector b = v;
-      // If they don't have the same orientation...
-      if (columns() > rows() != v.columns() > v.rows()) {
-         b = b.copy().transpose();
+      for (int i = 0; i < length(); i++) {
+         set(i, get(i) / v.get(i));
       }
-      return (IVector) IMatrix.super.dotDivide(b);
+      return this;
    }
 
    @Override
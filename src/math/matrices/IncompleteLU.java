@@ -0,0 +1,138 @@
+package math.matrices;
+
+import java.util.Arrays;
+
+/**
+ * The incomplete LU factorization without fill-in, ILU(0), of a square matrix used as a preconditioner.  The factors
+ * {@code L} and {@code U} are restricted to the non-zero pattern of the matrix, so they take the same memory as a
+ * {@link SparseMatrix} copy of it, and applying the preconditioner is one forward and one back substitution.
+ * <p/>
+ * {@code L} has a unit diagonal that is not stored; both factors share the compressed sparse row arrays of the copy.
+ * The substitutions run through a work array allocated once with the factors, so applying the preconditioner on every
+ * iteration of a solver allocates nothing; for the same reason one factorization must not be applied by two threads
+ * at once.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class IncompleteLU implements LinearOperator {
+
+   /**
+    * The number of rows and columns of the factored matrix.
+    */
+   private final int n;
+
+   /**
+    * The index of the first stored value of each row.
+    */
+   private final int[] rowPointers;
+
+   /**
+    * The column of each stored value.
+    */
+   private final int[] columnIndices;
+
+   /**
+    * The factors, {@code L} before the diagonal of every row and {@code U} from it.
+    */
+   private final double[] values;
+
+   /**
+    * The index of the diagonal value of every row.
+    */
+   private final int[] diagonal;
+
+   /**
+    * The work array of the substitutions.
+    */
+   private final double[] work;
+
+   /**
+    * Computes the incomplete LU factorization of the specified matrix.  The matrix is copied and not modified.
+    *
+    * @param a the square matrix to factor.
+    * @throws SingularMatrixException if a diagonal value is missing or becomes zero.
+    */
+   public IncompleteLU(IMatrix a) {
+      DimensionChecking.catchSquare(a);
+      SparseMatrix s = new SparseMatrix(a);
+      n = s.rows();
+      rowPointers = s.rowPointers();
+      columnIndices = s.columnIndices();
+      values = s.values();
+      diagonal = new int[n];
+      work = new double[n];
+
+      int[] position = new int[n];
+      Arrays.fill(position, -1);
+      for (int i = 0; i < n; i++) {
+         int begin = rowPointers[i];
+         int end = rowPointers[i + 1];
+         for (int p = begin; p < end; p++) {
+            position[columnIndices[p]] = p;
+         }
+         // Eliminate every value left of the diagonal by the rows already factored, dropping any fill-in.
+         int p = begin;
+         for (; p < end && columnIndices[p] < i; p++) {
+            int k = columnIndices[p];
+            double lik = values[p] / values[diagonal[k]];
+            values[p] = lik;
+            for (int q = diagonal[k] + 1; q < rowPointers[k + 1]; q++) {
+               int target = position[columnIndices[q]];
+               if (target >= 0) {
+                  values[target] -= lik * values[q];
+               }
+            }
+         }
+         if (p == end || columnIndices[p] != i || values[p] == 0.0) {
+            throw new SingularMatrixException("Zero pivot in incomplete factorization at row " + i);
+         }
+         diagonal[i] = p;
+         for (int q = begin; q < end; q++) {
+            position[columnIndices[q]] = -1;
+         }
+      }
+   }
+
+   @Override
+   public int rows() {
+      return n;
+   }
+
+   @Override
+   public int columns() {
+      return n;
+   }
+
+   /**
+    * Applies the inverse of the factorization to a vector, {@code y = (L * U)^-1 * x}.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param x the vector to apply the inverse to.
+    * @param y the vector to write the result into.
+    * @return the result vector.
+    */
+   @Override
+   public IVector apply(IVector x, IVector y) {
+      double[] z = work;
+      for (int i = 0; i < n; i++) {
+         double sum = x.get(i);
+         for (int p = rowPointers[i]; p < diagonal[i]; p++) {
+            sum -= values[p] * z[columnIndices[p]];
+         }
+         z[i] = sum;
+      }
+      for (int i = n - 1; i >= 0; i--) {
+         double sum = z[i];
+         for (int p = diagonal[i] + 1; p < rowPointers[i + 1]; p++) {
+            sum -= values[p] * z[columnIndices[p]];
+         }
+         z[i] = sum / values[diagonal[i]];
+      }
+      for (int i = 0; i < n; i++) {
+         y.set(i, z[i]);
+      }
+      return y;
+   }
+}
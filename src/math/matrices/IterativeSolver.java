@@ -0,0 +1,327 @@
+package math.matrices;
+
+import java.util.Arrays;
+
+/**
+ * An iterative solver of the linear system {@code A * x = b} for a square {@link LinearOperator}.  The solver stops
+ * once the 2-norm of the residual {@code b - A * x} is at most the tolerance times the 2-norm of {@code b}, or once the
+ * maximum number of iterations is reached.  After every solve the number of iterations taken and the residual norm
+ * after every iteration are available.
+ * <p/>
+ * A solver only keeps a fixed number of work vectors of length {@code n} and is not thread-safe; use one solver per
+ * thread.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public abstract class IterativeSolver {
+
+   /**
+    * The default relative tolerance.
+    */
+   public static final double DEFAULT_TOLERANCE = 1e-10;
+
+   /**
+    * The default maximum number of iterations.
+    */
+   public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+   /**
+    * The relative tolerance of the residual norm.
+    */
+   private double tolerance = DEFAULT_TOLERANCE;
+
+   /**
+    * The maximum number of iterations of a solve.
+    */
+   private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+   /**
+    * The number of iterations taken by the last solve.
+    */
+   private int iterations;
+
+   /**
+    * The residual norm before the first and after every iteration of the last solve.  Only the first {@code count}
+    * values are used.
+    */
+   private double[] residuals = new double[16];
+
+   /**
+    * The number of residual norms recorded by the last solve.
+    */
+   private int count;
+
+   /**
+    * The residual norm at which the last solve stops.
+    */
+   private double target;
+
+   /**
+    * If the last solve reached the tolerance.
+    */
+   private boolean converged;
+
+   /**
+    * Returns the relative tolerance of the residual norm.
+    *
+    * @return the tolerance.
+    */
+   public double getTolerance() {
+      return tolerance;
+   }
+
+   /**
+    * Sets the relative tolerance of the residual norm.
+    *
+    * @param tolerance the new tolerance.
+    * @return this solver.
+    * @throws IllegalArgumentException if the tolerance is negative.
+    */
+   public IterativeSolver setTolerance(double tolerance) {
+      if (!(tolerance >= 0.0)) {
+         throw new IllegalArgumentException("Tolerance cannot be negative: " + tolerance);
+      }
+      this.tolerance = tolerance;
+      return this;
+   }
+
+   /**
+    * Returns the maximum number of iterations of a solve.
+    *
+    * @return the maximum number of iterations.
+    */
+   public int getMaxIterations() {
+      return maxIterations;
+   }
+
+   /**
+    * Sets the maximum number of iterations of a solve.
+    *
+    * @param maxIterations the new maximum number of iterations.
+    * @return this solver.
+    * @throws IllegalArgumentException if the maximum is negative.
+    */
+   public IterativeSolver setMaxIterations(int maxIterations) {
+      if (maxIterations < 0) {
+         throw new IllegalArgumentException("Maximum iterations cannot be negative: " + maxIterations);
+      }
+      this.maxIterations = maxIterations;
+      return this;
+   }
+
+   /**
+    * Returns the number of iterations taken by the last solve.
+    *
+    * @return the number of iterations.
+    */
+   public int getIterations() {
+      return iterations;
+   }
+
+   /**
+    * Returns the residual norm before the first iteration and after every iteration of the last solve.
+    *
+    * @return the residual history.
+    */
+   public double[] getResidualHistory() {
+      return Arrays.copyOf(residuals, count);
+   }
+
+   /**
+    * Returns the residual norm at the end of the last solve.
+    *
+    * @return the final residual norm.
+    */
+   public double getResidual() {
+      return (count > 0 ? residuals[count - 1] : 0.0);
+   }
+
+   /**
+    * Returns if the last solve reached the tolerance.
+    *
+    * @return if the last solve converged.
+    */
+   public boolean isConverged() {
+      return converged;
+   }
+
+   /**
+    * Solves {@code A * x = b} starting from zero.  The solution has the same orientation as the specified vector.
+    *
+    * @param a the square operator.
+    * @param b the right-hand side.
+    * @return the approximate solution.
+    */
+   public Vector solve(LinearOperator a, IVector b) {
+      Vector x = new Vector(new double[b.length()]);
+      solve(a, b, x);
+      return (b.columns() == 1 && b.rows() != 1 ? x.transpose() : x);
+   }
+
+   /**
+    * Solves {@code A * x = b} starting from the specified vector, which is overwritten with the solution.
+    *
+    * @param a the square operator.
+    * @param b the right-hand side.
+    * @param x the initial guess, replaced by the approximate solution.
+    * @return the specified solution vector.
+    */
+   public IVector solve(LinearOperator a, IVector b, IVector x) {
+      if (a == null) {
+         throw new NullPointerException("Cannot access a null operator.");
+      } else if (b == null || x == null) {
+         throw new NullPointerException("Cannot access a null vector.");
+      } else if (a.rows() != a.columns()) {
+         throw new MatrixDimensionException("Operator is not square: (" + a.rows() + "x" + a.columns() + ")");
+      } else if (b.length() != a.rows() || x.length() != a.rows()) {
+         throw new VectorDimensionException("Vector lengths (" + b.length() + ", " + x.length()
+                                                    + ") must equal the dimension of the operator (" + a.rows() + ")");
+      }
+
+      int n = a.rows();
+      double[] bv = new double[n];
+      double[] xv = new double[n];
+      for (int i = 0; i < n; i++) {
+         bv[i] = b.get(i);
+         xv[i] = x.get(i);
+      }
+      iterations = 0;
+      count = 0;
+      target = tolerance * norm(bv);
+      converged = false;
+      iterate(a, bv, xv);
+      for (int i = 0; i < n; i++) {
+         x.set(i, xv[i]);
+      }
+      return x;
+   }
+
+   /**
+    * Runs the iterations of the solver.  Every iteration is counted with {@link #record(double)}.
+    *
+    * @param a the square operator.
+    * @param b the right-hand side.
+    * @param x the initial guess, replaced by the approximate solution.
+    */
+   protected abstract void iterate(LinearOperator a, double[] b, double[] x);
+
+   /**
+    * Records the residual norm before the first iteration of a solve.
+    *
+    * @param residual the initial residual norm.
+    * @return if the solve has converged.
+    */
+   protected boolean start(double residual) {
+      append(residual);
+      converged = residual <= target;
+      return converged;
+   }
+
+   /**
+    * Records the residual norm after an iteration.
+    *
+    * @param residual the residual norm.
+    * @return if the solve has converged.
+    */
+   protected boolean record(double residual) {
+      iterations++;
+      append(residual);
+      converged = residual <= target;
+      return converged;
+   }
+
+   /**
+    * Returns if the solve has iterations left.
+    *
+    * @return if fewer than the maximum number of iterations were taken.
+    */
+   protected boolean hasIterations() {
+      return iterations < maxIterations;
+   }
+
+   /**
+    * Appends a residual norm to the history.
+    */
+   private void append(double residual) {
+      if (count == residuals.length) {
+         residuals = Arrays.copyOf(residuals, count + (count >> 1));
+      }
+      residuals[count++] = residual;
+   }
+
+   /**
+    * Applies the operator to an array, {@code y = A * x}.
+    *
+    * @param a the operator.
+    * @param x the array to apply the operator to.
+    * @param y the array to write the result into.
+    */
+   static void apply(LinearOperator a, double[] x, double[] y) {
+      a.apply(new Vector(x), new Vector(y));
+   }
+
+   /**
+    * Returns the dot product of two arrays.  Four independent sums keep the floating point pipeline full.
+    *
+    * @param a the first array.
+    * @param b the second array.
+    * @return the dot product.
+    */
+   static double dot(double[] a, double[] b) {
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int n = a.length;
+      int k = 0;
+      for (; k + 3 < n; k += 4) {
+         s0 += a[k] * b[k];
+         s1 += a[k + 1] * b[k + 1];
+         s2 += a[k + 2] * b[k + 2];
+         s3 += a[k + 3] * b[k + 3];
+      }
+      for (; k < n; k++) {
+         s0 += a[k] * b[k];
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+
+   /**
+    * Returns the 2-norm of an array.
+    *
+    * @param a the array.
+    * @return the 2-norm.
+    */
+   static double norm(double[] a) {
+      return Math.sqrt(dot(a, a));
+   }
+
+   /**
+    * Computes {@code y = y + alpha * x}.
+    *
+    * @param alpha the scaling factor.
+    * @param x the array to add.
+    * @param y the array to add to.
+    */
+   static void axpy(double alpha, double[] x, double[] y) {
+      for (int k = 0; k < y.length; k++) {
+         y[k] += alpha * x[k];
+      }
+   }
+
+   /**
+    * Computes the residual {@code r = b - A * x}.
+    *
+    * @param a the operator.
+    * @param b the right-hand side.
+    * @param x the current solution.
+    * @param r the array to write the residual into.
+    */
+   static void residual(LinearOperator a, double[] b, double[] x, double[] r) {
+      apply(a, x, r);
+      for (int k = 0; k < r.length; k++) {
+         r[k] = b[k] - r[k];
+      }
+   }
+}
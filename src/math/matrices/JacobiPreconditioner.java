@@ -0,0 +1,68 @@
+package math.matrices;
+
+/**
+ * The Jacobi, or diagonal, preconditioner of a square matrix.  It applies the inverse of the diagonal of the matrix,
+ * which costs one multiplication per value and is effective for diagonally dominant matrices whose diagonal varies
+ * widely.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class JacobiPreconditioner implements LinearOperator {
+
+   /**
+    * The inverse of every diagonal value.
+    */
+   private final double[] inverse;
+
+   /**
+    * Creates the Jacobi preconditioner of the specified matrix.
+    *
+    * @param a the square matrix to precondition.
+    * @throws SingularMatrixException if the diagonal holds a zero.
+    */
+   public JacobiPreconditioner(IMatrix a) {
+      DimensionChecking.catchSquare(a);
+      int n = a.rows();
+      inverse = new double[n];
+      for (int i = 0; i < n; i++) {
+         double d = a.get(i, i);
+         if (d == 0.0) {
+            throw new SingularMatrixException("Matrix has a zero on its diagonal in row " + i);
+         }
+         inverse[i] = 1.0 / d;
+      }
+   }
+
+   @Override
+   public int rows() {
+      return inverse.length;
+   }
+
+   @Override
+   public int columns() {
+      return inverse.length;
+   }
+
+   @Override
+   public IVector apply(IVector x, IVector y) {
+      if (x instanceof DenseMatrix && y instanceof DenseMatrix) {
+         DenseMatrix dx = (DenseMatrix) x;
+         DenseMatrix dy = (DenseMatrix) y;
+         double[] xd = dx.data();
+         double[] yd = dy.data();
+         int xo = dx.offset();
+         int yo = dy.offset();
+         int xs = dx.vectorStep();
+         int ys = dy.vectorStep();
+         for (int i = 0; i < inverse.length; i++) {
+            yd[yo + i * ys] = inverse[i] * xd[xo + i * xs];
+         }
+      } else {
+         for (int i = 0; i < inverse.length; i++) {
+            y.set(i, inverse[i] * x.get(i));
+         }
+      }
+      return y;
+   }
+}
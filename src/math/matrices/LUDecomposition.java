@@ -0,0 +1,305 @@
+package math.matrices;
+
+/**
+ * The LU decomposition of a square matrix with partial pivoting.  The rows of the matrix are permuted so that {@code P
+ * * A = L * U} where {@code L} is unit lower triangular and {@code U} is upper triangular.  The factorization is
+ * computed once in O(n^3) time and can then solve any number of right-hand sides in O(n^2) time each.
+ * <p/>
+ * Both factors are kept in one contiguous row-major array with the unit diagonal of {@code L} implied.  The
+ * elimination of large matrices runs in {@link Parallel}.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class LUDecomposition {
+
+   /**
+    * The number of rows and columns of the decomposed matrix.
+    */
+   private final int n;
+
+   /**
+    * The factors {@code L} and {@code U} in row-major order.  {@code L} is below the diagonal and {@code U} is on and
+    * above the diagonal.
+    */
+   private final double[] lu;
+
+   /**
+    * The original row of the matrix which ended up in each row of the factorization.
+    */
+   private final int[] pivot;
+
+   /**
+    * The sign of the row permutation, {@code 1} for an even number of row exchanges and {@code -1} for an odd number.
+    */
+   private final int pivotSign;
+
+   /**
+    * If a zero pivot was found.
+    */
+   private final boolean singular;
+
+   /**
+    * Computes the LU decomposition of the specified matrix.  The matrix is copied and not modified.
+    *
+    * @param a the square matrix to decompose.
+    */
+   public LUDecomposition(IMatrix a) {
+      DimensionChecking.catchSquare(a);
+      n = a.rows();
+      lu = new DenseMatrix(a).data();
+      pivot = new int[n];
+      for (int i = 0; i < n; i++) {
+         pivot[i] = i;
+      }
+
+      int sign = 1;
+      boolean zero = false;
+      for (int k = 0; k < n; k++) {
+         int p = k;
+         double max = Math.abs(lu[k * n + k]);
+         for (int i = k + 1; i < n; i++) {
+            double v = Math.abs(lu[i * n + k]);
+            if (v > max) {
+               max = v;
+               p = i;
+            }
+         }
+         if (p != k) {
+            swapRows(p, k);
+            int t = pivot[p];
+            pivot[p] = pivot[k];
+            pivot[k] = t;
+            sign = -sign;
+         }
+         if (lu[k * n + k] == 0.0) {
+            zero = true;
+            continue;
+         }
+
+         int column = k;
+         int remaining = n - k - 1;
+         Parallel.forRows(remaining, (long) remaining * remaining, (from, to) -> {
+            eliminate(column, column + 1 + from, column + 1 + to);
+         });
+      }
+      pivotSign = sign;
+      singular = zero;
+   }
+
+   /**
+    * Exchanges two rows of the factorization.
+    *
+    * @param i the first row.
+    * @param j the second row.
+    */
+   private void swapRows(int i, int j) {
+      for (int c = 0, a = i * n, b = j * n; c < n; c++, a++, b++) {
+         double t = lu[a];
+         lu[a] = lu[b];
+         lu[b] = t;
+      }
+   }
+
+   /**
+    * Eliminates the specified column from the specified rows using the pivot row of the column.
+    *
+    * @param k the pivot column.
+    * @param from the first row to eliminate.
+    * @param to the row after the last row to eliminate.
+    */
+   private void eliminate(int k, int from, int to) {
+      int kk = k * n;
+      double d = lu[kk + k];
+      for (int i = from; i < to; i++) {
+         int ii = i * n;
+         double l = lu[ii + k] / d;
+         lu[ii + k] = l;
+         if (l != 0.0) {
+            for (int j = k + 1; j < n; j++) {
+               lu[ii + j] -= l * lu[kk + j];
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns if the decomposed matrix is singular.
+    *
+    * @return if the matrix is singular.
+    */
+   public boolean isSingular() {
+      return singular;
+   }
+
+   /**
+    * Returns the unit lower triangular factor {@code L}.
+    *
+    * @return the lower factor.
+    */
+   public Matrix getL() {
+      Matrix l = new Matrix(n, n);
+      for (int i = 0; i < n; i++) {
+         for (int j = 0; j < i; j++) {
+            l.set(i, j, lu[i * n + j]);
+         }
+         l.set(i, i, 1.0);
+      }
+      return l;
+   }
+
+   /**
+    * Returns the upper triangular factor {@code U}.
+    *
+    * @return the upper factor.
+    */
+   public Matrix getU() {
+      Matrix u = new Matrix(n, n);
+      for (int i = 0; i < n; i++) {
+         for (int j = i; j < n; j++) {
+            u.set(i, j, lu[i * n + j]);
+         }
+      }
+      return u;
+   }
+
+   /**
+    * Returns the row permutation of the decomposition.  Row {@code i} of {@code P * A} is row {@code getPivot()[i]} of
+    * {@code A}.
+    *
+    * @return the pivot indices.
+    */
+   public int[] getPivot() {
+      return pivot.clone();
+   }
+
+   /**
+    * Returns the determinant of the decomposed matrix.
+    *
+    * @return the determinant.
+    */
+   public double determinant() {
+      double d = pivotSign;
+      for (int i = 0; i < n; i++) {
+         d *= lu[i * n + i];
+      }
+      return d;
+   }
+
+   /**
+    * Solves {@code A * x = b} for {@code x}.  The solution has the same orientation as the specified vector.
+    *
+    * @param b the right-hand side.
+    * @return the solution of the system.
+    * @throws SingularMatrixException if the matrix is singular.
+    */
+   public Vector solve(IVector b) {
+      if (b == null) {
+         throw new NullPointerException("Cannot access a null vector.");
+      } else if (b.length() != n) {
+         throw new VectorDimensionException(
+                 "Vector length (" + b.length() + ") must equal the dimension of the matrix (" + n + ")");
+      }
+      catchSingular();
+
+      double[] x = new double[n];
+      for (int i = 0; i < n; i++) {
+         x[i] = b.get(pivot[i]);
+      }
+      for (int i = 0; i < n; i++) {
+         double sum = x[i];
+         for (int k = 0, ii = i * n; k < i; k++) {
+            sum -= lu[ii + k] * x[k];
+         }
+         x[i] = sum;
+      }
+      for (int i = n - 1; i >= 0; i--) {
+         int ii = i * n;
+         double sum = x[i];
+         for (int k = i + 1; k < n; k++) {
+            sum -= lu[ii + k] * x[k];
+         }
+         x[i] = sum / lu[ii + i];
+      }
+
+      Vector v = new Vector(x);
+      return (b.columns() == 1 && b.rows() != 1 ? v.transpose() : v);
+   }
+
+   /**
+    * Solves {@code A * X = B} for {@code X}.  Every column of {@code B} is a separate right-hand side.
+    *
+    * @param b the right-hand sides.
+    * @return the solutions of the system.
+    * @throws SingularMatrixException if the matrix is singular.
+    */
+   public Matrix solve(IMatrix b) {
+      if (b == null) {
+         throw new NullPointerException("Cannot access a null matrix.");
+      } else if (b.rows() != n) {
+         throw new MatrixDimensionException(
+                 "Matrix rows (" + b.rows() + ") must equal the dimension of the decomposed matrix (" + n + ")");
+      }
+      catchSingular();
+
+      int m = b.columns();
+      double[] x = new double[n * m];
+      for (int i = 0; i < n; i++) {
+         for (int j = 0; j < m; j++) {
+            x[i * m + j] = b.get(pivot[i], j);
+         }
+      }
+      // Forward substitution with the unit lower factor.
+      for (int i = 0; i < n; i++) {
+         int xi = i * m;
+         for (int k = 0; k < i; k++) {
+            double l = lu[i * n + k];
+            if (l != 0.0) {
+               for (int j = 0, xk = k * m; j < m; j++) {
+                  x[xi + j] -= l * x[xk + j];
+               }
+            }
+         }
+      }
+      // Back substitution with the upper factor.
+      for (int i = n - 1; i >= 0; i--) {
+         int xi = i * m;
+         for (int k = i + 1; k < n; k++) {
+            double u = lu[i * n + k];
+            if (u != 0.0) {
+               for (int j = 0, xk = k * m; j < m; j++) {
+                  x[xi + j] -= u * x[xk + j];
+               }
+            }
+         }
+         double d = lu[i * n + i];
+         for (int j = 0; j < m; j++) {
+            x[xi + j] /= d;
+         }
+      }
+      return new Matrix(n, m, x);
+   }
+
+   /**
+    * Returns the inverse of the decomposed matrix.
+    *
+    * @return the inverse.
+    * @throws SingularMatrixException if the matrix is singular.
+    */
+   public Matrix inverse() {
+      Matrix identity = new Matrix(n, n);
+      for (int i = 0; i < n; i++) {
+         identity.set(i, i, 1.0);
+      }
+      return solve(identity);
+   }
+
+   /**
+    * Catches a singular decomposition and throws the proper exception.
+    */
+   private void catchSingular() {
+      if (singular) {
+         throw new SingularMatrixException("Matrix is singular.");
+      }
+   }
+}
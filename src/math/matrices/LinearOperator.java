@@ -0,0 +1,40 @@
+package math.matrices;
+
+/**
+ * A linear map from vectors of length {@link #columns()} to vectors of length {@link #rows()}.  Only the application
+ * of the map to a vector is needed, so operators far too large to store as an {@link IMatrix} can still be solved with
+ * an {@link IterativeSolver}.
+ * <p/>
+ * Vectors are indexed along their length regardless of their orientation.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public interface LinearOperator {
+
+   /**
+    * Returns the length of the vectors produced by the operator.
+    *
+    * @return the number of rows of the operator.
+    */
+   int rows();
+
+   /**
+    * Returns the length of the vectors the operator is applied to.
+    *
+    * @return the number of columns of the operator.
+    */
+   int columns();
+
+   /**
+    * Applies the operator to a vector, {@code y = A * x}, writing the result into the specified vector.  The two
+    * vectors must not share values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param x the vector to apply the operator to.
+    * @param y the vector to write the result into.
+    * @return the result vector.
+    */
+   IVector apply(IVector x, IVector y);
+}
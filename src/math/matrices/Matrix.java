@@ -1,54 +1,82 @@
 package math.matrices;
 
 /**
- * The object representation of a mathematical matrix.  This class provides an implementation for basic use.  This is
- * <em>not</em> a safe matrix. It does not perform any dimension checks before performing any actions.
+ * The object representation of a mathematical matrix.  This class provides an implementation for basic use backed by
+ * contiguous row-major storage.  This is <em>not</em> a safe matrix. It does not perform any dimension checks before
+ * performing any actions.
  *
  * @author Brian Norman
  * @version 0.1 beta
  */
-public class Matrix implements IMatrix {
+public class Matrix extends DenseMatrix {
 
    /**
-    * The primitive representation of the matrix. It is an array of rows which are also arrays.
+    * Creates a new matrix with no values and of size zero.
     */
-   private double[][] matrix;
+   public Matrix() {
+      super();
+   }
 
    /**
-    * The number of rows that are in this matrix.
+    * Creates a new matrix of the specified size and with all values equaling zero.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
     */
-   private int rows;
+   public Matrix(int rows, int columns) {
+      super(rows, columns);
+   }
 
    /**
-    * The number of columns that are in this matrix.
+    * Creates a new matrix over the specified row-major array.  If the resulting matrix is modified the array will
+    * change as well.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param data the row-major backing array of the matrix.
     */
-   private int columns;
+   public Matrix(int rows, int columns, double[] data) {
+      super(rows, columns, data);
+   }
 
    /**
-    * Creates a new matrix with no values and of size zero.
+    * Creates a new matrix over the specified region of a row-major array.  If the resulting matrix is modified the
+    * array will change as well.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param data the row-major backing array of the matrix.
+    * @param offset the index of the value at row zero and column zero.
+    * @param stride the distance between the starts of two consecutive rows.
     */
-   public Matrix() {
-      this(new double[0][0]);
+   public Matrix(int rows, int columns, double[] data, int offset, int stride) {
+      super(rows, columns, data, offset, stride);
    }
 
    /**
-    * Creates a new matrix of the specified size and with all values equaling zero.
+    * Creates a new matrix over the specified values of an array, with the value at row {@code r} and column {@code c}
+    * at {@code offset + r * stride + c * columnStride}.  If the resulting matrix is modified the array will change as
+    * well.
     *
     * @param rows the number of rows in this matrix.
     * @param columns the number of columns in this matrix.
+    * @param data the backing array of the matrix.
+    * @param offset the index of the value at row zero and column zero.
+    * @param stride the distance between the starts of two consecutive rows.
+    * @param columnStride the distance between two consecutive values of a row.
     */
-   public Matrix(int rows, int columns) {
-      this(new double[rows][columns]);
+   public Matrix(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      super(rows, columns, data, offset, stride, columnStride);
    }
 
    /**
-    * Creates a new matrix with the specified array as a base.  If the resulting matrix is modified the original matrix
-    * will change as well.
+    * Creates a new matrix with the values of the specified array.  The values are copied into contiguous storage so
+    * modifying the resulting matrix will not change the array.
     *
-    * @param a the base array of the matrix.
+    * @param a the values of the matrix.
     */
    public Matrix(double[][] a) {
-      set(a);
+      super(a);
    }
 
    /**
@@ -57,97 +85,112 @@ public class Matrix implements IMatrix {
     * @param a the matrix to copy.
     */
    protected Matrix(IMatrix a) {
-      double[][] m = new double[a.rows()][a.columns()];
-      for (int i = 0; i < a.rows(); i++) {
-         for (int j = 0; j < a.columns(); j++) {
-            m[i][j] = a.get(i, j);
-         }
-      }
-      set(m);
+      super(a);
    }
 
    @Override
-   public int rows() {
-      return rows;
+   protected Matrix wrap(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      return new Matrix(rows, columns, data, offset, stride, columnStride);
    }
 
    @Override
-   public int columns() {
-      return columns;
+   public Matrix view(int r, int c, int rows, int columns) {
+      return (Matrix) super.view(r, c, rows, columns);
    }
 
    @Override
-   public Matrix set(double[][] a) {
-      rows = a.length;
-      columns = (rows == 0 ? 0 : a[0].length);
-      matrix = a;
-      return this;
+   public Matrix view(int r, int c, int rows, int columns, int rowStep) {
+      return (Matrix) super.view(r, c, rows, columns, rowStep);
+   }
+
+   @Override
+   public Matrix view(int r, int c, int rows, int columns, int rowStep, int columnStep) {
+      return (Matrix) super.view(r, c, rows, columns, rowStep, columnStep);
+   }
+
+   @Override
+   public Matrix reshape(int rows, int columns) {
+      return (Matrix) super.reshape(rows, columns);
+   }
+
+   @Override
+   public Matrix compact() {
+      return (Matrix) super.compact();
    }
 
    @Override
-   public double get(int r, int c) {
-      return matrix[r][c];
+   public Matrix set(double[][] a) {
+      return (Matrix) super.set(a);
    }
 
    @Override
    public Matrix set(int r, int c, double n) {
-      matrix[r][c] = n;
-      return this;
+      return (Matrix) super.set(r, c, n);
    }
 
    @Override
    public Matrix setRow(int r, double[] v) {
-      return (Matrix) IMatrix.super.setRow(r, v);
+      return (Matrix) super.setRow(r, v);
    }
 
    @Override
    public Matrix setColumn(int c, double[] v) {
-      return (Matrix) IMatrix.super.setColumn(c, v);
+      return (Matrix) super.setColumn(c, v);
    }
 
    @Override
    public Matrix set(int r, int c, double[][] a) {
-      return (Matrix) IMatrix.super.set(r, c, a);
+      return (Matrix) super.set(r, c, a);
    }
 
    @Override
    public Matrix transpose() {
-      return (Matrix) IMatrix.super.transpose();
+      return (Matrix) super.transpose();
    }
 
    @Override
    public Matrix inverse() {
-      return (Matrix) IMatrix.super.inverse();
+      return (Matrix) super.inverse();
    }
 
    @Override
    public Matrix scale(double n) {
-      return (Matrix) IMatrix.super.scale(n);
+      return (Matrix) super.scale(n);
    }
 
    @Override
    public Matrix add(IMatrix a) {
-      return (Matrix) IMatrix.super.add(a);
+      return (Matrix) super.add(a);
    }
 
    @Override
    public Matrix subtract(IMatrix a) {
-      return (Matrix) IMatrix.super.subtract(a);
+      return (Matrix) super.subtract(a);
    }
 
    @Override
    public Matrix multiply(IMatrix a) {
-      return (Matrix) IMatrix.super.multiply(a);
+      return (Matrix) super.multiply(a);
+   }
+
+   @Override
+   public Matrix rankOneUpdate(double alpha, IVector x, IVector y) {
+      return (Matrix) super.rankOneUpdate(alpha, x, y);
+   }
+
+   @Override
+   public Matrix symmetricRankUpdate(double alpha, IMatrix x) {
+      return (Matrix) super.symmetricRankUpdate(alpha, x);
    }
 
    @Override
    public Matrix dotMultiply(IMatrix a) {
-      return (Matrix) IMatrix.super.dotMultiply(a);
+      return (Matrix) super.dotMultiply(a);
    }
 
    @Override
    public Matrix dotDivide(IMatrix a) {
-      return (Matrix) IMatrix.super.dotDivide(a);
+      return (Matrix) super.dotDivide(a);
    }
 
    @Override
@@ -0,0 +1,336 @@
+package math.matrices;
+
+/**
+ * A {@code 2x2} matrix with its values held in fields instead of an array.  Every operation is unrolled, and like
+ * the rest of the library modifies the matrix in place, so code that reuses its matrices allocates nothing and the
+ * JIT can scalar-replace short-lived matrices which do not escape a method.
+ * <p/>
+ * The matrix is an {@link IMatrix} and can be used wherever one is expected, but its dimensions never change: an
+ * operation whose result would not be {@code 2x2} throws a {@link MatrixDimensionException}.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Matrix2 implements IMatrix {
+
+   /**
+    * The values of the first row.
+    */
+   public double m00, m01;
+
+   /**
+    * The values of the second row.
+    */
+   public double m10, m11;
+
+   /**
+    * Creates a new matrix with all values equaling zero.
+    */
+   public Matrix2() {
+   }
+
+   /**
+    * Creates a new matrix with the specified values, given row by row.
+    *
+    * @param m00 the value at row 0 and column 0.
+    * @param m01 the value at row 0 and column 1.
+    * @param m10 the value at row 1 and column 0.
+    * @param m11 the value at row 1 and column 1.
+    */
+   public Matrix2(double m00, double m01, double m10, double m11) {
+      set(m00, m01, m10, m11);
+   }
+
+   /**
+    * Creates a new matrix that is a copy of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    * @throws MatrixDimensionException if the matrix is not {@code 2x2}.
+    */
+   public Matrix2(IMatrix a) {
+      DimensionChecking.catchDimensions(a, 2, 2);
+      m00 = a.get(0, 0);
+      m01 = a.get(0, 1);
+      m10 = a.get(1, 0);
+      m11 = a.get(1, 1);
+   }
+
+   /**
+    * Returns a new identity matrix.
+    *
+    * @return the identity matrix.
+    */
+   public static Matrix2 identity() {
+      return new Matrix2().setIdentity();
+   }
+
+   @Override
+   public int rows() {
+      return 2;
+   }
+
+   @Override
+   public int columns() {
+      return 2;
+   }
+
+   @Override
+   public double get(int r, int c) {
+      if (r < 0 || r >= 2 || c < 0 || c >= 2) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      switch (r * 2 + c) {
+         case 0:
+            return m00;
+         case 1:
+            return m01;
+         case 2:
+            return m10;
+         default:
+            return m11;
+      }
+   }
+
+   @Override
+   public Matrix2 set(int r, int c, double n) {
+      if (r < 0 || r >= 2 || c < 0 || c >= 2) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      switch (r * 2 + c) {
+         case 0:
+            m00 = n;
+            break;
+         case 1:
+            m01 = n;
+            break;
+         case 2:
+            m10 = n;
+            break;
+         default:
+            m11 = n;
+      }
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}  The values of the array are copied into the matrix.
+    *
+    * @throws MatrixDimensionException if the array is not {@code 2x2}.
+    */
+   @Override
+   public Matrix2 set(double[][] a) {
+      if (a.length != 2 || a[0].length != 2 || a[1].length != 2) {
+         throw new MatrixDimensionException("Matrix dimensions do not agree: (" + a.length + "x"
+               + (a.length == 0 ? 0 : a[0].length) + ") and (2x2)");
+      }
+      return set(a[0][0], a[0][1], a[1][0], a[1][1]);
+   }
+
+   /**
+    * Sets all the values of the matrix, given row by row.
+    *
+    * @param m00 the value at row 0 and column 0.
+    * @param m01 the value at row 0 and column 1.
+    * @param m10 the value at row 1 and column 0.
+    * @param m11 the value at row 1 and column 1.
+    * @return the matrix.
+    */
+   public Matrix2 set(double m00, double m01, double m10, double m11) {
+      this.m00 = m00;
+      this.m01 = m01;
+      this.m10 = m10;
+      this.m11 = m11;
+      return this;
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    * @return the matrix.
+    */
+   public Matrix2 set(Matrix2 a) {
+      return set(a.m00, a.m01, a.m10, a.m11);
+   }
+
+   /**
+    * Sets the matrix to the identity matrix.
+    *
+    * @return the matrix.
+    */
+   public Matrix2 setIdentity() {
+      return set(1.0, 0.0, 0.0, 1.0);
+   }
+
+   /**
+    * Returns the determinant of the matrix.
+    *
+    * @return the determinant.
+    */
+   public double determinant() {
+      return m00 * m11 - m01 * m10;
+   }
+
+   @Override
+   public Matrix2 transpose() {
+      double t;
+      t = m01;
+      m01 = m10;
+      m10 = t;
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}  The inverse is computed in closed form from the cofactors of the matrix.
+    *
+    * @throws SingularMatrixException if the matrix is singular.
+    */
+   @Override
+   public Matrix2 inverse() {
+      double det = determinant();
+      if (det == 0.0 || Double.isNaN(det)) {
+         throw new SingularMatrixException("Matrix is singular.");
+      }
+      double f = 1.0 / det;
+      return set(m11 * f, -m01 * f, -m10 * f, m00 * f);
+   }
+
+   @Override
+   public Matrix2 scale(double n) {
+      m00 *= n;
+      m01 *= n;
+      m10 *= n;
+      m11 *= n;
+      return this;
+   }
+
+   /**
+    * Adds the specified matrix to the matrix.  This method modifies the original values of the matrix.
+    *
+    * @param a the matrix to add.
+    * @return the original matrix modified with the addition of the specified matrix.
+    */
+   public Matrix2 add(Matrix2 a) {
+      m00 += a.m00;
+      m01 += a.m01;
+      m10 += a.m10;
+      m11 += a.m11;
+      return this;
+   }
+
+   @Override
+   public Matrix2 add(IMatrix a) {
+      if (a instanceof Matrix2) {
+         return add((Matrix2) a);
+      }
+      return (Matrix2) IMatrix.super.add(a);
+   }
+
+   /**
+    * Subtracts the specified matrix from the matrix.  This method modifies the original values of the matrix.
+    *
+    * @param a the matrix to subtract.
+    * @return the original matrix modified with the subtraction of the specified matrix.
+    */
+   public Matrix2 subtract(Matrix2 a) {
+      m00 -= a.m00;
+      m01 -= a.m01;
+      m10 -= a.m10;
+      m11 -= a.m11;
+      return this;
+   }
+
+   @Override
+   public Matrix2 subtract(IMatrix a) {
+      if (a instanceof Matrix2) {
+         return subtract((Matrix2) a);
+      }
+      return (Matrix2) IMatrix.super.subtract(a);
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the matrix, {@code this = this * a}.  This method modifies the
+    * original matrix.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   public Matrix2 multiply(Matrix2 a) {
+      return multiply(this, a, this);
+   }
+
+   /**
+    * {@inheritDoc}
+    *
+    * @throws MatrixDimensionException if the matrix is not {@code 2x2}.
+    */
+   @Override
+   public Matrix2 multiply(IMatrix a) {
+      return multiply(a instanceof Matrix2 ? (Matrix2) a : new Matrix2(a));
+   }
+
+   /**
+    * Writes the matrix-multiplication of two matrices into the specified matrix, {@code out = a * b}.  The result may
+    * be either operand, or both.
+    *
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param out the matrix to write the product into.
+    * @return the specified result matrix.
+    */
+   public static Matrix2 multiply(Matrix2 a, Matrix2 b, Matrix2 out) {
+      // A row of the product reads its own row of a but all of b, so b is read before any row is written.
+      double b00 = b.m00, b01 = b.m01;
+      double b10 = b.m10, b11 = b.m11;
+      out.setRow(0, a.m00 * b00 + a.m01 * b10,
+                    a.m00 * b01 + a.m01 * b11);
+      out.setRow(1, a.m10 * b00 + a.m11 * b10,
+                    a.m10 * b01 + a.m11 * b11);
+      return out;
+   }
+
+   /**
+    * Sets all the values of the specified row.
+    */
+   private Matrix2 setRow(int r, double v0, double v1) {
+      switch (r) {
+         case 0:
+            m00 = v0;
+            m01 = v1;
+            break;
+         default:
+            m10 = v0;
+            m11 = v1;
+      }
+      return this;
+   }
+
+   /**
+    * Multiplies the specified vector by the matrix, {@code v = this * v}.  This method modifies the vector.
+    *
+    * @param v the vector to transform.
+    * @return the specified vector modified with the product.
+    */
+   public Vector2 transform(Vector2 v) {
+      return transform(v, v);
+   }
+
+   /**
+    * Writes the product of the matrix and the specified vector into the specified vector, {@code out = this * v}.
+    * The result may be the vector itself.
+    *
+    * @param v the vector to transform.
+    * @param out the vector to write the product into.
+    * @return the specified result vector.
+    */
+   public Vector2 transform(Vector2 v, Vector2 out) {
+      double x = v.x, y = v.y;
+      return out.set(m00 * x + m01 * y,
+                     m10 * x + m11 * y);
+   }
+
+   @Override
+   public Matrix2 copy() {
+      return new Matrix2().set(this);
+   }
+}
@@ -0,0 +1,430 @@
+package math.matrices;
+
+/**
+ * A {@code 3x3} matrix with its values held in fields instead of an array.  Every operation is unrolled, and like
+ * the rest of the library modifies the matrix in place, so code that reuses its matrices allocates nothing and the
+ * JIT can scalar-replace short-lived matrices which do not escape a method.
+ * <p/>
+ * The matrix is an {@link IMatrix} and can be used wherever one is expected, but its dimensions never change: an
+ * operation whose result would not be {@code 3x3} throws a {@link MatrixDimensionException}.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Matrix3 implements IMatrix {
+
+   /**
+    * The values of the first row.
+    */
+   public double m00, m01, m02;
+
+   /**
+    * The values of the second row.
+    */
+   public double m10, m11, m12;
+
+   /**
+    * The values of the third row.
+    */
+   public double m20, m21, m22;
+
+   /**
+    * Creates a new matrix with all values equaling zero.
+    */
+   public Matrix3() {
+   }
+
+   /**
+    * Creates a new matrix with the specified values, given row by row.
+    *
+    * @param m00 the value at row 0 and column 0.
+    * @param m01 the value at row 0 and column 1.
+    * @param m02 the value at row 0 and column 2.
+    * @param m10 the value at row 1 and column 0.
+    * @param m11 the value at row 1 and column 1.
+    * @param m12 the value at row 1 and column 2.
+    * @param m20 the value at row 2 and column 0.
+    * @param m21 the value at row 2 and column 1.
+    * @param m22 the value at row 2 and column 2.
+    */
+   public Matrix3(double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21,
+                  double m22) {
+      set(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+   }
+
+   /**
+    * Creates a new matrix that is a copy of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    * @throws MatrixDimensionException if the matrix is not {@code 3x3}.
+    */
+   public Matrix3(IMatrix a) {
+      DimensionChecking.catchDimensions(a, 3, 3);
+      m00 = a.get(0, 0);
+      m01 = a.get(0, 1);
+      m02 = a.get(0, 2);
+      m10 = a.get(1, 0);
+      m11 = a.get(1, 1);
+      m12 = a.get(1, 2);
+      m20 = a.get(2, 0);
+      m21 = a.get(2, 1);
+      m22 = a.get(2, 2);
+   }
+
+   /**
+    * Returns a new identity matrix.
+    *
+    * @return the identity matrix.
+    */
+   public static Matrix3 identity() {
+      return new Matrix3().setIdentity();
+   }
+
+   @Override
+   public int rows() {
+      return 3;
+   }
+
+   @Override
+   public int columns() {
+      return 3;
+   }
+
+   @Override
+   public double get(int r, int c) {
+      if (r < 0 || r >= 3 || c < 0 || c >= 3) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      switch (r * 3 + c) {
+         case 0:
+            return m00;
+         case 1:
+            return m01;
+         case 2:
+            return m02;
+         case 3:
+            return m10;
+         case 4:
+            return m11;
+         case 5:
+            return m12;
+         case 6:
+            return m20;
+         case 7:
+            return m21;
+         default:
+            return m22;
+      }
+   }
+
+   @Override
+   public Matrix3 set(int r, int c, double n) {
+      if (r < 0 || r >= 3 || c < 0 || c >= 3) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      switch (r * 3 + c) {
+         case 0:
+            m00 = n;
+            break;
+         case 1:
+            m01 = n;
+            break;
+         case 2:
+            m02 = n;
+            break;
+         case 3:
+            m10 = n;
+            break;
+         case 4:
+            m11 = n;
+            break;
+         case 5:
+            m12 = n;
+            break;
+         case 6:
+            m20 = n;
+            break;
+         case 7:
+            m21 = n;
+            break;
+         default:
+            m22 = n;
+      }
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}  The values of the array are copied into the matrix.
+    *
+    * @throws MatrixDimensionException if the array is not {@code 3x3}.
+    */
+   @Override
+   public Matrix3 set(double[][] a) {
+      if (a.length != 3 || a[0].length != 3 || a[1].length != 3 || a[2].length != 3) {
+         throw new MatrixDimensionException("Matrix dimensions do not agree: (" + a.length + "x"
+               + (a.length == 0 ? 0 : a[0].length) + ") and (3x3)");
+      }
+      return set(a[0][0], a[0][1], a[0][2], a[1][0], a[1][1], a[1][2], a[2][0], a[2][1], a[2][2]);
+   }
+
+   /**
+    * Sets all the values of the matrix, given row by row.
+    *
+    * @param m00 the value at row 0 and column 0.
+    * @param m01 the value at row 0 and column 1.
+    * @param m02 the value at row 0 and column 2.
+    * @param m10 the value at row 1 and column 0.
+    * @param m11 the value at row 1 and column 1.
+    * @param m12 the value at row 1 and column 2.
+    * @param m20 the value at row 2 and column 0.
+    * @param m21 the value at row 2 and column 1.
+    * @param m22 the value at row 2 and column 2.
+    * @return the matrix.
+    */
+   public Matrix3 set(double m00, double m01, double m02, double m10, double m11, double m12, double m20, double m21,
+                      double m22) {
+      this.m00 = m00;
+      this.m01 = m01;
+      this.m02 = m02;
+      this.m10 = m10;
+      this.m11 = m11;
+      this.m12 = m12;
+      this.m20 = m20;
+      this.m21 = m21;
+      this.m22 = m22;
+      return this;
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    * @return the matrix.
+    */
+   public Matrix3 set(Matrix3 a) {
+      return set(a.m00, a.m01, a.m02, a.m10, a.m11, a.m12, a.m20, a.m21, a.m22);
+   }
+
+   /**
+    * Sets the matrix to the identity matrix.
+    *
+    * @return the matrix.
+    */
+   public Matrix3 setIdentity() {
+      return set(1.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 1.0);
+   }
+
+   /**
+    * Returns the determinant of the matrix.
+    *
+    * @return the determinant.
+    */
+   public double determinant() {
+      return m00 * (m11 * m22 - m12 * m21)
+            - m01 * (m10 * m22 - m12 * m20)
+            + m02 * (m10 * m21 - m11 * m20);
+   }
+
+   @Override
+   public Matrix3 transpose() {
+      double t;
+      t = m01;
+      m01 = m10;
+      m10 = t;
+      t = m02;
+      m02 = m20;
+      m20 = t;
+      t = m12;
+      m12 = m21;
+      m21 = t;
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}  The inverse is computed in closed form from the cofactors of the matrix.
+    *
+    * @throws SingularMatrixException if the matrix is singular.
+    */
+   @Override
+   public Matrix3 inverse() {
+      double c00 = m11 * m22 - m12 * m21;
+      double c01 = m12 * m20 - m10 * m22;
+      double c02 = m10 * m21 - m11 * m20;
+      double det = m00 * c00 + m01 * c01 + m02 * c02;
+      if (det == 0.0 || Double.isNaN(det)) {
+         throw new SingularMatrixException("Matrix is singular.");
+      }
+      double f = 1.0 / det;
+      return set(c00 * f, (m02 * m21 - m01 * m22) * f, (m01 * m12 - m02 * m11) * f,
+                 c01 * f, (m00 * m22 - m02 * m20) * f, (m02 * m10 - m00 * m12) * f,
+                 c02 * f, (m01 * m20 - m00 * m21) * f, (m00 * m11 - m01 * m10) * f);
+   }
+
+   @Override
+   public Matrix3 scale(double n) {
+      m00 *= n;
+      m01 *= n;
+      m02 *= n;
+      m10 *= n;
+      m11 *= n;
+      m12 *= n;
+      m20 *= n;
+      m21 *= n;
+      m22 *= n;
+      return this;
+   }
+
+   /**
+    * Adds the specified matrix to the matrix.  This method modifies the original values of the matrix.
+    *
+    * @param a the matrix to add.
+    * @return the original matrix modified with the addition of the specified matrix.
+    */
+   public Matrix3 add(Matrix3 a) {
+      m00 += a.m00;
+      m01 += a.m01;
+      m02 += a.m02;
+      m10 += a.m10;
+      m11 += a.m11;
+      m12 += a.m12;
+      m20 += a.m20;
+      m21 += a.m21;
+      m22 += a.m22;
+      return this;
+   }
+
+   @Override
+   public Matrix3 add(IMatrix a) {
+      if (a instanceof Matrix3) {
+         return add((Matrix3) a);
+      }
+      return (Matrix3) IMatrix.super.add(a);
+   }
+
+   /**
+    * Subtracts the specified matrix from the matrix.  This method modifies the original values of the matrix.
+    *
+    * @param a the matrix to subtract.
+    * @return the original matrix modified with the subtraction of the specified matrix.
+    */
+   public Matrix3 subtract(Matrix3 a) {
+      m00 -= a.m00;
+      m01 -= a.m01;
+      m02 -= a.m02;
+      m10 -= a.m10;
+      m11 -= a.m11;
+      m12 -= a.m12;
+      m20 -= a.m20;
+      m21 -= a.m21;
+      m22 -= a.m22;
+      return this;
+   }
+
+   @Override
+   public Matrix3 subtract(IMatrix a) {
+      if (a instanceof Matrix3) {
+         return subtract((Matrix3) a);
+      }
+      return (Matrix3) IMatrix.super.subtract(a);
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the matrix, {@code this = this * a}.  This method modifies the
+    * original matrix.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   public Matrix3 multiply(Matrix3 a) {
+      return multiply(this, a, this);
+   }
+
+   /**
+    * {@inheritDoc}
+    *
+    * @throws MatrixDimensionException if the matrix is not {@code 3x3}.
+    */
+   @Override
+   public Matrix3 multiply(IMatrix a) {
+      return multiply(a instanceof Matrix3 ? (Matrix3) a : new Matrix3(a));
+   }
+
+   /**
+    * Writes the matrix-multiplication of two matrices into the specified matrix, {@code out = a * b}.  The result may
+    * be either operand, or both.
+    *
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param out the matrix to write the product into.
+    * @return the specified result matrix.
+    */
+   public static Matrix3 multiply(Matrix3 a, Matrix3 b, Matrix3 out) {
+      // A row of the product reads its own row of a but all of b, so b is read before any row is written.
+      double b00 = b.m00, b01 = b.m01, b02 = b.m02;
+      double b10 = b.m10, b11 = b.m11, b12 = b.m12;
+      double b20 = b.m20, b21 = b.m21, b22 = b.m22;
+      out.setRow(0, a.m00 * b00 + a.m01 * b10 + a.m02 * b20,
+                    a.m00 * b01 + a.m01 * b11 + a.m02 * b21,
+                    a.m00 * b02 + a.m01 * b12 + a.m02 * b22);
+      out.setRow(1, a.m10 * b00 + a.m11 * b10 + a.m12 * b20,
+                    a.m10 * b01 + a.m11 * b11 + a.m12 * b21,
+                    a.m10 * b02 + a.m11 * b12 + a.m12 * b22);
+      out.setRow(2, a.m20 * b00 + a.m21 * b10 + a.m22 * b20,
+                    a.m20 * b01 + a.m21 * b11 + a.m22 * b21,
+                    a.m20 * b02 + a.m21 * b12 + a.m22 * b22);
+      return out;
+   }
+
+   /**
+    * Sets all the values of the specified row.
+    */
+   private Matrix3 setRow(int r, double v0, double v1, double v2) {
+      switch (r) {
+         case 0:
+            m00 = v0;
+            m01 = v1;
+            m02 = v2;
+            break;
+         case 1:
+            m10 = v0;
+            m11 = v1;
+            m12 = v2;
+            break;
+         default:
+            m20 = v0;
+            m21 = v1;
+            m22 = v2;
+      }
+      return this;
+   }
+
+   /**
+    * Multiplies the specified vector by the matrix, {@code v = this * v}.  This method modifies the vector.
+    *
+    * @param v the vector to transform.
+    * @return the specified vector modified with the product.
+    */
+   public Vector3 transform(Vector3 v) {
+      return transform(v, v);
+   }
+
+   /**
+    * Writes the product of the matrix and the specified vector into the specified vector, {@code out = this * v}.
+    * The result may be the vector itself.
+    *
+    * @param v the vector to transform.
+    * @param out the vector to write the product into.
+    * @return the specified result vector.
+    */
+   public Vector3 transform(Vector3 v, Vector3 out) {
+      double x = v.x, y = v.y, z = v.z;
+      return out.set(m00 * x + m01 * y + m02 * z,
+                     m10 * x + m11 * y + m12 * z,
+                     m20 * x + m21 * y + m22 * z);
+   }
+
+   @Override
+   public Matrix3 copy() {
+      return new Matrix3().set(this);
+   }
+}
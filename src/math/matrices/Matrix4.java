@@ -0,0 +1,600 @@
+package math.matrices;
+
+/**
+ * A {@code 4x4} matrix with its values held in fields instead of an array.  Every operation is unrolled, and like
+ * the rest of the library modifies the matrix in place, so code that reuses its matrices allocates nothing and the
+ * JIT can scalar-replace short-lived matrices which do not escape a method.
+ * <p/>
+ * The matrix is an {@link IMatrix} and can be used wherever one is expected, but its dimensions never change: an
+ * operation whose result would not be {@code 4x4} throws a {@link MatrixDimensionException}.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Matrix4 implements IMatrix {
+
+   /**
+    * The values of the first row.
+    */
+   public double m00, m01, m02, m03;
+
+   /**
+    * The values of the second row.
+    */
+   public double m10, m11, m12, m13;
+
+   /**
+    * The values of the third row.
+    */
+   public double m20, m21, m22, m23;
+
+   /**
+    * The values of the fourth row.
+    */
+   public double m30, m31, m32, m33;
+
+   /**
+    * Creates a new matrix with all values equaling zero.
+    */
+   public Matrix4() {
+   }
+
+   /**
+    * Creates a new matrix with the specified values, given row by row.
+    *
+    * @param m00 the value at row 0 and column 0.
+    * @param m01 the value at row 0 and column 1.
+    * @param m02 the value at row 0 and column 2.
+    * @param m03 the value at row 0 and column 3.
+    * @param m10 the value at row 1 and column 0.
+    * @param m11 the value at row 1 and column 1.
+    * @param m12 the value at row 1 and column 2.
+    * @param m13 the value at row 1 and column 3.
+    * @param m20 the value at row 2 and column 0.
+    * @param m21 the value at row 2 and column 1.
+    * @param m22 the value at row 2 and column 2.
+    * @param m23 the value at row 2 and column 3.
+    * @param m30 the value at row 3 and column 0.
+    * @param m31 the value at row 3 and column 1.
+    * @param m32 the value at row 3 and column 2.
+    * @param m33 the value at row 3 and column 3.
+    */
+   public Matrix4(double m00, double m01, double m02, double m03, double m10, double m11, double m12, double m13,
+                  double m20, double m21, double m22, double m23, double m30, double m31, double m32, double m33) {
+      set(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33);
+   }
+
+   /**
+    * Creates a new matrix that is a copy of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    * @throws MatrixDimensionException if the matrix is not {@code 4x4}.
+    */
+   public Matrix4(IMatrix a) {
+      DimensionChecking.catchDimensions(a, 4, 4);
+      m00 = a.get(0, 0);
+      m01 = a.get(0, 1);
+      m02 = a.get(0, 2);
+      m03 = a.get(0, 3);
+      m10 = a.get(1, 0);
+      m11 = a.get(1, 1);
+      m12 = a.get(1, 2);
+      m13 = a.get(1, 3);
+      m20 = a.get(2, 0);
+      m21 = a.get(2, 1);
+      m22 = a.get(2, 2);
+      m23 = a.get(2, 3);
+      m30 = a.get(3, 0);
+      m31 = a.get(3, 1);
+      m32 = a.get(3, 2);
+      m33 = a.get(3, 3);
+   }
+
+   /**
+    * Returns a new identity matrix.
+    *
+    * @return the identity matrix.
+    */
+   public static Matrix4 identity() {
+      return new Matrix4().setIdentity();
+   }
+
+   @Override
+   public int rows() {
+      return 4;
+   }
+
+   @Override
+   public int columns() {
+      return 4;
+   }
+
+   @Override
+   public double get(int r, int c) {
+      if (r < 0 || r >= 4 || c < 0 || c >= 4) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      switch (r * 4 + c) {
+         case 0:
+            return m00;
+         case 1:
+            return m01;
+         case 2:
+            return m02;
+         case 3:
+            return m03;
+         case 4:
+            return m10;
+         case 5:
+            return m11;
+         case 6:
+            return m12;
+         case 7:
+            return m13;
+         case 8:
+            return m20;
+         case 9:
+            return m21;
+         case 10:
+            return m22;
+         case 11:
+            return m23;
+         case 12:
+            return m30;
+         case 13:
+            return m31;
+         case 14:
+            return m32;
+         default:
+            return m33;
+      }
+   }
+
+   @Override
+   public Matrix4 set(int r, int c, double n) {
+      if (r < 0 || r >= 4 || c < 0 || c >= 4) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      switch (r * 4 + c) {
+         case 0:
+            m00 = n;
+            break;
+         case 1:
+            m01 = n;
+            break;
+         case 2:
+            m02 = n;
+            break;
+         case 3:
+            m03 = n;
+            break;
+         case 4:
+            m10 = n;
+            break;
+         case 5:
+            m11 = n;
+            break;
+         case 6:
+            m12 = n;
+            break;
+         case 7:
+            m13 = n;
+            break;
+         case 8:
+            m20 = n;
+            break;
+         case 9:
+            m21 = n;
+            break;
+         case 10:
+            m22 = n;
+            break;
+         case 11:
+            m23 = n;
+            break;
+         case 12:
+            m30 = n;
+            break;
+         case 13:
+            m31 = n;
+            break;
+         case 14:
+            m32 = n;
+            break;
+         default:
+            m33 = n;
+      }
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}  The values of the array are copied into the matrix.
+    *
+    * @throws MatrixDimensionException if the array is not {@code 4x4}.
+    */
+   @Override
+   public Matrix4 set(double[][] a) {
+      if (a.length != 4 || a[0].length != 4 || a[1].length != 4 || a[2].length != 4 || a[3].length != 4) {
+         throw new MatrixDimensionException("Matrix dimensions do not agree: (" + a.length + "x"
+               + (a.length == 0 ? 0 : a[0].length) + ") and (4x4)");
+      }
+      return set(a[0][0], a[0][1], a[0][2], a[0][3], a[1][0], a[1][1], a[1][2], a[1][3], a[2][0], a[2][1], a[2][2],
+                 a[2][3], a[3][0], a[3][1], a[3][2], a[3][3]);
+   }
+
+   /**
+    * Sets all the values of the matrix, given row by row.
+    *
+    * @param m00 the value at row 0 and column 0.
+    * @param m01 the value at row 0 and column 1.
+    * @param m02 the value at row 0 and column 2.
+    * @param m03 the value at row 0 and column 3.
+    * @param m10 the value at row 1 and column 0.
+    * @param m11 the value at row 1 and column 1.
+    * @param m12 the value at row 1 and column 2.
+    * @param m13 the value at row 1 and column 3.
+    * @param m20 the value at row 2 and column 0.
+    * @param m21 the value at row 2 and column 1.
+    * @param m22 the value at row 2 and column 2.
+    * @param m23 the value at row 2 and column 3.
+    * @param m30 the value at row 3 and column 0.
+    * @param m31 the value at row 3 and column 1.
+    * @param m32 the value at row 3 and column 2.
+    * @param m33 the value at row 3 and column 3.
+    * @return the matrix.
+    */
+   public Matrix4 set(double m00, double m01, double m02, double m03, double m10, double m11, double m12, double m13,
+                      double m20, double m21, double m22, double m23, double m30, double m31, double m32, double m33) {
+      this.m00 = m00;
+      this.m01 = m01;
+      this.m02 = m02;
+      this.m03 = m03;
+      this.m10 = m10;
+      this.m11 = m11;
+      this.m12 = m12;
+      this.m13 = m13;
+      this.m20 = m20;
+      this.m21 = m21;
+      this.m22 = m22;
+      this.m23 = m23;
+      this.m30 = m30;
+      this.m31 = m31;
+      this.m32 = m32;
+      this.m33 = m33;
+      return this;
+   }
+
+   /**
+    * Sets the matrix to have the values of the specified matrix.
+    *
+    * @param a the matrix to copy.
+    * @return the matrix.
+    */
+   public Matrix4 set(Matrix4 a) {
+      return set(a.m00, a.m01, a.m02, a.m03, a.m10, a.m11, a.m12, a.m13, a.m20, a.m21, a.m22, a.m23, a.m30, a.m31,
+                 a.m32, a.m33);
+   }
+
+   /**
+    * Sets the matrix to the identity matrix.
+    *
+    * @return the matrix.
+    */
+   public Matrix4 setIdentity() {
+      return set(1.0, 0.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 0.0, 1.0, 0.0, 0.0, 0.0, 0.0, 1.0);
+   }
+
+   /**
+    * Returns the determinant of the matrix.
+    *
+    * @return the determinant.
+    */
+   public double determinant() {
+      double s0 = m00 * m11 - m01 * m10;
+      double s1 = m00 * m12 - m02 * m10;
+      double s2 = m00 * m13 - m03 * m10;
+      double s3 = m01 * m12 - m02 * m11;
+      double s4 = m01 * m13 - m03 * m11;
+      double s5 = m02 * m13 - m03 * m12;
+      double c5 = m22 * m33 - m23 * m32;
+      double c4 = m21 * m33 - m23 * m31;
+      double c3 = m21 * m32 - m22 * m31;
+      double c2 = m20 * m33 - m23 * m30;
+      double c1 = m20 * m32 - m22 * m30;
+      double c0 = m20 * m31 - m21 * m30;
+      return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+   }
+
+   @Override
+   public Matrix4 transpose() {
+      double t;
+      t = m01;
+      m01 = m10;
+      m10 = t;
+      t = m02;
+      m02 = m20;
+      m20 = t;
+      t = m03;
+      m03 = m30;
+      m30 = t;
+      t = m12;
+      m12 = m21;
+      m21 = t;
+      t = m13;
+      m13 = m31;
+      m31 = t;
+      t = m23;
+      m23 = m32;
+      m32 = t;
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}  The inverse is computed in closed form from the cofactors of the matrix.
+    *
+    * @throws SingularMatrixException if the matrix is singular.
+    */
+   @Override
+   public Matrix4 inverse() {
+      double s0 = m00 * m11 - m01 * m10;
+      double s1 = m00 * m12 - m02 * m10;
+      double s2 = m00 * m13 - m03 * m10;
+      double s3 = m01 * m12 - m02 * m11;
+      double s4 = m01 * m13 - m03 * m11;
+      double s5 = m02 * m13 - m03 * m12;
+      return inverse(s0, s1, s2, s3, s4, s5);
+   }
+
+   /**
+    * Inverts the matrix given the determinants of the two by two minors of its first two rows.  The inverse is
+    * split across several methods so that each is small enough for the JIT to inline.
+    */
+   private Matrix4 inverse(double s0, double s1, double s2, double s3, double s4, double s5) {
+      double c5 = m22 * m33 - m23 * m32;
+      double c4 = m21 * m33 - m23 * m31;
+      double c3 = m21 * m32 - m22 * m31;
+      double c2 = m20 * m33 - m23 * m30;
+      double c1 = m20 * m32 - m22 * m30;
+      double c0 = m20 * m31 - m21 * m30;
+      double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+      if (det == 0.0 || Double.isNaN(det)) {
+         throw new SingularMatrixException("Matrix is singular.");
+      }
+      return adjugate(1.0 / det, s0, s1, s2, s3, s4, s5, c0, c1, c2, c3, c4, c5);
+   }
+
+   /**
+    * Sets the matrix to its scaled adjugate given the determinants of the two by two minors of its first two and last
+    * two rows.  Column {@code j} of the adjugate only depends on one row of the matrix, so the columns are written as
+    * rows, once the rows they depend on have been read, and the matrix is transposed at the end.
+    */
+   private Matrix4 adjugate(double f, double s0, double s1, double s2, double s3, double s4, double s5, double c0,
+                            double c1, double c2, double c3, double c4, double c5) {
+      double x0 = m00, x1 = m01, x2 = m02, x3 = m03;
+      double y0 = m20, y1 = m21, y2 = m22, y3 = m23;
+      return cofactorRow(0, m10, m11, m12, m13, f, c0, c1, c2, c3, c4, c5)
+            .cofactorRow(1, x0, x1, x2, x3, -f, c0, c1, c2, c3, c4, c5)
+            .cofactorRow(2, m30, m31, m32, m33, f, s0, s1, s2, s3, s4, s5)
+            .cofactorRow(3, y0, y1, y2, y3, -f, s0, s1, s2, s3, s4, s5)
+            .transpose();
+   }
+
+   /**
+    * Sets the specified row to the scaled cofactors of the specified row given the determinants of the two by two
+    * minors of the two rows of the other half of the matrix.
+    */
+   private Matrix4 cofactorRow(int r, double x0, double x1, double x2, double x3, double f, double k0, double k1,
+                               double k2, double k3, double k4, double k5) {
+      return setRow(r, (x1 * k5 - x2 * k4 + x3 * k3) * f,
+                       (-x0 * k5 + x2 * k2 - x3 * k1) * f,
+                       (x0 * k4 - x1 * k2 + x3 * k0) * f,
+                       (-x0 * k3 + x1 * k1 - x2 * k0) * f);
+   }
+
+   @Override
+   public Matrix4 scale(double n) {
+      m00 *= n;
+      m01 *= n;
+      m02 *= n;
+      m03 *= n;
+      m10 *= n;
+      m11 *= n;
+      m12 *= n;
+      m13 *= n;
+      m20 *= n;
+      m21 *= n;
+      m22 *= n;
+      m23 *= n;
+      m30 *= n;
+      m31 *= n;
+      m32 *= n;
+      m33 *= n;
+      return this;
+   }
+
+   /**
+    * Adds the specified matrix to the matrix.  This method modifies the original values of the matrix.
+    *
+    * @param a the matrix to add.
+    * @return the original matrix modified with the addition of the specified matrix.
+    */
+   public Matrix4 add(Matrix4 a) {
+      m00 += a.m00;
+      m01 += a.m01;
+      m02 += a.m02;
+      m03 += a.m03;
+      m10 += a.m10;
+      m11 += a.m11;
+      m12 += a.m12;
+      m13 += a.m13;
+      m20 += a.m20;
+      m21 += a.m21;
+      m22 += a.m22;
+      m23 += a.m23;
+      m30 += a.m30;
+      m31 += a.m31;
+      m32 += a.m32;
+      m33 += a.m33;
+      return this;
+   }
+
+   @Override
+   public Matrix4 add(IMatrix a) {
+      if (a instanceof Matrix4) {
+         return add((Matrix4) a);
+      }
+      return (Matrix4) IMatrix.super.add(a);
+   }
+
+   /**
+    * Subtracts the specified matrix from the matrix.  This method modifies the original values of the matrix.
+    *
+    * @param a the matrix to subtract.
+    * @return the original matrix modified with the subtraction of the specified matrix.
+    */
+   public Matrix4 subtract(Matrix4 a) {
+      m00 -= a.m00;
+      m01 -= a.m01;
+      m02 -= a.m02;
+      m03 -= a.m03;
+      m10 -= a.m10;
+      m11 -= a.m11;
+      m12 -= a.m12;
+      m13 -= a.m13;
+      m20 -= a.m20;
+      m21 -= a.m21;
+      m22 -= a.m22;
+      m23 -= a.m23;
+      m30 -= a.m30;
+      m31 -= a.m31;
+      m32 -= a.m32;
+      m33 -= a.m33;
+      return this;
+   }
+
+   @Override
+   public Matrix4 subtract(IMatrix a) {
+      if (a instanceof Matrix4) {
+         return subtract((Matrix4) a);
+      }
+      return (Matrix4) IMatrix.super.subtract(a);
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the matrix, {@code this = this * a}.  This method modifies the
+    * original matrix.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   public Matrix4 multiply(Matrix4 a) {
+      return multiply(this, a, this);
+   }
+
+   /**
+    * {@inheritDoc}
+    *
+    * @throws MatrixDimensionException if the matrix is not {@code 4x4}.
+    */
+   @Override
+   public Matrix4 multiply(IMatrix a) {
+      return multiply(a instanceof Matrix4 ? (Matrix4) a : new Matrix4(a));
+   }
+
+   /**
+    * Writes the matrix-multiplication of two matrices into the specified matrix, {@code out = a * b}.  The result may
+    * be either operand, or both.
+    *
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param out the matrix to write the product into.
+    * @return the specified result matrix.
+    */
+   public static Matrix4 multiply(Matrix4 a, Matrix4 b, Matrix4 out) {
+      // A row of the product reads its own row of a but all of b, so b is read before any row is written.
+      double b00 = b.m00, b01 = b.m01, b02 = b.m02, b03 = b.m03;
+      double b10 = b.m10, b11 = b.m11, b12 = b.m12, b13 = b.m13;
+      double b20 = b.m20, b21 = b.m21, b22 = b.m22, b23 = b.m23;
+      double b30 = b.m30, b31 = b.m31, b32 = b.m32, b33 = b.m33;
+      out.setRow(0, a.m00 * b00 + a.m01 * b10 + a.m02 * b20 + a.m03 * b30,
+                    a.m00 * b01 + a.m01 * b11 + a.m02 * b21 + a.m03 * b31,
+                    a.m00 * b02 + a.m01 * b12 + a.m02 * b22 + a.m03 * b32,
+                    a.m00 * b03 + a.m01 * b13 + a.m02 * b23 + a.m03 * b33);
+      out.setRow(1, a.m10 * b00 + a.m11 * b10 + a.m12 * b20 + a.m13 * b30,
+                    a.m10 * b01 + a.m11 * b11 + a.m12 * b21 + a.m13 * b31,
+                    a.m10 * b02 + a.m11 * b12 + a.m12 * b22 + a.m13 * b32,
+                    a.m10 * b03 + a.m11 * b13 + a.m12 * b23 + a.m13 * b33);
+      out.setRow(2, a.m20 * b00 + a.m21 * b10 + a.m22 * b20 + a.m23 * b30,
+                    a.m20 * b01 + a.m21 * b11 + a.m22 * b21 + a.m23 * b31,
+                    a.m20 * b02 + a.m21 * b12 + a.m22 * b22 + a.m23 * b32,
+                    a.m20 * b03 + a.m21 * b13 + a.m22 * b23 + a.m23 * b33);
+      out.setRow(3, a.m30 * b00 + a.m31 * b10 + a.m32 * b20 + a.m33 * b30,
+                    a.m30 * b01 + a.m31 * b11 + a.m32 * b21 + a.m33 * b31,
+                    a.m30 * b02 + a.m31 * b12 + a.m32 * b22 + a.m33 * b32,
+                    a.m30 * b03 + a.m31 * b13 + a.m32 * b23 + a.m33 * b33);
+      return out;
+   }
+
+   /**
+    * Sets all the values of the specified row.
+    */
+   private Matrix4 setRow(int r, double v0, double v1, double v2, double v3) {
+      switch (r) {
+         case 0:
+            m00 = v0;
+            m01 = v1;
+            m02 = v2;
+            m03 = v3;
+            break;
+         case 1:
+            m10 = v0;
+            m11 = v1;
+            m12 = v2;
+            m13 = v3;
+            break;
+         case 2:
+            m20 = v0;
+            m21 = v1;
+            m22 = v2;
+            m23 = v3;
+            break;
+         default:
+            m30 = v0;
+            m31 = v1;
+            m32 = v2;
+            m33 = v3;
+      }
+      return this;
+   }
+
+   /**
+    * Multiplies the specified vector by the matrix, {@code v = this * v}.  This method modifies the vector.
+    *
+    * @param v the vector to transform.
+    * @return the specified vector modified with the product.
+    */
+   public Vector4 transform(Vector4 v) {
+      return transform(v, v);
+   }
+
+   /**
+    * Writes the product of the matrix and the specified vector into the specified vector, {@code out = this * v}.
+    * The result may be the vector itself.
+    *
+    * @param v the vector to transform.
+    * @param out the vector to write the product into.
+    * @return the specified result vector.
+    */
+   public Vector4 transform(Vector4 v, Vector4 out) {
+      double x = v.x, y = v.y, z = v.z, w = v.w;
+      return out.set(m00 * x + m01 * y + m02 * z + m03 * w,
+                     m10 * x + m11 * y + m12 * z + m13 * w,
+                     m20 * x + m21 * y + m22 * z + m23 * w,
+                     m30 * x + m31 * y + m32 * z + m33 * w);
+   }
+
+   @Override
+   public Matrix4 copy() {
+      return new Matrix4().set(this);
+   }
+}
@@ -0,0 +1,462 @@
+package math.matrices;
+
+/**
+ * A batch of many small matrices of the same size stored as a structure of arrays.  Each of the {@code rows x columns}
+ * positions has its own array holding that value of every matrix of the batch, so the value at row {@code r} and
+ * column {@code c} of matrix {@code k} is {@code plane(r, c)[k]}.  Every batched operation is a loop over the matrices
+ * of the batch reading and writing these arrays at the same index, which the compiler turns into vector instructions,
+ * and large batches run in {@link Parallel}.
+ * <p/>
+ * Batches of {@code n x 1} matrices are batches of column vectors, so {@link #multiply(MatrixBatch, MatrixBatch,
+ * MatrixBatch)} of a batch of matrices and a batch of vectors applies each matrix to its vector.
+ * <p/>
+ * The determinant and inverse of matrices up to {@code 4 x 4} are computed in closed form across the batch; larger
+ * matrices go through an {@link LUDecomposition} each.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class MatrixBatch {
+
+   /**
+    * The number of matrices computed together so that their planes stay in cache, the alignment of the ranges run in
+    * parallel and the length of the scratch buffer used when the result aliases an operand.
+    */
+   private static final int BLOCK = 256;
+
+   /**
+    * The number of matrices in the batch.
+    */
+   private final int size;
+
+   /**
+    * The number of rows of every matrix.
+    */
+   private final int rows;
+
+   /**
+    * The number of columns of every matrix.
+    */
+   private final int columns;
+
+   /**
+    * The values of the batch, one array per position in row-major order.
+    */
+   private final double[][] planes;
+
+   /**
+    * Creates a new batch of the specified number of matrices of the specified size with all values equaling zero.
+    *
+    * @param size the number of matrices.
+    * @param rows the number of rows of every matrix.
+    * @param columns the number of columns of every matrix.
+    */
+   public MatrixBatch(int size, int rows, int columns) {
+      if (size < 0 || rows < 0 || columns < 0) {
+         throw new IllegalArgumentException("Batch dimensions cannot be negative: " + size + " of (" + rows + "x"
+               + columns + ")");
+      }
+      this.size = size;
+      this.rows = rows;
+      this.columns = columns;
+      this.planes = new double[rows * columns][size];
+   }
+
+   /**
+    * Creates a new batch that is a copy of the specified batch.
+    *
+    * @param b the batch to copy.
+    */
+   public MatrixBatch(MatrixBatch b) {
+      this(b.size, b.rows, b.columns);
+      for (int p = 0; p < planes.length; p++) {
+         System.arraycopy(b.planes[p], 0, planes[p], 0, size);
+      }
+   }
+
+   /**
+    * Returns the number of matrices in the batch.
+    *
+    * @return the size of the batch.
+    */
+   public int size() {
+      return size;
+   }
+
+   /**
+    * Returns the number of rows of every matrix of the batch.
+    *
+    * @return the number of rows.
+    */
+   public int rows() {
+      return rows;
+   }
+
+   /**
+    * Returns the number of columns of every matrix of the batch.
+    *
+    * @return the number of columns.
+    */
+   public int columns() {
+      return columns;
+   }
+
+   /**
+    * Returns the array holding the value at the specified row and column of every matrix of the batch.  Modifying the
+    * array will modify the batch.
+    *
+    * @param r the row.
+    * @param c the column.
+    * @return the values at the row and column, indexed by matrix.
+    */
+   public double[] plane(int r, int c) {
+      return planes[r * columns + c];
+   }
+
+   /**
+    * Returns the value at the specified row and column of the specified matrix.
+    *
+    * @param k the index of the matrix.
+    * @param r the row of the value.
+    * @param c the column of the value.
+    * @return the value.
+    */
+   public double get(int k, int r, int c) {
+      return planes[r * columns + c][k];
+   }
+
+   /**
+    * Sets the value at the specified row and column of the specified matrix.
+    *
+    * @param k the index of the matrix.
+    * @param r the row of the value.
+    * @param c the column of the value.
+    * @param n the new value.
+    * @return the batch.
+    */
+   public MatrixBatch set(int k, int r, int c, double n) {
+      planes[r * columns + c][k] = n;
+      return this;
+   }
+
+   /**
+    * Returns a copy of the specified matrix of the batch.
+    *
+    * @param k the index of the matrix.
+    * @return the matrix.
+    */
+   public Matrix get(int k) {
+      double[] d = new double[rows * columns];
+      for (int p = 0; p < d.length; p++) {
+         d[p] = planes[p][k];
+      }
+      return new Matrix(rows, columns, d);
+   }
+
+   /**
+    * Sets the specified matrix of the batch to have the values of the specified matrix.
+    *
+    * @param k the index of the matrix.
+    * @param a the new values.
+    * @return the batch.
+    * @throws MatrixDimensionException if the matrix is not the size of the matrices of the batch.
+    */
+   public MatrixBatch set(int k, IMatrix a) {
+      DimensionChecking.catchDimensions(a, rows, columns);
+      for (int i = 0; i < rows; i++) {
+         for (int j = 0; j < columns; j++) {
+            planes[i * columns + j][k] = a.get(i, j);
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Computes {@code out[k] = a[k] * b[k]} for every matrix of the batches.  The result may be one of the operands.
+    *
+    * @param a the batch of left matrices.
+    * @param b the batch of right matrices.
+    * @param out the batch to write the products into.
+    * @return the batch of products.
+    * @throws MatrixDimensionException if the sizes of the batches or of their matrices do not agree.
+    */
+   public static MatrixBatch multiply(MatrixBatch a, MatrixBatch b, MatrixBatch out) {
+      if (a.size != b.size || a.size != out.size) {
+         throw new MatrixDimensionException("Batch sizes do not agree: " + a.size + ", " + b.size + " and " + out.size);
+      }
+      if (a.columns != b.rows || out.rows != a.rows || out.columns != b.columns) {
+         throw new MatrixDimensionException("Matrix dimensions do not agree: (" + a.rows + "x" + a.columns + ") * ("
+               + b.rows + "x" + b.columns + ") into (" + out.rows + "x" + out.columns + ")");
+      }
+      boolean aliased = (out == a || out == b);
+      int m = a.rows;
+      int n = b.columns;
+      int q = a.columns;
+      Parallel.forRows(a.size, (long) a.size * m * n * q, BLOCK, (from, to) -> {
+         double[][] scratch = aliased ? new double[m * n][BLOCK] : null;
+         for (int k = from; k < to; k += BLOCK) {
+            int end = Math.min(k + BLOCK, to);
+            if (!aliased) {
+               multiply(a, b, out.planes, 0, k, end);
+               continue;
+            }
+            multiply(a, b, scratch, -k, k, end);
+            for (int p = 0; p < m * n; p++) {
+               System.arraycopy(scratch[p], 0, out.planes[p], k, end - k);
+            }
+         }
+      });
+      return out;
+   }
+
+   /**
+    * Computes the products of the matrices from {@code from} to {@code to} into the specified planes, where matrix
+    * {@code k} is written at index {@code k + shift}.
+    */
+   private static void multiply(MatrixBatch a, MatrixBatch b, double[][] c, int shift, int from, int to) {
+      int m = a.rows;
+      int n = b.columns;
+      int q = a.columns;
+      for (int i = 0; i < m; i++) {
+         for (int j = 0; j < n; j++) {
+            double[] o = c[i * n + j];
+            double[] x = a.planes[i * q];
+            double[] y = b.planes[j];
+            for (int k = from; k < to; k++) {
+               o[k + shift] = x[k] * y[k];
+            }
+            for (int p = 1; p < q; p++) {
+               x = a.planes[i * q + p];
+               y = b.planes[p * n + j];
+               for (int k = from; k < to; k++) {
+                  o[k + shift] += x[k] * y[k];
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns the batch of products of the matrices of this batch and of the specified batch as a new batch.
+    *
+    * @param b the batch of right matrices.
+    * @return the new batch of products.
+    * @throws MatrixDimensionException if the sizes of the batches or of their matrices do not agree.
+    */
+   public MatrixBatch multiply(MatrixBatch b) {
+      return multiply(this, b, new MatrixBatch(size, rows, b.columns));
+   }
+
+   /**
+    * Computes the determinant of every matrix of the batch.
+    *
+    * @param dst the array to write the determinants into, with at least one value per matrix.
+    * @return the specified array.
+    * @throws MatrixDimensionException if the matrices are not square or the array is too short.
+    */
+   public double[] determinant(double[] dst) {
+      catchSquare();
+      DimensionChecking.catchLength(dst, size);
+      Parallel.forRows(size, (long) size * rows * rows * rows, BLOCK, (from, to) -> determinant(dst, from, to));
+      return dst;
+   }
+
+   /**
+    * Returns the determinant of every matrix of the batch.
+    *
+    * @return the determinants, indexed by matrix.
+    * @throws MatrixDimensionException if the matrices are not square.
+    */
+   public double[] determinant() {
+      return determinant(new double[size]);
+   }
+
+   /**
+    * Catches matrices of the batch which are not square and throws the proper dimension exception.
+    */
+   private void catchSquare() {
+      if (rows != columns) {
+         throw new MatrixDimensionException("Matrices of the batch are not square: (" + rows + "x" + columns + ")");
+      }
+   }
+
+   /**
+    * Computes the determinants of the matrices from {@code from} to {@code to}.
+    */
+   private void determinant(double[] d, int from, int to) {
+      double[][] a = planes;
+      switch (rows) {
+         case 0:
+            for (int k = from; k < to; k++) {
+               d[k] = 1.0;
+            }
+            break;
+         case 1:
+            System.arraycopy(a[0], from, d, from, to - from);
+            break;
+         case 2:
+            for (int k = from; k < to; k++) {
+               d[k] = a[0][k] * a[3][k] - a[1][k] * a[2][k];
+            }
+            break;
+         case 3:
+            for (int k = from; k < to; k++) {
+               d[k] = a[0][k] * (a[4][k] * a[8][k] - a[5][k] * a[7][k])
+                     - a[1][k] * (a[3][k] * a[8][k] - a[5][k] * a[6][k])
+                     + a[2][k] * (a[3][k] * a[7][k] - a[4][k] * a[6][k]);
+            }
+            break;
+         case 4:
+            for (int k = from; k < to; k++) {
+               double s0 = a[0][k] * a[5][k] - a[1][k] * a[4][k];
+               double s1 = a[0][k] * a[6][k] - a[2][k] * a[4][k];
+               double s2 = a[0][k] * a[7][k] - a[3][k] * a[4][k];
+               double s3 = a[1][k] * a[6][k] - a[2][k] * a[5][k];
+               double s4 = a[1][k] * a[7][k] - a[3][k] * a[5][k];
+               double s5 = a[2][k] * a[7][k] - a[3][k] * a[6][k];
+               double c5 = a[10][k] * a[15][k] - a[11][k] * a[14][k];
+               double c4 = a[9][k] * a[15][k] - a[11][k] * a[13][k];
+               double c3 = a[9][k] * a[14][k] - a[10][k] * a[13][k];
+               double c2 = a[8][k] * a[15][k] - a[11][k] * a[12][k];
+               double c1 = a[8][k] * a[14][k] - a[10][k] * a[12][k];
+               double c0 = a[8][k] * a[13][k] - a[9][k] * a[12][k];
+               d[k] = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+            }
+            break;
+         default:
+            for (int k = from; k < to; k++) {
+               d[k] = new LUDecomposition(get(k)).determinant();
+            }
+      }
+   }
+
+   /**
+    * Inverts every matrix of the batch.  This operation does not create a new batch but modifies the original batch.
+    * Every determinant is checked before any matrix is modified, so a singular matrix leaves the batch unchanged.
+    *
+    * @return the batch of inverses.
+    * @throws MatrixDimensionException if the matrices are not square.
+    * @throws SingularMatrixException if any matrix of the batch is singular.
+    */
+   public MatrixBatch inverse() {
+      double[] det = determinant();
+      for (int k = 0; k < size; k++) {
+         if (det[k] == 0.0 || Double.isNaN(det[k])) {
+            throw new SingularMatrixException("Matrix " + k + " of the batch is singular.");
+         }
+      }
+      Parallel.forRows(size, (long) size * rows * rows * rows, BLOCK, (from, to) -> inverse(det, from, to));
+      return this;
+   }
+
+   /**
+    * Inverts the matrices from {@code from} to {@code to} given their determinants.
+    */
+   private void inverse(double[] det, int from, int to) {
+      double[][] a = planes;
+      switch (rows) {
+         case 0:
+            break;
+         case 1:
+            for (int k = from; k < to; k++) {
+               a[0][k] = 1.0 / a[0][k];
+            }
+            break;
+         case 2:
+            for (int k = from; k < to; k++) {
+               double f = 1.0 / det[k];
+               double a00 = a[0][k];
+               a[0][k] = a[3][k] * f;
+               a[1][k] = -a[1][k] * f;
+               a[2][k] = -a[2][k] * f;
+               a[3][k] = a00 * f;
+            }
+            break;
+         case 3:
+            for (int k = from; k < to; k++) {
+               double f = 1.0 / det[k];
+               double a00 = a[0][k];
+               double a01 = a[1][k];
+               double a02 = a[2][k];
+               double a10 = a[3][k];
+               double a11 = a[4][k];
+               double a12 = a[5][k];
+               double a20 = a[6][k];
+               double a21 = a[7][k];
+               double a22 = a[8][k];
+               a[0][k] = (a11 * a22 - a12 * a21) * f;
+               a[1][k] = (a02 * a21 - a01 * a22) * f;
+               a[2][k] = (a01 * a12 - a02 * a11) * f;
+               a[3][k] = (a12 * a20 - a10 * a22) * f;
+               a[4][k] = (a00 * a22 - a02 * a20) * f;
+               a[5][k] = (a02 * a10 - a00 * a12) * f;
+               a[6][k] = (a10 * a21 - a11 * a20) * f;
+               a[7][k] = (a01 * a20 - a00 * a21) * f;
+               a[8][k] = (a00 * a11 - a01 * a10) * f;
+            }
+            break;
+         case 4:
+            for (int k = from; k < to; k++) {
+               double f = 1.0 / det[k];
+               double a00 = a[0][k];
+               double a01 = a[1][k];
+               double a02 = a[2][k];
+               double a03 = a[3][k];
+               double a10 = a[4][k];
+               double a11 = a[5][k];
+               double a12 = a[6][k];
+               double a13 = a[7][k];
+               double a20 = a[8][k];
+               double a21 = a[9][k];
+               double a22 = a[10][k];
+               double a23 = a[11][k];
+               double a30 = a[12][k];
+               double a31 = a[13][k];
+               double a32 = a[14][k];
+               double a33 = a[15][k];
+               double s0 = a00 * a11 - a01 * a10;
+               double s1 = a00 * a12 - a02 * a10;
+               double s2 = a00 * a13 - a03 * a10;
+               double s3 = a01 * a12 - a02 * a11;
+               double s4 = a01 * a13 - a03 * a11;
+               double s5 = a02 * a13 - a03 * a12;
+               double c5 = a22 * a33 - a23 * a32;
+               double c4 = a21 * a33 - a23 * a31;
+               double c3 = a21 * a32 - a22 * a31;
+               double c2 = a20 * a33 - a23 * a30;
+               double c1 = a20 * a32 - a22 * a30;
+               double c0 = a20 * a31 - a21 * a30;
+               a[0][k] = (a11 * c5 - a12 * c4 + a13 * c3) * f;
+               a[1][k] = (-a01 * c5 + a02 * c4 - a03 * c3) * f;
+               a[2][k] = (a31 * s5 - a32 * s4 + a33 * s3) * f;
+               a[3][k] = (-a21 * s5 + a22 * s4 - a23 * s3) * f;
+               a[4][k] = (-a10 * c5 + a12 * c2 - a13 * c1) * f;
+               a[5][k] = (a00 * c5 - a02 * c2 + a03 * c1) * f;
+               a[6][k] = (-a30 * s5 + a32 * s2 - a33 * s1) * f;
+               a[7][k] = (a20 * s5 - a22 * s2 + a23 * s1) * f;
+               a[8][k] = (a10 * c4 - a11 * c2 + a13 * c0) * f;
+               a[9][k] = (-a00 * c4 + a01 * c2 - a03 * c0) * f;
+               a[10][k] = (a30 * s4 - a31 * s2 + a33 * s0) * f;
+               a[11][k] = (-a20 * s4 + a21 * s2 - a23 * s0) * f;
+               a[12][k] = (-a10 * c3 + a11 * c1 - a12 * c0) * f;
+               a[13][k] = (a00 * c3 - a01 * c1 + a02 * c0) * f;
+               a[14][k] = (-a30 * s3 + a31 * s1 - a32 * s0) * f;
+               a[15][k] = (a20 * s3 - a21 * s1 + a22 * s0) * f;
+            }
+            break;
+         default:
+            for (int k = from; k < to; k++) {
+               set(k, new LUDecomposition(get(k)).inverse());
+            }
+      }
+   }
+
+   /**
+    * Returns a copy of the batch.
+    *
+    * @return a copy of the batch.
+    */
+   public MatrixBatch copy() {
+      return new MatrixBatch(this);
+   }
+}
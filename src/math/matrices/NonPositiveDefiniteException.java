@@ -0,0 +1,35 @@
+package math.matrices;
+
+/**
+ * An unchecked exception for when a matrix is not symmetric positive definite.  This error could occur when trying to
+ * compute a Cholesky decomposition of a matrix which has a non-positive pivot.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class NonPositiveDefiniteException extends RuntimeException {
+
+   /**
+    * Determines if a deserialized file is compatible with {@code this class}.
+    * <p/>
+    * Maintainers must change this value if and only if the new version of {@code this class} is not compatible with
+    * old versions.
+    */
+   private static final long serialVersionUID = -6170934218873406522L;
+
+   /**
+    * Creates a {@code NonPositiveDefiniteException} with no detail message.
+    */
+   public NonPositiveDefiniteException() {
+      super();
+   }
+
+   /**
+    * Creates a {@code NonPositiveDefiniteException} with the specified detail message.
+    *
+    * @param msg the detail message.
+    */
+   public NonPositiveDefiniteException(String msg) {
+      super(msg);
+   }
+}
@@ -0,0 +1,197 @@
+package math.matrices;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A static library controlling how matrix operations are spread over multiple cores.  Operations split their rows into
+ * ranges which are run on a {@link ForkJoinPool}.  Every row range is computed exactly as the serial loop would compute
+ * it so the parallel and serial results are identical.
+ * <p/>
+ * Operations whose amount of work is below the threshold always run on the calling thread.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Parallel {
+
+   /**
+    * A range of rows which can be processed independently of any other range.
+    */
+   @FunctionalInterface
+   public interface Range {
+
+      /**
+       * Processes the rows from {@code from} inclusive to {@code to} exclusive.
+       *
+       * @param from the first row of the range.
+       * @param to the row after the last row of the range.
+       */
+      void apply(int from, int to);
+   }
+
+   /**
+    * The default amount of work below which operations stay serial.
+    */
+   public static final long DEFAULT_THRESHOLD = 1L << 18;
+
+   /**
+    * The number of ranges created per worker thread to balance uneven progress.
+    */
+   private static final int RANGES_PER_THREAD = 4;
+
+   /**
+    * If operations may run in parallel at all.
+    */
+   private static volatile boolean enabled = true;
+
+   /**
+    * The amount of work, in scalar operations, below which operations stay serial.
+    */
+   private static volatile long threshold = DEFAULT_THRESHOLD;
+
+   /**
+    * The pool that runs the parallel ranges.
+    */
+   private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+
+   /**
+    * Don't let anyone instantiate this class.
+    */
+   private Parallel() {
+   }
+
+   /**
+    * Returns if operations may run in parallel.
+    *
+    * @return if parallel execution is enabled.
+    */
+   public static boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * Sets if operations may run in parallel.  When disabled every operation runs on the calling thread.
+    *
+    * @param enabled if parallel execution is enabled.
+    */
+   public static void setEnabled(boolean enabled) {
+      Parallel.enabled = enabled;
+   }
+
+   /**
+    * Returns the amount of work, in scalar operations, below which operations stay serial.
+    *
+    * @return the serial threshold.
+    */
+   public static long getThreshold() {
+      return threshold;
+   }
+
+   /**
+    * Sets the amount of work, in scalar operations, below which operations stay serial.  An element-wise operation
+    * does one scalar operation per value and a matrix-multiplication does one per multiply-add.
+    *
+    * @param threshold the serial threshold.
+    */
+   public static void setThreshold(long threshold) {
+      if (threshold < 0) {
+         throw new IllegalArgumentException("Threshold cannot be negative: " + threshold);
+      }
+      Parallel.threshold = threshold;
+   }
+
+   /**
+    * Returns the pool that runs the parallel ranges.
+    *
+    * @return the pool of worker threads.
+    */
+   public static ForkJoinPool getPool() {
+      return pool;
+   }
+
+   /**
+    * Sets the pool that runs the parallel ranges.
+    *
+    * @param pool the pool of worker threads.
+    */
+   public static void setPool(ForkJoinPool pool) {
+      if (pool == null) {
+         throw new NullPointerException("Cannot use a null pool.");
+      }
+      Parallel.pool = pool;
+   }
+
+   /**
+    * Returns if an operation of the specified amount of work would run in parallel.
+    *
+    * @param work the number of scalar operations.
+    * @return if the operation would be split.
+    */
+   public static boolean isParallel(long work) {
+      return enabled && work >= threshold && pool.getParallelism() > 1;
+   }
+
+   /**
+    * Processes the specified number of rows, in parallel if the amount of work reaches the threshold.  Ranges are
+    * aligned to the specified block size so that blocked algorithms see the same blocks as they would serially.
+    *
+    * @param rows the number of rows to process.
+    * @param work the total number of scalar operations.
+    * @param block the alignment of range boundaries.
+    * @param range the processing of a range of rows.
+    */
+   public static void forRows(int rows, long work, int block, Range range) {
+      if (rows <= block || !isParallel(work)) {
+         range.apply(0, rows);
+         return;
+      }
+      int ranges = pool.getParallelism() * RANGES_PER_THREAD;
+      int grain = Math.max(block, (rows + ranges - 1) / ranges);
+      grain = (grain + block - 1) / block * block;
+      pool.invoke(new RangeTask(0, rows, grain, block, range));
+   }
+
+   /**
+    * Processes the specified number of rows, in parallel if the amount of work reaches the threshold.
+    *
+    * @param rows the number of rows to process.
+    * @param work the total number of scalar operations.
+    * @param range the processing of a range of rows.
+    */
+   public static void forRows(int rows, long work, Range range) {
+      forRows(rows, work, 1, range);
+   }
+
+   /**
+    * A task which recursively halves its range of rows until it is no larger than the grain.
+    */
+   private static final class RangeTask extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final int from;
+      private final int to;
+      private final int grain;
+      private final int block;
+      private final transient Range range;
+
+      RangeTask(int from, int to, int grain, int block, Range range) {
+         this.from = from;
+         this.to = to;
+         this.grain = grain;
+         this.block = block;
+         this.range = range;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= grain) {
+            range.apply(from, to);
+            return;
+         }
+         int middle = from + ((to - from) / 2 + block - 1) / block * block;
+         invokeAll(new RangeTask(from, middle, grain, block, range), new RangeTask(middle, to, grain, block, range));
+      }
+   }
+}
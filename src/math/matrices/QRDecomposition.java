@@ -0,0 +1,389 @@
+package math.matrices;
+
+/**
+ * The QR decomposition of a matrix with at least as many rows as columns.  The matrix is factored as {@code A = Q *
+ * R} where {@code Q} is orthogonal and {@code R} is upper triangular, and is used to solve overdetermined systems in
+ * the least-squares sense without forming the normal equations.
+ * <p/>
+ * {@code Q} is a product of Householder reflections and is never formed unless asked for; the reflections are kept in
+ * the lower part of the factored matrix.  The columns are factored in panels and the reflections of a panel are
+ * combined into the compact WY form {@code I - V * T * V^T} so that updating the remaining columns is done by {@link
+ * Gemm} matrix-matrix products.
+ * <p/>
+ * The factored matrix is kept column after column so that every Householder vector is contiguous.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class QRDecomposition {
+
+   /**
+    * The number of columns in a panel.
+    */
+   private static final int PANEL = 32;
+
+   /**
+    * The number of rows of the decomposed matrix.
+    */
+   private final int m;
+
+   /**
+    * The number of columns of the decomposed matrix.
+    */
+   private final int n;
+
+   /**
+    * The factored matrix in column-major order.  {@code R} is on and above the diagonal and the Householder vectors,
+    * without their implied leading one, are below the diagonal.
+    */
+   private final double[] qr;
+
+   /**
+    * The scaling factor of each Householder reflection {@code I - tau * v * v^T}.
+    */
+   private final double[] tau;
+
+   /**
+    * Computes the QR decomposition of the specified matrix.  The matrix is copied and not modified.
+    *
+    * @param a the matrix to decompose, with at least as many rows as columns.
+    */
+   public QRDecomposition(IMatrix a) {
+      if (a == null) {
+         throw new NullPointerException("Cannot access a null matrix.");
+      } else if (a.rows() < a.columns()) {
+         throw new MatrixDimensionException(
+                 "Matrix must have at least as many rows as columns: (" + a.rows() + "x" + a.columns() + ")");
+      }
+      m = a.rows();
+      n = a.columns();
+      qr = new double[m * n];
+      tau = new double[n];
+      for (int i = 0; i < m; i++) {
+         for (int j = 0; j < n; j++) {
+            qr[j * m + i] = a.get(i, j);
+         }
+      }
+
+      for (int jb = 0; jb < n; jb += PANEL) {
+         int je = Math.min(jb + PANEL, n);
+         factorPanel(jb, je);
+         if (je < n) {
+            updateTrailing(jb, je);
+         }
+      }
+   }
+
+   /**
+    * Factors the columns of a panel one Householder reflection at a time, applying each reflection to the rest of the
+    * panel.
+    *
+    * @param jb the first column of the panel.
+    * @param je the column after the last column of the panel.
+    */
+   private void factorPanel(int jb, int je) {
+      for (int j = jb; j < je; j++) {
+         int cj = j * m;
+         double alpha = qr[cj + j];
+         double tail = 0.0;
+         for (int r = j + 1; r < m; r++) {
+            tail += qr[cj + r] * qr[cj + r];
+         }
+         if (tail == 0.0) {
+            tau[j] = 0.0;
+            continue;
+         }
+         double beta = -Math.copySign(Math.sqrt(alpha * alpha + tail), alpha);
+         tau[j] = (beta - alpha) / beta;
+         double scale = 1.0 / (alpha - beta);
+         for (int r = j + 1; r < m; r++) {
+            qr[cj + r] *= scale;
+         }
+         qr[cj + j] = beta;
+
+         for (int c = j + 1; c < je; c++) {
+            reflect(j, qr, c * m);
+         }
+      }
+   }
+
+   /**
+    * Applies the Householder reflection of the specified column to a column-major vector of length {@code m}.
+    *
+    * @param j the column of the reflection.
+    * @param x the array holding the vector.
+    * @param offset the index of the first value of the vector.
+    */
+   private void reflect(int j, double[] x, int offset) {
+      double t = tau[j];
+      if (t == 0.0) {
+         return;
+      }
+      int cj = j * m;
+      double w = x[offset + j];
+      for (int r = j + 1; r < m; r++) {
+         w += qr[cj + r] * x[offset + r];
+      }
+      w *= t;
+      x[offset + j] -= w;
+      for (int r = j + 1; r < m; r++) {
+         x[offset + r] -= w * qr[cj + r];
+      }
+   }
+
+   /**
+    * Applies the reflections of a factored panel to every column after it as {@code C = (I - V * T^T * V^T) * C}.
+    *
+    * @param jb the first column of the panel.
+    * @param je the column after the last column of the panel.
+    */
+   private void updateTrailing(int jb, int je) {
+      int nb = je - jb;
+      int nc = n - je;
+      double[] t = triangularFactor(jb, je);
+
+      // W = V^T * C, split into the unit lower triangular top of V and the dense bottom of V.
+      double[] w = new double[nb * nc];
+      Gemm.multiply(nb, nc, m - je, 1.0, qr, jb * m + je, m, 1, qr, je * m + je, 1, m, 0.0, w, 0, nc);
+      for (int i = 0; i < nb; i++) {
+         int vi = (jb + i) * m + jb;
+         for (int c = 0; c < nc; c++) {
+            int cc = (je + c) * m + jb;
+            double sum = qr[cc + i];
+            for (int r = i + 1; r < nb; r++) {
+               sum += qr[vi + r] * qr[cc + r];
+            }
+            w[i * nc + c] += sum;
+         }
+      }
+
+      // W = T^T * W, from the last row up so that the rows still needed are unchanged.
+      for (int i = nb - 1; i >= 0; i--) {
+         for (int c = 0; c < nc; c++) {
+            double sum = 0.0;
+            for (int p = 0; p <= i; p++) {
+               sum += t[p * nb + i] * w[p * nc + c];
+            }
+            w[i * nc + c] = sum;
+         }
+      }
+
+      // C = C - V * W, computed on the bottom as C^T = C^T - W^T * V^T so the result is row-major for the kernel.
+      Gemm.multiply(nc, m - je, nb, -1.0, w, 0, 1, nc, qr, jb * m + je, m, 1, 1.0, qr, je * m + je, m);
+      for (int c = 0; c < nc; c++) {
+         int cc = (je + c) * m + jb;
+         for (int r = 0; r < nb; r++) {
+            double sum = w[r * nc + c];
+            for (int i = 0; i < r; i++) {
+               sum += qr[(jb + i) * m + jb + r] * w[i * nc + c];
+            }
+            qr[cc + r] -= sum;
+         }
+      }
+   }
+
+   /**
+    * Returns the upper triangular factor {@code T} of the compact WY form {@code H(jb) * ... * H(je - 1) = I - V * T *
+    * V^T} of a factored panel.
+    *
+    * @param jb the first column of the panel.
+    * @param je the column after the last column of the panel.
+    * @return the row-major factor.
+    */
+   private double[] triangularFactor(int jb, int je) {
+      int nb = je - jb;
+      double[] t = new double[nb * nb];
+      double[] z = new double[nb];
+      for (int i = 0; i < nb; i++) {
+         int j = jb + i;
+         int vj = j * m;
+         for (int p = 0; p < i; p++) {
+            int vp = (jb + p) * m;
+            double sum = qr[vp + j];
+            for (int r = j + 1; r < m; r++) {
+               sum += qr[vp + r] * qr[vj + r];
+            }
+            z[p] = sum;
+         }
+         for (int p = 0; p < i; p++) {
+            double sum = 0.0;
+            for (int q = p; q < i; q++) {
+               sum += t[p * nb + q] * z[q];
+            }
+            t[p * nb + i] = -tau[j] * sum;
+         }
+         t[i * nb + i] = tau[j];
+      }
+      return t;
+   }
+
+   /**
+    * Returns if the decomposed matrix has full column rank.
+    *
+    * @return if {@code R} has no zero on its diagonal.
+    */
+   public boolean isFullRank() {
+      for (int j = 0; j < n; j++) {
+         if (qr[j * m + j] == 0.0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Returns the upper triangular factor {@code R}.
+    *
+    * @return the {@code n x n} upper factor.
+    */
+   public Matrix getR() {
+      Matrix r = new Matrix(n, n);
+      for (int j = 0; j < n; j++) {
+         for (int i = 0; i <= j; i++) {
+            r.set(i, j, qr[j * m + i]);
+         }
+      }
+      return r;
+   }
+
+   /**
+    * Returns the first {@code n} columns of the orthogonal factor {@code Q}.  This forms {@code Q} explicitly which is
+    * not needed to solve least-squares problems.
+    *
+    * @return the {@code m x n} orthogonal factor.
+    */
+   public Matrix getQ() {
+      double[] q = new double[n * m];
+      for (int c = 0; c < n; c++) {
+         q[c * m + c] = 1.0;
+         for (int j = Math.min(c, n - 1); j >= 0; j--) {
+            reflect(j, q, c * m);
+         }
+      }
+      Matrix result = new Matrix(m, n);
+      for (int i = 0; i < m; i++) {
+         for (int c = 0; c < n; c++) {
+            result.set(i, c, q[c * m + i]);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Returns {@code Q^T * b} without forming {@code Q}.
+    *
+    * @param b the vector of length {@code m} to multiply.
+    * @return the product, as a row vector.
+    */
+   public Vector applyQTranspose(IVector b) {
+      double[] y = values(b);
+      for (int j = 0; j < n; j++) {
+         reflect(j, y, 0);
+      }
+      return new Vector(y);
+   }
+
+   /**
+    * Returns the vector {@code x} that minimizes the 2-norm of {@code A * x - b}.  The solution has the same
+    * orientation as the specified vector.
+    *
+    * @param b the right-hand side of length {@code m}.
+    * @return the least-squares solution of length {@code n}.
+    * @throws SingularMatrixException if the matrix does not have full column rank.
+    */
+   public Vector solveLeastSquares(IVector b) {
+      double[] y = values(b);
+      catchRankDeficient();
+      for (int j = 0; j < n; j++) {
+         reflect(j, y, 0);
+      }
+      backSubstitute(y, 0);
+      double[] x = new double[n];
+      System.arraycopy(y, 0, x, 0, n);
+
+      Vector v = new Vector(x);
+      return (b.columns() == 1 && b.rows() != 1 ? v.transpose() : v);
+   }
+
+   /**
+    * Returns the matrix {@code X} that minimizes the 2-norm of every column of {@code A * X - B}.
+    *
+    * @param b the right-hand sides with {@code m} rows.
+    * @return the {@code n x b.columns()} least-squares solutions.
+    * @throws SingularMatrixException if the matrix does not have full column rank.
+    */
+   public Matrix solveLeastSquares(IMatrix b) {
+      if (b == null) {
+         throw new NullPointerException("Cannot access a null matrix.");
+      } else if (b.rows() != m) {
+         throw new MatrixDimensionException(
+                 "Matrix rows (" + b.rows() + ") must equal the rows of the decomposed matrix (" + m + ")");
+      }
+      catchRankDeficient();
+
+      int k = b.columns();
+      double[] y = new double[k * m];
+      for (int i = 0; i < m; i++) {
+         for (int c = 0; c < k; c++) {
+            y[c * m + i] = b.get(i, c);
+         }
+      }
+      Matrix x = new Matrix(n, k);
+      for (int c = 0; c < k; c++) {
+         for (int j = 0; j < n; j++) {
+            reflect(j, y, c * m);
+         }
+         backSubstitute(y, c * m);
+         for (int i = 0; i < n; i++) {
+            x.set(i, c, y[c * m + i]);
+         }
+      }
+      return x;
+   }
+
+   /**
+    * Solves {@code R * x = y} in place over the first {@code n} values of a column-major vector.
+    *
+    * @param y the array holding the vector.
+    * @param offset the index of the first value of the vector.
+    */
+   private void backSubstitute(double[] y, int offset) {
+      for (int k = n - 1; k >= 0; k--) {
+         int ck = k * m;
+         double xk = y[offset + k] / qr[ck + k];
+         y[offset + k] = xk;
+         for (int i = 0; i < k; i++) {
+            y[offset + i] -= qr[ck + i] * xk;
+         }
+      }
+   }
+
+   /**
+    * Returns a copy of the values of a vector of length {@code m} after checking its length.
+    *
+    * @param b the vector.
+    * @return the values of the vector.
+    */
+   private double[] values(IVector b) {
+      if (b == null) {
+         throw new NullPointerException("Cannot access a null vector.");
+      } else if (b.length() != m) {
+         throw new VectorDimensionException(
+                 "Vector length (" + b.length() + ") must equal the rows of the decomposed matrix (" + m + ")");
+      }
+      double[] y = new double[m];
+      for (int i = 0; i < m; i++) {
+         y[i] = b.get(i);
+      }
+      return y;
+   }
+
+   /**
+    * Catches a rank deficient decomposition and throws the proper exception.
+    */
+   private void catchRankDeficient() {
+      if (!isFullRank()) {
+         throw new SingularMatrixException("Matrix is rank deficient.");
+      }
+   }
+}
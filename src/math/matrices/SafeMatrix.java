@@ -100,6 +100,36 @@ public class SafeMatrix extends Matrix {
       return super.getColumn(column);
    }
 
+   /**
+    * Copies all the elements in the corresponding row into the specified array.
+    * 
+    * @param row
+    *           the row of all the elements.
+    * @param dst
+    *           the array to copy the elements into.
+    * @return the specified array.
+    */
+   @Override
+   public double[] getRow(int row, double[] dst) {
+      catchOutOfBounds(row, 0);
+      return super.getRow(row, dst);
+   }
+
+   /**
+    * Copies all the elements in the corresponding column into the specified array.
+    * 
+    * @param column
+    *           the column of all the elements.
+    * @param dst
+    *           the array to copy the elements into.
+    * @return the specified array.
+    */
+   @Override
+   public double[] getColumn(int column, double[] dst) {
+      catchOutOfBounds(0, column);
+      return super.getColumn(column, dst);
+   }
+
    // ******************************** //
    // ***** MUNIPULATION METHODS ***** //
    // ******************************** //
@@ -254,6 +284,43 @@ public class SafeMatrix extends Matrix {
       return this;
    }
 
+   /**
+    * Adds the scaled outer-product of two vectors to the original matrix,
+    * {@code A = A + alpha * x * y'}.
+    * 
+    * @param alpha
+    *           the scaling factor of the outer-product.
+    * @param x
+    *           the vector along the rows.
+    * @param y
+    *           the vector along the columns.
+    * @return the original matrix modified with the addition of the
+    *         outer-product.
+    */
+   @Override
+   public SafeMatrix rankOneUpdate(double alpha, IVector x, IVector y) {
+      DimensionChecking.catchRankOneUpdate(this, x, y);
+      super.rankOneUpdate(alpha, x, y);
+      return this;
+   }
+
+   /**
+    * Adds the scaled product of the specified matrix and its transpose to the
+    * original symmetric matrix, {@code A = A + alpha * X * X'}.
+    * 
+    * @param alpha
+    *           the scaling factor of the product.
+    * @param x
+    *           the matrix whose rows are the update vectors.
+    * @return the original matrix modified with the addition of the product.
+    */
+   @Override
+   public SafeMatrix symmetricRankUpdate(double alpha, IMatrix x) {
+      DimensionChecking.catchRankUpdate(this, x);
+      super.symmetricRankUpdate(alpha, x);
+      return this;
+   }
+
    /**
     * Dot-wise multiplies the specified matrix to the original matrix. This
     * operation is value based and will multiply corresponding row-column
@@ -115,6 +115,36 @@ public class SafeVector extends Vector {
       return super.getColumn(column);
    }
 
+   /**
+    * Copies all the elements in the corresponding row into the specified array.
+    * 
+    * @param row
+    *           the row of all the elements.
+    * @param dst
+    *           the array to copy the elements into.
+    * @return the specified array.
+    */
+   @Override
+   public double[] getRow(int row, double[] dst) {
+      catchOutOfBounds(row, 0);
+      return super.getRow(row, dst);
+   }
+
+   /**
+    * Copies all the elements in the corresponding column into the specified array.
+    * 
+    * @param column
+    *           the column of all the elements.
+    * @param dst
+    *           the array to copy the elements into.
+    * @return the specified array.
+    */
+   @Override
+   public double[] getColumn(int column, double[] dst) {
+      catchOutOfBounds(0, column);
+      return super.getColumn(column, dst);
+   }
+
    /**
     * Returns the value of the vector at the specified index. This index is
     * along the length of the vector.
@@ -302,7 +332,7 @@ public class SafeVector extends Vector {
     *         specified matrix.
     */
    @Override
-   public Matrix multiply(IMatrix a) {
+   public SafeVector multiply(IMatrix a) {
       if (a == null)
          throw new NullPointerException("Cannot access a null matrix.");
       if (columns() != a.rows())
@@ -439,6 +469,24 @@ public class SafeVector extends Vector {
       return super.inner(v);
    }
 
+   /**
+    * Returns the Euclidean distance between the vector and the specified
+    * vector.
+    * 
+    * @param v
+    *           the other vector.
+    * @return the distance between the vectors.
+    */
+   @Override
+   public double distance(IVector v) {
+      if (v == null)
+         throw new NullPointerException("Cannot access a null matrix.");
+      if (length() != v.length())
+         throw new MatrixDimensionException("Matrix dimension exception: vector lengths do not agree: " + length()
+               + " and " + v.length() + ".");
+      return super.distance(v);
+   }
+
    // *************************** //
    // ***** UTILITY METHODS ***** //
    // *************************** //
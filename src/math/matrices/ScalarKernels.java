@@ -0,0 +1,204 @@
+package math.matrices;
+
+/**
+ * The element-wise kernels of {@link Simd} as plain loops, used when vectorized kernels are not available.  The
+ * reductions keep four independent sums or maximums so that consecutive additions do not wait on each other, and
+ * combine them only at the end.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+final class ScalarKernels implements Simd.Kernels {
+
+   @Override
+   public void scale(double[] a, int offset, int length, double n) {
+      for (int i = offset, end = offset + length; i < end; i++) {
+         a[i] *= n;
+      }
+   }
+
+   @Override
+   public void add(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] += b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void subtract(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] -= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void multiply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] *= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void divide(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] /= b[bOffset + i];
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < length; i += 4) {
+         s0 += a[aOffset + i] * b[bOffset + i];
+         s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+         s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+         s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+      }
+      for (; i < length; i++) {
+         s0 += a[aOffset + i] * b[bOffset + i];
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+
+   @Override
+   public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         y[yOffset + i] += alpha * x[xOffset + i];
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double sumAbs(double[] a, int offset, int length) {
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < length; i += 4) {
+         s0 += Math.abs(a[offset + i]);
+         s1 += Math.abs(a[offset + i + 1]);
+         s2 += Math.abs(a[offset + i + 2]);
+         s3 += Math.abs(a[offset + i + 3]);
+      }
+      for (; i < length; i++) {
+         s0 += Math.abs(a[offset + i]);
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double maxAbs(double[] a, int offset, int length) {
+      double m0 = 0.0;
+      double m1 = 0.0;
+      double m2 = 0.0;
+      double m3 = 0.0;
+      int i = 0;
+      for (; i + 3 < length; i += 4) {
+         m0 = Math.max(m0, Math.abs(a[offset + i]));
+         m1 = Math.max(m1, Math.abs(a[offset + i + 1]));
+         m2 = Math.max(m2, Math.abs(a[offset + i + 2]));
+         m3 = Math.max(m3, Math.abs(a[offset + i + 3]));
+      }
+      for (; i < length; i++) {
+         m0 = Math.max(m0, Math.abs(a[offset + i]));
+      }
+      return Math.max(Math.max(m0, m1), Math.max(m2, m3));
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < length; i += 4) {
+         double d0 = a[aOffset + i] - b[bOffset + i];
+         double d1 = a[aOffset + i + 1] - b[bOffset + i + 1];
+         double d2 = a[aOffset + i + 2] - b[bOffset + i + 2];
+         double d3 = a[aOffset + i + 3] - b[bOffset + i + 3];
+         s0 += d0 * d0;
+         s1 += d1 * d1;
+         s2 += d2 * d2;
+         s3 += d3 * d3;
+      }
+      for (; i < length; i++) {
+         double d = a[aOffset + i] - b[bOffset + i];
+         s0 += d * d;
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+
+   @Override
+   public void scale(float[] a, int offset, int length, float n) {
+      for (int i = offset, end = offset + length; i < end; i++) {
+         a[i] *= n;
+      }
+   }
+
+   @Override
+   public void add(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] += b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void subtract(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] -= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void multiply(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] *= b[bOffset + i];
+      }
+   }
+
+   @Override
+   public void divide(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      for (int i = 0; i < length; i++) {
+         a[aOffset + i] /= b[bOffset + i];
+      }
+   }
+
+   /**
+    * {@inheritDoc}  The products of two floats are exact in double precision, so only the sums round.
+    */
+   @Override
+   public double dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      double s0 = 0.0;
+      double s1 = 0.0;
+      double s2 = 0.0;
+      double s3 = 0.0;
+      int i = 0;
+      for (; i + 3 < length; i += 4) {
+         s0 += (double) a[aOffset + i] * b[bOffset + i];
+         s1 += (double) a[aOffset + i + 1] * b[bOffset + i + 1];
+         s2 += (double) a[aOffset + i + 2] * b[bOffset + i + 2];
+         s3 += (double) a[aOffset + i + 3] * b[bOffset + i + 3];
+      }
+      for (; i < length; i++) {
+         s0 += (double) a[aOffset + i] * b[bOffset + i];
+      }
+      return (s0 + s1) + (s2 + s3);
+   }
+}
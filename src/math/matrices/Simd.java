@@ -0,0 +1,358 @@
+package math.matrices;
+
+/**
+ * A static library of element-wise kernels over ranges of arrays.  When the vectorized kernels, built from the
+ * separate {@code src-vector} source root, are on the class path and the {@code jdk.incubator.vector} module is
+ * available ({@code --add-modules jdk.incubator.vector}) the kernels use {@code DoubleVector} with the preferred
+ * species of the processor, processing several values per instruction; otherwise, or if the system property {@code
+ * math.matrices.simd} is {@code false}, plain scalar loops are used.  The choice is made once when the class is
+ * loaded.
+ * <p/>
+ * The element-wise kernels give the same results either way.  {@link #dot(double[], int, double[], int, int)} sums in
+ * a different order in each, so the two may differ in the last bits, and so may the other reductions, {@link
+ * #sumAbs(double[], int, int)}, {@link #maxAbs(double[], int, int)} and {@link #squaredDistance(double[], int,
+ * double[], int, int)}.
+ * <p/>
+ * The element-wise kernels and the dot product also have a {@code float} form, with twice as many values per
+ * instruction.  The {@code float} dot product returns a {@code double}: the scalar kernel accumulates in double
+ * precision and the vectorized kernel accumulates short blocks in single precision and their sums in double precision.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Simd {
+
+   /**
+    * The kernels over ranges of arrays.
+    */
+   interface Kernels {
+
+      /**
+       * @see Simd#scale(double[], int, int, double)
+       */
+      void scale(double[] a, int offset, int length, double n);
+
+      /**
+       * @see Simd#add(double[], int, double[], int, int)
+       */
+      void add(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#subtract(double[], int, double[], int, int)
+       */
+      void subtract(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#multiply(double[], int, double[], int, int)
+       */
+      void multiply(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#divide(double[], int, double[], int, int)
+       */
+      void divide(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#dot(double[], int, double[], int, int)
+       */
+      double dot(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#axpy(double, double[], int, double[], int, int)
+       */
+      void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+      /**
+       * @see Simd#sumAbs(double[], int, int)
+       */
+      double sumAbs(double[] a, int offset, int length);
+
+      /**
+       * @see Simd#maxAbs(double[], int, int)
+       */
+      double maxAbs(double[] a, int offset, int length);
+
+      /**
+       * @see Simd#squaredDistance(double[], int, double[], int, int)
+       */
+      double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#scale(float[], int, int, float)
+       */
+      void scale(float[] a, int offset, int length, float n);
+
+      /**
+       * @see Simd#add(float[], int, float[], int, int)
+       */
+      void add(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#subtract(float[], int, float[], int, int)
+       */
+      void subtract(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#multiply(float[], int, float[], int, int)
+       */
+      void multiply(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#divide(float[], int, float[], int, int)
+       */
+      void divide(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+      /**
+       * @see Simd#dot(float[], int, float[], int, int)
+       */
+      double dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+   }
+
+   /**
+    * The name of the class of the vectorized kernels, which is loaded reflectively since it is built separately.
+    */
+   private static final String VECTOR_KERNELS = "math.matrices.VectorKernels";
+
+   /**
+    * The kernels in use.
+    */
+   private static final Kernels KERNELS = select();
+
+   /**
+    * Hidden constructor of the static library.
+    */
+   private Simd() {
+   }
+
+   /**
+    * Returns the vectorized kernels if they can be used, otherwise the scalar kernels.
+    */
+   private static Kernels select() {
+      if (Boolean.parseBoolean(System.getProperty("math.matrices.simd", "true"))) {
+         try {
+            return (Kernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+         } catch (ReflectiveOperationException | LinkageError e) {
+            // The vectorized kernels were not built or the incubator module is not in the boot layer.
+         }
+      }
+      return new ScalarKernels();
+   }
+
+   /**
+    * Returns if the kernels in use are vectorized.
+    *
+    * @return if the vectorized kernels are in use.
+    */
+   public static boolean isVectorized() {
+      return !(KERNELS instanceof ScalarKernels);
+   }
+
+   /**
+    * Computes {@code a[i] *= n} over a range.
+    *
+    * @param a the array.
+    * @param offset the index of the first value.
+    * @param length the number of values.
+    * @param n the scaling factor.
+    */
+   public static void scale(double[] a, int offset, int length, double n) {
+      KERNELS.scale(a, offset, length, n);
+   }
+
+   /**
+    * Computes {@code a[i] += b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to add.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void add(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      KERNELS.add(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code a[i] -= b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to subtract.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void subtract(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      KERNELS.subtract(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code a[i] *= b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to multiply by.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void multiply(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      KERNELS.multiply(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code a[i] /= b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to divide by.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void divide(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      KERNELS.divide(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code y[i] += alpha * x[i]} over a range.
+    *
+    * @param alpha the scaling factor of {@code x}.
+    * @param x the array to add.
+    * @param xOffset the index of the first value of {@code x}.
+    * @param y the array to modify.
+    * @param yOffset the index of the first value of {@code y}.
+    * @param length the number of values.
+    */
+   public static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+      KERNELS.axpy(alpha, x, xOffset, y, yOffset, length);
+   }
+
+   /**
+    * Returns the sum of {@code a[i] * b[i]} over a range.
+    *
+    * @param a the first array.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the second array.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    * @return the dot product of the ranges.
+    */
+   public static double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      return KERNELS.dot(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Returns the sum of {@code |a[i]|} over a range.
+    *
+    * @param a the array.
+    * @param offset the index of the first value.
+    * @param length the number of values.
+    * @return the sum of the absolute values of the range.
+    */
+   public static double sumAbs(double[] a, int offset, int length) {
+      return KERNELS.sumAbs(a, offset, length);
+   }
+
+   /**
+    * Returns the largest {@code |a[i]|} over a range, zero for an empty range, or {@code NaN} if any value is {@code
+    * NaN}.
+    *
+    * @param a the array.
+    * @param offset the index of the first value.
+    * @param length the number of values.
+    * @return the largest absolute value of the range.
+    */
+   public static double maxAbs(double[] a, int offset, int length) {
+      return KERNELS.maxAbs(a, offset, length);
+   }
+
+   /**
+    * Returns the sum of {@code (a[i] - b[i])^2} over a range.
+    *
+    * @param a the first array.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the second array.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    * @return the squared Euclidean distance between the ranges.
+    */
+   public static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+      return KERNELS.squaredDistance(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code a[i] *= n} over a range.
+    *
+    * @param a the array.
+    * @param offset the index of the first value.
+    * @param length the number of values.
+    * @param n the scaling factor.
+    */
+   public static void scale(float[] a, int offset, int length, float n) {
+      KERNELS.scale(a, offset, length, n);
+   }
+
+   /**
+    * Computes {@code a[i] += b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to add.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void add(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      KERNELS.add(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code a[i] -= b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to subtract.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void subtract(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      KERNELS.subtract(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code a[i] *= b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to multiply by.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void multiply(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      KERNELS.multiply(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Computes {@code a[i] /= b[i]} over a range.
+    *
+    * @param a the array to modify.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the array to divide by.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    */
+   public static void divide(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      KERNELS.divide(a, aOffset, b, bOffset, length);
+   }
+
+   /**
+    * Returns the sum of {@code a[i] * b[i]} over a range, accumulated in double precision.
+    *
+    * @param a the first array.
+    * @param aOffset the index of the first value of {@code a}.
+    * @param b the second array.
+    * @param bOffset the index of the first value of {@code b}.
+    * @param length the number of values.
+    * @return the dot product of the ranges.
+    */
+   public static double dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+      return KERNELS.dot(a, aOffset, b, bOffset, length);
+   }
+}
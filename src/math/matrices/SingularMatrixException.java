@@ -0,0 +1,35 @@
+package math.matrices;
+
+/**
+ * An unchecked exception for when a matrix is singular.  This error could occur when trying to invert a matrix or solve
+ * a system of linear equations that does not have a unique solution.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class SingularMatrixException extends RuntimeException {
+
+   /**
+    * Determines if a deserialized file is compatible with {@code this class}.
+    * <p/>
+    * Maintainers must change this value if and only if the new version of {@code this class} is not compatible with
+    * old versions.
+    */
+   private static final long serialVersionUID = 3852145690311578820L;
+
+   /**
+    * Creates a {@code SingularMatrixException} with no detail message.
+    */
+   public SingularMatrixException() {
+      super();
+   }
+
+   /**
+    * Creates a {@code SingularMatrixException} with the specified detail message.
+    *
+    * @param msg the detail message.
+    */
+   public SingularMatrixException(String msg) {
+      super(msg);
+   }
+}
@@ -0,0 +1,756 @@
+package math.matrices;
+
+import java.util.Arrays;
+
+/**
+ * The object representation of a sparse mathematical matrix stored in compressed sparse row (CSR) format.  Only the
+ * non-zero values are stored, row after row, along with their columns; the memory used and the time taken by most
+ * operations are proportional to the number of non-zero values rather than to the number of rows times the number of
+ * columns.  This is <em>not</em> a safe matrix. It does not perform any dimension checks before performing any
+ * actions.
+ * <p/>
+ * The columns of every row are kept in ascending order.  Reading a value is a binary search of its row.  Setting a
+ * value that is not yet stored shifts every later value and should be avoided when building a matrix; use a {@link
+ * Builder} instead.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class SparseMatrix implements IMatrix, LinearOperator {
+
+   /**
+    * The number of rows that are in this matrix.
+    */
+   private int rows;
+
+   /**
+    * The number of columns that are in this matrix.
+    */
+   private int columns;
+
+   /**
+    * The index of the first stored value of each row.  The stored values of row {@code r} are at the indices from
+    * {@code rowPointers[r]} inclusive to {@code rowPointers[r + 1]} exclusive.
+    */
+   private int[] rowPointers;
+
+   /**
+    * The column of each stored value.
+    */
+   private int[] columnIndices;
+
+   /**
+    * The stored values.  Only the first {@code rowPointers[rows]} values are used.
+    */
+   private double[] values;
+
+   /**
+    * Creates a new sparse matrix of the specified size and with all values equaling zero.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    */
+   public SparseMatrix(int rows, int columns) {
+      this(rows, columns, new int[rows + 1], new int[0], new double[0]);
+   }
+
+   /**
+    * Creates a new sparse matrix with the non-zero values of the specified array.
+    *
+    * @param a the values of the matrix.
+    */
+   public SparseMatrix(double[][] a) {
+      setStorage(new DenseMatrix(a));
+   }
+
+   /**
+    * Creates a new sparse matrix that is a copy of the specified matrix.  Only the non-zero values are stored.
+    *
+    * @param a the matrix to copy.
+    */
+   public SparseMatrix(IMatrix a) {
+      if (a instanceof SparseMatrix) {
+         SparseMatrix s = (SparseMatrix) a;
+         int nnz = s.nonZeros();
+         setStorage(s.rows, s.columns, s.rowPointers.clone(), Arrays.copyOf(s.columnIndices, nnz),
+                    Arrays.copyOf(s.values, nnz));
+      } else {
+         setStorage(a);
+      }
+   }
+
+   /**
+    * Creates a new sparse matrix over the specified compressed sparse row arrays.  Nothing is copied.
+    *
+    * @param rows the number of rows in this matrix.
+    * @param columns the number of columns in this matrix.
+    * @param rowPointers the index of the first stored value of each row, followed by the number of stored values.
+    * @param columnIndices the column of each stored value, ascending within each row.
+    * @param values the stored values.
+    */
+   SparseMatrix(int rows, int columns, int[] rowPointers, int[] columnIndices, double[] values) {
+      setStorage(rows, columns, rowPointers, columnIndices, values);
+   }
+
+   /**
+    * Replaces the storage of the matrix with the specified compressed sparse row arrays.  Nothing is copied.
+    */
+   private void setStorage(int rows, int columns, int[] rowPointers, int[] columnIndices, double[] values) {
+      this.rows = rows;
+      this.columns = columns;
+      this.rowPointers = rowPointers;
+      this.columnIndices = columnIndices;
+      this.values = values;
+   }
+
+   /**
+    * Replaces the storage of the matrix with the non-zero values of the specified matrix.
+    */
+   private void setStorage(IMatrix a) {
+      int r = a.rows();
+      int c = a.columns();
+      int[] pointers = new int[r + 1];
+      int nnz = 0;
+      for (int i = 0; i < r; i++) {
+         for (int j = 0; j < c; j++) {
+            if (a.get(i, j) != 0.0) {
+               nnz++;
+            }
+         }
+         pointers[i + 1] = nnz;
+      }
+      int[] indices = new int[nnz];
+      double[] v = new double[nnz];
+      for (int i = 0, k = 0; i < r; i++) {
+         for (int j = 0; j < c; j++) {
+            double x = a.get(i, j);
+            if (x != 0.0) {
+               indices[k] = j;
+               v[k++] = x;
+            }
+         }
+      }
+      setStorage(r, c, pointers, indices, v);
+   }
+
+   /**
+    * Returns the number of stored values.  Stored values are usually non-zero but may be zero if they were set to zero
+    * or cancelled out.
+    *
+    * @return the number of stored values.
+    */
+   public int nonZeros() {
+      return rowPointers[rows];
+   }
+
+   /**
+    * Returns the index of the first stored value of each row, followed by the number of stored values.  Modifying the
+    * array will modify the matrix.
+    *
+    * @return the row pointers.
+    */
+   public int[] rowPointers() {
+      return rowPointers;
+   }
+
+   /**
+    * Returns the column of each stored value.  Modifying the array will modify the matrix.
+    *
+    * @return the column indices.
+    */
+   public int[] columnIndices() {
+      return columnIndices;
+   }
+
+   /**
+    * Returns the stored values.  Modifying the array will modify the matrix.
+    *
+    * @return the stored values.
+    */
+   public double[] values() {
+      return values;
+   }
+
+   @Override
+   public int rows() {
+      return rows;
+   }
+
+   @Override
+   public int columns() {
+      return columns;
+   }
+
+   /**
+    * Returns the index of the specified value in the stored values, or a negative insertion point as {@link
+    * Arrays#binarySearch(int[], int, int, int)} if the value is not stored.
+    */
+   private int find(int r, int c) {
+      return Arrays.binarySearch(columnIndices, rowPointers[r], rowPointers[r + 1], c);
+   }
+
+   @Override
+   public double get(int r, int c) {
+      int k = find(r, c);
+      return (k >= 0 ? values[k] : 0.0);
+   }
+
+   @Override
+   public double[] getRow(int r) {
+      double[] v = new double[columns];
+      for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+         v[columnIndices[k]] = values[k];
+      }
+      return v;
+   }
+
+   @Override
+   public double[] getRow(int r, double[] dst) {
+      DimensionChecking.catchLength(dst, columns);
+      Arrays.fill(dst, 0, columns, 0.0);
+      for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+         dst[columnIndices[k]] = values[k];
+      }
+      return dst;
+   }
+
+   /**
+    * Sets the matrix to have the non-zero values of the specified array.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the new values for the matrix.
+    * @return the matrix with the values of the array.
+    */
+   @Override
+   public SparseMatrix set(double[][] a) {
+      setStorage(new DenseMatrix(a));
+      return this;
+   }
+
+   /**
+    * Sets the value at the corresponding row and column with the specified new value.  Setting a value which is not
+    * stored shifts every stored value after it.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param r the row of the new value.
+    * @param c the column of the new value.
+    * @param n the new value.
+    * @return the original matrix modified with the new value.
+    */
+   @Override
+   public SparseMatrix set(int r, int c, double n) {
+      int k = find(r, c);
+      if (k >= 0) {
+         values[k] = n;
+      } else if (n != 0.0) {
+         k = -(k + 1);
+         int nnz = nonZeros();
+         if (nnz == values.length) {
+            int capacity = Math.max(8, nnz + (nnz >> 1));
+            columnIndices = Arrays.copyOf(columnIndices, capacity);
+            values = Arrays.copyOf(values, capacity);
+         }
+         System.arraycopy(columnIndices, k, columnIndices, k + 1, nnz - k);
+         System.arraycopy(values, k, values, k + 1, nnz - k);
+         columnIndices[k] = c;
+         values[k] = n;
+         for (int i = r + 1; i <= rows; i++) {
+            rowPointers[i]++;
+         }
+      }
+      return this;
+   }
+
+   /**
+    * Returns the transpose of the matrix in time proportional to the number of stored values.  This operation does
+    * not create a new matrix but modifies the original matrix.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @return the transpose of the matrix.
+    */
+   @Override
+   public SparseMatrix transpose() {
+      int nnz = nonZeros();
+      int[] pointers = new int[columns + 1];
+      for (int k = 0; k < nnz; k++) {
+         pointers[columnIndices[k] + 1]++;
+      }
+      for (int j = 0; j < columns; j++) {
+         pointers[j + 1] += pointers[j];
+      }
+      int[] next = Arrays.copyOf(pointers, columns);
+      int[] indices = new int[nnz];
+      double[] v = new double[nnz];
+      for (int i = 0; i < rows; i++) {
+         for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+            int dst = next[columnIndices[k]]++;
+            indices[dst] = i;
+            v[dst] = values[k];
+         }
+      }
+      setStorage(columns, rows, pointers, indices, v);
+      return this;
+   }
+
+   @Override
+   public SparseMatrix inverse() {
+      return (SparseMatrix) IMatrix.super.inverse();
+   }
+
+   @Override
+   public SparseMatrix scale(double n) {
+      int nnz = nonZeros();
+      for (int k = 0; k < nnz; k++) {
+         values[k] *= n;
+      }
+      return this;
+   }
+
+   /**
+    * Adds the specified matrix to the original matrix by merging the stored values of each row.  When the specified
+    * matrix is sparse the time taken is proportional to the number of stored values of both matrices.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to add.
+    * @return the original matrix modified with the addition of the specified matrix.
+    */
+   @Override
+   public SparseMatrix add(IMatrix a) {
+      return merge(a, 1.0);
+   }
+
+   /**
+    * Subtracts the specified matrix from the original matrix by merging the stored values of each row.  When the
+    * specified matrix is sparse the time taken is proportional to the number of stored values of both matrices.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to subtract.
+    * @return the original matrix modified with the subtraction of the specified matrix.
+    */
+   @Override
+   public SparseMatrix subtract(IMatrix a) {
+      return merge(a, -1.0);
+   }
+
+   /**
+    * Replaces the matrix with the sum of the matrix and the specified matrix scaled by the specified factor.
+    *
+    * @param a the matrix to merge.
+    * @param sign the scaling factor of the merged matrix.
+    * @return the original matrix modified with the merge.
+    */
+   private SparseMatrix merge(IMatrix a, double sign) {
+      SparseMatrix b = (a instanceof SparseMatrix ? (SparseMatrix) a : new SparseMatrix(a));
+      int capacity = nonZeros() + b.nonZeros();
+      int[] pointers = new int[rows + 1];
+      int[] indices = new int[capacity];
+      double[] v = new double[capacity];
+      int k = 0;
+      for (int i = 0; i < rows; i++) {
+         int p = rowPointers[i];
+         int pe = rowPointers[i + 1];
+         int q = b.rowPointers[i];
+         int qe = b.rowPointers[i + 1];
+         while (p < pe || q < qe) {
+            int cp = (p < pe ? columnIndices[p] : Integer.MAX_VALUE);
+            int cq = (q < qe ? b.columnIndices[q] : Integer.MAX_VALUE);
+            if (cp < cq) {
+               indices[k] = cp;
+               v[k++] = values[p++];
+            } else if (cq < cp) {
+               indices[k] = cq;
+               v[k++] = sign * b.values[q++];
+            } else {
+               indices[k] = cp;
+               v[k++] = values[p++] + sign * b.values[q++];
+            }
+         }
+         pointers[i + 1] = k;
+      }
+      setStorage(rows, columns, pointers, indices, v);
+      return this;
+   }
+
+   /**
+    * Matrix-multiplies the specified matrix against the original matrix.  This method modifies the original matrix by
+    * setting it equal to the resulting matrix.  A sparse matrix is multiplied row by row with a sparse accumulator;
+    * any other matrix is multiplied as by {@link #multiplyDense(IMatrix)} and only the non-zero values of the product
+    * are kept.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the matrix to matrix-multiply.
+    * @return the original matrix modified with the matrix-multiplication by the specified matrix.
+    */
+   @Override
+   public SparseMatrix multiply(IMatrix a) {
+      if (!(a instanceof SparseMatrix)) {
+         setStorage(multiplyDense(a));
+         return this;
+      }
+      SparseMatrix b = (SparseMatrix) a;
+      int n = b.columns;
+      double[] accumulator = new double[n];
+      int[] marker = new int[n];
+      Arrays.fill(marker, -1);
+      int[] pattern = new int[n];
+      int[] pointers = new int[rows + 1];
+      int[] indices = new int[Math.max(8, nonZeros())];
+      double[] v = new double[indices.length];
+      int k = 0;
+      for (int i = 0; i < rows; i++) {
+         int count = 0;
+         for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+            int row = columnIndices[p];
+            double x = values[p];
+            for (int q = b.rowPointers[row]; q < b.rowPointers[row + 1]; q++) {
+               int j = b.columnIndices[q];
+               if (marker[j] != i) {
+                  marker[j] = i;
+                  pattern[count++] = j;
+                  accumulator[j] = x * b.values[q];
+               } else {
+                  accumulator[j] += x * b.values[q];
+               }
+            }
+         }
+         Arrays.sort(pattern, 0, count);
+         if (k + count > indices.length) {
+            int capacity = Math.max(k + count, indices.length + (indices.length >> 1));
+            indices = Arrays.copyOf(indices, capacity);
+            v = Arrays.copyOf(v, capacity);
+         }
+         for (int c = 0; c < count; c++) {
+            indices[k] = pattern[c];
+            v[k++] = accumulator[pattern[c]];
+         }
+         pointers[i + 1] = k;
+      }
+      setStorage(rows, n, pointers, indices, v);
+      return this;
+   }
+
+   /**
+    * Returns the product of the matrix and the specified matrix as a new dense matrix.  Every stored value of a row
+    * adds a scaled row of the specified matrix to the row of the product.  Large products run in {@link Parallel}.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to multiply by.
+    * @return the dense product.
+    */
+   public Matrix multiplyDense(IMatrix a) {
+      DenseMatrix b = (a instanceof DenseMatrix && ((DenseMatrix) a).isRowMajor() ? (DenseMatrix) a
+            : new DenseMatrix(a));
+      int n = b.columns();
+      double[] bd = b.data();
+      int bo = b.offset();
+      int bs = b.stride();
+      double[] c = new double[rows * n];
+      Parallel.forRows(rows, (long) nonZeros() * n, (from, to) -> {
+         for (int i = from; i < to; i++) {
+            int ci = i * n;
+            for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+               double x = values[p];
+               int bp = bo + columnIndices[p] * bs;
+               for (int j = 0; j < n; j++) {
+                  c[ci + j] += x * bd[bp + j];
+               }
+            }
+         }
+      });
+      return new Matrix(rows, n, c);
+   }
+
+   /**
+    * Returns the product of the matrix and the specified vector, treated as a column vector, in time proportional to
+    * the number of stored values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param x the vector to multiply by.
+    * @return the product, as a row vector.
+    */
+   public Vector multiplyVector(IVector x) {
+      Vector y = new Vector(new double[rows]);
+      apply(x, y);
+      return y;
+   }
+
+   /**
+    * Applies the matrix to a vector, {@code y = A * x}, in time proportional to the number of stored values and
+    * without modifying the matrix.  Dense vectors are read and written directly through their backing arrays and the
+    * rows of large matrices run in {@link Parallel}.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param x the vector to apply the matrix to.
+    * @param y the vector to write the result into.
+    * @return the result vector.
+    */
+   @Override
+   public IVector apply(IVector x, IVector y) {
+      double[] xd;
+      int xo;
+      int xs;
+      if (x instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) x;
+         xd = d.data();
+         xo = d.offset();
+         xs = d.vectorStep();
+      } else {
+         xd = new double[columns];
+         for (int j = 0; j < columns; j++) {
+            xd[j] = x.get(j);
+         }
+         xo = 0;
+         xs = 1;
+      }
+      double[] yd;
+      int yo;
+      int ys;
+      if (y instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) y;
+         yd = d.data();
+         yo = d.offset();
+         ys = d.vectorStep();
+      } else {
+         yd = new double[rows];
+         yo = 0;
+         ys = 1;
+      }
+      Parallel.forRows(rows, nonZeros(), (from, to) -> {
+         for (int i = from; i < to; i++) {
+            double sum = 0.0;
+            for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+               sum += values[p] * xd[xo + columnIndices[p] * xs];
+            }
+            yd[yo + i * ys] = sum;
+         }
+      });
+      if (!(y instanceof DenseMatrix)) {
+         for (int i = 0; i < rows; i++) {
+            y.set(i, yd[i]);
+         }
+      }
+      return y;
+   }
+
+   /**
+    * Dot-wise multiplies the specified matrix to the original matrix.  Only the stored values are multiplied since
+    * every other product is zero.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param a the matrix to dot-multiply.
+    * @return the original matrix modified with the dot-multiplication of the specified matrix.
+    */
+   @Override
+   public SparseMatrix dotMultiply(IMatrix a) {
+      for (int i = 0; i < rows; i++) {
+         for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+            values[p] *= a.get(i, columnIndices[p]);
+         }
+      }
+      return this;
+   }
+
+   @Override
+   public SparseMatrix dotDivide(IMatrix a) {
+      return (SparseMatrix) IMatrix.super.dotDivide(a);
+   }
+
+   @Override
+   public SparseMatrix setRow(int r, double[] v) {
+      return (SparseMatrix) IMatrix.super.setRow(r, v);
+   }
+
+   @Override
+   public SparseMatrix setColumn(int c, double[] v) {
+      return (SparseMatrix) IMatrix.super.setColumn(c, v);
+   }
+
+   @Override
+   public SparseMatrix set(int r, int c, double[][] a) {
+      return (SparseMatrix) IMatrix.super.set(r, c, a);
+   }
+
+   /**
+    * Returns a dense copy of the matrix.
+    *
+    * @return the dense matrix with the same values.
+    */
+   public Matrix toDense() {
+      Matrix m = new Matrix(rows, columns);
+      for (int i = 0; i < rows; i++) {
+         for (int p = rowPointers[i]; p < rowPointers[i + 1]; p++) {
+            m.set(i, columnIndices[p], values[p]);
+         }
+      }
+      return m;
+   }
+
+   @Override
+   public SparseMatrix copy() {
+      return new SparseMatrix(this);
+   }
+
+   /**
+    * Assembles a sparse matrix from (row, column, value) triplets given in any order.  Triplets for the same row and
+    * column are summed, as is usual when assembling finite-element and graph matrices.
+    */
+   public static class Builder {
+
+      /**
+       * The number of rows of the matrix to build.
+       */
+      private final int rows;
+
+      /**
+       * The number of columns of the matrix to build.
+       */
+      private final int columns;
+
+      /**
+       * The row of each triplet.
+       */
+      private int[] tripletRows = new int[16];
+
+      /**
+       * The column of each triplet.
+       */
+      private int[] tripletColumns = new int[16];
+
+      /**
+       * The value of each triplet.
+       */
+      private double[] tripletValues = new double[16];
+
+      /**
+       * The number of triplets added.
+       */
+      private int size;
+
+      /**
+       * Creates a new builder of a sparse matrix of the specified size.
+       *
+       * @param rows the number of rows of the matrix.
+       * @param columns the number of columns of the matrix.
+       */
+      public Builder(int rows, int columns) {
+         this.rows = rows;
+         this.columns = columns;
+      }
+
+      /**
+       * Adds the specified value at the corresponding row and column.  Values added at the same row and column are
+       * summed.
+       *
+       * @param r the row of the value.
+       * @param c the column of the value.
+       * @param value the value to add.
+       * @return this builder.
+       */
+      public Builder add(int r, int c, double value) {
+         if (r < 0 || r >= rows || c < 0 || c >= columns) {
+            throw new MatrixDimensionException(
+                    "Row (" + r + ") and column (" + c + ") must be in the range of the matrix's dimensions (" + rows
+                            + "x" + columns + ")");
+         }
+         if (size == tripletValues.length) {
+            int capacity = size + (size >> 1);
+            tripletRows = Arrays.copyOf(tripletRows, capacity);
+            tripletColumns = Arrays.copyOf(tripletColumns, capacity);
+            tripletValues = Arrays.copyOf(tripletValues, capacity);
+         }
+         tripletRows[size] = r;
+         tripletColumns[size] = c;
+         tripletValues[size] = value;
+         size++;
+         return this;
+      }
+
+      /**
+       * Builds the sparse matrix from the added triplets.  The triplets are bucketed by row, sorted by column within
+       * each row and duplicates are summed.  The builder can continue to be used afterwards.
+       *
+       * @return the assembled sparse matrix.
+       */
+      public SparseMatrix build() {
+         int[] pointers = new int[rows + 1];
+         for (int t = 0; t < size; t++) {
+            pointers[tripletRows[t] + 1]++;
+         }
+         for (int i = 0; i < rows; i++) {
+            pointers[i + 1] += pointers[i];
+         }
+         int[] next = Arrays.copyOf(pointers, rows);
+         int[] indices = new int[size];
+         double[] v = new double[size];
+         for (int t = 0; t < size; t++) {
+            int dst = next[tripletRows[t]]++;
+            indices[dst] = tripletColumns[t];
+            v[dst] = tripletValues[t];
+         }
+
+         // Sort each row by column and sum duplicates, compacting in place.
+         int k = 0;
+         for (int i = 0; i < rows; i++) {
+            int start = pointers[i];
+            int end = pointers[i + 1];
+            sortRow(indices, v, start, end);
+            pointers[i] = k;
+            for (int p = start; p < end; p++) {
+               if (k > pointers[i] && indices[k - 1] == indices[p]) {
+                  v[k - 1] += v[p];
+               } else {
+                  indices[k] = indices[p];
+                  v[k++] = v[p];
+               }
+            }
+         }
+         pointers[rows] = k;
+         return new SparseMatrix(rows, columns, pointers, Arrays.copyOf(indices, k), Arrays.copyOf(v, k));
+      }
+
+      /**
+       * Sorts a row of columns and their values by column.  Rows are usually short so an insertion sort is used for
+       * them; longer rows are sorted by packed column and position keys.
+       */
+      private static void sortRow(int[] indices, double[] v, int start, int end) {
+         if (end - start > 32) {
+            long[] keys = new long[end - start];
+            for (int p = start; p < end; p++) {
+               keys[p - start] = ((long) indices[p] << 32) | (p - start);
+            }
+            Arrays.sort(keys);
+            double[] sorted = new double[keys.length];
+            for (int p = 0; p < keys.length; p++) {
+               indices[start + p] = (int) (keys[p] >>> 32);
+               sorted[p] = v[start + (int) keys[p]];
+            }
+            System.arraycopy(sorted, 0, v, start, sorted.length);
+            return;
+         }
+         for (int p = start + 1; p < end; p++) {
+            int c = indices[p];
+            double x = v[p];
+            int q = p - 1;
+            while (q >= start && indices[q] > c) {
+               indices[q + 1] = indices[q];
+               v[q + 1] = v[q];
+               q--;
+            }
+            indices[q + 1] = c;
+            v[q + 1] = x;
+         }
+      }
+   }
+}
@@ -0,0 +1,573 @@
+package math.matrices;
+
+import java.util.Arrays;
+
+/**
+ * The object representation of a sparse mathematical vector.  Only the non-zero values are stored, along with their
+ * indices in ascending order; the memory used and the time taken by most operations are proportional to the number of
+ * non-zero values rather than to the length of the vector.  This is <em>not</em> a safe vector. It does not perform
+ * any dimension checks before performing any actions.
+ * <p/>
+ * Operations between two sparse vectors merge their sorted indices.  Operations between a sparse vector and a dense
+ * vector only visit the stored values of the sparse vector.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class SparseVector implements IVector {
+
+   /**
+    * The length of the vector.
+    */
+   private int length;
+
+   /**
+    * If the vector is a column vector rather than a row vector.
+    */
+   private boolean column;
+
+   /**
+    * The index of each stored value in ascending order.
+    */
+   private int[] indices;
+
+   /**
+    * The stored values.  Only the first {@code size} values are used.
+    */
+   private double[] values;
+
+   /**
+    * The number of stored values.
+    */
+   private int size;
+
+   /**
+    * Creates a new sparse row vector of the specified length and with all values equaling zero.
+    *
+    * @param length the length of this vector.
+    */
+   public SparseVector(int length) {
+      this(length, new int[0], new double[0], 0);
+   }
+
+   /**
+    * Creates a new sparse row vector of the specified length with the specified values at the specified indices.  The
+    * arrays are copied.
+    *
+    * @param length the length of this vector.
+    * @param indices the indices of the values, in strictly ascending order and within the length of the vector.
+    * @param values the values, at least as many as there are indices.
+    * @throws IllegalArgumentException if the indices are out of order or out of range, or if there are fewer values
+    *            than indices.
+    */
+   public SparseVector(int length, int[] indices, double[] values) {
+      this(length, indices.clone(), values.clone(), indices.length);
+      if (values.length < size) {
+         throw new IllegalArgumentException("Fewer values than indices: " + values.length + " and " + size);
+      }
+      for (int k = 0; k < size; k++) {
+         if (indices[k] < 0 || indices[k] >= length) {
+            throw new IllegalArgumentException("Index out of range for length " + length + ": " + indices[k]);
+         }
+         if (k > 0 && indices[k] <= indices[k - 1]) {
+            throw new IllegalArgumentException("Indices must be strictly ascending: " + indices[k - 1] + " then "
+                                                       + indices[k]);
+         }
+      }
+   }
+
+   /**
+    * Creates a new sparse vector that is a copy of the specified vector and has the same orientation.  Only the
+    * non-zero values are stored.
+    *
+    * @param v the vector to copy.
+    */
+   public SparseVector(IVector v) {
+      if (v instanceof SparseVector) {
+         SparseVector s = (SparseVector) v;
+         setStorage(s.length, Arrays.copyOf(s.indices, s.size), Arrays.copyOf(s.values, s.size), s.size);
+         column = s.column;
+      } else {
+         setStorage(v);
+         column = (v.columns() == 1 && v.rows() != 1);
+      }
+   }
+
+   /**
+    * Creates a new sparse row vector over the specified arrays.  Nothing is copied.
+    */
+   private SparseVector(int length, int[] indices, double[] values, int size) {
+      setStorage(length, indices, values, size);
+   }
+
+   /**
+    * Replaces the storage of the vector with the specified arrays.  Nothing is copied.
+    */
+   private void setStorage(int length, int[] indices, double[] values, int size) {
+      this.length = length;
+      this.indices = indices;
+      this.values = values;
+      this.size = size;
+   }
+
+   /**
+    * Replaces the storage of the vector with the non-zero values of the specified vector.
+    */
+   private void setStorage(IVector v) {
+      int n = v.length();
+      int nnz = 0;
+      for (int i = 0; i < n; i++) {
+         if (v.get(i) != 0.0) {
+            nnz++;
+         }
+      }
+      int[] idx = new int[nnz];
+      double[] val = new double[nnz];
+      for (int i = 0, k = 0; i < n; i++) {
+         double x = v.get(i);
+         if (x != 0.0) {
+            idx[k] = i;
+            val[k++] = x;
+         }
+      }
+      setStorage(n, idx, val, nnz);
+   }
+
+   /**
+    * Returns the number of stored values.
+    *
+    * @return the number of stored values.
+    */
+   public int nonZeros() {
+      return size;
+   }
+
+   /**
+    * Returns the index of the stored value at the specified position.
+    *
+    * @param k the position of the stored value.
+    * @return the index of the value along the vector.
+    */
+   public int indexAt(int k) {
+      return indices[k];
+   }
+
+   /**
+    * Returns the stored value at the specified position.
+    *
+    * @param k the position of the stored value.
+    * @return the value.
+    */
+   public double valueAt(int k) {
+      return values[k];
+   }
+
+   @Override
+   public int rows() {
+      return column ? length : 1;
+   }
+
+   @Override
+   public int columns() {
+      return column ? 1 : length;
+   }
+
+   @Override
+   public int length() {
+      return length;
+   }
+
+   @Override
+   public double get(int i) {
+      int k = Arrays.binarySearch(indices, 0, size, i);
+      return (k >= 0 ? values[k] : 0.0);
+   }
+
+   @Override
+   public double get(int r, int c) {
+      return get(column ? r : c);
+   }
+
+   /**
+    * Sets the vector to have the non-zero values of the specified array as a row vector.
+    *
+    * @param v the new values for the vector.
+    * @return the row vector with the values of the array.
+    */
+   @Override
+   public SparseVector set(double[] v) {
+      setStorage(new Vector(v));
+      column = false;
+      return this;
+   }
+
+   /**
+    * Sets the vector to have the non-zero values of the specified array, which must have either one row or one column.
+    * <p/>
+    * Note: this changes the underlying data structure to a different data structure since the dimensions might change.
+    *
+    * @param a the new values for the vector.
+    * @return the vector with the values of the array.
+    */
+   @Override
+   public SparseVector set(double[][] a) {
+      Vector v = new Vector();
+      v.set(a);
+      setStorage(v);
+      column = (v.columns() == 1 && v.rows() != 1);
+      return this;
+   }
+
+   /**
+    * Sets the value at the corresponding index to be the specified value.  Setting a value which is not stored shifts
+    * every stored value after it.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param i the index of the value.
+    * @param n the specified value.
+    * @return the original vector modified with the new value.
+    */
+   @Override
+   public SparseVector set(int i, double n) {
+      int k = Arrays.binarySearch(indices, 0, size, i);
+      if (k >= 0) {
+         values[k] = n;
+      } else if (n != 0.0) {
+         k = -(k + 1);
+         if (size == values.length) {
+            int capacity = Math.max(8, size + (size >> 1));
+            indices = Arrays.copyOf(indices, capacity);
+            values = Arrays.copyOf(values, capacity);
+         }
+         System.arraycopy(indices, k, indices, k + 1, size - k);
+         System.arraycopy(values, k, values, k + 1, size - k);
+         indices[k] = i;
+         values[k] = n;
+         size++;
+      }
+      return this;
+   }
+
+   @Override
+   public SparseVector set(int r, int c, double n) {
+      return set(column ? r : c, n);
+   }
+
+   @Override
+   public SparseVector set(int i, double[] v) {
+      return (SparseVector) IVector.super.set(i, v);
+   }
+
+   @Override
+   public SparseVector setRow(int r, double[] v) {
+      return (SparseVector) IVector.super.setRow(r, v);
+   }
+
+   @Override
+   public SparseVector setColumn(int c, double[] v) {
+      return (SparseVector) IVector.super.setColumn(c, v);
+   }
+
+   @Override
+   public SparseVector set(int r, int c, double[][] a) {
+      return (SparseVector) IVector.super.set(r, c, a);
+   }
+
+   /**
+    * Returns the transpose of the vector.  Only the orientation changes so this takes constant time.
+    *
+    * @return the transpose of the vector.
+    */
+   @Override
+   public SparseVector transpose() {
+      column = !column;
+      return this;
+   }
+
+   @Override
+   public SparseVector inverse() {
+      return (SparseVector) IVector.super.inverse();
+   }
+
+   @Override
+   public SparseVector scale(double n) {
+      for (int k = 0; k < size; k++) {
+         values[k] *= n;
+      }
+      return this;
+   }
+
+   /**
+    * Adds the specified vector to the original vector.  Two sparse vectors are merged in time proportional to their
+    * numbers of stored values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the vector to add.
+    * @return the original vector modified with the addition of the specified vector.
+    */
+   @Override
+   public SparseVector add(IVector v) {
+      return merge(v, 1.0);
+   }
+
+   @Override
+   public SparseVector add(IMatrix a) {
+      return (a instanceof IVector ? add((IVector) a) : (SparseVector) IVector.super.add(a));
+   }
+
+   /**
+    * Subtracts the specified vector from the original vector.  Two sparse vectors are merged in time proportional to
+    * their numbers of stored values.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the vector to subtract.
+    * @return the original vector modified with the subtraction of the specified vector.
+    */
+   @Override
+   public SparseVector subtract(IVector v) {
+      return merge(v, -1.0);
+   }
+
+   @Override
+   public SparseVector subtract(IMatrix a) {
+      return (a instanceof IVector ? subtract((IVector) a) : (SparseVector) IVector.super.subtract(a));
+   }
+
+   /**
+    * Replaces the vector with the sum of the vector and the specified vector scaled by the specified factor.
+    *
+    * @param v the vector to merge.
+    * @param sign the scaling factor of the merged vector.
+    * @return the original vector modified with the merge.
+    */
+   private SparseVector merge(IVector v, double sign) {
+      SparseVector b = (v instanceof SparseVector ? (SparseVector) v : new SparseVector(v));
+      int[] idx = new int[size + b.size];
+      double[] val = new double[idx.length];
+      int p = 0;
+      int q = 0;
+      int k = 0;
+      while (p < size || q < b.size) {
+         int ip = (p < size ? indices[p] : Integer.MAX_VALUE);
+         int iq = (q < b.size ? b.indices[q] : Integer.MAX_VALUE);
+         if (ip < iq) {
+            idx[k] = ip;
+            val[k++] = values[p++];
+         } else if (iq < ip) {
+            idx[k] = iq;
+            val[k++] = sign * b.values[q++];
+         } else {
+            idx[k] = ip;
+            val[k++] = values[p++] + sign * b.values[q++];
+         }
+      }
+      setStorage(length, idx, val, k);
+      return this;
+   }
+
+   /**
+    * Dot-wise multiplies the specified vector to the original vector.  Only indices stored by this vector can be
+    * non-zero in the result; against a sparse vector the indices are intersected by merging.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the vector to dot-multiply.
+    * @return the original vector modified with the dot-multiplication of the specified vector.
+    */
+   @Override
+   public SparseVector dotMultiply(IVector v) {
+      if (v instanceof SparseVector) {
+         SparseVector b = (SparseVector) v;
+         int p = 0;
+         int q = 0;
+         int k = 0;
+         while (p < size && q < b.size) {
+            int ip = indices[p];
+            int iq = b.indices[q];
+            if (ip < iq) {
+               p++;
+            } else if (iq < ip) {
+               q++;
+            } else {
+               indices[k] = ip;
+               values[k++] = values[p++] * b.values[q++];
+            }
+         }
+         size = k;
+      } else if (v instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) v;
+         double[] data = d.data();
+         int offset = d.offset();
+         int step = d.vectorStep();
+         for (int k = 0; k < size; k++) {
+            values[k] *= data[offset + indices[k] * step];
+         }
+      } else {
+         for (int k = 0; k < size; k++) {
+            values[k] *= v.get(indices[k]);
+         }
+      }
+      return this;
+   }
+
+   @Override
+   public SparseVector dotMultiply(IMatrix a) {
+      return (a instanceof IVector ? dotMultiply((IVector) a) : (SparseVector) IVector.super.dotMultiply(a));
+   }
+
+   @Override
+   public SparseVector dotDivide(IVector v) {
+      return (SparseVector) IVector.super.dotDivide(v);
+   }
+
+   @Override
+   public SparseVector dotDivide(IMatrix a) {
+      return (SparseVector) IVector.super.dotDivide(a);
+   }
+
+   @Override
+   public SparseVector multiply(IMatrix a) {
+      return (SparseVector) IVector.super.multiply(a);
+   }
+
+   /**
+    * Returns the inner-product of the vector and the specified vector regardless of their orientations.  Against a
+    * sparse vector the indices are merged; against any other vector only the stored values of this vector are visited.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the inner vector.
+    * @return the inner-product of the vector multiplied by the specified vector.
+    */
+   @Override
+   public double inner(IVector v) {
+      double sum = 0.0;
+      if (v instanceof SparseVector) {
+         SparseVector b = (SparseVector) v;
+         int p = 0;
+         int q = 0;
+         while (p < size && q < b.size) {
+            int ip = indices[p];
+            int iq = b.indices[q];
+            if (ip < iq) {
+               p++;
+            } else if (iq < ip) {
+               q++;
+            } else {
+               sum += values[p++] * b.values[q++];
+            }
+         }
+      } else if (v instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) v;
+         double[] data = d.data();
+         int offset = d.offset();
+         int step = d.vectorStep();
+         for (int k = 0; k < size; k++) {
+            sum += values[k] * data[offset + indices[k] * step];
+         }
+      } else {
+         for (int k = 0; k < size; k++) {
+            sum += values[k] * v.get(indices[k]);
+         }
+      }
+      return sum;
+   }
+
+   /**
+    * Returns the 1-norm of the vector, visiting only the stored values.
+    *
+    * @return the 1-norm of the vector.
+    */
+   @Override
+   public double norm1() {
+      return Simd.sumAbs(values, 0, size);
+   }
+
+   /**
+    * Returns the Euclidean norm of the vector, visiting only the stored values.  Only if the sum of the squares
+    * overflows or underflows are the values scaled as in {@link IVector#norm2()}.
+    *
+    * @return the 2-norm of the vector.
+    */
+   @Override
+   public double norm2() {
+      double sum = Simd.dot(values, 0, values, 0, size);
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      double scale = normInf();
+      if (!(scale > 0.0 && scale < Double.POSITIVE_INFINITY)) {
+         return scale;
+      }
+      sum = 0.0;
+      for (int k = 0; k < size; k++) {
+         double x = values[k] / scale;
+         sum += x * x;
+      }
+      return scale * Math.sqrt(sum);
+   }
+
+   /**
+    * Returns the infinity-norm of the vector, visiting only the stored values.
+    *
+    * @return the infinity-norm of the vector.
+    */
+   @Override
+   public double normInf() {
+      return Simd.maxAbs(values, 0, size);
+   }
+
+   @Override
+   public SparseVector normalize() {
+      return scale(1.0 / norm2());
+   }
+
+   /**
+    * Adds the vector scaled by the specified factor to the specified vector, {@code y = y + alpha * this}, visiting
+    * only the stored values of this vector.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param alpha the scaling factor of this vector.
+    * @param y the vector to add to.
+    * @return the specified vector.
+    */
+   public IVector addTo(double alpha, IVector y) {
+      if (y instanceof DenseMatrix) {
+         DenseMatrix d = (DenseMatrix) y;
+         double[] data = d.data();
+         int offset = d.offset();
+         int step = d.vectorStep();
+         for (int k = 0; k < size; k++) {
+            data[offset + indices[k] * step] += alpha * values[k];
+         }
+      } else {
+         for (int k = 0; k < size; k++) {
+            y.set(indices[k], y.get(indices[k]) + alpha * values[k]);
+         }
+      }
+      return y;
+   }
+
+   /**
+    * Returns a dense copy of the vector with the same orientation.
+    *
+    * @return the dense vector with the same values.
+    */
+   public Vector toDense() {
+      double[] v = new double[length];
+      for (int k = 0; k < size; k++) {
+         v[indices[k]] = values[k];
+      }
+      Vector d = new Vector(v);
+      return (column ? d.transpose() : d);
+   }
+
+   @Override
+   public SparseVector copy() {
+      return new SparseVector(this);
+   }
+}
@@ -0,0 +1,338 @@
+package math.matrices;
+
+/**
+ * A static library for matrix-multiplication with the Winograd variant of Strassen's algorithm, an opt-in alternative
+ * to {@link Gemm} for very large products.  Each level of the recursion splits the operands into quadrants and forms
+ * the product from seven quadrant products and fifteen quadrant additions instead of eight products, so a square
+ * product of order {@code n} costs about {@code n^2.81} multiply-adds instead of {@code n^3}.  Quadrant products whose
+ * smallest dimension is no larger than the cutoff are computed by {@link Gemm}; odd dimensions are handled by peeling
+ * the last row or column and fixing it up with {@link Gemm}.
+ * <p/>
+ * The temporary quadrants are limited by a memory budget in bytes.  When the product is large enough to run in {@link
+ * Parallel} and the budget allows, the seven quadrant products of a level run at the same time with twelve temporary
+ * quadrants and a seventh of the remaining budget each.  Otherwise they run one after the other in the schedule of
+ * Boyer, Dumas, Pernet and Zhou, which needs only two temporary quadrants and uses the quadrants of the result as
+ * workspace.  A level whose temporaries do not fit in the budget is computed by {@link Gemm}.
+ * <p/>
+ * Numerical error: the classic algorithm has the componentwise bound {@code |C - fl(AB)| <= k u |A| |B|} for unit
+ * roundoff {@code u}.  Strassen-Winograd only satisfies a normwise bound in the max norm, {@code ||C - fl(AB)|| <= c(n)
+ * u ||A|| ||B||}, where Higham (Accuracy and Stability of Numerical Algorithms, chapter 23) shows {@code c(n)} grows
+ * like {@code (n / n0)^log2(18) * n0^2} for a cutoff {@code n0}, about {@code 18x} per level instead of {@code 2x} for
+ * the classic algorithm.  In practice the error is much smaller than that bound: on random matrices of order 2048 with
+ * the default cutoff the largest error is about ten times that of {@link Gemm}.  Results are accurate relative to
+ * the largest values of the operands, so small values of products of badly scaled matrices can lose all their
+ * precision; use the classic algorithm for those.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Strassen {
+
+   /**
+    * The default smallest dimension at or below which products are computed by {@link Gemm}.
+    */
+   public static final int DEFAULT_CUTOFF = 512;
+
+   /**
+    * The smallest dimension at or below which products are computed by {@link Gemm}.
+    */
+   private static volatile int cutoff = DEFAULT_CUTOFF;
+
+   /**
+    * A block of a backing array with a row and a column stride.
+    */
+   private static final class Block {
+
+      final double[] data;
+      final int offset;
+      final int rowStride;
+      final int columnStride;
+
+      Block(double[] data, int offset, int rowStride, int columnStride) {
+         this.data = data;
+         this.offset = offset;
+         this.rowStride = rowStride;
+         this.columnStride = columnStride;
+      }
+
+      /**
+       * Returns a new contiguous row-major block of the specified size.
+       */
+      static Block allocate(int rows, int columns) {
+         return new Block(new double[rows * columns], 0, columns, 1);
+      }
+
+      /**
+       * Returns the block starting at the specified row and column of this block.
+       */
+      Block at(int r, int c) {
+         return new Block(data, offset + r * rowStride + c * columnStride, rowStride, columnStride);
+      }
+   }
+
+   /**
+    * Don't let anyone instantiate this class.
+    */
+   private Strassen() {
+   }
+
+   /**
+    * Returns the smallest dimension at or below which products are computed by {@link Gemm}.
+    *
+    * @return the cutoff.
+    */
+   public static int getCutoff() {
+      return cutoff;
+   }
+
+   /**
+    * Sets the smallest dimension at or below which products are computed by {@link Gemm}.  Lower cutoffs save more
+    * multiply-adds but spend more time on additions and lose more accuracy.
+    *
+    * @param cutoff the cutoff.
+    */
+   public static void setCutoff(int cutoff) {
+      if (cutoff < 1) {
+         throw new IllegalArgumentException("Cutoff must be positive: " + cutoff);
+      }
+      Strassen.cutoff = cutoff;
+   }
+
+   /**
+    * Returns the matrix-multiplication of two matrices, {@code a * b}, as a new matrix without modifying either
+    * operand.
+    *
+    * @param a the left matrix.
+    * @param b the right matrix.
+    * @param budget the number of bytes of temporary memory the multiplication may use.
+    * @return the product.
+    * @throws MatrixDimensionException if the dimensions do not agree.
+    */
+   public static Matrix multiply(IMatrix a, IMatrix b, long budget) {
+      DimensionChecking.catchMultiplication(a, b);
+      DenseMatrix l = (a instanceof DenseMatrix ? (DenseMatrix) a : new DenseMatrix(a));
+      DenseMatrix r = (b instanceof DenseMatrix ? (DenseMatrix) b : new DenseMatrix(b));
+      int m = a.rows();
+      int n = b.columns();
+      double[] c = new double[m * n];
+      multiply(m, n, a.columns(), l.data(), l.offset(), l.stride(), l.columnStride(), r.data(), r.offset(), r.stride(),
+               r.columnStride(), c, 0, n, budget);
+      return new Matrix(m, n, c);
+   }
+
+   /**
+    * Computes {@code C = A * B} where {@code A} is {@code m x k}, {@code B} is {@code k x n} and {@code C} is {@code m
+    * x n}, overwriting {@code C}.  {@code C} must not share values with {@code A} or {@code B}.
+    *
+    * @param m the number of rows of {@code A} and {@code C}.
+    * @param n the number of columns of {@code B} and {@code C}.
+    * @param k the number of columns of {@code A} and rows of {@code B}.
+    * @param a the backing array of {@code A}.
+    * @param aOffset the index of the first value of {@code A}.
+    * @param aRowStride the distance between two consecutive rows of {@code A}.
+    * @param aColumnStride the distance between two consecutive columns of {@code A}.
+    * @param b the backing array of {@code B}.
+    * @param bOffset the index of the first value of {@code B}.
+    * @param bRowStride the distance between two consecutive rows of {@code B}.
+    * @param bColumnStride the distance between two consecutive columns of {@code B}.
+    * @param c the backing array of {@code C}.
+    * @param cOffset the index of the first value of {@code C}.
+    * @param cStride the distance between two consecutive rows of {@code C}.
+    * @param budget the number of bytes of temporary memory the multiplication may use.
+    */
+   public static void multiply(int m, int n, int k, double[] a, int aOffset, int aRowStride, int aColumnStride,
+                               double[] b, int bOffset, int bRowStride, int bColumnStride, double[] c, int cOffset,
+                               int cStride, long budget) {
+      if (budget < 0) {
+         throw new IllegalArgumentException("Memory budget cannot be negative: " + budget);
+      }
+      multiply(m, n, k, new Block(a, aOffset, aRowStride, aColumnStride), new Block(b, bOffset, bRowStride,
+               bColumnStride), new Block(c, cOffset, cStride, 1), budget, cutoff);
+   }
+
+   /**
+    * Computes {@code C = A * B} one level of the recursion at a time.
+    */
+   private static void multiply(int m, int n, int k, Block a, Block b, Block c, long budget, int cutoff) {
+      int m2 = m / 2;
+      int n2 = n / 2;
+      int k2 = k / 2;
+      if (Math.min(m, Math.min(n, k)) <= Math.max(cutoff, 1)) {
+         gemm(m, n, k, a, b, c, 0.0);
+         return;
+      }
+      long parallel = 8L * 4 * ((long) m2 * k2 + (long) k2 * n2 + (long) m2 * n2);
+      long sequential = 8L * ((long) m2 * Math.max(k2, n2) + (long) k2 * n2);
+      if (Parallel.isParallel((long) m * n * k) && parallel <= budget) {
+         multiplyParallel(m2, n2, k2, a, b, c, (budget - parallel) / 7, cutoff);
+      } else if (sequential <= budget) {
+         multiplySequential(m2, n2, k2, a, b, c, budget - sequential, cutoff);
+      } else {
+         gemm(m, n, k, a, b, c, 0.0);
+         return;
+      }
+      // Peel the odd last row, column and depth left out of the quadrants.
+      if (k % 2 == 1) {
+         gemm(2 * m2, 2 * n2, 1, a.at(0, k - 1), b.at(k - 1, 0), c, 1.0);
+      }
+      if (n % 2 == 1) {
+         gemm(m, 1, k, a, b.at(0, n - 1), c.at(0, n - 1), 0.0);
+      }
+      if (m % 2 == 1) {
+         gemm(1, 2 * n2, k, a.at(m - 1, 0), b, c.at(m - 1, 0), 0.0);
+      }
+   }
+
+   /**
+    * Computes the even part of {@code C = A * B} from the quadrants of the operands, running the seven quadrant
+    * products at the same time.
+    */
+   private static void multiplyParallel(int m, int n, int k, Block a, Block b, Block c, long budget, int cutoff) {
+      Block a11 = a;
+      Block a12 = a.at(0, k);
+      Block a21 = a.at(m, 0);
+      Block a22 = a.at(m, k);
+      Block b11 = b;
+      Block b12 = b.at(0, n);
+      Block b21 = b.at(k, 0);
+      Block b22 = b.at(k, n);
+      Block c11 = c;
+      Block c12 = c.at(0, n);
+      Block c21 = c.at(m, 0);
+      Block c22 = c.at(m, n);
+      Block s1 = Block.allocate(m, k);
+      Block s2 = Block.allocate(m, k);
+      Block s3 = Block.allocate(m, k);
+      Block s4 = Block.allocate(m, k);
+      Block t1 = Block.allocate(k, n);
+      Block t2 = Block.allocate(k, n);
+      Block t3 = Block.allocate(k, n);
+      Block t4 = Block.allocate(k, n);
+      add(m, k, a21, a22, 1.0, s1);
+      add(m, k, s1, a11, -1.0, s2);
+      add(m, k, a11, a21, -1.0, s3);
+      add(m, k, a12, s2, -1.0, s4);
+      add(k, n, b12, b11, -1.0, t1);
+      add(k, n, b22, t1, -1.0, t2);
+      add(k, n, b22, b12, -1.0, t3);
+      add(k, n, t2, b21, -1.0, t4);
+      Block p1 = Block.allocate(m, n);
+      Block p4 = Block.allocate(m, n);
+      Block p5 = Block.allocate(m, n);
+      Block p6 = Block.allocate(m, n);
+      Parallel.forRows(7, 7L * m * n * k, (from, to) -> {
+         for (int p = from; p < to; p++) {
+            switch (p) {
+               case 0:
+                  multiply(m, n, k, a11, b11, p1, budget, cutoff);
+                  break;
+               case 1:
+                  multiply(m, n, k, a12, b21, c11, budget, cutoff);
+                  break;
+               case 2:
+                  multiply(m, n, k, s4, b22, c12, budget, cutoff);
+                  break;
+               case 3:
+                  multiply(m, n, k, a22, t4, p4, budget, cutoff);
+                  break;
+               case 4:
+                  multiply(m, n, k, s1, t1, p5, budget, cutoff);
+                  break;
+               case 5:
+                  multiply(m, n, k, s2, t2, p6, budget, cutoff);
+                  break;
+               default:
+                  multiply(m, n, k, s3, t3, c21, budget, cutoff);
+            }
+         }
+      });
+      // c11 = p2, c12 = p3 and c21 = p7 at this point.
+      add(m, n, p6, p1, 1.0, p6);
+      add(m, n, c11, p1, 1.0, c11);
+      add(m, n, c21, p6, 1.0, c21);
+      add(m, n, c21, p5, 1.0, c22);
+      add(m, n, c12, p6, 1.0, c12);
+      add(m, n, c12, p5, 1.0, c12);
+      add(m, n, c21, p4, -1.0, c21);
+   }
+
+   /**
+    * Computes the even part of {@code C = A * B} from the quadrants of the operands one quadrant product at a time,
+    * with two temporary quadrants and the quadrants of {@code C} as workspace.
+    */
+   private static void multiplySequential(int m, int n, int k, Block a, Block b, Block c, long budget, int cutoff) {
+      Block a11 = a;
+      Block a12 = a.at(0, k);
+      Block a21 = a.at(m, 0);
+      Block a22 = a.at(m, k);
+      Block b11 = b;
+      Block b12 = b.at(0, n);
+      Block b21 = b.at(k, 0);
+      Block b22 = b.at(k, n);
+      Block c11 = c;
+      Block c12 = c.at(0, n);
+      Block c21 = c.at(m, 0);
+      Block c22 = c.at(m, n);
+      // x holds an m x k quadrant and later an m x n quadrant.
+      double[] xd = new double[m * Math.max(k, n)];
+      Block x = new Block(xd, 0, k, 1);
+      Block y = Block.allocate(k, n);
+      add(m, k, a11, a21, -1.0, x);
+      add(k, n, b22, b12, -1.0, y);
+      multiply(m, n, k, x, y, c21, budget, cutoff);
+      add(m, k, a21, a22, 1.0, x);
+      add(k, n, b12, b11, -1.0, y);
+      multiply(m, n, k, x, y, c22, budget, cutoff);
+      add(m, k, x, a11, -1.0, x);
+      add(k, n, b22, y, -1.0, y);
+      multiply(m, n, k, x, y, c12, budget, cutoff);
+      add(m, k, a12, x, -1.0, x);
+      multiply(m, n, k, x, b22, c11, budget, cutoff);
+      x = new Block(xd, 0, n, 1);
+      multiply(m, n, k, a11, b11, x, budget, cutoff);
+      add(m, n, x, c12, 1.0, c12);
+      add(m, n, c12, c21, 1.0, c21);
+      add(m, n, c12, c22, 1.0, c12);
+      add(m, n, c21, c22, 1.0, c22);
+      add(m, n, c12, c11, 1.0, c12);
+      add(k, n, y, b21, -1.0, y);
+      multiply(m, n, k, a22, y, c11, budget, cutoff);
+      add(m, n, c21, c11, -1.0, c21);
+      multiply(m, n, k, a12, b21, c11, budget, cutoff);
+      add(m, n, x, c11, 1.0, c11);
+   }
+
+   /**
+    * Computes {@code Z = X + sign * Y} for blocks of the specified size.  {@code Z} must have a column stride of one
+    * and may be {@code X} or {@code Y}.
+    */
+   private static void add(int rows, int columns, Block x, Block y, double sign, Block z) {
+      double[] xd = x.data;
+      double[] yd = y.data;
+      double[] zd = z.data;
+      Parallel.forRows(rows, (long) rows * columns, (from, to) -> {
+         for (int i = from; i < to; i++) {
+            int xo = x.offset + i * x.rowStride;
+            int yo = y.offset + i * y.rowStride;
+            int zo = z.offset + i * z.rowStride;
+            if (x.columnStride == 1 && y.columnStride == 1) {
+               for (int j = 0; j < columns; j++) {
+                  zd[zo + j] = xd[xo + j] + sign * yd[yo + j];
+               }
+            } else {
+               for (int j = 0; j < columns; j++) {
+                  zd[zo + j] = xd[xo + j * x.columnStride] + sign * yd[yo + j * y.columnStride];
+               }
+            }
+         }
+      });
+   }
+
+   /**
+    * Computes {@code C = A * B + beta * C} with the classic algorithm.
+    */
+   private static void gemm(int m, int n, int k, Block a, Block b, Block c, double beta) {
+      Gemm.multiply(m, n, k, 1.0, a.data, a.offset, a.rowStride, a.columnStride, b.data, b.offset, b.rowStride,
+                    b.columnStride, beta, c.data, c.offset, c.rowStride);
+   }
+}
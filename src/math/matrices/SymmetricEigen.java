@@ -0,0 +1,377 @@
+package math.matrices;
+
+/**
+ * The eigenvalues and eigenvectors of a symmetric matrix.  The matrix is first reduced to tridiagonal form by
+ * Householder similarity transformations and the tridiagonal matrix is then diagonalized by the implicit QL algorithm
+ * with Wilkinson shifts.  Both steps follow the EISPACK routines {@code tred2} and {@code tql2}.
+ * <p/>
+ * When only the eigenvalues are needed the transformations are neither accumulated during the reduction nor rotated
+ * during the QL iterations, which removes most of the O(n^3) work.
+ * <p/>
+ * The transformations are kept transposed, one eigenvector per row, so that the inner loops read contiguous memory.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public class SymmetricEigen {
+
+   /**
+    * The number of rows and columns of the decomposed matrix.
+    */
+   private final int n;
+
+   /**
+    * The eigenvalues in ascending order.
+    */
+   private final double[] d;
+
+   /**
+    * The eigenvectors, one per row in the order of the eigenvalues, or {@code null} if they were not computed.
+    */
+   private final double[] v;
+
+   /**
+    * Computes the eigenvalues and eigenvectors of the specified symmetric matrix.
+    *
+    * @param a the symmetric matrix to decompose.
+    */
+   public SymmetricEigen(IMatrix a) {
+      this(a, true);
+   }
+
+   /**
+    * Computes the eigenvalues, and optionally the eigenvectors, of the specified symmetric matrix.  Only the lower
+    * triangle of the matrix is read and the matrix is not modified.
+    *
+    * @param a the symmetric matrix to decompose.
+    * @param vectors if the eigenvectors should be computed.
+    */
+   public SymmetricEigen(IMatrix a, boolean vectors) {
+      DimensionChecking.catchSquare(a);
+      n = a.rows();
+      d = new double[n];
+      double[] e = new double[n];
+      double[] w = new double[n * n];
+      for (int j = 0; j < n; j++) {
+         for (int k = j; k < n; k++) {
+            w[j * n + k] = a.get(k, j);
+         }
+      }
+      if (n > 0) {
+         tridiagonalize(w, e, vectors);
+         diagonalize(w, e, vectors);
+         sort(w, vectors);
+      }
+      v = (vectors ? w : null);
+   }
+
+   /**
+    * Reduces the matrix to a symmetric tridiagonal matrix.  On return {@code d} holds the diagonal and {@code e} the
+    * subdiagonal in its last {@code n - 1} values.  If vectors are requested the rows of {@code w} hold the accumulated
+    * orthogonal transformation.
+    * <p/>
+    * {@code w[j * n + k]} holds the value at row {@code k} and column {@code j} of the working matrix.
+    *
+    * @param w the transposed working matrix.
+    * @param e the subdiagonal.
+    * @param vectors if the transformation should be accumulated.
+    */
+   private void tridiagonalize(double[] w, double[] e, boolean vectors) {
+      for (int j = 0; j < n; j++) {
+         d[j] = w[j * n + n - 1];
+      }
+
+      for (int i = n - 1; i > 0; i--) {
+         // Scale to avoid under and overflow.
+         double scale = 0.0;
+         double h = 0.0;
+         for (int k = 0; k < i; k++) {
+            scale += Math.abs(d[k]);
+         }
+         if (scale == 0.0) {
+            e[i] = d[i - 1];
+            for (int j = 0; j < i; j++) {
+               d[j] = w[j * n + i - 1];
+               w[j * n + i] = 0.0;
+               w[i * n + j] = 0.0;
+            }
+         } else {
+            // Generate the Householder vector.
+            for (int k = 0; k < i; k++) {
+               d[k] /= scale;
+               h += d[k] * d[k];
+            }
+            double f = d[i - 1];
+            double g = Math.sqrt(h);
+            if (f > 0) {
+               g = -g;
+            }
+            e[i] = scale * g;
+            h -= f * g;
+            d[i - 1] = f - g;
+            for (int j = 0; j < i; j++) {
+               e[j] = 0.0;
+            }
+
+            // Apply the similarity transformation to the remaining columns.
+            for (int j = 0; j < i; j++) {
+               int wj = j * n;
+               f = d[j];
+               w[i * n + j] = f;
+               g = e[j] + w[wj + j] * f;
+               for (int k = j + 1; k < i; k++) {
+                  g += w[wj + k] * d[k];
+                  e[k] += w[wj + k] * f;
+               }
+               e[j] = g;
+            }
+            f = 0.0;
+            for (int j = 0; j < i; j++) {
+               e[j] /= h;
+               f += e[j] * d[j];
+            }
+            double hh = f / (h + h);
+            for (int j = 0; j < i; j++) {
+               e[j] -= hh * d[j];
+            }
+            for (int j = 0; j < i; j++) {
+               int wj = j * n;
+               f = d[j];
+               g = e[j];
+               for (int k = j; k < i; k++) {
+                  w[wj + k] -= (f * e[k] + g * d[k]);
+               }
+               d[j] = w[wj + i - 1];
+               w[wj + i] = 0.0;
+            }
+         }
+         d[i] = h;
+      }
+
+      if (!vectors) {
+         for (int j = 0; j < n; j++) {
+            d[j] = w[j * n + j];
+         }
+         e[0] = 0.0;
+         return;
+      }
+
+      // Accumulate the transformations.
+      for (int i = 0; i < n - 1; i++) {
+         int wi = i * n;
+         int wn = (i + 1) * n;
+         w[wi + n - 1] = w[wi + i];
+         w[wi + i] = 1.0;
+         double h = d[i + 1];
+         if (h != 0.0) {
+            for (int k = 0; k <= i; k++) {
+               d[k] = w[wn + k] / h;
+            }
+            for (int j = 0; j <= i; j++) {
+               int wj = j * n;
+               double g = 0.0;
+               for (int k = 0; k <= i; k++) {
+                  g += w[wn + k] * w[wj + k];
+               }
+               for (int k = 0; k <= i; k++) {
+                  w[wj + k] -= g * d[k];
+               }
+            }
+         }
+         for (int k = 0; k <= i; k++) {
+            w[wn + k] = 0.0;
+         }
+      }
+      for (int j = 0; j < n; j++) {
+         d[j] = w[j * n + n - 1];
+         w[j * n + n - 1] = 0.0;
+      }
+      w[n * n - 1] = 1.0;
+      e[0] = 0.0;
+   }
+
+   /**
+    * Diagonalizes the tridiagonal matrix by the implicit QL algorithm.  On return {@code d} holds the eigenvalues and,
+    * if vectors are requested, the rows of {@code w} hold the eigenvectors.
+    *
+    * @param w the accumulated transformation, one vector per row.
+    * @param e the subdiagonal, destroyed.
+    * @param vectors if the eigenvectors should be rotated.
+    */
+   private void diagonalize(double[] w, double[] e, boolean vectors) {
+      for (int i = 1; i < n; i++) {
+         e[i - 1] = e[i];
+      }
+      e[n - 1] = 0.0;
+
+      double f = 0.0;
+      double tst1 = 0.0;
+      double eps = Math.ulp(1.0);
+      for (int l = 0; l < n; l++) {
+         // Find a small subdiagonal value.
+         tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+         int m = l;
+         while (m < n - 1 && Math.abs(e[m]) > eps * tst1) {
+            m++;
+         }
+
+         // If m == l then d[l] is an eigenvalue, otherwise iterate.
+         if (m > l) {
+            do {
+               // Compute the implicit shift.
+               double g = d[l];
+               double p = (d[l + 1] - g) / (2.0 * e[l]);
+               double r = hypot(p, 1.0);
+               if (p < 0) {
+                  r = -r;
+               }
+               d[l] = e[l] / (p + r);
+               d[l + 1] = e[l] * (p + r);
+               double dl1 = d[l + 1];
+               double h = g - d[l];
+               for (int i = l + 2; i < n; i++) {
+                  d[i] -= h;
+               }
+               f += h;
+
+               // Implicit QL transformation.
+               p = d[m];
+               double c = 1.0;
+               double c2 = c;
+               double c3 = c;
+               double el1 = e[l + 1];
+               double s = 0.0;
+               double s2 = 0.0;
+               for (int i = m - 1; i >= l; i--) {
+                  c3 = c2;
+                  c2 = c;
+                  s2 = s;
+                  g = c * e[i];
+                  h = c * p;
+                  r = hypot(p, e[i]);
+                  e[i + 1] = s * r;
+                  s = e[i] / r;
+                  c = p / r;
+                  p = c * d[i] - s * g;
+                  d[i + 1] = h + s * (c * g + s * d[i]);
+
+                  if (vectors) {
+                     for (int k = 0, wi = i * n, wn = (i + 1) * n; k < n; k++) {
+                        h = w[wn + k];
+                        w[wn + k] = s * w[wi + k] + c * h;
+                        w[wi + k] = c * w[wi + k] - s * h;
+                     }
+                  }
+               }
+               p = -s * s2 * c3 * el1 * e[l] / dl1;
+               e[l] = s * p;
+               d[l] = c * p;
+            } while (Math.abs(e[l]) > eps * tst1);
+         }
+         d[l] += f;
+         e[l] = 0.0;
+      }
+   }
+
+   /**
+    * Sorts the eigenvalues in ascending order along with their eigenvectors.
+    *
+    * @param w the eigenvectors, one per row.
+    * @param vectors if the eigenvectors were computed.
+    */
+   private void sort(double[] w, boolean vectors) {
+      for (int i = 0; i < n - 1; i++) {
+         int k = i;
+         double p = d[i];
+         for (int j = i + 1; j < n; j++) {
+            if (d[j] < p) {
+               k = j;
+               p = d[j];
+            }
+         }
+         if (k != i) {
+            d[k] = d[i];
+            d[i] = p;
+            if (vectors) {
+               for (int j = 0, wi = i * n, wk = k * n; j < n; j++) {
+                  double t = w[wi + j];
+                  w[wi + j] = w[wk + j];
+                  w[wk + j] = t;
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns {@code sqrt(a^2 + b^2)} without under or overflow.
+    *
+    * @param a the first value.
+    * @param b the second value.
+    * @return the hypotenuse.
+    */
+   private static double hypot(double a, double b) {
+      double x = Math.abs(a);
+      double y = Math.abs(b);
+      if (x > y) {
+         double t = y / x;
+         return x * Math.sqrt(1.0 + t * t);
+      } else if (y != 0.0) {
+         double t = x / y;
+         return y * Math.sqrt(1.0 + t * t);
+      }
+      return 0.0;
+   }
+
+   /**
+    * Returns if the eigenvectors were computed.
+    *
+    * @return if the eigenvectors are available.
+    */
+   public boolean hasEigenvectors() {
+      return v != null;
+   }
+
+   /**
+    * Returns the eigenvalues in ascending order.
+    *
+    * @return the eigenvalues.
+    */
+   public double[] getEigenvalues() {
+      return d.clone();
+   }
+
+   /**
+    * Returns the eigenvector of the eigenvalue at the specified index.
+    *
+    * @param i the index of the eigenvalue.
+    * @return the normalized eigenvector, as a row vector.
+    * @throws IllegalStateException if the eigenvectors were not computed.
+    */
+   public Vector getEigenvector(int i) {
+      catchNoVectors();
+      double[] x = new double[n];
+      System.arraycopy(v, i * n, x, 0, n);
+      return new Vector(x);
+   }
+
+   /**
+    * Returns the matrix whose columns are the eigenvectors in the order of the eigenvalues.
+    *
+    * @return the orthogonal eigenvector matrix.
+    * @throws IllegalStateException if the eigenvectors were not computed.
+    */
+   public Matrix getEigenvectors() {
+      catchNoVectors();
+      return new Matrix(n, n, v.clone()).transpose();
+   }
+
+   /**
+    * Catches a decomposition computed without eigenvectors and throws the proper exception.
+    */
+   private void catchNoVectors() {
+      if (v == null) {
+         throw new IllegalStateException("Eigenvectors were not computed.");
+      }
+   }
+}
@@ -32,7 +32,22 @@ public class Vector extends Matrix implements IVector {
     * @param v the base vector of the matrix.
     */
    public Vector(double[] v) {
-      super(new double[][] {v});
+      super(1, v.length, v);
+   }
+
+   /**
+    * Creates a new vector over the specified region of a row-major array, either a row with one row or a column with
+    * one column.  If the resulting vector is modified the array will change as well.
+    *
+    * @param rows the number of rows in this vector.
+    * @param columns the number of columns in this vector.
+    * @param data the row-major backing array of the vector.
+    * @param offset the index of the first value.
+    * @param stride the distance between the starts of two consecutive rows.
+    * @param columnStride the distance between two consecutive values of a row.
+    */
+   Vector(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      super(rows, columns, data, offset, stride, columnStride);
    }
 
    /**
@@ -44,9 +59,39 @@ public class Vector extends Matrix implements IVector {
       super(v);
    }
 
+   /**
+    * Sets the vector to be the specified array. This methods does not copy but sets the array which will change if the
+    * vector is modified.
+    *
+    * @param v the new array for the vector.
+    * @return the row vector representation of the array.
+    */
    @Override
    public Vector set(double[] v) {
-      return (Vector) IVector.super.set(v);
+      setStorage(1, v.length, v, 0, v.length);
+      return this;
+   }
+
+   /**
+    * Returns a view of a range of the vector with the same orientation.  Nothing is copied.
+    *
+    * @param i the index of the first value of the range.
+    * @param length the number of values in the range.
+    * @return the view of the range.
+    * @throws MatrixDimensionException if the range is not within the vector.
+    */
+   public Vector view(int i, int length) {
+      return (rows() == 1 ? (Vector) view(0, i, 1, length) : (Vector) view(i, 0, length, 1));
+   }
+
+   @Override
+   protected Vector wrap(int rows, int columns, double[] data, int offset, int stride, int columnStride) {
+      return new Vector(rows, columns, data, offset, stride, columnStride);
+   }
+
+   @Override
+   public Vector compact() {
+      return (Vector) super.compact();
    }
 
    @Override
@@ -101,7 +146,10 @@ public class Vector extends Matrix implements IVector {
 
    @Override
    public Vector add(IVector v) {
-      return (Vector) IVector.super.add(v);
+      if (!(v instanceof DenseMatrix)) {
+         return (Vector) IVector.super.add(v);
+      }
+      return combine((DenseMatrix) v, Operation.ADD);
    }
 
    @Override
@@ -111,7 +159,10 @@ public class Vector extends Matrix implements IVector {
 
    @Override
    public Vector subtract(IVector v) {
-      return (Vector) IVector.super.subtract(v);
+      if (!(v instanceof DenseMatrix)) {
+         return (Vector) IVector.super.subtract(v);
+      }
+      return combine((DenseMatrix) v, Operation.SUBTRACT);
    }
 
    @Override
@@ -119,9 +170,25 @@ public class Vector extends Matrix implements IVector {
       return (Vector) super.subtract(a);
    }
 
+   /**
+    * Returns the outer-product of the vector and the specified vector regardless of their orientations.  With a dense
+    * vector the product is computed by {@link Gemm} reading both vectors in place.
+    *
+    * @param v the outer vector.
+    * @return the outer-product of the vector multiplied by the specified vector.
+    */
    @Override
    public Matrix outer(IVector v) {
-      return (Matrix) IVector.super.outer(v);
+      if (!(v instanceof DenseMatrix)) {
+         return (Matrix) IVector.super.outer(v);
+      }
+      DenseMatrix d = (DenseMatrix) v;
+      int m = length();
+      int n = v.length();
+      double[] c = new double[m * n];
+      Gemm.multiply(m, n, 1, 1.0, data(), offset(), vectorStep(), 1, d.data(), d.offset(), 1, d.vectorStep(), 0.0, c,
+                    0, n);
+      return new Matrix(m, n, c);
    }
 
    @Override
@@ -136,7 +203,10 @@ public class Vector extends Matrix implements IVector {
 
    @Override
    public Vector dotMultiply(IVector v) {
-      return (Vector) IVector.super.dotMultiply(v);
+      if (!(v instanceof DenseMatrix)) {
+         return (Vector) IVector.super.dotMultiply(v);
+      }
+      return combine((DenseMatrix) v, Operation.MULTIPLY);
    }
 
    @Override
@@ -146,7 +216,142 @@ public class Vector extends Matrix implements IVector {
 
    @Override
    public Vector dotDivide(IVector v) {
-      return (Vector) IVector.super.dotDivide(v);
+      if (!(v instanceof DenseMatrix)) {
+         return (Vector) IVector.super.dotDivide(v);
+      }
+      return combine((DenseMatrix) v, Operation.DIVIDE);
+   }
+
+   /**
+    * Returns the inner-product of the vector and the specified vector regardless of their orientations.  Two dense
+    * vectors are multiplied directly over their backing arrays, with the kernels of {@link Simd} when both are
+    * contiguous.  Against a sparse vector only its stored values are visited.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the inner vector.
+    * @return the inner-product of the vector multiplied by the specified vector.
+    */
+   @Override
+   public double inner(IVector v) {
+      if (v instanceof SparseVector) {
+         return v.inner(this);
+      }
+      if (!(v instanceof DenseMatrix)) {
+         return IVector.super.inner(v);
+      }
+      DenseMatrix d = (DenseMatrix) v;
+      int n = length();
+      int as = vectorStep();
+      int bs = d.vectorStep();
+      if (as == 1 && bs == 1) {
+         return Simd.dot(data(), offset(), d.data(), d.offset(), n);
+      }
+      double[] a = data();
+      double[] b = d.data();
+      double sum = 0.0;
+      for (int i = 0, k = offset(), l = d.offset(); i < n; i++, k += as, l += bs) {
+         sum += a[k] * b[l];
+      }
+      return sum;
+   }
+
+   /**
+    * Returns the 1-norm of the vector, the sum of the absolute values, with the kernels of {@link Simd} when the vector
+    * is contiguous.
+    *
+    * @return the 1-norm of the vector.
+    */
+   @Override
+   public double norm1() {
+      if (vectorStep() != 1) {
+         return IVector.super.norm1();
+      }
+      return Simd.sumAbs(data(), offset(), length());
+   }
+
+   /**
+    * Returns the Euclidean norm of the vector, with the kernels of {@link Simd} when the vector is contiguous.  Only if
+    * the sum of the squares overflows or underflows are the values scaled as in {@link IVector#norm2()}.
+    *
+    * @return the 2-norm of the vector.
+    */
+   @Override
+   public double norm2() {
+      if (vectorStep() != 1) {
+         return IVector.super.norm2();
+      }
+      double sum = Simd.dot(data(), offset(), data(), offset(), length());
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      return IVector.super.norm2();
+   }
+
+   /**
+    * Returns the infinity-norm of the vector, the largest absolute value, with the kernels of {@link Simd} when the
+    * vector is contiguous.
+    *
+    * @return the infinity-norm of the vector.
+    */
+   @Override
+   public double normInf() {
+      if (vectorStep() != 1) {
+         return IVector.super.normInf();
+      }
+      return Simd.maxAbs(data(), offset(), length());
+   }
+
+   @Override
+   public Vector normalize() {
+      return scale(1.0 / norm2());
+   }
+
+   /**
+    * Returns the Euclidean distance between the vector and the specified vector regardless of their orientations, with
+    * the kernels of {@link Simd} when both are dense and contiguous.  Only if the sum of the squares overflows or
+    * underflows are the differences scaled as in {@link IVector#distance(IVector)}.
+    * <p/>
+    * Unsafe method, does not perform dimension checks.
+    *
+    * @param v the other vector.
+    * @return the distance between the vectors.
+    */
+   @Override
+   public double distance(IVector v) {
+      if (!(v instanceof DenseMatrix) || vectorStep() != 1 || ((DenseMatrix) v).vectorStep() != 1) {
+         return IVector.super.distance(v);
+      }
+      DenseMatrix d = (DenseMatrix) v;
+      double sum = Simd.squaredDistance(data(), offset(), d.data(), d.offset(), length());
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      return IVector.super.distance(v);
+   }
+
+   /**
+    * Applies an element-wise operation to the vector and the specified dense vector of the same length regardless of
+    * their orientations.  The values are read in place, with the kernels of {@link Simd} when both are contiguous.
+    *
+    * @param d the other vector.
+    * @param operation the operation.
+    * @return the original vector modified by the operation.
+    */
+   private Vector combine(DenseMatrix d, Operation operation) {
+      int n = length();
+      int as = vectorStep();
+      int bs = d.vectorStep();
+      double[] a = data();
+      double[] b = d.data();
+      if (as == 1 && bs == 1) {
+         operation.apply(a, offset(), b, d.offset(), n);
+      } else {
+         for (int i = 0, k = offset(), l = d.offset(); i < n; i++, k += as, l += bs) {
+            a[k] = operation.apply(a[k], b[l]);
+         }
+      }
+      return this;
    }
 
    @Override
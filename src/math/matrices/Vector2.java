@@ -0,0 +1,334 @@
+package math.matrices;
+
+/**
+ * A vector of length two with its values held in fields instead of an array.  Every operation is unrolled, and like
+ * the rest of the library modifies the vector in place, so code that reuses its vectors allocates nothing and the JIT
+ * can scalar-replace short-lived vectors which do not escape a method.
+ * <p/>
+ * The vector is an {@link IVector} and can be used wherever one is expected.  Like {@link Vector} it is created as a
+ * row vector and {@link #transpose()} turns it into a column vector and back, so it can stand on either side of a
+ * matrix product.  The orientation is a single flag and only changes the dimensions the vector reports and how {@link
+ * #get(int, int)} and {@link #set(int, int, double)} index it.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Vector2 implements IVector {
+
+   /**
+    * The values of the vector.
+    */
+   public double x, y;
+
+   /**
+    * If the vector is a column vector rather than a row vector.
+    */
+   private boolean column;
+
+   /**
+    * Creates a new vector with all values equaling zero.
+    */
+   public Vector2() {
+   }
+
+   /**
+    * Creates a new vector with the specified values.
+    *
+    * @param x the value at index 0.
+    * @param y the value at index 1.
+    */
+   public Vector2(double x, double y) {
+      set(x, y);
+   }
+
+   /**
+    * Creates a new vector that is a copy of the specified vector and has the same orientation.
+    *
+    * @param v the vector to copy.
+    * @throws VectorDimensionException if the vector is not of length 2.
+    */
+   public Vector2(IVector v) {
+      catchLength(v.length());
+      set(v.get(0), v.get(1));
+      column = (v.columns() == 1);
+   }
+
+   @Override
+   public int rows() {
+      return (column ? 2 : 1);
+   }
+
+   @Override
+   public int columns() {
+      return (column ? 1 : 2);
+   }
+
+   @Override
+   public int length() {
+      return 2;
+   }
+
+   @Override
+   public double get(int i) {
+      switch (i) {
+         case 0:
+            return x;
+         case 1:
+            return y;
+         default:
+            DimensionChecking.catchOutOfBounds(this, i);
+            return Double.NaN;
+      }
+   }
+
+   @Override
+   public double get(int r, int c) {
+      if (column ? c != 0 : r != 0) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      return get(r + c);
+   }
+
+   @Override
+   public Vector2 set(int i, double n) {
+      switch (i) {
+         case 0:
+            x = n;
+            break;
+         case 1:
+            y = n;
+            break;
+         default:
+            DimensionChecking.catchOutOfBounds(this, i);
+      }
+      return this;
+   }
+
+   @Override
+   public Vector2 set(int r, int c, double n) {
+      if (column ? c != 0 : r != 0) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      return set(r + c, n);
+   }
+
+   /**
+    * {@inheritDoc}  The values of the array, a single row or a single column, are copied into the vector, which takes
+    * the orientation of the array.
+    *
+    * @throws MatrixDimensionException if the array is neither {@code 1x2} nor {@code 2x1}.
+    */
+   @Override
+   public Vector2 set(double[][] a) {
+      if (a.length == 1 && a[0].length == 2) {
+         column = false;
+         return set(a[0][0], a[0][1]);
+      } else if (a.length == 2 && a[0].length == 1 && a[1].length == 1) {
+         column = true;
+         return set(a[0][0], a[1][0]);
+      }
+      throw new MatrixDimensionException("Matrix dimensions do not agree: (" + a.length + "x"
+            + (a.length == 0 ? 0 : a[0].length) + ") and (1x2)");
+   }
+
+   /**
+    * Sets all the values of the vector.
+    *
+    * @param x the value at index 0.
+    * @param y the value at index 1.
+    * @return the vector.
+    */
+   public Vector2 set(double x, double y) {
+      this.x = x;
+      this.y = y;
+      return this;
+   }
+
+   /**
+    * Sets the vector to have the values of the specified vector.
+    *
+    * @param v the vector to copy.
+    * @return the vector.
+    */
+   public Vector2 set(Vector2 v) {
+      return set(v.x, v.y);
+   }
+
+   /**
+    * {@inheritDoc}  Only the orientation is switched; no values move.
+    */
+   @Override
+   public Vector2 transpose() {
+      column = !column;
+      return this;
+   }
+
+   @Override
+   public Vector2 scale(double n) {
+      x *= n;
+      y *= n;
+      return this;
+   }
+
+   /**
+    * Adds the specified vector to the vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to add.
+    * @return the original vector modified with the addition of the specified vector.
+    */
+   public Vector2 add(Vector2 v) {
+      x += v.x;
+      y += v.y;
+      return this;
+   }
+
+   @Override
+   public Vector2 add(IVector v) {
+      if (v instanceof Vector2) {
+         return add((Vector2) v);
+      }
+      return (Vector2) IVector.super.add(v);
+   }
+
+   /**
+    * Subtracts the specified vector from the vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to subtract.
+    * @return the original vector modified with the subtraction of the specified vector.
+    */
+   public Vector2 subtract(Vector2 v) {
+      x -= v.x;
+      y -= v.y;
+      return this;
+   }
+
+   @Override
+   public Vector2 subtract(IVector v) {
+      if (v instanceof Vector2) {
+         return subtract((Vector2) v);
+      }
+      return (Vector2) IVector.super.subtract(v);
+   }
+
+   /**
+    * Dot-wise multiplies the vector by the specified vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to dot-multiply.
+    * @return the original vector modified with the dot-multiplication of the specified vector.
+    */
+   public Vector2 dotMultiply(Vector2 v) {
+      x *= v.x;
+      y *= v.y;
+      return this;
+   }
+
+   @Override
+   public Vector2 dotMultiply(IVector v) {
+      if (v instanceof Vector2) {
+         return dotMultiply((Vector2) v);
+      }
+      return (Vector2) IVector.super.dotMultiply(v);
+   }
+
+   /**
+    * Dot-wise divides the vector by the specified vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to dot-divide.
+    * @return the original vector modified with the dot-division of the specified vector.
+    */
+   public Vector2 dotDivide(Vector2 v) {
+      x /= v.x;
+      y /= v.y;
+      return this;
+   }
+
+   @Override
+   public Vector2 dotDivide(IVector v) {
+      if (v instanceof Vector2) {
+         return dotDivide((Vector2) v);
+      }
+      return (Vector2) IVector.super.dotDivide(v);
+   }
+
+   /**
+    * Returns the dot product of the vector and the specified vector.
+    *
+    * @param v the other vector.
+    * @return the dot product.
+    */
+   public double dot(Vector2 v) {
+      return x * v.x + y * v.y;
+   }
+
+   @Override
+   public double inner(IVector v) {
+      if (v instanceof Vector2) {
+         return dot((Vector2) v);
+      }
+      return IVector.super.inner(v);
+   }
+
+   /**
+    * Returns the Euclidean norm of the vector.  Only if the sum of the squares overflows or underflows are the values
+    * scaled as in {@link IVector#norm2()}.
+    *
+    * @return the Euclidean norm.
+    */
+   @Override
+   public double norm2() {
+      double sum = dot(this);
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      return IVector.super.norm2();
+   }
+
+   @Override
+   public Vector2 normalize() {
+      return scale(1.0 / norm2());
+   }
+
+   /**
+    * Returns the cross product of the vector and the specified vector, the value of the third dimension of the cross
+    * product of the two vectors in the plane.
+    *
+    * @param v the right vector.
+    * @return the cross product.
+    */
+   public double cross(Vector2 v) {
+      return x * v.y - y * v.x;
+   }
+
+   /**
+    * Returns the outer-product of the vector and the specified vector, the matrix with the value {@code get(i) *
+    * v.get(j)} at row {@code i} and column {@code j}.
+    *
+    * @param v the outer vector.
+    * @return the outer-product of the vector multiplied by the specified vector.
+    */
+   public Matrix2 outer(Vector2 v) {
+      return new Matrix2(x * v.x, x * v.y,
+                         y * v.x, y * v.y);
+   }
+
+   /**
+    * Returns a copy of the vector with the same orientation.
+    *
+    * @return the copy of the vector.
+    */
+   @Override
+   public Vector2 copy() {
+      Vector2 v = new Vector2(x, y);
+      v.column = column;
+      return v;
+   }
+
+   /**
+    * Catches a length other than the length of the vector and throws the proper dimension exception.
+    */
+   private static void catchLength(int length) {
+      if (length != 2) {
+         throw new VectorDimensionException("Vector lengths do not agree: " + length + " and 2");
+      }
+   }
+}
@@ -0,0 +1,360 @@
+package math.matrices;
+
+/**
+ * A vector of length three with its values held in fields instead of an array.  Every operation is unrolled, and like
+ * the rest of the library modifies the vector in place, so code that reuses its vectors allocates nothing and the JIT
+ * can scalar-replace short-lived vectors which do not escape a method.
+ * <p/>
+ * The vector is an {@link IVector} and can be used wherever one is expected.  Like {@link Vector} it is created as a
+ * row vector and {@link #transpose()} turns it into a column vector and back, so it can stand on either side of a
+ * matrix product.  The orientation is a single flag and only changes the dimensions the vector reports and how {@link
+ * #get(int, int)} and {@link #set(int, int, double)} index it.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Vector3 implements IVector {
+
+   /**
+    * The values of the vector.
+    */
+   public double x, y, z;
+
+   /**
+    * If the vector is a column vector rather than a row vector.
+    */
+   private boolean column;
+
+   /**
+    * Creates a new vector with all values equaling zero.
+    */
+   public Vector3() {
+   }
+
+   /**
+    * Creates a new vector with the specified values.
+    *
+    * @param x the value at index 0.
+    * @param y the value at index 1.
+    * @param z the value at index 2.
+    */
+   public Vector3(double x, double y, double z) {
+      set(x, y, z);
+   }
+
+   /**
+    * Creates a new vector that is a copy of the specified vector and has the same orientation.
+    *
+    * @param v the vector to copy.
+    * @throws VectorDimensionException if the vector is not of length 3.
+    */
+   public Vector3(IVector v) {
+      catchLength(v.length());
+      set(v.get(0), v.get(1), v.get(2));
+      column = (v.columns() == 1);
+   }
+
+   @Override
+   public int rows() {
+      return (column ? 3 : 1);
+   }
+
+   @Override
+   public int columns() {
+      return (column ? 1 : 3);
+   }
+
+   @Override
+   public int length() {
+      return 3;
+   }
+
+   @Override
+   public double get(int i) {
+      switch (i) {
+         case 0:
+            return x;
+         case 1:
+            return y;
+         case 2:
+            return z;
+         default:
+            DimensionChecking.catchOutOfBounds(this, i);
+            return Double.NaN;
+      }
+   }
+
+   @Override
+   public double get(int r, int c) {
+      if (column ? c != 0 : r != 0) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      return get(r + c);
+   }
+
+   @Override
+   public Vector3 set(int i, double n) {
+      switch (i) {
+         case 0:
+            x = n;
+            break;
+         case 1:
+            y = n;
+            break;
+         case 2:
+            z = n;
+            break;
+         default:
+            DimensionChecking.catchOutOfBounds(this, i);
+      }
+      return this;
+   }
+
+   @Override
+   public Vector3 set(int r, int c, double n) {
+      if (column ? c != 0 : r != 0) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      return set(r + c, n);
+   }
+
+   /**
+    * {@inheritDoc}  The values of the array, a single row or a single column, are copied into the vector, which takes
+    * the orientation of the array.
+    *
+    * @throws MatrixDimensionException if the array is neither {@code 1x3} nor {@code 3x1}.
+    */
+   @Override
+   public Vector3 set(double[][] a) {
+      if (a.length == 1 && a[0].length == 3) {
+         column = false;
+         return set(a[0][0], a[0][1], a[0][2]);
+      } else if (a.length == 3 && a[0].length == 1 && a[1].length == 1 && a[2].length == 1) {
+         column = true;
+         return set(a[0][0], a[1][0], a[2][0]);
+      }
+      throw new MatrixDimensionException("Matrix dimensions do not agree: (" + a.length + "x"
+            + (a.length == 0 ? 0 : a[0].length) + ") and (1x3)");
+   }
+
+   /**
+    * Sets all the values of the vector.
+    *
+    * @param x the value at index 0.
+    * @param y the value at index 1.
+    * @param z the value at index 2.
+    * @return the vector.
+    */
+   public Vector3 set(double x, double y, double z) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+      return this;
+   }
+
+   /**
+    * Sets the vector to have the values of the specified vector.
+    *
+    * @param v the vector to copy.
+    * @return the vector.
+    */
+   public Vector3 set(Vector3 v) {
+      return set(v.x, v.y, v.z);
+   }
+
+   /**
+    * {@inheritDoc}  Only the orientation is switched; no values move.
+    */
+   @Override
+   public Vector3 transpose() {
+      column = !column;
+      return this;
+   }
+
+   @Override
+   public Vector3 scale(double n) {
+      x *= n;
+      y *= n;
+      z *= n;
+      return this;
+   }
+
+   /**
+    * Adds the specified vector to the vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to add.
+    * @return the original vector modified with the addition of the specified vector.
+    */
+   public Vector3 add(Vector3 v) {
+      x += v.x;
+      y += v.y;
+      z += v.z;
+      return this;
+   }
+
+   @Override
+   public Vector3 add(IVector v) {
+      if (v instanceof Vector3) {
+         return add((Vector3) v);
+      }
+      return (Vector3) IVector.super.add(v);
+   }
+
+   /**
+    * Subtracts the specified vector from the vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to subtract.
+    * @return the original vector modified with the subtraction of the specified vector.
+    */
+   public Vector3 subtract(Vector3 v) {
+      x -= v.x;
+      y -= v.y;
+      z -= v.z;
+      return this;
+   }
+
+   @Override
+   public Vector3 subtract(IVector v) {
+      if (v instanceof Vector3) {
+         return subtract((Vector3) v);
+      }
+      return (Vector3) IVector.super.subtract(v);
+   }
+
+   /**
+    * Dot-wise multiplies the vector by the specified vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to dot-multiply.
+    * @return the original vector modified with the dot-multiplication of the specified vector.
+    */
+   public Vector3 dotMultiply(Vector3 v) {
+      x *= v.x;
+      y *= v.y;
+      z *= v.z;
+      return this;
+   }
+
+   @Override
+   public Vector3 dotMultiply(IVector v) {
+      if (v instanceof Vector3) {
+         return dotMultiply((Vector3) v);
+      }
+      return (Vector3) IVector.super.dotMultiply(v);
+   }
+
+   /**
+    * Dot-wise divides the vector by the specified vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to dot-divide.
+    * @return the original vector modified with the dot-division of the specified vector.
+    */
+   public Vector3 dotDivide(Vector3 v) {
+      x /= v.x;
+      y /= v.y;
+      z /= v.z;
+      return this;
+   }
+
+   @Override
+   public Vector3 dotDivide(IVector v) {
+      if (v instanceof Vector3) {
+         return dotDivide((Vector3) v);
+      }
+      return (Vector3) IVector.super.dotDivide(v);
+   }
+
+   /**
+    * Returns the dot product of the vector and the specified vector.
+    *
+    * @param v the other vector.
+    * @return the dot product.
+    */
+   public double dot(Vector3 v) {
+      return x * v.x + y * v.y + z * v.z;
+   }
+
+   @Override
+   public double inner(IVector v) {
+      if (v instanceof Vector3) {
+         return dot((Vector3) v);
+      }
+      return IVector.super.inner(v);
+   }
+
+   /**
+    * Returns the Euclidean norm of the vector.  Only if the sum of the squares overflows or underflows are the values
+    * scaled as in {@link IVector#norm2()}.
+    *
+    * @return the Euclidean norm.
+    */
+   @Override
+   public double norm2() {
+      double sum = dot(this);
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      return IVector.super.norm2();
+   }
+
+   @Override
+   public Vector3 normalize() {
+      return scale(1.0 / norm2());
+   }
+
+   /**
+    * Sets the vector to its cross product with the specified vector, {@code this = this x v}.
+    *
+    * @param v the right vector.
+    * @return the original vector modified with the cross product.
+    */
+   public Vector3 cross(Vector3 v) {
+      return cross(this, v, this);
+   }
+
+   /**
+    * Writes the cross product of two vectors into the specified vector, {@code out = a x b}.  The result may be either
+    * operand.
+    *
+    * @param a the left vector.
+    * @param b the right vector.
+    * @param out the vector to write the cross product into.
+    * @return the specified result vector.
+    */
+   public static Vector3 cross(Vector3 a, Vector3 b, Vector3 out) {
+      return out.set(a.y * b.z - a.z * b.y, a.z * b.x - a.x * b.z, a.x * b.y - a.y * b.x);
+   }
+
+   /**
+    * Returns the outer-product of the vector and the specified vector, the matrix with the value {@code get(i) *
+    * v.get(j)} at row {@code i} and column {@code j}.
+    *
+    * @param v the outer vector.
+    * @return the outer-product of the vector multiplied by the specified vector.
+    */
+   public Matrix3 outer(Vector3 v) {
+      return new Matrix3(x * v.x, x * v.y, x * v.z,
+                         y * v.x, y * v.y, y * v.z,
+                         z * v.x, z * v.y, z * v.z);
+   }
+
+   /**
+    * Returns a copy of the vector with the same orientation.
+    *
+    * @return the copy of the vector.
+    */
+   @Override
+   public Vector3 copy() {
+      Vector3 v = new Vector3(x, y, z);
+      v.column = column;
+      return v;
+   }
+
+   /**
+    * Catches a length other than the length of the vector and throws the proper dimension exception.
+    */
+   private static void catchLength(int length) {
+      if (length != 3) {
+         throw new VectorDimensionException("Vector lengths do not agree: " + length + " and 3");
+      }
+   }
+}
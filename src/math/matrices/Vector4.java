@@ -0,0 +1,351 @@
+package math.matrices;
+
+/**
+ * A vector of length four with its values held in fields instead of an array.  Every operation is unrolled, and like
+ * the rest of the library modifies the vector in place, so code that reuses its vectors allocates nothing and the JIT
+ * can scalar-replace short-lived vectors which do not escape a method.
+ * <p/>
+ * The vector is an {@link IVector} and can be used wherever one is expected.  Like {@link Vector} it is created as a
+ * row vector and {@link #transpose()} turns it into a column vector and back, so it can stand on either side of a
+ * matrix product.  The orientation is a single flag and only changes the dimensions the vector reports and how {@link
+ * #get(int, int)} and {@link #set(int, int, double)} index it.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class Vector4 implements IVector {
+
+   /**
+    * The values of the vector.
+    */
+   public double x, y, z, w;
+
+   /**
+    * If the vector is a column vector rather than a row vector.
+    */
+   private boolean column;
+
+   /**
+    * Creates a new vector with all values equaling zero.
+    */
+   public Vector4() {
+   }
+
+   /**
+    * Creates a new vector with the specified values.
+    *
+    * @param x the value at index 0.
+    * @param y the value at index 1.
+    * @param z the value at index 2.
+    * @param w the value at index 3.
+    */
+   public Vector4(double x, double y, double z, double w) {
+      set(x, y, z, w);
+   }
+
+   /**
+    * Creates a new vector that is a copy of the specified vector and has the same orientation.
+    *
+    * @param v the vector to copy.
+    * @throws VectorDimensionException if the vector is not of length 4.
+    */
+   public Vector4(IVector v) {
+      catchLength(v.length());
+      set(v.get(0), v.get(1), v.get(2), v.get(3));
+      column = (v.columns() == 1);
+   }
+
+   @Override
+   public int rows() {
+      return (column ? 4 : 1);
+   }
+
+   @Override
+   public int columns() {
+      return (column ? 1 : 4);
+   }
+
+   @Override
+   public int length() {
+      return 4;
+   }
+
+   @Override
+   public double get(int i) {
+      switch (i) {
+         case 0:
+            return x;
+         case 1:
+            return y;
+         case 2:
+            return z;
+         case 3:
+            return w;
+         default:
+            DimensionChecking.catchOutOfBounds(this, i);
+            return Double.NaN;
+      }
+   }
+
+   @Override
+   public double get(int r, int c) {
+      if (column ? c != 0 : r != 0) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      return get(r + c);
+   }
+
+   @Override
+   public Vector4 set(int i, double n) {
+      switch (i) {
+         case 0:
+            x = n;
+            break;
+         case 1:
+            y = n;
+            break;
+         case 2:
+            z = n;
+            break;
+         case 3:
+            w = n;
+            break;
+         default:
+            DimensionChecking.catchOutOfBounds(this, i);
+      }
+      return this;
+   }
+
+   @Override
+   public Vector4 set(int r, int c, double n) {
+      if (column ? c != 0 : r != 0) {
+         DimensionChecking.catchOutOfBounds(this, r, c);
+      }
+      return set(r + c, n);
+   }
+
+   /**
+    * {@inheritDoc}  The values of the array, a single row or a single column, are copied into the vector, which takes
+    * the orientation of the array.
+    *
+    * @throws MatrixDimensionException if the array is neither {@code 1x4} nor {@code 4x1}.
+    */
+   @Override
+   public Vector4 set(double[][] a) {
+      if (a.length == 1 && a[0].length == 4) {
+         column = false;
+         return set(a[0][0], a[0][1], a[0][2], a[0][3]);
+      } else if (a.length == 4 && a[0].length == 1 && a[1].length == 1 && a[2].length == 1 && a[3].length == 1) {
+         column = true;
+         return set(a[0][0], a[1][0], a[2][0], a[3][0]);
+      }
+      throw new MatrixDimensionException("Matrix dimensions do not agree: (" + a.length + "x"
+            + (a.length == 0 ? 0 : a[0].length) + ") and (1x4)");
+   }
+
+   /**
+    * Sets all the values of the vector.
+    *
+    * @param x the value at index 0.
+    * @param y the value at index 1.
+    * @param z the value at index 2.
+    * @param w the value at index 3.
+    * @return the vector.
+    */
+   public Vector4 set(double x, double y, double z, double w) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+      this.w = w;
+      return this;
+   }
+
+   /**
+    * Sets the vector to have the values of the specified vector.
+    *
+    * @param v the vector to copy.
+    * @return the vector.
+    */
+   public Vector4 set(Vector4 v) {
+      return set(v.x, v.y, v.z, v.w);
+   }
+
+   /**
+    * {@inheritDoc}  Only the orientation is switched; no values move.
+    */
+   @Override
+   public Vector4 transpose() {
+      column = !column;
+      return this;
+   }
+
+   @Override
+   public Vector4 scale(double n) {
+      x *= n;
+      y *= n;
+      z *= n;
+      w *= n;
+      return this;
+   }
+
+   /**
+    * Adds the specified vector to the vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to add.
+    * @return the original vector modified with the addition of the specified vector.
+    */
+   public Vector4 add(Vector4 v) {
+      x += v.x;
+      y += v.y;
+      z += v.z;
+      w += v.w;
+      return this;
+   }
+
+   @Override
+   public Vector4 add(IVector v) {
+      if (v instanceof Vector4) {
+         return add((Vector4) v);
+      }
+      return (Vector4) IVector.super.add(v);
+   }
+
+   /**
+    * Subtracts the specified vector from the vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to subtract.
+    * @return the original vector modified with the subtraction of the specified vector.
+    */
+   public Vector4 subtract(Vector4 v) {
+      x -= v.x;
+      y -= v.y;
+      z -= v.z;
+      w -= v.w;
+      return this;
+   }
+
+   @Override
+   public Vector4 subtract(IVector v) {
+      if (v instanceof Vector4) {
+         return subtract((Vector4) v);
+      }
+      return (Vector4) IVector.super.subtract(v);
+   }
+
+   /**
+    * Dot-wise multiplies the vector by the specified vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to dot-multiply.
+    * @return the original vector modified with the dot-multiplication of the specified vector.
+    */
+   public Vector4 dotMultiply(Vector4 v) {
+      x *= v.x;
+      y *= v.y;
+      z *= v.z;
+      w *= v.w;
+      return this;
+   }
+
+   @Override
+   public Vector4 dotMultiply(IVector v) {
+      if (v instanceof Vector4) {
+         return dotMultiply((Vector4) v);
+      }
+      return (Vector4) IVector.super.dotMultiply(v);
+   }
+
+   /**
+    * Dot-wise divides the vector by the specified vector.  This method modifies the original values of the vector.
+    *
+    * @param v the vector to dot-divide.
+    * @return the original vector modified with the dot-division of the specified vector.
+    */
+   public Vector4 dotDivide(Vector4 v) {
+      x /= v.x;
+      y /= v.y;
+      z /= v.z;
+      w /= v.w;
+      return this;
+   }
+
+   @Override
+   public Vector4 dotDivide(IVector v) {
+      if (v instanceof Vector4) {
+         return dotDivide((Vector4) v);
+      }
+      return (Vector4) IVector.super.dotDivide(v);
+   }
+
+   /**
+    * Returns the dot product of the vector and the specified vector.
+    *
+    * @param v the other vector.
+    * @return the dot product.
+    */
+   public double dot(Vector4 v) {
+      return x * v.x + y * v.y + z * v.z + w * v.w;
+   }
+
+   @Override
+   public double inner(IVector v) {
+      if (v instanceof Vector4) {
+         return dot((Vector4) v);
+      }
+      return IVector.super.inner(v);
+   }
+
+   /**
+    * Returns the Euclidean norm of the vector.  Only if the sum of the squares overflows or underflows are the values
+    * scaled as in {@link IVector#norm2()}.
+    *
+    * @return the Euclidean norm.
+    */
+   @Override
+   public double norm2() {
+      double sum = dot(this);
+      if (sum >= Double.MIN_NORMAL && sum <= Double.MAX_VALUE) {
+         return Math.sqrt(sum);
+      }
+      return IVector.super.norm2();
+   }
+
+   @Override
+   public Vector4 normalize() {
+      return scale(1.0 / norm2());
+   }
+
+   /**
+    * Returns the outer-product of the vector and the specified vector, the matrix with the value {@code get(i) *
+    * v.get(j)} at row {@code i} and column {@code j}.
+    *
+    * @param v the outer vector.
+    * @return the outer-product of the vector multiplied by the specified vector.
+    */
+   public Matrix4 outer(Vector4 v) {
+      return new Matrix4(x * v.x, x * v.y, x * v.z, x * v.w,
+                         y * v.x, y * v.y, y * v.z, y * v.w,
+                         z * v.x, z * v.y, z * v.z, z * v.w,
+                         w * v.x, w * v.y, w * v.z, w * v.w);
+   }
+
+   /**
+    * Returns a copy of the vector with the same orientation.
+    *
+    * @return the copy of the vector.
+    */
+   @Override
+   public Vector4 copy() {
+      Vector4 v = new Vector4(x, y, z, w);
+      v.column = column;
+      return v;
+   }
+
+   /**
+    * Catches a length other than the length of the vector and throws the proper dimension exception.
+    */
+   private static void catchLength(int length) {
+      if (length != 4) {
+         throw new VectorDimensionException("Vector lengths do not agree: " + length + " and 4");
+      }
+   }
+}
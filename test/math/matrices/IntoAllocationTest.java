@@ -0,0 +1,97 @@
+package math.matrices;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Checks that the steady-state loop of the into variants allocates nothing: after a warm-up, repeated {@link
+ * IMatrix#multiplyInto(IMatrix, IMatrix, IMatrix)}, {@link IMatrix#transposeInto(IMatrix)}, {@link IMatrix#getRow(int,
+ * double[])} and {@link IMatrix#getColumn(int, double[])} on 48x48 matrices must not allocate a single byte on the
+ * current thread.  The allocated bytes are read from the {@code com.sun.management} extension of the thread bean.
+ * <p/>
+ * Run after compiling {@code src} and this file onto the class path: {@code java math.matrices.IntoAllocationTest}.
+ * Exits with an {@link AssertionError} if the loop allocates.
+ *
+ * @author Brian Norman
+ * @version 0.1 beta
+ */
+public final class IntoAllocationTest {
+
+   /**
+    * The number of rows and columns of the matrices.
+    */
+   private static final int SIZE = 48;
+
+   /**
+    * The number of iterations run before measuring, enough for the loop to be compiled.
+    */
+   private static final int WARM_UP = 20000;
+
+   /**
+    * The number of iterations measured.
+    */
+   private static final int ITERATIONS = 10000;
+
+   /**
+    * Hidden constructor of the test.
+    */
+   private IntoAllocationTest() {
+   }
+
+   /**
+    * Runs the check.
+    *
+    * @param args ignored.
+    */
+   public static void main(String[] args) {
+      com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      if (!bean.isThreadAllocatedMemorySupported()) {
+         throw new AssertionError("The virtual machine does not measure allocated memory");
+      }
+      bean.setThreadAllocatedMemoryEnabled(true);
+
+      Random random = new Random(16);
+      Matrix a = random(random);
+      Matrix b = random(random);
+      Matrix product = new Matrix(SIZE, SIZE);
+      Matrix transpose = new Matrix(SIZE, SIZE);
+      double[] row = new double[SIZE];
+      double[] column = new double[SIZE];
+
+      loop(a, b, product, transpose, row, column, WARM_UP);
+      long before = bean.getCurrentThreadAllocatedBytes();
+      loop(a, b, product, transpose, row, column, ITERATIONS);
+      long allocated = bean.getCurrentThreadAllocatedBytes() - before;
+
+      if (allocated != 0) {
+         throw new AssertionError("Allocated " + allocated + " bytes in " + ITERATIONS + " iterations");
+      }
+      System.out.println("Allocated 0 bytes in " + ITERATIONS + " iterations");
+   }
+
+   /**
+    * Runs the specified number of iterations of the steady-state loop.
+    */
+   private static void loop(Matrix a, Matrix b, Matrix product, Matrix transpose, double[] row, double[] column,
+                            int iterations) {
+      for (int n = 0; n < iterations; n++) {
+         IMatrix.multiplyInto(a, b, product);
+         product.transposeInto(transpose);
+         a.getRow(n % SIZE, row);
+         a.getColumn(n % SIZE, column);
+      }
+   }
+
+   /**
+    * Returns a new square matrix of random values.
+    */
+   private static Matrix random(Random random) {
+      Matrix m = new Matrix(SIZE, SIZE);
+      for (int i = 0; i < SIZE; i++) {
+         for (int j = 0; j < SIZE; j++) {
+            m.set(i, j, random.nextDouble());
+         }
+      }
+      return m;
+   }
+}